@@ -0,0 +1,218 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.callsite;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build step which weaves the source location of every {@code IgniteLogger} statement into the bytecode. <br>
+ * Every {@code invokeinterface} of an {@code IgniteLogger} logging method is replaced with an
+ * {@code invokedynamic} of the same name and stack effect, bootstrapped by {@code IgniteCallsite.bootstrap}
+ * with the class, method, source file and line of the statement. The instruction has the same length, so
+ * neither offsets nor stack map frames change. At runtime the woven classes only need utils. <br>
+ * Weaving is idempotent, classes without {@code IgniteLogger} calls and classes older than Java 7 are left
+ * untouched. Run it on the compiled classes, e.g. in the {@code process-classes} phase:
+ * <pre>
+ * java -cp utils-callsite-weaver.jar:asm.jar org.eclipse.ecsp.utils.callsite.CallsiteWeaver target/classes
+ * </pre>
+ */
+public final class CallsiteWeaver {
+
+    static final String LOGGER = "org/eclipse/ecsp/utils/logger/IgniteLogger";
+    static final String CALLSITE = "org/eclipse/ecsp/utils/logger/IgniteCallsite";
+    static final String BOOTSTRAP = "bootstrap";
+    static final String BOOTSTRAP_DESCRIPTOR = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;"
+            + "Ljava/lang/invoke/MethodType;Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;I)"
+            + "Ljava/lang/invoke/CallSite;";
+
+    private static final Set<String> LOGGING_METHODS = Set.of("trace", "debug", "info", "warn", "error");
+    private static final Handle BOOTSTRAP_HANDLE = new Handle(Opcodes.H_INVOKESTATIC, CALLSITE, BOOTSTRAP,
+            BOOTSTRAP_DESCRIPTOR, false);
+    private static final String CLASS_SUFFIX = ".class";
+    private static final int UNKNOWN_LINE = -1;
+
+    /**
+     * Offset of the major version in the class file, after the magic number and the minor version.
+     */
+    private static final int CLASS_VERSION_OFFSET = 6;
+
+    private CallsiteWeaver() {
+    }
+
+    /**
+     * Weaves the classes in the given directories.
+     *
+     * @param args the class directories
+     * @throws IOException if a class cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CallsiteWeaver <class directory>...");
+            System.exit(1);
+        }
+        for (String directory : args) {
+            int woven = weaveDirectory(Paths.get(directory));
+            System.out.println("Woven IgniteLogger callsites in " + woven + " classes of " + directory);
+        }
+    }
+
+    /**
+     * Weaves all classes below the given directory in place.
+     *
+     * @param directory the class directory
+     * @return the number of classes which were changed
+     * @throws IOException if a class cannot be read or written
+     */
+    public static int weaveDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> classFiles;
+        try (Stream<Path> files = Files.walk(directory)) {
+            classFiles = files.filter(file -> file.toString().endsWith(CLASS_SUFFIX)).collect(Collectors.toList());
+        }
+        int woven = 0;
+        for (Path classFile : classFiles) {
+            byte[] original = Files.readAllBytes(classFile);
+            byte[] transformed = weave(original);
+            if (transformed != original) {
+                Files.write(classFile, transformed);
+                woven++;
+            }
+        }
+        return woven;
+    }
+
+    /**
+     * Weaves a single class.
+     *
+     * @param classFile the class file content
+     * @return the woven class file, or the given array if the class has no {@code IgniteLogger} calls
+     */
+    public static byte[] weave(byte[] classFile) {
+        ClassReader reader = new ClassReader(classFile);
+        if (reader.readUnsignedShort(CLASS_VERSION_OFFSET) < Opcodes.V1_7) {
+            return classFile;
+        }
+        ClassWriter writer = new ClassWriter(reader, 0);
+        CallsiteClassVisitor visitor = new CallsiteClassVisitor(writer);
+        reader.accept(visitor, 0);
+        return visitor.woven ? writer.toByteArray() : classFile;
+    }
+
+    /**
+     * Rewrites the logging calls of every method of a class.
+     */
+    private static final class CallsiteClassVisitor extends ClassVisitor {
+        private String className;
+        private String sourceFile = "";
+        private boolean woven;
+
+        private CallsiteClassVisitor(ClassVisitor next) {
+            super(Opcodes.ASM9, next);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                String[] interfaces) {
+            className = name.replace('/', '.');
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            sourceFile = source == null ? "" : source;
+            super.visitSource(source, debug);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                String[] exceptions) {
+            return new CallsiteMethodVisitor(this, name,
+                    super.visitMethod(access, name, descriptor, signature, exceptions));
+        }
+    }
+
+    /**
+     * Replaces the logging calls of a method, tracking the line each instruction belongs to.
+     */
+    private static final class CallsiteMethodVisitor extends MethodVisitor {
+        private final CallsiteClassVisitor owner;
+        private final String methodName;
+        private int line = UNKNOWN_LINE;
+
+        private CallsiteMethodVisitor(CallsiteClassVisitor owner, String methodName, MethodVisitor next) {
+            super(Opcodes.ASM9, next);
+            this.owner = owner;
+            this.methodName = methodName;
+        }
+
+        @Override
+        public void visitLineNumber(int lineNumber, Label start) {
+            line = lineNumber;
+            super.visitLineNumber(lineNumber, start);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String methodOwner, String name, String descriptor,
+                boolean isInterface) {
+            if (opcode == Opcodes.INVOKEINTERFACE && LOGGER.equals(methodOwner) && LOGGING_METHODS.contains(name)
+                    && descriptor.endsWith(")V")) {
+                owner.woven = true;
+                super.visitInvokeDynamicInsn(name, "(L" + LOGGER + ";" + descriptor.substring(1), BOOTSTRAP_HANDLE,
+                        owner.className, methodName, owner.sourceFile, line);
+            } else {
+                super.visitMethodInsn(opcode, methodOwner, name, descriptor, isInterface);
+            }
+        }
+    }
+}
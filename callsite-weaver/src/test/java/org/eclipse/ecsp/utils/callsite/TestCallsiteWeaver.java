@@ -0,0 +1,184 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.callsite;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for CallsiteWeaver. The test compiles a sample class against stubs of {@code IgniteLogger} and
+ * {@code IgniteCallsite}, weaves it and runs it.
+ *
+ * @see CallsiteWeaver
+ */
+public class TestCallsiteWeaver {
+
+    private static final String LOGGER_STUB = String.join("\n",
+            "package org.eclipse.ecsp.utils.logger;",
+            "public interface IgniteLogger {",
+            "    boolean isInfoEnabled();",
+            "    void info(String msg);",
+            "    void warn(String format, Object... arguments);",
+            "}");
+
+    private static final String CALLSITE_STUB = String.join("\n",
+            "package org.eclipse.ecsp.utils.logger;",
+            "import java.lang.invoke.*;",
+            "public final class IgniteCallsite {",
+            "    public static final java.util.List<String> BOOTSTRAPPED = new java.util.ArrayList<>();",
+            "    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type,",
+            "            String className, String methodName, String fileName, int lineNumber) throws Exception {",
+            "        BOOTSTRAPPED.add(name + ' ' + className + '.' + methodName + '(' + fileName + ':' + lineNumber"
+                    + " + ')');",
+            "        return new ConstantCallSite(MethodHandles.publicLookup().findVirtual(IgniteLogger.class, name,",
+            "                type.dropParameterTypes(0, 1)));",
+            "    }",
+            "}");
+
+    private static final String SAMPLE = String.join("\n",
+            "package com.example;",
+            "import org.eclipse.ecsp.utils.logger.IgniteLogger;",
+            "public class Sample {",
+            "    public static void run(IgniteLogger logger) {",
+            "        if (logger.isInfoEnabled()) {",
+            "            logger.info(\"first\");",
+            "        }",
+            "        logger.warn(\"second {} {}\", 1, 2);",
+            "    }",
+            "}");
+
+    private static final String PLAIN = String.join("\n",
+            "package com.example;",
+            "public class Plain {",
+            "    public static int twice(int value) {",
+            "        return value * 2;",
+            "    }",
+            "}");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path classes;
+
+    /**
+     * Compiles the stubs and the sample classes.
+     *
+     * @throws IOException if the sources cannot be written
+     */
+    @Before
+    public void setup() throws IOException {
+        Path sources = folder.newFolder("sources").toPath();
+        classes = folder.newFolder("classes").toPath();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-d", classes.toString()));
+        arguments.add(write(sources, "IgniteLogger.java", LOGGER_STUB));
+        arguments.add(write(sources, "IgniteCallsite.java", CALLSITE_STUB));
+        arguments.add(write(sources, "Sample.java", SAMPLE));
+        arguments.add(write(sources, "Plain.java", PLAIN));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        assertEquals(errors.toString(StandardCharsets.UTF_8), 0,
+                compiler.run(null, null, errors, arguments.toArray(new String[0])));
+    }
+
+    @Test
+    public void testLoggingCallsAreWovenWithTheirLocation() throws Exception {
+        assertEquals(1, CallsiteWeaver.weaveDirectory(classes));
+
+        List<String> calls = new ArrayList<>();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+            Class<?> loggerType = loader.loadClass("org.eclipse.ecsp.utils.logger.IgniteLogger");
+            Object logger = Proxy.newProxyInstance(loader, new Class<?>[] {loggerType}, (proxy, method, args) -> {
+                calls.add(method.getName() + (args == null ? "" : Arrays.deepToString(args)));
+                return "isInfoEnabled".equals(method.getName()) ? Boolean.TRUE : null;
+            });
+            loader.loadClass("com.example.Sample").getMethod("run", loggerType).invoke(null, logger);
+
+            assertEquals(Arrays.asList("isInfoEnabled", "info[first]", "warn[second {} {}, [1, 2]]"), calls);
+            assertEquals(Arrays.asList("info com.example.Sample.run(Sample.java:6)",
+                    "warn com.example.Sample.run(Sample.java:8)"),
+                    loader.loadClass("org.eclipse.ecsp.utils.logger.IgniteCallsite").getField("BOOTSTRAPPED")
+                            .get(null));
+        }
+    }
+
+    @Test
+    public void testWeavingIsIdempotent() throws IOException {
+        assertEquals(1, CallsiteWeaver.weaveDirectory(classes));
+        byte[] woven = Files.readAllBytes(classes.resolve("com/example/Sample.class"));
+
+        assertEquals(0, CallsiteWeaver.weaveDirectory(classes));
+        assertArrayEquals(woven, Files.readAllBytes(classes.resolve("com/example/Sample.class")));
+    }
+
+    @Test
+    public void testClassesWithoutLoggingCallsAreUntouched() throws IOException {
+        byte[] plain = Files.readAllBytes(classes.resolve("com/example/Plain.class"));
+
+        CallsiteWeaver.weaveDirectory(classes);
+        assertArrayEquals(plain, Files.readAllBytes(classes.resolve("com/example/Plain.class")));
+    }
+
+    @Test
+    public void testMissingDirectoryIsIgnored() throws IOException {
+        assertEquals(0, CallsiteWeaver.weaveDirectory(classes.resolve("missing")));
+    }
+
+    private static String write(Path directory, String name, String source) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+}
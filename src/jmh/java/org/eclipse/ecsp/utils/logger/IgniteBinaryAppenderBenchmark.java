@@ -0,0 +1,184 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing an {@code IgniteEvent} scoped event with {@link BinaryLogWriter}, against rendering the same
+ * event as text with {@link IgniteBinaryLogDecoder#DEFAULT_PATTERN} and as JSON with {@link IgniteJsonEncoder}.
+ * The average number of bytes each format writes per event is printed when the benchmark starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteBinaryAppenderBenchmark {
+
+    private static final String FORMAT = "Processed speed {} for vehicle {} in {} ms";
+    private static final int SPEED = 88;
+    private static final long ELAPSED = 12L;
+    private static final int SIZE_SAMPLES = 10_000;
+
+    @Param({"false", "true"})
+    private boolean throwable;
+
+    private Logger logger;
+    private Encoder<ILoggingEvent> textEncoder;
+    private Encoder<ILoggingEvent> jsonEncoder;
+    private BinaryLogWriter binaryWriter;
+    private String prefixedFormat;
+    private String deferredFormat;
+    private IgniteEventHeader header;
+    private Throwable failure;
+
+    /**
+     * Creates the encoders and the writer and prints the bytes written per event.
+     *
+     * @throws IOException never, the writer discards its output
+     */
+    @Setup
+    public void setup() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = context.getLogger(IgniteBinaryAppenderBenchmark.class);
+        textEncoder = IgniteBinaryLogDecoder.patternEncoder(context, IgniteBinaryLogDecoder.DEFAULT_PATTERN);
+        jsonEncoder = IgniteBinaryLogDecoder.jsonEncoder(context);
+        binaryWriter = new BinaryLogWriter(OutputStream.nullOutputStream(), System.currentTimeMillis(),
+                BinaryLogWriter.MAX_DICTIONARY_SIZE);
+
+        IgniteEventImpl event = new IgniteEventImpl();
+        event.setEventId("Speed");
+        event.setRequestId("request-1");
+        event.setVehicleId("VIN-1");
+        event.setMessageId("message-1");
+        event.setTimestamp(System.currentTimeMillis());
+        prefixedFormat = IgniteEventHeaderRenderer.render(event, FORMAT);
+        deferredFormat = IgniteEventHeaderRenderer.deferredFormat(FORMAT);
+        header = new IgniteEventHeader(event);
+        failure = throwable ? new IllegalStateException("Speed out of range") : null;
+        printSizes();
+    }
+
+    private void printSizes() throws IOException {
+        long text = 0;
+        long json = 0;
+        long binaryStart = binaryWriter.written();
+        for (int i = 0; i < SIZE_SAMPLES; i++) {
+            text += textEncoder.encode(prefixedEvent()).length;
+            json += jsonEncoder.encode(deferredEvent()).length;
+            binaryWriter.write(deferredEvent());
+        }
+        System.out.printf("Bytes per event: text %d, json %d, binary %d%n", text / SIZE_SAMPLES,
+                json / SIZE_SAMPLES, (binaryWriter.written() - binaryStart) / SIZE_SAMPLES);
+    }
+
+    /**
+     * Stops the encoders.
+     */
+    @TearDown
+    public void tearDown() {
+        textEncoder.stop();
+        jsonEncoder.stop();
+    }
+
+    /**
+     * Text, header rendered into the message.
+     *
+     * @return the encoded event
+     */
+    @Benchmark
+    public byte[] text() {
+        return textEncoder.encode(prefixedEvent());
+    }
+
+    /**
+     * JSON, header fields written as native fields.
+     *
+     * @return the encoded event
+     */
+    @Benchmark
+    public byte[] json() {
+        return jsonEncoder.encode(deferredEvent());
+    }
+
+    /**
+     * Binary, the message is not formatted.
+     *
+     * @return the segment size
+     * @throws IOException never, the writer discards its output
+     */
+    @Benchmark
+    public long binary() throws IOException {
+        binaryWriter.write(deferredEvent());
+        return binaryWriter.written();
+    }
+
+    private LoggingEvent prefixedEvent() {
+        return new LoggingEvent(Logger.FQCN, logger, Level.INFO, prefixedFormat, failure,
+                new Object[] { SPEED, "VIN-1", ELAPSED });
+    }
+
+    private LoggingEvent deferredEvent() {
+        return new LoggingEvent(Logger.FQCN, logger, Level.INFO, deferredFormat, failure,
+                new Object[] { header, SPEED, "VIN-1", ELAPSED });
+    }
+}
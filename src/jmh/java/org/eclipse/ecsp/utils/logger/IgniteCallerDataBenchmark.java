@@ -0,0 +1,147 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures an info statement rendered with {@code %caller}, with the caller data extracted by logback from a
+ * {@link Throwable}, by {@link IgniteCallerData} with a stack walker and from a woven {@link IgniteCallsite}.
+ * The statement is logged below {@code stackDepth} application frames, as in a request handled by a framework.
+ * The woven statement is invoked through the call site's dynamic invoker.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteCallerDataBenchmark {
+
+    /**
+     * How the caller data is extracted.
+     */
+    public enum Extraction {
+        THROWABLE, WALKER, CALLSITE
+    }
+
+    @Param({"THROWABLE", "WALKER", "CALLSITE"})
+    private Extraction extraction;
+
+    @Param({"20", "150"})
+    private int stackDepth;
+
+    private IgniteLogger igniteLogger;
+    private MethodHandle wovenInfo;
+
+    /**
+     * Points the benchmark logger at an appender which renders the caller data.
+     *
+     * @throws ReflectiveOperationException if the call site cannot be bootstrapped
+     */
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteCallerDataBenchmark.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        IgniteCallerDataConverter converter = new IgniteCallerDataConverter();
+        converter.setContext(context);
+        converter.start();
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent loggingEvent) {
+                if (extraction == Extraction.THROWABLE) {
+                    loggingEvent.getCallerData();
+                }
+                converter.convert(loggingEvent);
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logbackLogger.addAppender(appender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteCallerDataBenchmark.class);
+        wovenInfo = IgniteCallsite.bootstrap(MethodHandles.lookup(), "info",
+                MethodType.methodType(void.class, IgniteLogger.class, String.class, Object[].class),
+                IgniteCallerDataBenchmark.class.getName(), "logAt", "IgniteCallerDataBenchmark.java", 1)
+                .dynamicInvoker();
+    }
+
+    /**
+     * Info statement logged below the configured number of frames.
+     *
+     * @return the remaining depth, to keep the recursion from being optimized away
+     * @throws Throwable if the woven statement fails
+     */
+    @Benchmark
+    public int info() throws Throwable {
+        return logAt(stackDepth);
+    }
+
+    private int logAt(int depth) throws Throwable {
+        if (depth > 0) {
+            return logAt(depth - 1) + 1;
+        }
+        if (extraction == Extraction.CALLSITE) {
+            wovenInfo.invokeExact(igniteLogger, "Speed is {}", new Object[] {depth});
+        } else {
+            igniteLogger.info("Speed is {}", depth);
+        }
+        return 0;
+    }
+}
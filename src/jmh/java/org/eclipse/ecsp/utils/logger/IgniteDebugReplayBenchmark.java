@@ -0,0 +1,140 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a debug statement below the logger level captured by the {@link IgniteDebugReplayBuffer}, against an info
+ * statement logged to an appender which formats the message and discards it. Every request logs
+ * {@value #STATEMENTS_PER_REQUEST} statements and is then completed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteDebugReplayBenchmark {
+
+    private static final int STATEMENTS_PER_REQUEST = 16;
+    private static final int REQUESTS = 1024;
+    private static final int LINES = 32;
+
+    private IgniteLogger igniteLogger;
+    private IgniteEventImpl[] events;
+    private int next;
+
+    /**
+     * Points the benchmark logger at an appender which discards the events and enables the buffer.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteDebugReplayBenchmark.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent loggingEvent) {
+                loggingEvent.getFormattedMessage();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logbackLogger.addAppender(appender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteDebugReplayBenchmark.class);
+        IgniteLoggerFactory.setDebugReplay(LINES, IgniteDebugReplayBuffer.DEFAULT_TTL_MILLIS);
+        events = new IgniteEventImpl[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            events[i] = new IgniteEventImpl();
+            events[i].setEventId("Speed");
+            events[i].setRequestId("request-" + i);
+            events[i].setVehicleId("VIN" + i);
+        }
+    }
+
+    /**
+     * Disables the buffer.
+     */
+    @TearDown
+    public void tearDown() {
+        IgniteLoggerFactory.setDebugReplay(0, IgniteDebugReplayBuffer.DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Debug statement captured by the buffer.
+     */
+    @Benchmark
+    public void recordedDebug() {
+        int statement = next++;
+        IgniteEventImpl event = events[(statement / STATEMENTS_PER_REQUEST) & (REQUESTS - 1)];
+        igniteLogger.debug(event, "Processed speed {}", statement);
+        if (statement % STATEMENTS_PER_REQUEST == STATEMENTS_PER_REQUEST - 1) {
+            IgniteLoggerFactory.completeRequest(event.getRequestId());
+        }
+    }
+
+    /**
+     * Info statement logged.
+     */
+    @Benchmark
+    public void loggedInfo() {
+        int statement = next++;
+        igniteLogger.info(events[(statement / STATEMENTS_PER_REQUEST) & (REQUESTS - 1)], "Processed speed {}",
+                statement);
+    }
+}
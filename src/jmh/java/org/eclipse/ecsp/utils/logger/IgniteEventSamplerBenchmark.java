@@ -0,0 +1,127 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures an IgniteEvent scoped info statement logged for a rotating set of vehicles, of which the logger
+ * samples {@code samplingRate}, to an appender which formats the message and discards it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteEventSamplerBenchmark {
+
+    private static final int VEHICLES = 1024;
+
+    @Param({"1", "0.1"})
+    private double samplingRate;
+
+    private IgniteLogger igniteLogger;
+    private IgniteEventImpl[] events;
+    private int next;
+
+    /**
+     * Points the benchmark logger at an appender which discards the events and creates the vehicles' events.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteEventSamplerBenchmark.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent loggingEvent) {
+                loggingEvent.getFormattedMessage();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logbackLogger.addAppender(appender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteEventSamplerBenchmark.class);
+        IgniteLoggerFactory.setSamplingRate(IgniteEventSamplerBenchmark.class, samplingRate);
+        events = new IgniteEventImpl[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) {
+            events[i] = new IgniteEventImpl();
+            events[i].setEventId("Speed");
+            events[i].setRequestId("request-" + i);
+            events[i].setVehicleId("VIN" + (VEHICLES + i));
+        }
+    }
+
+    /**
+     * Restores the sampling rate.
+     */
+    @TearDown
+    public void tearDown() {
+        IgniteLoggerFactory.setSamplingRate(IgniteEventSamplerBenchmark.class, 1);
+    }
+
+    /**
+     * Info statement of the next vehicle.
+     */
+    @Benchmark
+    public void info() {
+        IgniteEventImpl event = events[next++ & (VEHICLES - 1)];
+        igniteLogger.info(event, "Processed speed {}", next);
+    }
+}
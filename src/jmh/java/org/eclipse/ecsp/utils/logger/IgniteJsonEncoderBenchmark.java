@@ -0,0 +1,171 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding an {@code IgniteEvent} scoped event with {@link IgniteJsonEncoder}, against a
+ * {@link PatternLayoutEncoder} printing the same fields with the header rendered into the message, and against
+ * logback's {@link JsonEncoder} given the same event. The pattern layout and {@link IgniteJsonEncoder} render stack
+ * traces with {@link IgniteThrowableProxyConverter}. Every operation encodes a fresh
+ * event, so the message is formatted every time. Run with {@code -prof gc} for the bytes allocated per event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteJsonEncoderBenchmark {
+
+    private static final String FORMAT = "Processed speed {} for vehicle {} in {} ms";
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger - %msg%n%igniteEx";
+    private static final int SPEED = 88;
+    private static final long ELAPSED = 12L;
+
+    @Param({"false", "true"})
+    private boolean throwable;
+
+    private Logger logger;
+    private PatternLayoutEncoder patternEncoder;
+    private IgniteJsonEncoder jsonEncoder;
+    private JsonEncoder logbackJsonEncoder;
+    private String prefixedFormat;
+    private String deferredFormat;
+    private IgniteEventHeader header;
+    private Throwable failure;
+
+    /**
+     * Starts both encoders and prepares the event header in both renderings.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = context.getLogger(IgniteJsonEncoderBenchmark.class);
+        patternEncoder = new PatternLayoutEncoder();
+        patternEncoder.setContext(context);
+        patternEncoder.setPattern(PATTERN);
+        patternEncoder.start();
+        patternEncoder.getLayout().stop();
+        ((PatternLayout) patternEncoder.getLayout()).getInstanceConverterMap()
+                .put("igniteEx", IgniteThrowableProxyConverter.class.getName());
+        patternEncoder.getLayout().start();
+        jsonEncoder = new IgniteJsonEncoder();
+        jsonEncoder.setContext(context);
+        jsonEncoder.start();
+        logbackJsonEncoder = new JsonEncoder();
+        logbackJsonEncoder.setContext(context);
+        logbackJsonEncoder.start();
+
+        IgniteEventImpl event = new IgniteEventImpl();
+        event.setEventId("Speed");
+        event.setRequestId("request-1");
+        event.setVehicleId("VIN-1");
+        event.setMessageId("message-1");
+        event.setTimestamp(System.currentTimeMillis());
+        prefixedFormat = IgniteEventHeaderRenderer.render(event, FORMAT);
+        deferredFormat = IgniteEventHeaderRenderer.deferredFormat(FORMAT);
+        header = new IgniteEventHeader(event);
+        failure = throwable ? new IllegalStateException("Speed out of range") : null;
+    }
+
+    /**
+     * Stops both encoders.
+     */
+    @TearDown
+    public void tearDown() {
+        patternEncoder.stop();
+        jsonEncoder.stop();
+        logbackJsonEncoder.stop();
+    }
+
+    /**
+     * Pattern layout, header rendered into the message.
+     *
+     * @return the encoded event
+     */
+    @Benchmark
+    public byte[] patternLayout() {
+        return patternEncoder.encode(new LoggingEvent(Logger.FQCN, logger, Level.INFO, prefixedFormat, failure,
+                new Object[] { SPEED, "VIN-1", ELAPSED }));
+    }
+
+    /**
+     * JSON encoder, header fields written as native fields.
+     *
+     * @return the encoded event
+     */
+    @Benchmark
+    public byte[] json() {
+        return jsonEncoder.encode(new LoggingEvent(Logger.FQCN, logger, Level.INFO, deferredFormat, failure,
+                new Object[] { header, SPEED, "VIN-1", ELAPSED }));
+    }
+
+    /**
+     * logback's JSON encoder, header rendered into the message.
+     *
+     * @return the encoded event
+     */
+    @Benchmark
+    public byte[] logbackJson() {
+        return logbackJsonEncoder.encode(new LoggingEvent(Logger.FQCN, logger, Level.INFO, prefixedFormat, failure,
+                new Object[] { SPEED, "VIN-1", ELAPSED }));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the statements of a poll of {@value #POLL} events logged one by one, against the same statements logged
+ * with {@link IgniteLogger#logBatch}, through an {@link IgniteAsyncAppender} whose appender formats the message and
+ * discards it. Times are per statement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteLoggerBatchBenchmark {
+
+    private static final int POLL = 256;
+    private static final String FORMAT = "Processed speed {}";
+
+    private IgniteLogger igniteLogger;
+    private IgniteAsyncAppender asyncAppender;
+    private List<IgniteEventImpl> events;
+
+    /**
+     * Points the benchmark logger at an async appender in front of an appender which discards the events.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteLoggerBatchBenchmark.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent loggingEvent) {
+                loggingEvent.getFormattedMessage();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        asyncAppender = new IgniteAsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName("ASYNC-BENCHMARK");
+        asyncAppender.setNeverBlock(false);
+        asyncAppender.setMetricsEnabled(false);
+        asyncAppender.addAppender(appender);
+        asyncAppender.start();
+        logbackLogger.addAppender(asyncAppender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteLoggerBatchBenchmark.class);
+        events = new ArrayList<>(POLL);
+        for (int i = 0; i < POLL; i++) {
+            IgniteEventImpl event = new IgniteEventImpl();
+            event.setEventId("Speed");
+            event.setRequestId("request-" + i);
+            event.setVehicleId("VIN" + i);
+            events.add(event);
+        }
+    }
+
+    /**
+     * Stops the async appender.
+     */
+    @TearDown
+    public void tearDown() {
+        asyncAppender.stop();
+    }
+
+    /**
+     * One statement per event.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public void singleStatements() {
+        for (IgniteEventImpl event : events) {
+            igniteLogger.info(event, FORMAT, event.getVehicleId());
+        }
+    }
+
+    /**
+     * One batch for the poll.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public void batch() {
+        igniteLogger.logBatch(org.slf4j.event.Level.INFO, events, FORMAT,
+                event -> new Object[] {event.getVehicleId()});
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the logging thread cost of an event scoped info statement in {@link IgniteEventHeaderMode#PREFIX}
+ * and {@link IgniteEventHeaderMode#DEFERRED} mode. The appender hands the event off without formatting it,
+ * like {@link IgniteAsyncAppender} does with {@code deferredFormatting}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteLoggerDeferredBenchmark {
+
+    private static final int SPEED = 88;
+
+    @Param({"PREFIX", "DEFERRED"})
+    private IgniteEventHeaderMode mode;
+
+    private IgniteLogger igniteLogger;
+    private IgniteEventImpl event;
+
+    /**
+     * Points the benchmark logger at a hand-off only appender and selects the header mode.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteLoggerDeferredBenchmark.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent loggingEvent) {
+                loggingEvent.getThreadName();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logbackLogger.addAppender(appender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteLoggerDeferredBenchmark.class);
+        IgniteLoggerFactory.setEventHeaderMode(mode);
+
+        event = new IgniteEventImpl();
+        event.setTimestamp(System.currentTimeMillis());
+        event.setRequestId("request-1");
+        event.setMessageId("message-1");
+        event.setBizTransactionId("biz-1");
+        event.setVehicleId("vehicle-1");
+        event.setEventId("Speed");
+        event.setSchemaVersion(Version.V1_0);
+        event.setSourceDeviceId("device-1");
+    }
+
+    /**
+     * Restores the default header mode.
+     */
+    @TearDown
+    public void tearDown() {
+        IgniteLoggerFactory.setEventHeaderMode(null);
+    }
+
+    /**
+     * Event scoped info statement with two arguments.
+     */
+    @Benchmark
+    public void eventInfo() {
+        igniteLogger.info(event, "Speed is {} on lane {}", SPEED, "lane-1");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures event scoped statements below the configured threshold (ERROR), which should cost
+ * no more than the plain SLF4J level check. Run with {@code -prof gc} to confirm they do not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteLoggerDisabledBenchmark {
+
+    private IgniteLogger igniteLogger;
+    private org.slf4j.Logger slf4jLogger;
+    private IgniteEventImpl event;
+    private String speed;
+
+    /**
+     * Raises the threshold of the benchmark logger to ERROR.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteLoggerDisabledBenchmark.class);
+        logbackLogger.setLevel(Level.ERROR);
+        logbackLogger.setAdditive(false);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteLoggerDisabledBenchmark.class);
+        slf4jLogger = LoggerFactory.getLogger(IgniteLoggerDisabledBenchmark.class);
+        event = new IgniteEventImpl();
+        event.setTimestamp(System.currentTimeMillis());
+        event.setRequestId("request-1");
+        event.setVehicleId("vehicle-1");
+        event.setEventId("Speed");
+        event.setSchemaVersion(Version.V1_0);
+        speed = "high";
+    }
+
+    /**
+     * Plain SLF4J warn statement, the baseline for a disabled call.
+     */
+    @Benchmark
+    public void slf4jWarn() {
+        slf4jLogger.warn("Speed is {}", speed);
+    }
+
+    /**
+     * Event scoped warn statement.
+     */
+    @Benchmark
+    public void eventWarn() {
+        igniteLogger.warn(event, "Speed is {}", speed);
+    }
+
+    /**
+     * Event scoped warn statement with a throwable.
+     */
+    @Benchmark
+    public void eventWarnWithThrowable() {
+        igniteLogger.warn(event, "Speed is high", (Throwable) null);
+    }
+
+    /**
+     * Event scoped info statement.
+     */
+    @Benchmark
+    public void eventInfo() {
+        igniteLogger.info(event, "Speed is {}", speed);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link IgniteLoggerFactory#getLogger(Class)} for {@value #CLASSES} classes: the first lookup of
+ * each class, as done at application startup, and repeated lookups of classes that already have a logger.
+ * Every startup iteration defines {@value #CLASSES} new classes in a fresh class loader.
+ */
+@Fork(1)
+public class IgniteLoggerRegistryBenchmark {
+
+    private static final int CLASSES = 5_000;
+    /**
+     * Classes per generated package, Logback looks up child loggers linearly.
+     */
+    private static final int CLASSES_PER_PACKAGE = 50;
+
+    /**
+     * Classes that never asked for a logger.
+     */
+    @State(Scope.Benchmark)
+    public static class FreshClasses {
+
+        private int generation;
+        private Class<?>[] classes;
+
+        /**
+         * Defines a new batch of classes, named uniquely across iterations.
+         */
+        @Setup(Level.Iteration)
+        public void setup() {
+            classes = GeneratedClassLoader.defineClasses("startup" + generation++);
+        }
+    }
+
+    /**
+     * Classes whose loggers were resolved before measuring.
+     */
+    @State(Scope.Benchmark)
+    public static class KnownClasses {
+
+        private Class<?>[] classes;
+
+        /**
+         * Defines the classes and resolves their loggers once.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            classes = GeneratedClassLoader.defineClasses("known");
+            for (Class<?> clazz : classes) {
+                IgniteLoggerFactory.getLogger(clazz);
+            }
+        }
+    }
+
+    /**
+     * First lookup of every class.
+     *
+     * @param state the classes to look up
+     * @param blackhole sink for the loggers
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public void startup(FreshClasses state, Blackhole blackhole) {
+        for (Class<?> clazz : state.classes) {
+            blackhole.consume(IgniteLoggerFactory.getLogger(clazz));
+        }
+    }
+
+    /**
+     * Lookup of classes that already have a logger, reported per lookup.
+     *
+     * @param state the classes to look up
+     * @param blackhole sink for the loggers
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @OperationsPerInvocation(CLASSES)
+    public void repeatedLookup(KnownClasses state, Blackhole blackhole) {
+        for (Class<?> clazz : state.classes) {
+            blackhole.consume(IgniteLoggerFactory.getLogger(clazz));
+        }
+    }
+
+    /**
+     * Class loader defining empty classes, each with its own name and so its own logger.
+     */
+    static final class GeneratedClassLoader extends ClassLoader {
+
+        private static final int MAGIC = 0xCAFEBABE;
+        private static final int JAVA_8_MAJOR_VERSION = 52;
+        private static final int CONSTANT_POOL_COUNT = 5;
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int ACC_PUBLIC_SUPER = 0x0021;
+        private static final int THIS_CLASS_INDEX = 1;
+        private static final int THIS_NAME_INDEX = 2;
+        private static final int SUPER_CLASS_INDEX = 3;
+        private static final int SUPER_NAME_INDEX = 4;
+
+        private GeneratedClassLoader() {
+            super(IgniteLoggerRegistryBenchmark.class.getClassLoader());
+        }
+
+        static Class<?>[] defineClasses(String prefix) {
+            GeneratedClassLoader loader = new GeneratedClassLoader();
+            Class<?>[] classes = new Class<?>[CLASSES];
+            for (int i = 0; i < CLASSES; i++) {
+                String name = "org.eclipse.ecsp.utils.logger.generated." + prefix
+                        + ".p" + i / CLASSES_PER_PACKAGE + ".Logger" + i;
+                byte[] bytes = classFile(name.replace('.', '/'));
+                classes[i] = loader.defineClass(name, bytes, 0, bytes.length);
+            }
+            return classes;
+        }
+
+        private static byte[] classFile(String internalName) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeShort(0);
+                out.writeShort(JAVA_8_MAJOR_VERSION);
+                out.writeShort(CONSTANT_POOL_COUNT);
+                out.writeByte(CONSTANT_CLASS);
+                out.writeShort(THIS_NAME_INDEX);
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(internalName);
+                out.writeByte(CONSTANT_CLASS);
+                out.writeShort(SUPER_NAME_INDEX);
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF("java/lang/Object");
+                out.writeShort(ACC_PUBLIC_SUPER);
+                out.writeShort(THIS_CLASS_INDEX);
+                out.writeShort(SUPER_CLASS_INDEX);
+                // interfaces, fields, methods and attributes
+                out.writeShort(0);
+                out.writeShort(0);
+                out.writeShort(0);
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
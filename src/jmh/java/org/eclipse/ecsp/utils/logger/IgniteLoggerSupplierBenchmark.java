@@ -0,0 +1,119 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares eagerly computed varargs arguments with {@link java.util.function.Supplier} arguments
+ * for a debug statement, with debug level disabled (threshold INFO) and enabled (threshold DEBUG).
+ * The enabled case formats the message in the appender, like a real layout would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteLoggerSupplierBenchmark {
+
+    private static final int PAYLOAD_SIZE = 64;
+
+    @Param({"INFO", "DEBUG"})
+    private String threshold;
+
+    private IgniteLogger igniteLogger;
+    private int[] payload;
+
+    /**
+     * Points the benchmark logger at a formatting no-op appender with the requested threshold.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteLoggerSupplierBenchmark.class);
+        logbackLogger.setLevel(Level.toLevel(threshold));
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                event.getFormattedMessage();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logbackLogger.addAppender(appender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteLoggerSupplierBenchmark.class);
+        payload = new int[PAYLOAD_SIZE];
+        Arrays.setAll(payload, i -> i * i);
+    }
+
+    /**
+     * Debug statement whose argument is rendered by the caller before the level check.
+     */
+    @Benchmark
+    public void varargs() {
+        igniteLogger.debug("Payload {}", Arrays.toString(payload));
+    }
+
+    /**
+     * Debug statement whose argument is rendered only after the level check passed.
+     */
+    @Benchmark
+    public void supplier() {
+        igniteLogger.debug("Payload {}", () -> Arrays.toString(payload));
+    }
+}
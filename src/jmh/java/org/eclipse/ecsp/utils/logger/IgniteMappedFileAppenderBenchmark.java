@@ -0,0 +1,166 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures appending an event with {@link IgniteMappedFileAppender}, against logback's {@link FileAppender} with
+ * and without immediate flush. All appenders encode with the same pattern, and the mapped appender rolls and
+ * compresses its segments in the background while it is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteMappedFileAppenderBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger - %msg%n";
+    private static final int SPEED = 88;
+
+    @Param({"true", "false"})
+    private boolean compress;
+
+    private Path directory;
+    private FileAppender<ILoggingEvent> flushingAppender;
+    private FileAppender<ILoggingEvent> bufferedAppender;
+    private IgniteMappedFileAppender mappedAppender;
+    private LoggingEvent event;
+
+    /**
+     * Starts the appenders in a temporary directory.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        directory = Files.createTempDirectory("ignite-mapped-benchmark");
+        flushingAppender = fileAppender(context, "flushing.log", true);
+        bufferedAppender = fileAppender(context, "buffered.log", false);
+        mappedAppender = new IgniteMappedFileAppender();
+        mappedAppender.setContext(context);
+        mappedAppender.setName("mapped");
+        mappedAppender.setFile(directory.resolve("mapped.log").toString());
+        mappedAppender.setEncoder(IgniteBinaryLogDecoder.patternEncoder(context, PATTERN));
+        mappedAppender.setCompress(compress);
+        mappedAppender.start();
+        Logger logger = context.getLogger(IgniteMappedFileAppenderBenchmark.class);
+        event = new LoggingEvent(Logger.FQCN, logger, Level.INFO, "Processed speed {} for vehicle {}", null,
+                new Object[] { SPEED, "VIN-1" });
+        event.getFormattedMessage();
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(LoggerContext context, String file, boolean immediateFlush) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setName(file);
+        appender.setFile(directory.resolve(file).toString());
+        appender.setEncoder(IgniteBinaryLogDecoder.patternEncoder(context, PATTERN));
+        appender.setImmediateFlush(immediateFlush);
+        appender.start();
+        return appender;
+    }
+
+    /**
+     * Stops the appenders and deletes their files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        flushingAppender.stop();
+        bufferedAppender.stop();
+        mappedAppender.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * logback's file appender flushing every event, its default.
+     */
+    @Benchmark
+    public void fileFlushing() {
+        flushingAppender.doAppend(event);
+    }
+
+    /**
+     * logback's file appender writing in blocks.
+     */
+    @Benchmark
+    public void fileBuffered() {
+        bufferedAppender.doAppend(event);
+    }
+
+    /**
+     * The mapped file appender.
+     */
+    @Benchmark
+    public void mapped() {
+        mappedAppender.doAppend(event);
+    }
+}
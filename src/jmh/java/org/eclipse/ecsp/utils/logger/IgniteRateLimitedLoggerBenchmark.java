@@ -0,0 +1,121 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a warn statement suppressed by a rate limit, as during a burst of identical failures, against the same
+ * statement logged to an appender which discards it. Run with {@code -prof gc} to check that suppressing a
+ * statement does not allocate, apart from the varargs array built by the caller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteRateLimitedLoggerBenchmark {
+
+    private static final double PERMITS_PER_SECOND = 1;
+
+    private IgniteLogger igniteLogger;
+    private String vehicleId = "VIN12345678901234";
+
+    /**
+     * Points the benchmark logger at an appender which discards the events.
+     */
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(IgniteRateLimitedLoggerBenchmark.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent loggingEvent) {
+                loggingEvent.getFormattedMessage();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logbackLogger.addAppender(appender);
+        igniteLogger = IgniteLoggerFactory.getLogger(IgniteRateLimitedLoggerBenchmark.class);
+    }
+
+    /**
+     * Statement logged every time.
+     */
+    @Benchmark
+    public void logged() {
+        igniteLogger.warn("Failed to reach the device registry for vehicle {}", vehicleId);
+    }
+
+    /**
+     * Statement suppressed by its rate limit, apart from one per second.
+     */
+    @Benchmark
+    public void suppressed() {
+        igniteLogger.limited("registry-unavailable", PERMITS_PER_SECOND)
+                .warn("Failed to reach the device registry for vehicle {}", vehicleId);
+    }
+
+    /**
+     * Statement without arguments suppressed by its rate limit, so that no varargs array is allocated by the caller.
+     */
+    @Benchmark
+    public void suppressedWithoutArguments() {
+        igniteLogger.limited("registry-unavailable", PERMITS_PER_SECOND).warn("Failed to reach the device registry");
+    }
+}
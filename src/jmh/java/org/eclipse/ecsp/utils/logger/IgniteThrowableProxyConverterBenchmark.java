@@ -0,0 +1,147 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering a recurring stream processing failure of about 150 frames with three causes,
+ * with and without the rendered frame block cache of {@link IgniteThrowableProxyConverter}.
+ * Every operation renders a fresh event, as repeated failures do in production, so logback's per frame
+ * string cache does not hide the rendering cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgniteThrowableProxyConverterBenchmark {
+
+    private static final int EVENTS = 16;
+
+    @Param({"0", "256"})
+    private String cacheSize;
+
+    /**
+     * Framework packages a service typically hides from its stack traces.
+     */
+    private static final List<String> FRAMEWORK_PACKAGES = Arrays.asList("org.springframework.aop",
+            "org.springframework.cglib", "org.springframework.beans", "org.springframework.context",
+            "org.springframework.core", "org.springframework.transaction", "org.springframework.web",
+            "org.springframework.kafka", "org.springframework.retry", "org.springframework.boot",
+            "org.apache.catalina", "org.apache.coyote", "org.apache.tomcat", "org.apache.kafka.clients",
+            "org.apache.kafka.common", "org.apache.kafka.streams.processor.internals.ProcessorNode",
+            "io.micrometer", "io.netty", "reactor.core", "com.fasterxml.jackson", "org.hibernate",
+            "jdk.internal.reflect", "java.lang.reflect", "java.util.concurrent", "sun.reflect",
+            "jakarta.servlet", "org.mongodb", "com.mongodb", "dev.morphia", "io.prometheus");
+
+    @Param({"full", "ignored", "framework"})
+    private String options;
+
+    private IgniteThrowableProxyConverter converter;
+    private Logger logger;
+    private Throwable[] throwables;
+    private int next;
+
+    /**
+     * Starts the converter with the selected cache size and creates the events.
+     */
+    @Setup
+    public void setup() {
+        System.setProperty(IgniteThrowableProxyConverter.CACHE_SIZE_PROPERTY, cacheSize);
+        LoggerContext context = new LoggerContext();
+        converter = new IgniteThrowableProxyConverter();
+        converter.setContext(context);
+        if ("ignored".equals(options)) {
+            converter.setOptionList(Arrays.asList("full", "org.springframework.aop", "jdk.internal.reflect",
+                    "java.lang.reflect", "org.apache.kafka.streams.processor.internals.ProcessorNode"));
+        } else if ("framework".equals(options)) {
+            List<String> optionList = new ArrayList<>();
+            optionList.add("full");
+            optionList.addAll(FRAMEWORK_PACKAGES);
+            converter.setOptionList(optionList);
+        }
+        converter.start();
+        logger = context.getLogger(IgniteThrowableProxyConverterBenchmark.class);
+        throwables = new Throwable[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            throwables[i] = ThrowableFixtures.streamProcessingFailure("Invalid speed " + i);
+        }
+    }
+
+    /**
+     * Restores the default cache size.
+     */
+    @TearDown
+    public void tearDown() {
+        System.clearProperty(IgniteThrowableProxyConverter.CACHE_SIZE_PROPERTY);
+    }
+
+    /**
+     * Renders the throwable of a new event.
+     *
+     * @return the rendered stack trace
+     */
+    @Benchmark
+    public String render() {
+        Throwable throwable = throwables[next];
+        next = (next + 1) % EVENTS;
+        return converter.convert(new LoggingEvent(IgniteThrowableProxyConverterBenchmark.class.getName(),
+                logger, Level.ERROR, "failed", throwable, null));
+    }
+}
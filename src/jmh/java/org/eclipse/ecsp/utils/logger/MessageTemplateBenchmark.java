@@ -0,0 +1,116 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the placeholder count taken by {@link LoggerUtils#hasThrowableObject(String, Object[])} with the
+ * regular expression it used before and from the cached {@link MessageTemplate}, and the formatting of a message
+ * by SLF4J's {@link MessageFormatter} and by {@link IgniteMessageFormatter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageTemplateBenchmark {
+
+    private static final Pattern CURLY_BRACES = Pattern.compile("\\{\\}");
+
+    private final String format = "Processed record {} of stream {} for vehicle {} in {} ms";
+    private final Object[] args = { 42L, "telemetry", "VIN12345678901234", 3 };
+
+    /**
+     * Counts the placeholders with the regular expression.
+     *
+     * @return the placeholder count
+     */
+    @Benchmark
+    public int regexCount() {
+        Matcher m = CURLY_BRACES.matcher(format);
+        int count = 0;
+        while (m.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Takes the placeholder count from the cached template.
+     *
+     * @return the placeholder count
+     */
+    @Benchmark
+    public int templateCount() {
+        return MessageTemplate.of(format).delimiterCount();
+    }
+
+    /**
+     * Formats the message with SLF4J.
+     *
+     * @return the message
+     */
+    @Benchmark
+    public String slf4jFormat() {
+        return MessageFormatter.basicArrayFormat(format, args);
+    }
+
+    /**
+     * Formats the message from the cached template.
+     *
+     * @return the message
+     */
+    @Benchmark
+    public String templateFormat() {
+        return IgniteMessageFormatter.format(format, args);
+    }
+}
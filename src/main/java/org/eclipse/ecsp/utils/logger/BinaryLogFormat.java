@@ -0,0 +1,115 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Layout of the segments written by {@link IgniteBinaryAppender}. <br>
+ * A segment starts with the {@link #MAGIC} bytes, the {@link #FORMAT_VERSION} byte and the segment start time.
+ * It is followed by records, each starting with a tag byte. Integers are written as unsigned varints, signed
+ * values are zigzag encoded first, and strings as a varint length followed by their UTF-8 bytes. <br>
+ * Strings which recur, like message formats, logger and thread names, keys and stack frames, are interned in a
+ * per-segment dictionary. A string reference is {@link #NULL_REF}, {@link #DEFINE_REF} followed by a string which
+ * takes the next dictionary id, {@link #LITERAL_REF} followed by a string which is not interned, or the dictionary
+ * id plus {@link #FIRST_ID_REF}. Every string is therefore written once per segment, where it is first used, and a
+ * segment can be decoded on its own. <br>
+ * An {@link #EVENT} record holds the level code, the timestamp delta to the previous record, the logger, thread and
+ * format references, the typed arguments, the key-value pairs, the MDC and the throwable.
+ */
+final class BinaryLogFormat {
+
+    static final byte[] MAGIC = { 'I', 'L', 'O', 'G' };
+    static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Tag of a logging event record.
+     */
+    static final int EVENT = 1;
+
+    static final int NULL_REF = 0;
+    static final int DEFINE_REF = 1;
+    static final int LITERAL_REF = 2;
+    static final int FIRST_ID_REF = 3;
+
+    static final int NULL = 0;
+    static final int STRING = 1;
+    static final int INT = 2;
+    static final int LONG = 3;
+    static final int DOUBLE = 4;
+    static final int FLOAT = 5;
+    static final int FALSE = 6;
+    static final int TRUE = 7;
+    static final int HEADER = 8;
+
+    static final int NO_THROWABLE = 0;
+    static final int THROWABLE = 1;
+    static final int CYCLIC_THROWABLE = 2;
+
+    private static final Level[] LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR };
+
+    private BinaryLogFormat() {
+    }
+
+    /**
+     * Returns the code a level is written as.
+     *
+     * @param level the event level
+     * @return the level code
+     */
+    static int levelCode(Level level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i] == level) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unexpected event level " + level);
+    }
+
+    /**
+     * Returns the level written as the given code.
+     *
+     * @param code the level code
+     * @return the event level
+     */
+    static Level level(int code) {
+        if (code < 0 || code >= LEVELS.length) {
+            throw new IllegalArgumentException("Unknown level code " + code);
+        }
+        return LEVELS[code];
+    }
+}
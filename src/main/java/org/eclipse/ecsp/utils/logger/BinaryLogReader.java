@@ -0,0 +1,462 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import org.eclipse.ecsp.domain.Version;
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the logging events of a segment written by {@link BinaryLogWriter}. The decoded events carry the format,
+ * the typed arguments and a throwable proxy rebuilt from the recorded frames, so any encoder renders them as it
+ * rendered the original events. Caller data and markers are not recorded.
+ */
+final class BinaryLogReader implements Closeable {
+
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final IThrowableProxy[] NO_SUPPRESSED = new IThrowableProxy[0];
+
+    private final DataInputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private long lastTimestamp;
+
+    /**
+     * Opens a segment, reading its header.
+     *
+     * @param in the segment stream
+     * @throws IOException if the stream cannot be read or does not hold a segment
+     */
+    BinaryLogReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        byte[] magic = new byte[BinaryLogFormat.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, BinaryLogFormat.MAGIC)) {
+            throw new IOException("Not a binary log segment");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != BinaryLogFormat.FORMAT_VERSION) {
+            throw new IOException("Unsupported binary log format version " + version);
+        }
+        lastTimestamp = readVarLong();
+    }
+
+    /**
+     * Reads the next event.
+     *
+     * @return the event, or null at the end of the segment
+     * @throws EOFException if the segment ends within a record, e.g. when the process died while writing it
+     * @throws IOException if the stream cannot be read or holds an unknown record
+     */
+    ILoggingEvent next() throws IOException {
+        int tag = in.read();
+        if (tag < 0) {
+            return null;
+        }
+        if (tag != BinaryLogFormat.EVENT) {
+            throw new IOException("Unknown binary log record " + tag);
+        }
+        DecodedEvent event = new DecodedEvent();
+        event.level = BinaryLogFormat.level(in.readUnsignedByte());
+        lastTimestamp += readSignedVarLong();
+        event.timestamp = lastTimestamp;
+        event.loggerName = readRef();
+        event.threadName = readRef();
+        event.message = readRef();
+        int argCount = readCount();
+        if (argCount > 0) {
+            event.args = new Object[argCount];
+            for (int i = 0; i < argCount; i++) {
+                event.args[i] = readValue();
+            }
+        }
+        int keyValuePairCount = readCount();
+        if (keyValuePairCount > 0) {
+            event.keyValuePairs = new ArrayList<>(keyValuePairCount);
+            for (int i = 0; i < keyValuePairCount; i++) {
+                event.keyValuePairs.add(new KeyValuePair(readRef(), readValue()));
+            }
+        }
+        int mdcCount = readCount();
+        if (mdcCount > 0) {
+            event.mdc = new HashMap<>();
+            for (int i = 0; i < mdcCount; i++) {
+                event.mdc.put(readRef(), readRef());
+            }
+        }
+        event.throwableProxy = readThrowable();
+        return event;
+    }
+
+    /**
+     * Closes the segment stream.
+     *
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Object readValue() throws IOException {
+        int type = in.readUnsignedByte();
+        switch (type) {
+            case BinaryLogFormat.NULL:
+                return null;
+            case BinaryLogFormat.STRING:
+                return readString();
+            case BinaryLogFormat.INT:
+                return (int) readSignedVarLong();
+            case BinaryLogFormat.LONG:
+                return readSignedVarLong();
+            case BinaryLogFormat.DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case BinaryLogFormat.FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case BinaryLogFormat.FALSE:
+                return Boolean.FALSE;
+            case BinaryLogFormat.TRUE:
+                return Boolean.TRUE;
+            case BinaryLogFormat.HEADER:
+                return readHeader();
+            default:
+                throw new IOException("Unknown binary log value type " + type);
+        }
+    }
+
+    private IgniteEventHeader readHeader() throws IOException {
+        long timestamp = readSignedVarLong();
+        String requestId = readRef();
+        String messageId = readRef();
+        String bizTransactionId = readRef();
+        String vehicleId = readRef();
+        String eventId = readRef();
+        String version = readRef();
+        String sourceDeviceId = readRef();
+        String correlationId = readRef();
+        return new IgniteEventHeader(timestamp, requestId, messageId, bizTransactionId, vehicleId, eventId,
+                version(version), sourceDeviceId, correlationId);
+    }
+
+    /**
+     * Resolves a schema version by name, a version unknown to this build is dropped.
+     */
+    private static Version version(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Version.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private IThrowableProxy readThrowable() throws IOException {
+        int kind = readCount();
+        if (kind == BinaryLogFormat.NO_THROWABLE) {
+            return null;
+        }
+        DecodedThrowableProxy tp = new DecodedThrowableProxy();
+        tp.className = readRef();
+        tp.message = readRef();
+        if (kind == BinaryLogFormat.CYCLIC_THROWABLE) {
+            tp.cyclic = true;
+            return tp;
+        }
+        int frameCount = readCount();
+        tp.frames = new StackTraceElementProxy[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            String classLoaderName = readRef();
+            String moduleName = readRef();
+            String moduleVersion = readRef();
+            String declaringClass = readRef();
+            String methodName = readRef();
+            String fileName = readRef();
+            int lineNumber = (int) readSignedVarLong();
+            tp.frames[i] = new StackTraceElementProxy(new StackTraceElement(classLoaderName, moduleName,
+                    moduleVersion, declaringClass, methodName, fileName, lineNumber));
+        }
+        tp.commonFrames = readCount();
+        int suppressedCount = readCount();
+        tp.suppressed = suppressedCount == 0 ? NO_SUPPRESSED : new IThrowableProxy[suppressedCount];
+        for (int i = 0; i < suppressedCount; i++) {
+            tp.suppressed[i] = readThrowable();
+        }
+        tp.cause = readThrowable();
+        return tp;
+    }
+
+    private String readRef() throws IOException {
+        long ref = readVarLong();
+        if (ref == BinaryLogFormat.NULL_REF) {
+            return null;
+        }
+        if (ref == BinaryLogFormat.DEFINE_REF) {
+            String value = readString();
+            dictionary.add(value);
+            return value;
+        }
+        if (ref == BinaryLogFormat.LITERAL_REF) {
+            return readString();
+        }
+        long id = ref - BinaryLogFormat.FIRST_ID_REF;
+        if (id >= dictionary.size()) {
+            throw new IOException("Undefined binary log string " + id);
+        }
+        return dictionary.get((int) id);
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[readCount()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readCount() throws IOException {
+        long count = readVarLong();
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IOException("Invalid binary log length " + count);
+        }
+        return (int) count;
+    }
+
+    private long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & VARINT_MASK) << shift;
+            if ((b & VARINT_CONTINUATION) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed binary log varint");
+    }
+
+    /**
+     * A logging event decoded from a segment.
+     */
+    static final class DecodedEvent implements ILoggingEvent {
+
+        private Level level;
+        private long timestamp;
+        private String loggerName;
+        private String threadName;
+        private String message;
+        private Object[] args;
+        private List<KeyValuePair> keyValuePairs;
+        private Map<String, String> mdc = Collections.emptyMap();
+        private IThrowableProxy throwableProxy;
+        private String formattedMessage;
+
+        @Override
+        public String getThreadName() {
+            return threadName;
+        }
+
+        @Override
+        public Level getLevel() {
+            return level;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public Object[] getArgumentArray() {
+            return args;
+        }
+
+        @Override
+        public String getFormattedMessage() {
+            if (formattedMessage == null) {
+                formattedMessage = message == null || args == null ? message
+                        : IgniteMessageFormatter.format(message, args);
+            }
+            return formattedMessage;
+        }
+
+        @Override
+        public String getLoggerName() {
+            return loggerName;
+        }
+
+        /**
+         * The logger context is not recorded.
+         *
+         * @return null
+         */
+        @Override
+        public LoggerContextVO getLoggerContextVO() {
+            return null;
+        }
+
+        @Override
+        public IThrowableProxy getThrowableProxy() {
+            return throwableProxy;
+        }
+
+        @Override
+        public StackTraceElement[] getCallerData() {
+            return new StackTraceElement[0];
+        }
+
+        @Override
+        public boolean hasCallerData() {
+            return false;
+        }
+
+        @Override
+        public List<Marker> getMarkerList() {
+            return null;
+        }
+
+        @Override
+        public Map<String, String> getMDCPropertyMap() {
+            return mdc;
+        }
+
+        @Override
+        @Deprecated
+        public Map<String, String> getMdc() {
+            return mdc;
+        }
+
+        @Override
+        public long getTimeStamp() {
+            return timestamp;
+        }
+
+        @Override
+        public int getNanoseconds() {
+            return Math.floorMod(timestamp, MILLIS_PER_SECOND) * NANOS_PER_MILLI;
+        }
+
+        @Override
+        public long getSequenceNumber() {
+            return 0;
+        }
+
+        @Override
+        public List<KeyValuePair> getKeyValuePairs() {
+            return keyValuePairs;
+        }
+
+        @Override
+        public void prepareForDeferredProcessing() {
+            getFormattedMessage();
+        }
+    }
+
+    /**
+     * A throwable decoded from a segment.
+     */
+    static final class DecodedThrowableProxy implements IThrowableProxy {
+
+        private String className;
+        private String message;
+        private StackTraceElementProxy[] frames = new StackTraceElementProxy[0];
+        private int commonFrames;
+        private IThrowableProxy cause;
+        private IThrowableProxy[] suppressed = NO_SUPPRESSED;
+        private boolean cyclic;
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String getClassName() {
+            return className;
+        }
+
+        @Override
+        public StackTraceElementProxy[] getStackTraceElementProxyArray() {
+            return frames;
+        }
+
+        @Override
+        public int getCommonFrames() {
+            return commonFrames;
+        }
+
+        @Override
+        public IThrowableProxy getCause() {
+            return cause;
+        }
+
+        @Override
+        public IThrowableProxy[] getSuppressed() {
+            return suppressed;
+        }
+
+        @Override
+        public boolean isCyclic() {
+            return cyclic;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes logging events to a segment in the {@link BinaryLogFormat}. Messages are not formatted: the format
+ * reference and the typed arguments are written instead, and the {@link IgniteEventHeader} of events logged in
+ * {@link IgniteEventHeaderMode#DEFERRED} mode field by field. Arguments of other types are written as they are
+ * rendered in a message. <br>
+ * Every record is encoded into a reused buffer and handed to the stream in a single write. The writer is not
+ * thread safe.
+ */
+final class BinaryLogWriter {
+
+    /**
+     * Strings first seen after the dictionary of a segment reached this size are written in full every time.
+     * Formats rendered with the event header in {@link IgniteEventHeaderMode#PREFIX} mode are unique per event, so
+     * the dictionary has to be bounded.
+     */
+    static final int MAX_DICTIONARY_SIZE = 65_536;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int MAX_VARINT_LENGTH = 10;
+    private static final int LONG_BYTES = Long.BYTES;
+    private static final int INT_BYTES = Integer.BYTES;
+    private static final int BYTE_BITS = Byte.SIZE;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int MAX_RETAINED_CAPACITY = Utf8Writer.MAX_RETAINED_CAPACITY;
+
+    private final OutputStream out;
+    private final int maxDictionarySize;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int length;
+    private long lastTimestamp;
+    private long written;
+
+    /**
+     * Starts a segment on the given stream.
+     *
+     * @param out the stream to write the segment to
+     * @param startTimestamp the segment start time, timestamps are written as deltas from it
+     * @param maxDictionarySize the maximum number of interned strings
+     * @throws IOException if the stream cannot be written
+     */
+    BinaryLogWriter(OutputStream out, long startTimestamp, int maxDictionarySize) throws IOException {
+        this.out = out;
+        this.maxDictionarySize = maxDictionarySize;
+        this.lastTimestamp = startTimestamp;
+        writeRaw(BinaryLogFormat.MAGIC);
+        writeByte(BinaryLogFormat.FORMAT_VERSION);
+        writeVarLong(startTimestamp);
+        drain();
+    }
+
+    /**
+     * Writes a logging event.
+     *
+     * @param event the logging event
+     * @throws IOException if the stream cannot be written
+     */
+    void write(ILoggingEvent event) throws IOException {
+        int level = BinaryLogFormat.levelCode(event.getLevel());
+        writeVarLong(BinaryLogFormat.EVENT);
+        writeByte(level);
+        long timestamp = event.getTimeStamp();
+        writeSignedVarLong(timestamp - lastTimestamp);
+        lastTimestamp = timestamp;
+        writeRef(event.getLoggerName(), true);
+        writeRef(event.getThreadName(), true);
+        writeRef(event.getMessage(), true);
+        writeArguments(event.getArgumentArray());
+        writeKeyValuePairs(event.getKeyValuePairs());
+        writeMdc(event.getMDCPropertyMap());
+        writeThrowable(event.getThrowableProxy());
+        drain();
+    }
+
+    /**
+     * Returns the number of bytes written to the segment, including its header.
+     *
+     * @return the segment size
+     */
+    long written() {
+        return written;
+    }
+
+    /**
+     * Returns the number of interned strings.
+     *
+     * @return the dictionary size
+     */
+    int dictionarySize() {
+        return dictionary.size();
+    }
+
+    private void writeArguments(Object[] args) {
+        if (args == null) {
+            writeVarLong(0);
+            return;
+        }
+        writeVarLong(args.length);
+        for (Object arg : args) {
+            writeValue(arg);
+        }
+    }
+
+    private void writeKeyValuePairs(List<KeyValuePair> keyValuePairs) {
+        if (keyValuePairs == null) {
+            writeVarLong(0);
+            return;
+        }
+        writeVarLong(keyValuePairs.size());
+        for (KeyValuePair keyValuePair : keyValuePairs) {
+            writeRef(keyValuePair.key, true);
+            writeValue(keyValuePair.value);
+        }
+    }
+
+    private void writeMdc(Map<String, String> mdc) {
+        if (mdc == null) {
+            writeVarLong(0);
+            return;
+        }
+        writeVarLong(mdc.size());
+        for (Map.Entry<String, String> entry : mdc.entrySet()) {
+            writeRef(entry.getKey(), true);
+            writeRef(entry.getValue(), false);
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            writeByte(BinaryLogFormat.NULL);
+        } else if (value instanceof String string) {
+            writeByte(BinaryLogFormat.STRING);
+            writeString(string);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeByte(BinaryLogFormat.INT);
+            writeSignedVarLong(((Number) value).intValue());
+        } else if (value instanceof Long longValue) {
+            writeByte(BinaryLogFormat.LONG);
+            writeSignedVarLong(longValue);
+        } else if (value instanceof Double doubleValue) {
+            writeByte(BinaryLogFormat.DOUBLE);
+            writeFixed(Double.doubleToRawLongBits(doubleValue), LONG_BYTES);
+        } else if (value instanceof Float floatValue) {
+            writeByte(BinaryLogFormat.FLOAT);
+            writeFixed(Float.floatToRawIntBits(floatValue), INT_BYTES);
+        } else if (value instanceof Boolean bool) {
+            writeByte(bool ? BinaryLogFormat.TRUE : BinaryLogFormat.FALSE);
+        } else if (value instanceof IgniteEventHeader header) {
+            writeByte(BinaryLogFormat.HEADER);
+            writeHeader(header);
+        } else {
+            StringBuilder sb = IgniteEventHeaderRenderer.acquire();
+            IgniteMessageFormatter.appendArgument(sb, value);
+            writeByte(BinaryLogFormat.STRING);
+            writeString(IgniteEventHeaderRenderer.release(sb));
+        }
+    }
+
+    private void writeHeader(IgniteEventHeader header) {
+        writeSignedVarLong(header.getTimestamp());
+        writeRef(header.getRequestId(), false);
+        writeRef(header.getMessageId(), false);
+        writeRef(header.getBizTransactionId(), false);
+        writeRef(header.getVehicleId(), false);
+        writeRef(header.getEventId(), true);
+        writeRef(header.getSchemaVersion() == null ? null : header.getSchemaVersion().name(), true);
+        writeRef(header.getSourceDeviceId(), false);
+        writeRef(header.getCorrelationId(), false);
+    }
+
+    private void writeThrowable(IThrowableProxy tp) {
+        if (tp == null) {
+            writeVarLong(BinaryLogFormat.NO_THROWABLE);
+            return;
+        }
+        writeVarLong(tp.isCyclic() ? BinaryLogFormat.CYCLIC_THROWABLE : BinaryLogFormat.THROWABLE);
+        writeRef(tp.getClassName(), true);
+        writeRef(tp.getMessage(), false);
+        if (tp.isCyclic()) {
+            return;
+        }
+        StackTraceElementProxy[] frames = tp.getStackTraceElementProxyArray();
+        writeVarLong(frames.length);
+        for (StackTraceElementProxy frame : frames) {
+            StackTraceElement element = frame.getStackTraceElement();
+            writeRef(element.getClassLoaderName(), true);
+            writeRef(element.getModuleName(), true);
+            writeRef(element.getModuleVersion(), true);
+            writeRef(element.getClassName(), true);
+            writeRef(element.getMethodName(), true);
+            writeRef(element.getFileName(), true);
+            writeSignedVarLong(element.getLineNumber());
+        }
+        writeVarLong(tp.getCommonFrames());
+        IThrowableProxy[] suppressed = tp.getSuppressed();
+        writeVarLong(suppressed == null ? 0 : suppressed.length);
+        if (suppressed != null) {
+            for (IThrowableProxy current : suppressed) {
+                writeThrowable(current);
+            }
+        }
+        writeThrowable(tp.getCause());
+    }
+
+    /**
+     * Writes a string reference, interning the string in the segment dictionary while it has room.
+     */
+    private void writeRef(String value, boolean intern) {
+        if (value == null) {
+            writeVarLong(BinaryLogFormat.NULL_REF);
+            return;
+        }
+        if (intern) {
+            Integer id = dictionary.get(value);
+            if (id != null) {
+                writeVarLong(id + (long) BinaryLogFormat.FIRST_ID_REF);
+                return;
+            }
+            if (dictionary.size() < maxDictionarySize) {
+                dictionary.put(value, dictionary.size());
+                writeVarLong(BinaryLogFormat.DEFINE_REF);
+                writeString(value);
+                return;
+            }
+        }
+        writeVarLong(BinaryLogFormat.LITERAL_REF);
+        writeString(value);
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeRaw(bytes);
+    }
+
+    private void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> (Long.SIZE - 1)));
+    }
+
+    private void writeVarLong(long value) {
+        ensure(MAX_VARINT_LENGTH);
+        while ((value & ~VARINT_MASK) != 0) {
+            buf[length++] = (byte) ((value & VARINT_MASK) | VARINT_CONTINUATION);
+            value >>>= VARINT_BITS;
+        }
+        buf[length++] = (byte) value;
+    }
+
+    private void writeFixed(long value, int bytes) {
+        ensure(bytes);
+        for (int i = bytes - 1; i >= 0; i--) {
+            buf[length++] = (byte) (value >>> (i * BYTE_BITS));
+        }
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buf[length++] = (byte) value;
+    }
+
+    private void writeRaw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensure(int needed) {
+        if (length + needed > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * GROWTH_FACTOR, length + needed));
+        }
+    }
+
+    /**
+     * Hands the encoded record to the stream.
+     */
+    private void drain() throws IOException {
+        try {
+            out.write(buf, 0, length);
+            written += length;
+        } finally {
+            length = 0;
+            if (buf.length > MAX_RETAINED_CAPACITY) {
+                buf = new byte[INITIAL_CAPACITY];
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded concurrent cache of values derived from their key, such as parsed message formats. <br>
+ * A hit only marks its entry as referenced. When the cache is full, a second chance sweep evicts an eighth of
+ * the entries, preferring those which were not referenced since the previous sweep, so keys seen once make
+ * room for new keys instead of pinning the cache while frequently used keys stay cached.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class BoundedCache<K, V> {
+
+    private static final int EVICTION_DIVISOR = 8;
+    private static final int SWEEPS = 2;
+
+    private final int capacity;
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * Creates a cache holding at most {@code capacity} entries.
+     *
+     * @param capacity the maximum number of entries
+     */
+    BoundedCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(capacity);
+    }
+
+    /**
+     * Returns the value cached for the key, or null if it is not cached.
+     *
+     * @param key the key
+     * @return the cached value, or null
+     */
+    V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches the value of the key, evicting entries first if the cache is full.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void put(K key, V value) {
+        if (entries.size() >= capacity) {
+            evict();
+        }
+        entries.putIfAbsent(key, new Entry<>(value));
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of cached entries
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    private synchronized void evict() {
+        if (entries.size() < capacity) {
+            return;
+        }
+        int evicted = 0;
+        int target = Math.max(1, capacity / EVICTION_DIVISOR);
+        for (int sweep = 0; sweep < SWEEPS && evicted < target; sweep++) {
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (evicted < target && it.hasNext()) {
+                Entry<V> entry = it.next();
+                if (entry.referenced) {
+                    entry.referenced = false;
+                } else {
+                    it.remove();
+                    evicted++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cached value and whether it was referenced since the last sweep.
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,1112 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous appender backed by a pre-allocated, lock-free multi-producer ring buffer.
+ *
+ * <p>It is a drop-in replacement for {@code ch.qos.logback.classic.AsyncAppender} and accepts the same
+ * {@code queueSize}, {@code discardingThreshold}, {@code neverBlock}, {@code includeCallerData} and
+ * {@code maxFlushTime} properties. Logging threads claim a slot with a single CAS, a dedicated worker
+ * drains the buffer in batches of {@code batchSize} and hands the events to the attached appenders.
+ * How the worker waits for new events is chosen with {@code waitStrategy}.</p>
+ *
+ * <p>With {@code deferredFormatting} the message is formatted on the worker thread as well. Arguments must
+ * then not change after logging, or be copied on the logging thread with {@code argumentSnapshot}.</p>
+ *
+ * <p>Dropped events and the queue depth are published by the worker as the Prometheus metrics
+ * {@code logger_async_appender_dropped_events} and {@code logger_async_appender_queue_depth}, labelled with
+ * the appender name, unless {@code metricsEnabled} is false.</p>
+ *
+ * <p>With {@code degradeOnBackpressure} a filling queue makes {@link IgniteBackpressureController} skip TRACE,
+ * then DEBUG, then INFO statements logged through {@link IgniteLogger}, before the queue is full and events are
+ * dropped. The degradation starts at a queue fill ratio of {@code degradeRatio} or at {@code maxEventsPerSecond}
+ * events logged per second, and eases once the ratio is down to {@code recoverRatio} for
+ * {@code recoveryDelay} milliseconds. The step is published as {@code logger_async_appender_degradation}.</p>
+ *
+ * <pre>
+ * &lt;appender name="ASYNC-STDOUT" class="org.eclipse.ecsp.utils.logger.IgniteAsyncAppender"&gt;
+ *     &lt;queueSize&gt;1048576&lt;/queueSize&gt;
+ *     &lt;neverBlock&gt;true&lt;/neverBlock&gt;
+ *     &lt;waitStrategy&gt;PARK&lt;/waitStrategy&gt;
+ *     &lt;appender-ref ref="STDOUT"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class IgniteAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    /**
+     * Default ring buffer capacity.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 262_144;
+
+    /**
+     * Default number of events handed to the attached appenders per drain.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * Default time in milliseconds the worker gets to flush the buffer on stop.
+     */
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+    /**
+     * Default queue fill ratio at which logging is degraded.
+     */
+    public static final double DEFAULT_DEGRADE_RATIO = 0.5;
+
+    /**
+     * Default queue fill ratio at or below which logging recovers.
+     */
+    public static final double DEFAULT_RECOVER_RATIO = 0.1;
+
+    /**
+     * Default time in milliseconds the queue has to stay calm for each step of recovery.
+     */
+    public static final int DEFAULT_RECOVERY_DELAY = 5000;
+
+    /**
+     * How the worker waits while the ring buffer is empty.
+     */
+    public enum WaitStrategy {
+        /**
+         * Busy spins, lowest latency at the cost of a core.
+         */
+        SPIN,
+        /**
+         * Spins briefly, then yields the CPU.
+         */
+        YIELD,
+        /**
+         * Spins briefly, then parks until a logging thread signals a new event.
+         */
+        PARK
+    }
+
+    /**
+     * Which message arguments are copied on the logging thread when formatting is deferred.
+     */
+    public enum ArgumentSnapshot {
+        /**
+         * Arguments are kept as they are, the caller must not change them after logging.
+         */
+        NONE,
+        /**
+         * Arguments that are not known to be immutable (strings, boxed primitives, enums, java.time values, ...)
+         * are replaced by their rendered form.
+         */
+        MUTABLE
+    }
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Integer.class, Long.class,
+            Boolean.class, Double.class, Float.class, Short.class, Byte.class, Character.class, BigDecimal.class,
+            BigInteger.class, UUID.class, IgniteEventHeader.class);
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int UNDEFINED = -1;
+    private static final long NO_ROOM = -1L;
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE);
+    private static final int SPIN_TRIES = 100;
+    private static final int QUEUE_FULL_PERCENTAGE_DIVISOR = 5;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Events held back during the batches of the calling thread, see {@link #beginBatch()}. Only set for threads
+     * which started a batch.
+     */
+    private static final ThreadLocal<Batch> BATCHES = new ThreadLocal<>();
+
+    private final AppenderAttachableImpl<ILoggingEvent> aai = new AppenderAttachableImpl<>();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder droppedFull = new LongAdder();
+    private final LongAdder droppedDiscarded = new LongAdder();
+
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int discardingThreshold = UNDEFINED;
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+    private boolean neverBlock = true;
+    private boolean includeCallerData;
+    private boolean metricsEnabled = true;
+    private WaitStrategy waitStrategy = WaitStrategy.PARK;
+    private boolean deferredFormatting;
+    private ArgumentSnapshot argumentSnapshot = ArgumentSnapshot.NONE;
+    private boolean degradeOnBackpressure;
+    private double degradeRatio = DEFAULT_DEGRADE_RATIO;
+    private double recoverRatio = DEFAULT_RECOVER_RATIO;
+    private long maxEventsPerSecond;
+    private int recoveryDelay = DEFAULT_RECOVERY_DELAY;
+
+    private int mask;
+    private long[] sequences;
+    private ILoggingEvent[] slots;
+    private Thread worker;
+    private volatile boolean running;
+    private volatile boolean sleeping;
+    private long publishedFull;
+    private long publishedDiscarded;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (aai.iteratorForAppenders().hasNext()) {
+            int capacity = capacity(queueSize);
+            if (capacity < 1) {
+                addError("Invalid queue size [" + queueSize + "]");
+                return;
+            }
+            if (batchSize < 1) {
+                addError("Invalid batch size [" + batchSize + "]");
+                return;
+            }
+            if (degradeOnBackpressure && !(recoverRatio >= 0 && recoverRatio < degradeRatio && degradeRatio <= 1)) {
+                addError("Invalid degradation ratios [" + degradeRatio + ", " + recoverRatio + "]");
+                return;
+            }
+            if (discardingThreshold == UNDEFINED) {
+                discardingThreshold = capacity / QUEUE_FULL_PERCENTAGE_DIVISOR;
+            }
+            mask = capacity - 1;
+            sequences = new long[capacity];
+            for (int i = 0; i < capacity; i++) {
+                sequences[i] = i;
+            }
+            slots = new ILoggingEvent[capacity];
+            running = true;
+            worker = new Thread(this::drain, "IgniteAsyncAppender-Worker-" + getName());
+            worker.setDaemon(true);
+            super.start();
+            worker.start();
+            if (degradeOnBackpressure) {
+                IgniteBackpressureController.register(this, new IgniteBackpressureController(degradeRatio,
+                        recoverRatio, maxEventsPerSecond, recoveryDelay));
+            }
+        } else {
+            addError("No attached appenders found.");
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        IgniteBackpressureController.unregister(this);
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTime);
+            if (worker.isAlive()) {
+                addWarn("Max queue flush timeout (" + maxFlushTime + " ms) exceeded. Approximately "
+                        + getQueueDepth() + " queued events were possibly discarded.");
+            } else {
+                addInfo("Queue flush finished successfully within timeout.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Failed to join worker thread. " + getQueueDepth() + " queued events may be discarded.", e);
+        }
+        aai.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent loggedEvent) {
+        if (isDiscardable(loggedEvent)) {
+            droppedDiscarded.increment();
+            return;
+        }
+        ILoggingEvent event = loggedEvent;
+        if (includeCallerData) {
+            IgniteCallerData.extract(event, getContext());
+        }
+        if (deferredFormatting) {
+            event.getThreadName();
+            event.getMDCPropertyMap();
+            if (argumentSnapshot == ArgumentSnapshot.MUTABLE) {
+                event = snapshot(event);
+            }
+        } else {
+            event.prepareForDeferredProcessing();
+        }
+        Batch batch = BATCHES.get();
+        if (batch != null && batch.hold(this, event)) {
+            return;
+        }
+        if (offer(event) || !neverBlock && Thread.currentThread() != worker && offerBlocking(event)) {
+            if (sleeping) {
+                LockSupport.unpark(worker);
+            }
+        } else {
+            droppedFull.increment();
+        }
+    }
+
+    private boolean isDiscardable(ILoggingEvent event) {
+        return discardingThreshold > 0
+                && getRemainingCapacity() < discardingThreshold
+                && event.getLevel().toInt() <= Level.INFO_INT;
+    }
+
+    /**
+     * Returns the event to queue with its mutable arguments replaced by their rendered form. The argument array
+     * of the logged event is shared with the other appenders and possibly the caller, so it is copied rather
+     * than changed, and the event is only wrapped if one of its arguments is mutable.
+     */
+    private static ILoggingEvent snapshot(ILoggingEvent event) {
+        Object[] arguments = event.getArgumentArray();
+        if (arguments == null) {
+            return event;
+        }
+        Object[] snapshot = null;
+        for (int i = 0; i < arguments.length; i++) {
+            if (!isImmutable(arguments[i])) {
+                if (snapshot == null) {
+                    snapshot = arguments.clone();
+                }
+                // renders the argument exactly as the message formatter would, arrays included
+                StringBuilder sb = new StringBuilder();
+                IgniteMessageFormatter.appendArgument(sb, arguments[i]);
+                snapshot[i] = sb.toString();
+            }
+        }
+        return snapshot == null ? event : new SnapshotEvent(event, snapshot);
+    }
+
+    private static boolean isImmutable(Object argument) {
+        return argument == null
+                || IMMUTABLE_TYPES.contains(argument.getClass())
+                || argument instanceof Enum<?>
+                || argument instanceof Throwable
+                || argument instanceof TemporalAccessor && argument.getClass().getName().startsWith("java.time.");
+    }
+
+    /**
+     * Claims the next free slot, fails when the ring buffer is full.
+     */
+    private boolean offer(ILoggingEvent event) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = (long) SEQUENCE.getAcquire(sequences, index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        slots[index] = event;
+        SEQUENCE.setRelease(sequences, index, position + 1);
+        return true;
+    }
+
+    /**
+     * Publishes events claiming their slots with a single CAS, and wakes the worker up once. Events which do not
+     * fit in the free slots are offered one at a time.
+     */
+    private void offerAll(List<ILoggingEvent> events) {
+        int size = events.size();
+        int offered = 0;
+        while (offered < size) {
+            int count = Math.min(size - offered, mask + 1);
+            long position = claim(count);
+            if (position == NO_ROOM) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                int index = (int) ((position + i) & mask);
+                slots[index] = events.get(offered + i);
+                SEQUENCE.setRelease(sequences, index, position + i + 1);
+            }
+            offered += count;
+        }
+        for (; offered < size; offered++) {
+            ILoggingEvent event = events.get(offered);
+            if (!offer(event) && !(!neverBlock && Thread.currentThread() != worker && offerBlocking(event))) {
+                droppedFull.increment();
+            }
+        }
+        if (sleeping) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Claims {@code count} consecutive slots. The worker frees slots in order, so they are all free once the
+     * last one is.
+     *
+     * @return the position of the first slot, or {@link #NO_ROOM} if fewer slots are free
+     */
+    private long claim(int count) {
+        long position = tail.get();
+        while (true) {
+            long last = position + count - 1;
+            long difference = (long) SEQUENCE.getAcquire(sequences, (int) (last & mask)) - last;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + count)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return NO_ROOM;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private boolean offerBlocking(ILoggingEvent event) {
+        int attempts = 0;
+        while (isStarted()) {
+            if (sleeping) {
+                LockSupport.unpark(worker);
+            }
+            if (offer(event)) {
+                return true;
+            }
+            if (++attempts < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves up to {@code batch.length} published events into {@code batch}, only called by the worker.
+     */
+    private int poll(ILoggingEvent[] batch) {
+        long position = head.get();
+        int count = 0;
+        while (count < batch.length) {
+            int index = (int) (position & mask);
+            if ((long) SEQUENCE.getAcquire(sequences, index) != position + 1) {
+                break;
+            }
+            batch[count++] = slots[index];
+            slots[index] = null;
+            SEQUENCE.setRelease(sequences, index, position + mask + 1);
+            position++;
+        }
+        head.lazySet(position);
+        return count;
+    }
+
+    private void drain() {
+        ILoggingEvent[] batch = new ILoggingEvent[batchSize];
+        long lastPublished = System.nanoTime();
+        int idle = 0;
+        while (true) {
+            int count = poll(batch);
+            if (count > 0) {
+                for (int i = 0; i < count; i++) {
+                    aai.appendLoopOnAppenders(batch[i]);
+                    batch[i] = null;
+                }
+                idle = 0;
+            } else if (!running && tail.get() == head.get()) {
+                break;
+            } else {
+                idle = idle(idle);
+            }
+            long now = System.nanoTime();
+            if (now - lastPublished >= PUBLISH_INTERVAL_NANOS) {
+                publishMetrics();
+                lastPublished = now;
+            }
+        }
+        publishMetrics();
+    }
+
+    private int idle(int idle) {
+        if (waitStrategy == WaitStrategy.SPIN || idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (waitStrategy == WaitStrategy.YIELD) {
+            Thread.yield();
+        } else {
+            sleeping = true;
+            if (running && tail.get() == head.get()) {
+                // bounded, a producer may publish just after the check above
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            sleeping = false;
+        }
+        return idle + 1;
+    }
+
+    private void publishMetrics() {
+        if (!metricsEnabled) {
+            return;
+        }
+        long full = droppedFull.sum();
+        long discarded = droppedDiscarded.sum();
+        if (IgniteAsyncAppenderMetrics.publish(getName(), full - publishedFull, discarded - publishedDiscarded,
+                getQueueDepth())) {
+            publishedFull = full;
+            publishedDiscarded = discarded;
+        } else {
+            addWarn("Prometheus metrics are unavailable, disabling them for appender [" + getName() + "]");
+            metricsEnabled = false;
+        }
+    }
+
+    /**
+     * Starts a batch on the calling thread: until the matching {@link #endBatch()}, the events appended by this
+     * thread are held back and published together, up to {@code batchSize} of them per CAS and worker wakeup.
+     * Batches nest.
+     */
+    static void beginBatch() {
+        Batch batch = BATCHES.get();
+        if (batch == null) {
+            batch = new Batch();
+            BATCHES.set(batch);
+        }
+        batch.depth++;
+    }
+
+    /**
+     * Ends a batch started by {@link #beginBatch()}, publishing the events held back when it is the outermost one.
+     */
+    static void endBatch() {
+        Batch batch = BATCHES.get();
+        if (--batch.depth == 0) {
+            batch.flush();
+        }
+    }
+
+    private static int capacity(int queueSize) {
+        if (queueSize < 1 || queueSize > MAX_CAPACITY) {
+            return 0;
+        }
+        return queueSize == 1 ? 1 : Integer.highestOneBit(queueSize - 1) << 1;
+    }
+
+    /**
+     * Returns the number of events waiting to be handed to the attached appenders.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Returns the number of free slots of the ring buffer.
+     *
+     * @return the remaining capacity
+     */
+    public int getRemainingCapacity() {
+        return mask + 1 - getQueueDepth();
+    }
+
+    /**
+     * Returns the number of slots of the ring buffer.
+     *
+     * @return the capacity
+     */
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of events logged to the appender, including dropped and discarded ones.
+     *
+     * @return the number of events offered
+     */
+    long getOfferedCount() {
+        return tail.get() + droppedFull.sum() + droppedDiscarded.sum();
+    }
+
+    /**
+     * Returns the number of events dropped because the ring buffer was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return droppedFull.sum();
+    }
+
+    /**
+     * Returns the number of events below WARN discarded because the remaining capacity fell below
+     * {@code discardingThreshold}.
+     *
+     * @return the number of discarded events
+     */
+    public long getDiscardedCount() {
+        return droppedDiscarded.sum();
+    }
+
+    /**
+     * Returns the ring buffer capacity requested in the configuration.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Sets the ring buffer capacity, rounded up to the next power of two.
+     *
+     * @param queueSize the queue size
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Returns the maximum number of events handed to the attached appenders per drain.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of events handed to the attached appenders per drain.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the remaining capacity below which TRACE, DEBUG and INFO events are discarded.
+     *
+     * @return the discarding threshold
+     */
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    /**
+     * Sets the remaining capacity below which TRACE, DEBUG and INFO events are discarded, 0 disables
+     * discarding. Defaults to a fifth of the capacity, like {@code AsyncAppender}.
+     *
+     * @param discardingThreshold the discarding threshold
+     */
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    /**
+     * Returns the time in milliseconds the worker gets to flush the buffer on stop.
+     *
+     * @return the maximum flush time
+     */
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    /**
+     * Sets the time in milliseconds the worker gets to flush the buffer on stop.
+     *
+     * @param maxFlushTime the maximum flush time
+     */
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    /**
+     * Returns whether events are dropped instead of blocking the logging thread when the buffer is full.
+     *
+     * @return true if logging threads never block
+     */
+    public boolean isNeverBlock() {
+        return neverBlock;
+    }
+
+    /**
+     * Sets whether events are dropped instead of blocking the logging thread when the buffer is full.
+     *
+     * @param neverBlock true if logging threads must never block
+     */
+    public void setNeverBlock(boolean neverBlock) {
+        this.neverBlock = neverBlock;
+    }
+
+    /**
+     * Returns whether caller data is extracted on the logging thread.
+     *
+     * @return true if caller data is included
+     */
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    /**
+     * Sets whether caller data is extracted on the logging thread, needed by {@code %caller}.
+     *
+     * @param includeCallerData true to include caller data
+     */
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    /**
+     * Returns whether drop and queue depth metrics are published.
+     *
+     * @return true if metrics are published
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Sets whether drop and queue depth metrics are published.
+     *
+     * @param metricsEnabled true to publish metrics
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Returns how the worker waits while the ring buffer is empty.
+     *
+     * @return the wait strategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Sets how the worker waits while the ring buffer is empty.
+     *
+     * @param waitStrategy the wait strategy
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns whether message formatting is left to the worker thread.
+     *
+     * @return true if formatting is deferred
+     */
+    public boolean isDeferredFormatting() {
+        return deferredFormatting;
+    }
+
+    /**
+     * Sets whether message formatting is left to the worker thread. The logging thread then only captures
+     * the thread name and MDC, and the message arguments according to {@code argumentSnapshot}.
+     * Use {@link IgniteEventHeaderMode#DEFERRED} to defer the IgniteEvent header rendering as well.
+     *
+     * @param deferredFormatting true to format on the worker thread
+     */
+    public void setDeferredFormatting(boolean deferredFormatting) {
+        this.deferredFormatting = deferredFormatting;
+    }
+
+    /**
+     * Returns which message arguments are copied on the logging thread when formatting is deferred.
+     *
+     * @return the argument snapshot policy
+     */
+    public ArgumentSnapshot getArgumentSnapshot() {
+        return argumentSnapshot;
+    }
+
+    /**
+     * Sets which message arguments are copied on the logging thread when formatting is deferred.
+     * The copies are queued in a copy of the argument array, the event and its array are left unchanged
+     * for the other appenders and the caller.
+     *
+     * @param argumentSnapshot the argument snapshot policy
+     */
+    public void setArgumentSnapshot(ArgumentSnapshot argumentSnapshot) {
+        this.argumentSnapshot = argumentSnapshot;
+    }
+
+    /**
+     * Returns whether statements logged through {@link IgniteLogger} are skipped under backpressure.
+     *
+     * @return true if logging is degraded under backpressure
+     */
+    public boolean isDegradeOnBackpressure() {
+        return degradeOnBackpressure;
+    }
+
+    /**
+     * Sets whether TRACE, then DEBUG, then INFO statements logged through {@link IgniteLogger} are skipped while
+     * the queue fills up, see {@link IgniteBackpressureController}.
+     *
+     * @param degradeOnBackpressure true to degrade logging under backpressure
+     */
+    public void setDegradeOnBackpressure(boolean degradeOnBackpressure) {
+        this.degradeOnBackpressure = degradeOnBackpressure;
+    }
+
+    /**
+     * Returns the queue fill ratio at which logging is degraded.
+     *
+     * @return the degrade ratio
+     */
+    public double getDegradeRatio() {
+        return degradeRatio;
+    }
+
+    /**
+     * Sets the queue fill ratio at which logging is degraded by one more step as long as the queue keeps filling.
+     *
+     * @param degradeRatio the degrade ratio, above the recover ratio and at most 1
+     */
+    public void setDegradeRatio(double degradeRatio) {
+        this.degradeRatio = degradeRatio;
+    }
+
+    /**
+     * Returns the queue fill ratio at or below which logging recovers.
+     *
+     * @return the recover ratio
+     */
+    public double getRecoverRatio() {
+        return recoverRatio;
+    }
+
+    /**
+     * Sets the queue fill ratio at or below which logging recovers by one step per {@code recoveryDelay}.
+     *
+     * @param recoverRatio the recover ratio, below the degrade ratio
+     */
+    public void setRecoverRatio(double recoverRatio) {
+        this.recoverRatio = recoverRatio;
+    }
+
+    /**
+     * Returns the rate of events logged to the appender at which logging is degraded.
+     *
+     * @return the maximum events per second, 0 if the rate is not limited
+     */
+    public long getMaxEventsPerSecond() {
+        return maxEventsPerSecond;
+    }
+
+    /**
+     * Sets the rate of events logged to the appender at which logging is degraded, before the queue fills up.
+     * Logging recovers once the rate is down to half of it.
+     *
+     * @param maxEventsPerSecond the maximum events per second, 0 to not limit the rate
+     */
+    public void setMaxEventsPerSecond(long maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    /**
+     * Returns the time in milliseconds the queue has to stay calm for each step of recovery.
+     *
+     * @return the recovery delay
+     */
+    public int getRecoveryDelay() {
+        return recoveryDelay;
+    }
+
+    /**
+     * Sets the time in milliseconds the queue has to stay calm for each step of recovery.
+     *
+     * @param recoveryDelay the recovery delay
+     */
+    public void setRecoveryDelay(int recoveryDelay) {
+        this.recoveryDelay = recoveryDelay;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        addInfo("Attaching appender named [" + newAppender.getName() + "] to IgniteAsyncAppender.");
+        aai.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return aai.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return aai.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return aai.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        aai.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return aai.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return aai.detachAppender(name);
+    }
+
+    /**
+     * Events held back by the appenders during the batches of one thread.
+     */
+    private static final class Batch {
+        private final List<Pending> pending = new ArrayList<>();
+        private int depth;
+
+        /**
+         * Holds back an event of an appender while a batch is open.
+         *
+         * @return false if the thread is not in a batch
+         */
+        private boolean hold(IgniteAsyncAppender appender, ILoggingEvent event) {
+            if (depth == 0) {
+                return false;
+            }
+            Pending appenderPending = null;
+            for (Pending candidate : pending) {
+                if (candidate.appender == appender) {
+                    appenderPending = candidate;
+                    break;
+                }
+            }
+            if (appenderPending == null) {
+                appenderPending = new Pending(appender);
+                pending.add(appenderPending);
+            }
+            appenderPending.events.add(event);
+            if (appenderPending.events.size() >= appender.batchSize) {
+                appender.offerAll(appenderPending.events);
+                appenderPending.events.clear();
+            }
+            return true;
+        }
+
+        private void flush() {
+            for (Pending appenderPending : pending) {
+                int held = appenderPending.events.size();
+                if (held == 0) {
+                    continue;
+                }
+                IgniteAsyncAppender appender = appenderPending.appender;
+                if (appender.isStarted()) {
+                    appender.offerAll(appenderPending.events);
+                } else {
+                    appender.droppedFull.add(held);
+                    appender.addWarn("Dropped " + held + " events held back in a batch, appender ["
+                            + appender.getName() + "] was stopped before the batch ended");
+                }
+            }
+            // drops the appender references, they may be stopped and replaced by a reconfiguration
+            pending.clear();
+        }
+    }
+
+    /**
+     * Events of one appender held back during a batch.
+     */
+    private static final class Pending {
+        private final IgniteAsyncAppender appender;
+        private final List<ILoggingEvent> events = new ArrayList<>();
+
+        private Pending(IgniteAsyncAppender appender) {
+            this.appender = appender;
+        }
+    }
+
+    /**
+     * A logged event whose arguments were snapshotted, formatting its message from the copied arguments.
+     * Everything else is read from the logged event.
+     */
+    static final class SnapshotEvent implements ILoggingEvent {
+
+        private final ILoggingEvent event;
+        private final Object[] arguments;
+        private String formattedMessage;
+
+        SnapshotEvent(ILoggingEvent event, Object[] arguments) {
+            this.event = event;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public String getThreadName() {
+            return event.getThreadName();
+        }
+
+        @Override
+        public Level getLevel() {
+            return event.getLevel();
+        }
+
+        @Override
+        public String getMessage() {
+            return event.getMessage();
+        }
+
+        @Override
+        public Object[] getArgumentArray() {
+            return arguments;
+        }
+
+        @Override
+        public String getFormattedMessage() {
+            if (formattedMessage == null) {
+                formattedMessage = IgniteMessageFormatter.format(event.getMessage(), arguments);
+            }
+            return formattedMessage;
+        }
+
+        @Override
+        public String getLoggerName() {
+            return event.getLoggerName();
+        }
+
+        @Override
+        public LoggerContextVO getLoggerContextVO() {
+            return event.getLoggerContextVO();
+        }
+
+        @Override
+        public IThrowableProxy getThrowableProxy() {
+            return event.getThrowableProxy();
+        }
+
+        @Override
+        public StackTraceElement[] getCallerData() {
+            return event.getCallerData();
+        }
+
+        @Override
+        public boolean hasCallerData() {
+            return event.hasCallerData();
+        }
+
+        @Override
+        public List<Marker> getMarkerList() {
+            return event.getMarkerList();
+        }
+
+        @Override
+        public Map<String, String> getMDCPropertyMap() {
+            return event.getMDCPropertyMap();
+        }
+
+        @Override
+        @Deprecated
+        public Map<String, String> getMdc() {
+            return event.getMDCPropertyMap();
+        }
+
+        @Override
+        public long getTimeStamp() {
+            return event.getTimeStamp();
+        }
+
+        @Override
+        public int getNanoseconds() {
+            return event.getNanoseconds();
+        }
+
+        @Override
+        public Instant getInstant() {
+            return event.getInstant();
+        }
+
+        @Override
+        public long getSequenceNumber() {
+            return event.getSequenceNumber();
+        }
+
+        @Override
+        public List<KeyValuePair> getKeyValuePairs() {
+            return event.getKeyValuePairs();
+        }
+
+        @Override
+        public void prepareForDeferredProcessing() {
+            getFormattedMessage();
+            event.getThreadName();
+            event.getMDCPropertyMap();
+        }
+    }
+}
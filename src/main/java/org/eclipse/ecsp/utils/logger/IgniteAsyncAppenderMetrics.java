@@ -0,0 +1,146 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.utils.metrics.GenericIgniteCounter;
+import org.eclipse.ecsp.utils.metrics.GenericIgniteGauge;
+
+/**
+ * Prometheus metrics of {@link IgniteAsyncAppender}, shared by all its instances so that a
+ * Logback reconfiguration does not register them twice.
+ *
+ * <p>The metrics are created on first use, from the appender worker or the backpressure controller thread,
+ * because creating them logs.</p>
+ */
+final class IgniteAsyncAppenderMetrics {
+
+    /**
+     * Counter of events the appenders dropped, labelled with appender name and reason.
+     */
+    static final String DROPPED_EVENTS = "logger_async_appender_dropped_events";
+
+    /**
+     * Gauge of events waiting in the appenders ring buffer, labelled with appender name.
+     */
+    static final String QUEUE_DEPTH = "logger_async_appender_queue_depth";
+
+    /**
+     * Reason label value of events dropped because the ring buffer was full.
+     */
+    static final String QUEUE_FULL = "queue_full";
+
+    /**
+     * Reason label value of TRACE, DEBUG and INFO events discarded above the discarding threshold.
+     */
+    static final String DISCARDED = "discarded";
+
+    /**
+     * Gauge of the degradation step requested by the appenders under backpressure, from 0 (none) to 3 (INFO and
+     * below skipped), labelled with appender name.
+     */
+    static final String DEGRADATION = "logger_async_appender_degradation";
+
+    private static final String APPENDER = "appender";
+    private static final String REASON = "reason";
+
+    private static volatile GenericIgniteCounter droppedEvents;
+    private static volatile GenericIgniteGauge queueDepth;
+    private static volatile GenericIgniteGauge degradation;
+    private static volatile boolean unavailable;
+
+    private IgniteAsyncAppenderMetrics() {
+    }
+
+    /**
+     * Publishes the drops since the previous call and the current queue depth of an appender.
+     *
+     * @param appender the appender name
+     * @param full the events dropped because the ring buffer was full
+     * @param discarded the events discarded above the discarding threshold
+     * @param depth the current queue depth
+     * @return false if the metrics could not be registered
+     */
+    static boolean publish(String appender, long full, long discarded, int depth) {
+        if (queueDepth == null && !create()) {
+            return false;
+        }
+        if (full > 0) {
+            droppedEvents.inc(full, appender, QUEUE_FULL);
+        }
+        if (discarded > 0) {
+            droppedEvents.inc(discarded, appender, DISCARDED);
+        }
+        queueDepth.set(depth, appender);
+        return true;
+    }
+
+    /**
+     * Publishes the degradation step of an appender.
+     *
+     * @param appender the appender name
+     * @param step the degradation step, see {@link IgniteBackpressureController}
+     * @return false if the metrics could not be registered
+     */
+    static boolean publishDegradation(String appender, int step) {
+        if (queueDepth == null && !create()) {
+            return false;
+        }
+        degradation.set(step, appender);
+        return true;
+    }
+
+    private static synchronized boolean create() {
+        if (queueDepth != null) {
+            return true;
+        }
+        if (unavailable) {
+            return false;
+        }
+        try {
+            droppedEvents = new GenericIgniteCounter(DROPPED_EVENTS, "Events dropped by IgniteAsyncAppender",
+                    APPENDER, REASON);
+            degradation = new GenericIgniteGauge(DEGRADATION,
+                    "Logging degradation step of IgniteAsyncAppender under backpressure", APPENDER);
+            queueDepth = new GenericIgniteGauge(QUEUE_DEPTH, "Events queued in IgniteAsyncAppender", APPENDER);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // another collector already uses one of the names
+            unavailable = true;
+            return false;
+        }
+    }
+}
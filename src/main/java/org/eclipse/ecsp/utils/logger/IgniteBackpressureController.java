@@ -0,0 +1,237 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Degrades logging while an {@link IgniteAsyncAppender} is under backpressure, so that the appender drops no
+ * WARN and ERROR events and logging does not add to the load of a stressed service. <br>
+ * Every {@link #EVALUATION_INTERVAL_MILLIS} a shared timer thread compares the queue fill ratio and the rate of
+ * events logged to each registered appender with its limits. While an appender is overloaded and its queue keeps
+ * filling, the controller steps its degradation up, one step per evaluation: the {@link IgniteLoggerImpl}
+ * instances first skip TRACE, then DEBUG, then INFO statements. WARN and ERROR statements are never skipped.
+ * Once the fill ratio is down to {@code recoverRatio} and the rate to half its limit, the degradation is stepped
+ * down again, one step per {@code recoveryDelay}. The gap between the ratios and the delay keep the levels from
+ * flapping. <br>
+ * The loggers follow the most degraded appender. Statements logged through other SLF4J loggers are not affected,
+ * and are left to the appender's {@code discardingThreshold}.
+ */
+final class IgniteBackpressureController {
+
+    /**
+     * Interval at which the appenders are evaluated.
+     */
+    static final long EVALUATION_INTERVAL_MILLIS = 100;
+
+    /**
+     * Highest degradation step, INFO statements and below are skipped.
+     */
+    static final int MAX_STEP = 3;
+
+    private static final int[] LOWEST_LEVELS = {
+        IgniteLoggerImpl.PASS_THROUGH, Level.DEBUG_INT, Level.INFO_INT, Level.WARN_INT
+    };
+    private static final double RATE_RECOVERY_FRACTION = 0.5;
+    private static final long NOT_CALM = Long.MIN_VALUE;
+
+    private static final Map<IgniteAsyncAppender, IgniteBackpressureController> CONTROLLERS =
+            new ConcurrentHashMap<>();
+    private static ScheduledExecutorService timer;
+    private static int appliedStep;
+
+    private final double degradeRatio;
+    private final double recoverRatio;
+    private final long maxEventsPerSecond;
+    private final long recoveryDelayNanos;
+    private int step;
+    private double lastFill;
+    private long lastOffered;
+    private long lastNanos;
+    private long calmSince = NOT_CALM;
+
+    /**
+     * Creates the controller state of an appender.
+     *
+     * @param degradeRatio the queue fill ratio at which logging is degraded
+     * @param recoverRatio the queue fill ratio at or below which logging recovers
+     * @param maxEventsPerSecond the rate of events at which logging is degraded, 0 for no limit
+     * @param recoveryDelayMillis the time the appender has to stay calm for each step of recovery
+     */
+    IgniteBackpressureController(double degradeRatio, double recoverRatio, long maxEventsPerSecond,
+            long recoveryDelayMillis) {
+        this.degradeRatio = degradeRatio;
+        this.recoverRatio = recoverRatio;
+        this.maxEventsPerSecond = maxEventsPerSecond;
+        this.recoveryDelayNanos = TimeUnit.MILLISECONDS.toNanos(recoveryDelayMillis);
+    }
+
+    /**
+     * Evaluates one sample of the appender.
+     *
+     * @param fill the queue fill ratio, from 0 to 1
+     * @param offered the total number of events logged to the appender
+     * @param now the time of the sample in nanoseconds
+     * @return the degradation step, from 0 to {@link #MAX_STEP}
+     */
+    int update(double fill, long offered, long now) {
+        double rate = lastNanos == 0 ? 0 : (offered - lastOffered) * (double) TimeUnit.SECONDS.toNanos(1)
+                / (now - lastNanos);
+        boolean rateExceeded = maxEventsPerSecond > 0 && rate > maxEventsPerSecond;
+        boolean calm = fill <= recoverRatio
+                && (maxEventsPerSecond == 0 || rate <= maxEventsPerSecond * RATE_RECOVERY_FRACTION);
+        if (fill >= degradeRatio && fill >= lastFill || rateExceeded) {
+            // the queue still fills despite the current step
+            calmSince = NOT_CALM;
+            step = Math.min(step + 1, MAX_STEP);
+        } else if (!calm || step == 0) {
+            calmSince = NOT_CALM;
+        } else if (calmSince == NOT_CALM) {
+            calmSince = now;
+        } else if (now - calmSince >= recoveryDelayNanos) {
+            step--;
+            calmSince = now;
+        }
+        lastFill = fill;
+        lastOffered = offered;
+        lastNanos = now;
+        return step;
+    }
+
+    /**
+     * Returns the Logback level int below which statements are skipped at a degradation step.
+     *
+     * @param step the degradation step
+     * @return the level int, {@link IgniteLoggerImpl#PASS_THROUGH} at step 0
+     */
+    static int lowestLevel(int step) {
+        return LOWEST_LEVELS[step];
+    }
+
+    /**
+     * Starts controlling the loggers on behalf of an appender.
+     *
+     * @param appender the started appender
+     * @param controller its controller state
+     */
+    static synchronized void register(IgniteAsyncAppender appender, IgniteBackpressureController controller) {
+        CONTROLLERS.put(appender, controller);
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "IgniteBackpressureController");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleWithFixedDelay(IgniteBackpressureController::evaluateAll, EVALUATION_INTERVAL_MILLIS,
+                    EVALUATION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops controlling the loggers on behalf of an appender, restoring their levels if it was the last one.
+     *
+     * @param appender the stopped appender
+     */
+    static synchronized void unregister(IgniteAsyncAppender appender) {
+        IgniteBackpressureController removed = CONTROLLERS.remove(appender);
+        if (removed == null) {
+            return;
+        }
+        if (removed.step > 0 && appender.isMetricsEnabled()) {
+            IgniteAsyncAppenderMetrics.publishDegradation(appender.getName(), 0);
+        }
+        if (CONTROLLERS.isEmpty()) {
+            timer.shutdown();
+            timer = null;
+        }
+        apply(CONTROLLERS.values().stream().mapToInt(controller -> controller.step).max().orElse(0));
+    }
+
+    /**
+     * Returns the degradation step applied to the loggers.
+     *
+     * @return the step, 0 if logging is not degraded
+     */
+    static synchronized int appliedStep() {
+        return appliedStep;
+    }
+
+    private static synchronized void evaluateAll() {
+        long now = System.nanoTime();
+        int highest = 0;
+        for (Map.Entry<IgniteAsyncAppender, IgniteBackpressureController> entry : CONTROLLERS.entrySet()) {
+            IgniteAsyncAppender appender = entry.getKey();
+            try {
+                highest = Math.max(highest, evaluate(appender, entry.getValue(), now));
+            } catch (RuntimeException e) {
+                // keeps the timer running for the other appenders
+                appender.addError("Failed to evaluate the backpressure", e);
+            }
+        }
+        apply(highest);
+    }
+
+    private static int evaluate(IgniteAsyncAppender appender, IgniteBackpressureController controller, long now) {
+        int previous = controller.step;
+        double fill = (double) appender.getQueueDepth() / appender.getCapacity();
+        int step = controller.update(fill, appender.getOfferedCount(), now);
+        if (step > previous) {
+            appender.addWarn("Queue " + String.format("%.2f", fill) + " full, skipping statements below "
+                    + Level.toLevel(lowestLevel(step)) + " logged through IgniteLogger");
+        } else if (step < previous) {
+            appender.addInfo("Backpressure eased, " + (step == 0 ? "restoring the configured levels"
+                    : "skipping statements below " + Level.toLevel(lowestLevel(step))));
+        }
+        if (appender.isMetricsEnabled()) {
+            IgniteAsyncAppenderMetrics.publishDegradation(appender.getName(), step);
+        }
+        return step;
+    }
+
+    private static void apply(int step) {
+        if (step != appliedStep) {
+            appliedStep = step;
+            IgniteLoggerImpl.degrade(lowestLevel(step));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes logging events in a compact binary format instead of text, for services whose log volume makes even
+ * efficient text logging too expensive. Events are written as the format reference, level, timestamp delta,
+ * logger and thread references, the typed arguments, the {@link IgniteEventHeader} fields and the stack frames,
+ * with every recurring string written once per segment. See {@link BinaryLogFormat}. <br>
+ * Events are written to {@code file} until it reaches {@code maxSegmentSize}, when it is renamed to
+ * {@code file.1}, older segments are shifted to {@code file.2} and so on, and a new segment is started. At most
+ * {@code maxSegments} rolled segments are kept. {@link IgniteBinaryLogDecoder} turns segments back into text or
+ * JSON. <br>
+ * The messages are never formatted, which is cheapest with the event header in
+ * {@link IgniteEventHeaderMode#DEFERRED} mode. Arguments are converted when the event is written, so behind an
+ * {@link IgniteAsyncAppender} they are subject to its {@code argumentSnapshot} setting.
+ */
+public class IgniteBinaryAppender extends AppenderBase<ILoggingEvent> {
+
+    /**
+     * Default size at which a segment is rolled, 64 MB.
+     */
+    static final long DEFAULT_MAX_SEGMENT_SIZE = 64 * FileSize.MB_COEFFICIENT;
+
+    /**
+     * Default number of rolled segments kept.
+     */
+    static final int DEFAULT_MAX_SEGMENTS = 10;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String file;
+    private FileSize maxSegmentSize = new FileSize(DEFAULT_MAX_SEGMENT_SIZE);
+    private int maxSegments = DEFAULT_MAX_SEGMENTS;
+    private boolean immediateFlush = true;
+
+    private Path path;
+    private OutputStream stream;
+    private BinaryLogWriter writer;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (file == null) {
+            addError("No file set for the binary appender named [" + name + "]");
+            return;
+        }
+        if (maxSegments < 0) {
+            addError("Invalid number of segments [" + maxSegments + "]");
+            return;
+        }
+        path = Paths.get(file);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(path) && Files.size(path) > 0) {
+                shiftSegments();
+            }
+            openSegment();
+        } catch (IOException e) {
+            addError("Failed to open binary log segment [" + file + "]", e);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        closeSegment();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        try {
+            long before = writer.written();
+            writer.write(event);
+            IgniteLoggerStats.encoded(event, writer.written() - before);
+            if (immediateFlush) {
+                stream.flush();
+            }
+            if (writer.written() >= maxSegmentSize.getSize()) {
+                roll();
+            }
+        } catch (IOException e) {
+            addError("Failed to write to binary log segment [" + file + "], stopping the appender", e);
+            super.stop();
+            closeSegment();
+        }
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        shiftSegments();
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        stream = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+        writer = new BinaryLogWriter(stream, System.currentTimeMillis(), BinaryLogWriter.MAX_DICTIONARY_SIZE);
+    }
+
+    private void closeSegment() {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException e) {
+            addError("Failed to close binary log segment [" + file + "]", e);
+        }
+        stream = null;
+        writer = null;
+    }
+
+    /**
+     * Renames the active segment to {@code file.1}, shifting the rolled segments up and deleting the oldest.
+     */
+    private void shiftSegments() throws IOException {
+        if (maxSegments == 0) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        Files.deleteIfExists(segment(maxSegments));
+        for (int i = maxSegments - 1; i >= 1; i--) {
+            Path rolled = segment(i);
+            if (Files.exists(rolled)) {
+                Files.move(rolled, segment(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, segment(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path segment(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    /**
+     * Returns the file the active segment is written to.
+     *
+     * @return the file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the file the active segment is written to.
+     *
+     * @param file the file
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the size at which a segment is rolled.
+     *
+     * @return the maximum segment size
+     */
+    public FileSize getMaxSegmentSize() {
+        return maxSegmentSize;
+    }
+
+    /**
+     * Sets the size at which a segment is rolled, e.g. {@code 64MB}.
+     *
+     * @param maxSegmentSize the maximum segment size
+     */
+    public void setMaxSegmentSize(FileSize maxSegmentSize) {
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    /**
+     * Returns the number of rolled segments kept.
+     *
+     * @return the maximum number of rolled segments
+     */
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Sets the number of rolled segments kept, 0 keeps only the active segment.
+     *
+     * @param maxSegments the maximum number of rolled segments
+     */
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Returns whether every event is flushed to the file when it is written.
+     *
+     * @return true if events are flushed immediately, the default
+     */
+    public boolean isImmediateFlush() {
+        return immediateFlush;
+    }
+
+    /**
+     * Sets whether every event is flushed to the file when it is written. Without it events are written in
+     * blocks, and the last ones are lost if the process dies.
+     *
+     * @param immediateFlush true to flush every event
+     */
+    public void setImmediateFlush(boolean immediateFlush) {
+        this.immediateFlush = immediateFlush;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes segments written by {@link IgniteBinaryAppender} back into text or JSON lines, e.g.
+ * <pre>
+ * java -cp utils.jar:logback-classic.jar:... org.eclipse.ecsp.utils.logger.IgniteBinaryLogDecoder \
+ *     [--json | --pattern &lt;pattern&gt;] app.ilog.2 app.ilog.1 app.ilog
+ * </pre>
+ * Text is rendered with the {@link #DEFAULT_PATTERN} unless another pattern is given, stack traces with
+ * {@link IgniteThrowableProxyConverter} as {@code %ex}, and JSON with {@link IgniteJsonEncoder}. The lines are
+ * written to standard output, segments in the order they are given. A segment cut short by a crash is decoded up
+ * to its last complete event.
+ */
+public final class IgniteBinaryLogDecoder {
+
+    /**
+     * Pattern used for text output when none is given.
+     */
+    public static final String DEFAULT_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger - %msg%n%ex";
+
+    private static final String JSON_OPTION = "--json";
+    private static final String PATTERN_OPTION = "--pattern";
+    private static final String THROWABLE_CONVERSION_WORD = "ex";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private IgniteBinaryLogDecoder() {
+    }
+
+    /**
+     * Decodes the given segments to standard output.
+     *
+     * @param args the options followed by the segment files
+     * @throws IOException if a segment cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        boolean json = false;
+        String pattern = DEFAULT_PATTERN;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (JSON_OPTION.equals(args[i])) {
+                json = true;
+            } else if (PATTERN_OPTION.equals(args[i]) && i + 1 < args.length) {
+                pattern = args[++i];
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: IgniteBinaryLogDecoder [--json | --pattern <pattern>] <segment>...");
+            System.exit(1);
+        }
+        LoggerContext context = new LoggerContext();
+        Encoder<ILoggingEvent> encoder = json ? jsonEncoder(context) : patternEncoder(context, pattern);
+        OutputStream out = new BufferedOutputStream(System.out, BUFFER_SIZE);
+        for (String file : files) {
+            try (InputStream in = Files.newInputStream(Paths.get(file))) {
+                decode(in, encoder, out);
+            } catch (EOFException e) {
+                System.err.println("Segment " + file + " ends within an event, it was decoded up to that event");
+            }
+        }
+        out.flush();
+        encoder.stop();
+    }
+
+    /**
+     * Decodes a segment with the given encoder.
+     *
+     * @param in the segment stream
+     * @param encoder the encoder rendering the events
+     * @param out the stream to write the rendered events to
+     * @return the number of decoded events
+     * @throws EOFException if the segment ends within an event, the events before it were written
+     * @throws IOException if the segment cannot be read or the output cannot be written
+     */
+    public static long decode(InputStream in, Encoder<ILoggingEvent> encoder, OutputStream out) throws IOException {
+        BinaryLogReader reader = new BinaryLogReader(in);
+        long count = 0;
+        for (ILoggingEvent event = reader.next(); event != null; event = reader.next()) {
+            out.write(encoder.encode(event));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Creates a started encoder rendering events as text, with {@link IgniteThrowableProxyConverter} as {@code %ex}.
+     *
+     * @param context the logger context
+     * @param pattern the layout pattern
+     * @return the encoder
+     */
+    public static Encoder<ILoggingEvent> patternEncoder(LoggerContext context, String pattern) {
+        PatternLayout layout = new PatternLayout();
+        layout.setContext(context);
+        layout.getInstanceConverterMap().put(THROWABLE_CONVERSION_WORD, IgniteThrowableProxyConverter.class.getName());
+        layout.setPattern(pattern);
+        layout.start();
+        LayoutWrappingEncoder<ILoggingEvent> encoder = new LayoutWrappingEncoder<>();
+        encoder.setContext(context);
+        encoder.setLayout(layout);
+        encoder.start();
+        return encoder;
+    }
+
+    /**
+     * Creates a started encoder rendering events as JSON lines.
+     *
+     * @param context the logger context
+     * @return the encoder
+     */
+    public static Encoder<ILoggingEvent> jsonEncoder(LoggerContext context) {
+        IgniteJsonEncoder encoder = new IgniteJsonEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        return encoder;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.ClassicConstants;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Context;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Extracts the caller data of events logged through {@link IgniteLoggerImpl} with a {@link StackWalker}. <br>
+ * logback extracts caller data from a {@link Throwable}, which captures and materializes the whole stack of
+ * the logging thread. The walker stops after the caller frames, so only those frames are materialized.
+ * The caller frames follow the {@link IgniteLoggerImpl} and {@link IgniteRateLimitedLogger} frames and, like
+ * logback, frames in the context's framework packages or in {@code org.slf4j.Logger} are skipped. <br>
+ * Statements woven at build time take their caller data from their {@link IgniteCallsite} without
+ * inspecting the stack. Events which were not logged through {@link IgniteLoggerImpl} keep logback's caller data.
+ * Caller data has to be extracted on the logging thread.
+ */
+final class IgniteCallerData {
+
+    /**
+     * {@link IgniteLoggerImpl} is expected within this many frames from the appender, otherwise the event
+     * was logged by other means.
+     */
+    static final int MAX_SEARCH_DEPTH = 128;
+
+    private static final String SLF4J_BOUNDARY = "org.slf4j.Logger";
+    private static final String NESTED_CLASS_PREFIX = IgniteLoggerImpl.FQCN + "$";
+    private static final String RATE_LIMITED_LOGGER = IgniteRateLimitedLogger.class.getName();
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private IgniteCallerData() {
+    }
+
+    /**
+     * Returns the caller data of the event, taking it from the current {@link IgniteCallsite} or extracting it
+     * with the stack walker if it was not extracted yet.
+     *
+     * @param event the logging event
+     * @param context the logger context supplying the maximum depth and framework packages, may be null
+     * @return the caller data, empty if there is none
+     */
+    static StackTraceElement[] extract(ILoggingEvent event, Context context) {
+        if (event instanceof LoggingEvent loggingEvent && !loggingEvent.hasCallerData()) {
+            IgniteCallsite callsite = IgniteCallsite.current();
+            StackTraceElement[] callerData = callsite != null ? callsite.callerData() : walk(context);
+            if (callerData != null) {
+                loggingEvent.setCallerData(callerData);
+            }
+        }
+        return event.getCallerData();
+    }
+
+    private static StackTraceElement[] walk(Context context) {
+        if (context instanceof LoggerContext loggerContext) {
+            return walk(loggerContext.getMaxCallerDataDepth(), loggerContext.getFrameworkPackages());
+        }
+        return walk(ClassicConstants.DEFAULT_MAX_CALLEDER_DATA_DEPTH, Collections.emptyList());
+    }
+
+    /**
+     * Walks the current stack down to the frames calling {@link IgniteLoggerImpl}.
+     *
+     * @param maxDepth the maximum number of caller frames
+     * @param frameworkPackages packages whose frames are skipped like the logger's own
+     * @return the caller frames, or null if {@link IgniteLoggerImpl} is not on the stack
+     */
+    static StackTraceElement[] walk(int maxDepth, List<String> frameworkPackages) {
+        return WALKER.walk(frames -> callers(frames.iterator(), maxDepth, frameworkPackages));
+    }
+
+    private static StackTraceElement[] callers(Iterator<StackWalker.StackFrame> frames, int maxDepth,
+            List<String> frameworkPackages) {
+        boolean loggerSeen = false;
+        int searched = 0;
+        while (frames.hasNext()) {
+            StackWalker.StackFrame frame = frames.next();
+            String className = frame.getClassName();
+            if (isLogger(className)) {
+                loggerSeen = true;
+            } else if (loggerSeen && !isFramework(className, frameworkPackages)) {
+                return collect(frame, frames, maxDepth);
+            } else if (!loggerSeen && ++searched > MAX_SEARCH_DEPTH) {
+                return null;
+            }
+        }
+        return loggerSeen ? CallerData.EMPTY_CALLER_DATA_ARRAY : null;
+    }
+
+    private static StackTraceElement[] collect(StackWalker.StackFrame first, Iterator<StackWalker.StackFrame> frames,
+            int maxDepth) {
+        if (maxDepth <= 0) {
+            return CallerData.EMPTY_CALLER_DATA_ARRAY;
+        }
+        StackTraceElement[] callers = new StackTraceElement[maxDepth];
+        callers[0] = first.toStackTraceElement();
+        int count = 1;
+        while (count < maxDepth && frames.hasNext()) {
+            callers[count++] = frames.next().toStackTraceElement();
+        }
+        return count == maxDepth ? callers : Arrays.copyOf(callers, count);
+    }
+
+    private static boolean isLogger(String className) {
+        return IgniteLoggerImpl.FQCN.equals(className) || className.startsWith(NESTED_CLASS_PREFIX)
+                || RATE_LIMITED_LOGGER.equals(className);
+    }
+
+    private static boolean isFramework(String className, List<String> frameworkPackages) {
+        if (isLogger(className) || className.startsWith(SLF4J_BOUNDARY)) {
+            return true;
+        }
+        for (String frameworkPackage : frameworkPackages) {
+            if (className.startsWith(frameworkPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
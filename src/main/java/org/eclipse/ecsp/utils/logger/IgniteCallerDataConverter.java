@@ -53,7 +53,12 @@ import java.util.List;
  * 1. removing of "caller" from log message.<br>
  * 2. Printing short-form of fully qualified package <br>
  * name(eg:org.eclipse.ecsp.utils.logger.IgniteCallerDataConverter
- * will be replaced as c.h.i.u.l.IgniteCallerDataConverter)
+ * will be replaced as c.h.i.u.l.IgniteCallerDataConverter)<br>
+ * The caller data of events logged through IgniteLogger is extracted with a {@link StackWalker} instead of a
+ * {@link Throwable}, see {@link IgniteCallerData}, and the caller line of every callsite is formatted once.<br>
+ * The first frame which does not belong to IgniteLoggerImpl is printed. Previously the second frame was printed,
+ * which skipped the IgniteLoggerImpl frame of IgniteLogger events but printed the caller of the caller for
+ * events of plain SLF4J loggers. Those events now print the frame which called the SLF4J logger.
  *
  * @author vishnu.k;
  */
@@ -61,14 +66,24 @@ public class IgniteCallerDataConverter extends CallerDataConverter {
 
 
     /**
-     * Variable to track the start of depth.
+     * Maximum error count before logging stops.
      */
-    private int depthStart = 1;
+    static final int MAX_ERR_COUNT = 4;
 
     /**
-     * Maximum error count before logging stops.
+     * Index returned when the caller data has no application frame.
      */
-    static final int MAX_ERR_COUNT = 4;
+    private static final int NO_CALLER = -1;
+
+    /**
+     * Maximum number of cached caller lines.
+     */
+    static final int MAX_CACHED_CALLERS = 4096;
+
+    /**
+     * Formatted caller line of the recently seen callsites.
+     */
+    private final BoundedCache<StackTraceElement, String> callerLines = new BoundedCache<>(MAX_CACHED_CALLERS);
 
     /**
      * Variable to track count of error.
@@ -115,17 +130,37 @@ public class IgniteCallerDataConverter extends CallerDataConverter {
      * @return the caller data as a string
      */
     private String convertToCallerData(ILoggingEvent le) {
-        StringBuilder buf = new StringBuilder();
-        StackTraceElement[] cda = le.getCallerData();
-        if (cda != null && cda.length > depthStart) {
-            buf.append(getCallerLinePrefix());
-            buf.append(cda[depthStart]);
-            buf.append(" ");
-
-            return buf.toString();
-        } else {
+        StackTraceElement[] cda = IgniteCallerData.extract(le, getContext());
+        int callerIndex = firstCallerIndex(cda);
+        if (callerIndex == NO_CALLER) {
             return CallerData.CALLER_DATA_NA;
         }
+        StackTraceElement caller = cda[callerIndex];
+        String callerLine = callerLines.get(caller);
+        if (callerLine == null) {
+            callerLine = getCallerLinePrefix() + caller + " ";
+            callerLines.put(caller, callerLine);
+        }
+        return callerLine;
+    }
+
+    /**
+     * Finds the first frame of the caller data which does not belong to IgniteLoggerImpl.
+     * Depending on how the event was created, the caller data either starts with the IgniteLoggerImpl
+     * frames or directly with the application frame.
+     *
+     * @param cda : the caller data
+     * @return index of the application frame, NO_CALLER if there is none
+     */
+    private static int firstCallerIndex(StackTraceElement[] cda) {
+        if (cda != null) {
+            for (int i = 0; i < cda.length; i++) {
+                if (!IgniteLoggerImpl.FQCN.equals(cda[i].getClassName())) {
+                    return i;
+                }
+            }
+        }
+        return NO_CALLER;
     }
 
     /**
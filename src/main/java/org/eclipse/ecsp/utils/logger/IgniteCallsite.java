@@ -0,0 +1,142 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Source location of an {@link IgniteLogger} statement, known at build time. <br>
+ * The {@code utils-callsite-weaver} build step rewrites every {@code IgniteLogger} logging call into an
+ * {@code invokedynamic} instruction bootstrapped by {@link #bootstrap}, passing the class, method, file and
+ * line of the statement. The callsite is created once, when the instruction is first executed, and is made
+ * current for the duration of every call, so the caller data of the event is taken from it instead of
+ * inspecting the stack. Caller data taken from a callsite has a single frame. <br>
+ * Code which is not woven is unaffected, its caller data is extracted as before.
+ *
+ * @see IgniteCallerData
+ */
+public final class IgniteCallsite {
+
+    private static final ThreadLocal<IgniteCallsite> CURRENT = new ThreadLocal<>();
+
+    private static final MethodHandle ENTER;
+    private static final MethodHandle EXIT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ENTER = lookup.findVirtual(IgniteCallsite.class, "enter", MethodType.methodType(void.class));
+            EXIT = lookup.findStatic(IgniteCallsite.class, "exit",
+                    MethodType.methodType(void.class, Throwable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final StackTraceElement[] callerData;
+
+    private IgniteCallsite(String className, String methodName, String fileName, int lineNumber) {
+        this.callerData = new StackTraceElement[] {
+            new StackTraceElement(className, methodName, fileName, lineNumber)
+        };
+    }
+
+    /**
+     * Bootstrap method of the woven {@code invokedynamic} instructions. The instruction has the name and the
+     * parameter types of the {@link IgniteLogger} method it replaces, preceded by the logger.
+     *
+     * @param lookup the lookup of the calling class
+     * @param name the name of the {@link IgniteLogger} method
+     * @param type the type of the call, {@link IgniteLogger} followed by the method's parameter types
+     * @param className the class containing the statement
+     * @param methodName the method containing the statement
+     * @param fileName the source file, empty if unknown
+     * @param lineNumber the line of the statement, negative if unknown
+     * @return a constant call site invoking the {@link IgniteLogger} method with this callsite current
+     * @throws NoSuchMethodException if {@link IgniteLogger} has no such method
+     * @throws IllegalAccessException if the method is not accessible
+     */
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String className,
+            String methodName, String fileName, int lineNumber) throws NoSuchMethodException, IllegalAccessException {
+        MethodHandle target = MethodHandles.publicLookup().findVirtual(IgniteLogger.class, name,
+                type.dropParameterTypes(0, 1));
+        IgniteCallsite callsite = new IgniteCallsite(className, methodName,
+                fileName.isEmpty() ? null : fileName, lineNumber);
+        MethodHandle withCallsite = MethodHandles.foldArguments(MethodHandles.tryFinally(target, EXIT),
+                ENTER.bindTo(callsite));
+        return new ConstantCallSite(withCallsite.asType(type));
+    }
+
+    /**
+     * Returns the callsite of the {@link IgniteLogger} call the current thread is in, if it was woven.
+     *
+     * @return the current callsite, or null
+     */
+    static IgniteCallsite current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the caller data of the statement. The array is shared by all events of this callsite.
+     *
+     * @return the caller data
+     */
+    StackTraceElement[] callerData() {
+        return callerData;
+    }
+
+    private void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * A statement whose arguments log themselves leaves no callsite current, the enclosing statement then
+     * falls back to the stack walker.
+     */
+    private static void exit(Throwable t) {
+        CURRENT.set(null);
+    }
+
+    @Override
+    public String toString() {
+        return callerData[0].toString();
+    }
+}
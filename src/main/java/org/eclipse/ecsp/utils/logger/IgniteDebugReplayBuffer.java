@@ -0,0 +1,327 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.eclipse.ecsp.entities.IgniteEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Debug replay buffer of the IgniteEvent scoped TRACE and DEBUG statements which are below the logger level. <br>
+ * Instead of being dropped, the statements are captured in a ring buffer per request id, keeping the last
+ * {@code linesPerRequest} of them with their arguments unformatted. When an ERROR statement is logged for the
+ * request, its buffer is flushed to the appenders first, with the original timestamps and thread names, so that
+ * failures come with their debug context. The buffers of requests which succeed are discarded when the request is
+ * completed or, failing that, once they have not been used for the TTL. <br>
+ * Arguments are kept by reference and only formatted when a buffer is flushed, so they must not change after
+ * logging. Argument suppliers are only evaluated then as well. Flushed lines have no caller data.
+ * At most {@value #MAX_REQUESTS} requests are recorded at once, the statements of further requests are dropped.
+ * The buffer is only effective with logback.
+ */
+final class IgniteDebugReplayBuffer {
+
+    /**
+     * System property enabling the buffer with this many lines per request.
+     */
+    static final String LINES_PROPERTY = "ignite.logger.debug.replay.lines";
+
+    /**
+     * System property setting after how many milliseconds unused buffers are discarded.
+     */
+    static final String TTL_PROPERTY = "ignite.logger.debug.replay.ttl.ms";
+
+    /**
+     * Default TTL of the buffers.
+     */
+    static final long DEFAULT_TTL_MILLIS = 60_000L;
+
+    /**
+     * Maximum number of requests recorded at once.
+     */
+    static final int MAX_REQUESTS = 10_000;
+
+    private static final Map<String, RequestBuffer> BUFFERS = new ConcurrentHashMap<>();
+
+    private static volatile Settings settings = Settings.fromProperties();
+    private static volatile long nextSweep;
+
+    private IgniteDebugReplayBuffer() {
+    }
+
+    /**
+     * Returns whether statements are recorded.
+     *
+     * @return true if the buffer is enabled
+     */
+    static boolean isEnabled() {
+        return settings != null;
+    }
+
+    /**
+     * Enables the buffer, or disables it with zero lines, discarding the recorded statements.
+     *
+     * @param linesPerRequest the statements kept per request
+     * @param ttlMillis the milliseconds after which an unused buffer is discarded
+     */
+    static synchronized void configure(int linesPerRequest, long ttlMillis) {
+        if (linesPerRequest < 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Invalid debug replay settings: " + linesPerRequest
+                    + " lines, " + ttlMillis + " ms");
+        }
+        settings = linesPerRequest == 0 ? null : new Settings(linesPerRequest, ttlMillis);
+        BUFFERS.clear();
+        nextSweep = 0;
+    }
+
+    /**
+     * Returns the statements kept per request.
+     *
+     * @return the lines per request, 0 if the buffer is disabled
+     */
+    static int getLinesPerRequest() {
+        Settings current = settings;
+        return current == null ? 0 : current.linesPerRequest;
+    }
+
+    /**
+     * Returns the number of requests with recorded statements.
+     *
+     * @return the recorded requests
+     */
+    static int recordedRequests() {
+        return BUFFERS.size();
+    }
+
+    /**
+     * Records a statement of the event's request.
+     *
+     * @param logger the logger of the statement
+     * @param level the level of the statement
+     * @param event the IgniteEvent associated with the statement
+     * @param format the message format string
+     * @param arguments the arguments, or argument suppliers, may be null
+     * @param t the throwable, may be null
+     */
+    static void capture(org.slf4j.Logger logger, org.slf4j.event.Level level, IgniteEvent event, String format,
+            Object[] arguments, Throwable t) {
+        Settings current = settings;
+        if (current == null || event == null || !(logger instanceof Logger logbackLogger)) {
+            return;
+        }
+        String requestId = event.getRequestId();
+        if (requestId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        RequestBuffer buffer = BUFFERS.get(requestId);
+        if (buffer == null) {
+            sweep(now, current.ttlMillis);
+            if (BUFFERS.size() >= MAX_REQUESTS) {
+                return;
+            }
+            buffer = BUFFERS.computeIfAbsent(requestId, id -> new RequestBuffer(current.linesPerRequest));
+        }
+        buffer.add(now, current.ttlMillis, logbackLogger, Level.convertAnSLF4JLevel(level),
+                new IgniteEventHeader(event), format, arguments, t);
+    }
+
+    /**
+     * Flushes the recorded statements of the event's request to the appenders of their loggers.
+     *
+     * @param event the IgniteEvent of the failed request, may be null
+     */
+    static void flush(IgniteEvent event) {
+        if (settings == null || event == null || event.getRequestId() == null) {
+            return;
+        }
+        RequestBuffer buffer = BUFFERS.remove(event.getRequestId());
+        if (buffer != null) {
+            for (Line line : buffer.drain()) {
+                line.logger.callAppenders(line.toLoggingEvent());
+            }
+        }
+    }
+
+    /**
+     * Discards the recorded statements of a request which completed without error.
+     *
+     * @param requestId the request id
+     */
+    static void complete(String requestId) {
+        if (requestId != null) {
+            BUFFERS.remove(requestId);
+        }
+    }
+
+    private static void sweep(long now, long ttlMillis) {
+        if (now < nextSweep) {
+            return;
+        }
+        nextSweep = now + ttlMillis;
+        BUFFERS.values().removeIf(buffer -> buffer.isExpired(now, ttlMillis));
+    }
+
+    /**
+     * Buffer settings, replaced as a whole.
+     */
+    private static final class Settings {
+        private final int linesPerRequest;
+        private final long ttlMillis;
+
+        private Settings(int linesPerRequest, long ttlMillis) {
+            this.linesPerRequest = linesPerRequest;
+            this.ttlMillis = ttlMillis;
+        }
+
+        private static Settings fromProperties() {
+            int lines = Integer.getInteger(LINES_PROPERTY, 0);
+            long ttl = Long.getLong(TTL_PROPERTY, DEFAULT_TTL_MILLIS);
+            return lines > 0 && ttl > 0 ? new Settings(lines, ttl) : null;
+        }
+    }
+
+    /**
+     * Ring buffer of the statements of one request. Its slots are reused until it is drained.
+     */
+    private static final class RequestBuffer {
+        private final Line[] lines;
+        private int next;
+        private int size;
+        private long lastUsed;
+        private boolean drained;
+
+        private RequestBuffer(int capacity) {
+            this.lines = new Line[capacity];
+        }
+
+        private synchronized void add(long now, long ttlMillis, Logger logger, Level level, IgniteEventHeader header,
+                String format, Object[] arguments, Throwable t) {
+            if (drained) {
+                return;
+            }
+            if (size > 0 && now - lastUsed > ttlMillis) {
+                size = 0;
+            }
+            lastUsed = now;
+            Line line = lines[next];
+            if (line == null) {
+                line = new Line();
+                lines[next] = line;
+            }
+            line.set(logger, level, header, format, arguments, t, now, Thread.currentThread().getName());
+            next = (next + 1) % lines.length;
+            size = Math.min(size + 1, lines.length);
+        }
+
+        private synchronized boolean isExpired(long now, long ttlMillis) {
+            return now - lastUsed > ttlMillis;
+        }
+
+        private synchronized Line[] drain() {
+            drained = true;
+            Line[] ordered = new Line[size];
+            int first = (next - size + lines.length) % lines.length;
+            for (int i = 0; i < size; i++) {
+                ordered[i] = lines[(first + i) % lines.length];
+            }
+            return ordered;
+        }
+    }
+
+    /**
+     * A recorded statement.
+     */
+    private static final class Line {
+        private Logger logger;
+        private Level level;
+        private IgniteEventHeader header;
+        private String format;
+        private Object[] arguments;
+        private Throwable throwable;
+        private long timestamp;
+        private String threadName;
+
+        private void set(Logger logger, Level level, IgniteEventHeader header, String format, Object[] arguments,
+                Throwable throwable, long timestamp, String threadName) {
+            this.logger = logger;
+            this.level = level;
+            this.header = header;
+            this.format = format;
+            this.arguments = arguments;
+            this.throwable = throwable;
+            this.timestamp = timestamp;
+            this.threadName = threadName;
+        }
+
+        /**
+         * Builds the logging event in the current header mode, evaluating argument suppliers.
+         */
+        private LoggingEvent toLoggingEvent() {
+            Object[] resolved = resolve(arguments);
+            LoggingEvent loggingEvent;
+            if (IgniteLoggerImpl.getHeaderMode() == IgniteEventHeaderMode.STRUCTURED) {
+                loggingEvent = new LoggingEvent(IgniteLoggerImpl.FQCN, logger, level, format, throwable, resolved);
+                loggingEvent.setKeyValuePairs(IgniteEventHeaderRenderer.keyValuePairs(header));
+            } else {
+                loggingEvent = new LoggingEvent(IgniteLoggerImpl.FQCN, logger, level,
+                        IgniteEventHeaderRenderer.deferredFormat(format, resolved), throwable,
+                        IgniteEventHeaderRenderer.deferredArguments(header, format, resolved, null));
+            }
+            loggingEvent.setTimeStamp(timestamp);
+            loggingEvent.setThreadName(threadName);
+            loggingEvent.setCallerData(CallerData.EMPTY_CALLER_DATA_ARRAY);
+            return loggingEvent;
+        }
+
+        private static Object[] resolve(Object[] arguments) {
+            if (!(arguments instanceof Supplier<?>[] suppliers)) {
+                return arguments;
+            }
+            Object[] resolved = new Object[suppliers.length];
+            for (int i = 0; i < suppliers.length; i++) {
+                resolved[i] = suppliers[i] == null ? null : suppliers[i].get();
+            }
+            return resolved;
+        }
+    }
+}
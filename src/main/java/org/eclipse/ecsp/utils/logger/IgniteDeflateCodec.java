@@ -0,0 +1,110 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses segments to zlib streams with the JDK {@link Deflater}, e.g. for consumers reading them with
+ * {@link java.util.zip.InflaterInputStream}. Saves the gzip header and trailer, which matters for small segments.
+ */
+public class IgniteDeflateCodec implements IgniteSegmentCodec {
+
+    /**
+     * Suffix of deflated segments.
+     */
+    public static final String EXTENSION = ".zz";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private int level = Deflater.BEST_SPEED;
+
+    @Override
+    public String getExtension() {
+        return EXTENSION;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) {
+        return new EndingDeflaterOutputStream(out, new Deflater(level));
+    }
+
+    /**
+     * Returns the compression level.
+     *
+     * @return the level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the compression level, from {@code 1} (fastest, the default) to {@code 9} (smallest), {@code 0} for
+     * no compression or {@code -1} for zlib's default of {@code 6}.
+     *
+     * @param level the level
+     * @throws IllegalArgumentException if the level is not a valid deflate level
+     */
+    public void setLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level [" + level + "]");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Ends its own deflater on close, which {@link DeflaterOutputStream} only does for its default one.
+     */
+    private static final class EndingDeflaterOutputStream extends DeflaterOutputStream {
+
+        EndingDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater, BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
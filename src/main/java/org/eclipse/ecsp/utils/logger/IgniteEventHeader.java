@@ -0,0 +1,152 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEvent;
+
+/**
+ * Immutable copy of the {@link IgniteEvent} header fields, taken on the logging thread in
+ * {@link IgniteEventHeaderMode#DEFERRED} mode and by the {@link IgniteDebugReplayBuffer}, or decoded from a binary log
+ * segment. It is passed as the first
+ * message argument and only rendered, through {@link #toString()}, when the message is formatted, typically on an
+ * async appender thread.
+ */
+final class IgniteEventHeader {
+
+    private final long timestamp;
+    private final String requestId;
+    private final String messageId;
+    private final String bizTransactionId;
+    private final String vehicleId;
+    private final String eventId;
+    private final Version schemaVersion;
+    private final String sourceDeviceId;
+    private final String correlationId;
+
+    /**
+     * Copies the header fields of the given event.
+     *
+     * @param event the IgniteEvent associated with the log message
+     */
+    IgniteEventHeader(IgniteEvent event) {
+        this.timestamp = event.getTimestamp();
+        this.requestId = event.getRequestId();
+        this.messageId = event.getMessageId();
+        this.bizTransactionId = event.getBizTransactionId();
+        this.vehicleId = event.getVehicleId();
+        this.eventId = event.getEventId();
+        this.schemaVersion = event.getSchemaVersion();
+        this.sourceDeviceId = event.getSourceDeviceId();
+        this.correlationId = event.getCorrelationId();
+    }
+
+    /**
+     * Restores a header from its fields, as decoded from a binary log segment.
+     *
+     * @param timestamp the event timestamp
+     * @param requestId the request id
+     * @param messageId the message id
+     * @param bizTransactionId the business transaction id
+     * @param vehicleId the vehicle id
+     * @param eventId the event id
+     * @param schemaVersion the schema version
+     * @param sourceDeviceId the source device id
+     * @param correlationId the correlation id
+     */
+    IgniteEventHeader(long timestamp, String requestId, String messageId, String bizTransactionId, String vehicleId,
+            String eventId, Version schemaVersion, String sourceDeviceId, String correlationId) {
+        this.timestamp = timestamp;
+        this.requestId = requestId;
+        this.messageId = messageId;
+        this.bizTransactionId = bizTransactionId;
+        this.vehicleId = vehicleId;
+        this.eventId = eventId;
+        this.schemaVersion = schemaVersion;
+        this.sourceDeviceId = sourceDeviceId;
+        this.correlationId = correlationId;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    String getRequestId() {
+        return requestId;
+    }
+
+    String getMessageId() {
+        return messageId;
+    }
+
+    String getBizTransactionId() {
+        return bizTransactionId;
+    }
+
+    String getVehicleId() {
+        return vehicleId;
+    }
+
+    String getEventId() {
+        return eventId;
+    }
+
+    Version getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    String getSourceDeviceId() {
+        return sourceDeviceId;
+    }
+
+    String getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Renders the header the same way {@link IgniteEventHeaderMode#PREFIX} mode does, without the
+     * trailing message separator.
+     *
+     * @return the rendered header
+     */
+    @Override
+    public String toString() {
+        StringBuilder buf = IgniteEventHeaderRenderer.acquire();
+        IgniteEventHeaderRenderer.appendHeader(buf, this);
+        return IgniteEventHeaderRenderer.release(buf);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.util.Locale;
+
+/**
+ * Defines how {@link IgniteLogger} attaches the {@link org.eclipse.ecsp.entities.IgniteEvent} header fields
+ * (RequestId, MessageId, VehicleID, ...) to event scoped log lines.
+ *
+ * <p>The mode is taken from the {@value #PROPERTY_NAME} system property at startup and can be changed
+ * at runtime through {@link IgniteLoggerFactory#setEventHeaderMode(IgniteEventHeaderMode)}.</p>
+ */
+public enum IgniteEventHeaderMode {
+
+    /**
+     * The header fields are rendered in front of the message format, e.g.
+     * {@code Timestamp:1 , RequestId:r1 , ... ,message:<format>}. This is the default.
+     */
+    PREFIX,
+
+    /**
+     * The message format is passed on untouched and the header fields are attached to the logging event
+     * as key-value pairs, so encoders can write them as native fields (e.g. {@code %kvp} in a pattern,
+     * or a JSON encoder).
+     */
+    STRUCTURED,
+
+    /**
+     * Renders the same line as {@link #PREFIX}, but the logging thread only copies the header fields.
+     * The header is rendered together with the message arguments when the message is formatted, which
+     * an {@link IgniteAsyncAppender} with {@code deferredFormatting} enabled does on its worker thread.
+     */
+    DEFERRED;
+
+    /**
+     * System property used to select the header mode at startup.
+     */
+    public static final String PROPERTY_NAME = "ignite.logger.event.header.mode";
+
+    /**
+     * Resolves the header mode from a property value, falling back to {@link #PREFIX} when the value
+     * is missing or unknown.
+     *
+     * @param value the property value, case-insensitive
+     * @return the matching header mode
+     */
+    static IgniteEventHeaderMode fromProperty(String value) {
+        if (value != null) {
+            for (IgniteEventHeaderMode mode : values()) {
+                if (mode.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                    return mode;
+                }
+            }
+        }
+        return PREFIX;
+    }
+}
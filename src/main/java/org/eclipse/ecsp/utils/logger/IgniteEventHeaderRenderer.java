@@ -0,0 +1,368 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.entities.IgniteEvent;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the {@link IgniteEvent} header which {@link IgniteLoggerImpl} prepends to event scoped log lines. <br>
+ * The constant parts of the header are computed once and every thread renders into its own reusable buffer,
+ * so the only allocation left on the steady-state path is the final message String handed over to SLF4J. <br>
+ * In {@link IgniteEventHeaderMode#STRUCTURED} mode the same fields are exposed as key-value pairs instead,
+ * in {@link IgniteEventHeaderMode#DEFERRED} mode they are rendered from an {@link IgniteEventHeader} snapshot
+ * when the message is formatted.
+ *
+ * @see IgniteLoggerImpl
+ */
+final class IgniteEventHeaderRenderer {
+
+    static final String TIMESTAMP = "Timestamp";
+    static final String REQUEST_ID = "RequestId";
+    static final String MESSAGE_ID = "MessageId";
+    static final String BIZ_TRANSACTION_ID = "BizTransactionId";
+    static final String VEHICLE_ID = "VehicleID";
+    static final String EVENT_ID = "EventID";
+    static final String VERSION = "Version";
+    static final String SOURCE_DEVICE_ID = "SourceDeviceID";
+    static final String CORRELATION_ID = "CorrelationId";
+    static final String MESSAGE = "message";
+
+    private static final String FIELD_SEPARATOR = " , ";
+    private static final String KEY_VALUE_SEPARATOR = ":";
+
+    /**
+     * Header skeleton, every element is the literal text written in front of the corresponding field value.
+     */
+    private static final String TIMESTAMP_PREFIX = TIMESTAMP + KEY_VALUE_SEPARATOR;
+    private static final String REQUEST_ID_PREFIX = FIELD_SEPARATOR + REQUEST_ID + KEY_VALUE_SEPARATOR;
+    private static final String MESSAGE_ID_PREFIX = FIELD_SEPARATOR + MESSAGE_ID + KEY_VALUE_SEPARATOR;
+    private static final String BIZ_TRANSACTION_ID_PREFIX = FIELD_SEPARATOR + BIZ_TRANSACTION_ID
+            + KEY_VALUE_SEPARATOR;
+    private static final String VEHICLE_ID_PREFIX = FIELD_SEPARATOR + VEHICLE_ID + KEY_VALUE_SEPARATOR;
+    private static final String EVENT_ID_PREFIX = FIELD_SEPARATOR + EVENT_ID + KEY_VALUE_SEPARATOR;
+    private static final String VERSION_PREFIX = FIELD_SEPARATOR + VERSION + KEY_VALUE_SEPARATOR;
+    private static final String SOURCE_DEVICE_ID_PREFIX = FIELD_SEPARATOR + SOURCE_DEVICE_ID + KEY_VALUE_SEPARATOR;
+    private static final String CORRELATION_ID_PREFIX = FIELD_SEPARATOR + CORRELATION_ID + KEY_VALUE_SEPARATOR;
+    private static final String MESSAGE_PREFIX = " ," + MESSAGE + KEY_VALUE_SEPARATOR;
+
+    /**
+     * Initial capacity of the per-thread buffer, large enough for a typical header and message format.
+     */
+    static final int INITIAL_CAPACITY = 512;
+
+    /**
+     * Buffers which grew beyond this capacity are not retained, so one huge message
+     * does not pin memory for the lifetime of the thread.
+     */
+    static final int MAX_RETAINED_CAPACITY = 8192;
+
+    /**
+     * Maximum number of header fields, used to size the key-value pair list.
+     */
+    private static final int HEADER_FIELD_COUNT = 9;
+
+    /**
+     * Formats seen in {@link IgniteEventHeaderMode#DEFERRED} mode are almost always literals, so their
+     * prefixed form is cached. Dynamic formats are evicted again, see {@link BoundedCache}.
+     */
+    static final int MAX_DEFERRED_FORMATS = 4096;
+
+    private static final String DELIMITER = "{}";
+    private static final String DEFERRED_HEADER = DELIMITER + MESSAGE_PREFIX;
+
+    /**
+     * Format of a message logged without arguments whose text contains a delimiter, the text is passed as the
+     * argument of the second placeholder so it is neither formatted nor able to take the throwable.
+     */
+    static final String DEFERRED_LITERAL = DEFERRED_HEADER + DELIMITER;
+
+    private static final BoundedCache<String, String> DEFERRED_FORMATS = new BoundedCache<>(MAX_DEFERRED_FORMATS);
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private IgniteEventHeaderRenderer() {
+    }
+
+    /**
+     * Renders the header of the given event followed by the message format.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @return the message format prefixed with the event header
+     */
+    static String render(IgniteEvent event, String format) {
+        StringBuilder buf = acquire();
+        appendHeader(buf, event);
+        buf.append(MESSAGE_PREFIX).append(format);
+        return release(buf);
+    }
+
+    /**
+     * Renders the header of the given event followed by the message format into a buffer reused across the
+     * events of a batch, see {@link #acquire()} and {@link #trim(StringBuilder)}.
+     *
+     * @param buf the reused buffer, emptied first
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @return the message format prefixed with the event header
+     */
+    static String render(StringBuilder buf, IgniteEvent event, String format) {
+        buf.setLength(0);
+        appendHeader(buf, event);
+        buf.append(MESSAGE_PREFIX).append(format);
+        return buf.toString();
+    }
+
+    /**
+     * Appends the header fields of the given event to the buffer, without the trailing message separator.
+     *
+     * @param buf the buffer to append to
+     * @param event the IgniteEvent associated with the log message
+     */
+    static void appendHeader(StringBuilder buf, IgniteEvent event) {
+        buf.append(TIMESTAMP_PREFIX).append(event.getTimestamp())
+                .append(REQUEST_ID_PREFIX).append(event.getRequestId())
+                .append(MESSAGE_ID_PREFIX).append(event.getMessageId())
+                .append(BIZ_TRANSACTION_ID_PREFIX).append(event.getBizTransactionId())
+                .append(VEHICLE_ID_PREFIX).append(event.getVehicleId())
+                .append(EVENT_ID_PREFIX).append(event.getEventId())
+                .append(VERSION_PREFIX).append(event.getSchemaVersion())
+                .append(SOURCE_DEVICE_ID_PREFIX).append(event.getSourceDeviceId());
+        String correlationId = event.getCorrelationId();
+        if (correlationId != null) {
+            buf.append(CORRELATION_ID_PREFIX).append(correlationId);
+        }
+    }
+
+    /**
+     * Appends the header fields of a snapshot taken in {@link IgniteEventHeaderMode#DEFERRED} mode,
+     * without the trailing message separator.
+     *
+     * @param buf the buffer to append to
+     * @param header the header snapshot
+     */
+    static void appendHeader(StringBuilder buf, IgniteEventHeader header) {
+        buf.append(TIMESTAMP_PREFIX).append(header.getTimestamp())
+                .append(REQUEST_ID_PREFIX).append(header.getRequestId())
+                .append(MESSAGE_ID_PREFIX).append(header.getMessageId())
+                .append(BIZ_TRANSACTION_ID_PREFIX).append(header.getBizTransactionId())
+                .append(VEHICLE_ID_PREFIX).append(header.getVehicleId())
+                .append(EVENT_ID_PREFIX).append(header.getEventId())
+                .append(VERSION_PREFIX).append(header.getSchemaVersion())
+                .append(SOURCE_DEVICE_ID_PREFIX).append(header.getSourceDeviceId());
+        String correlationId = header.getCorrelationId();
+        if (correlationId != null) {
+            buf.append(CORRELATION_ID_PREFIX).append(correlationId);
+        }
+    }
+
+    /**
+     * Tells whether the format was rendered with the event header by {@link #render(IgniteEvent, String)},
+     * such formats are unique per event.
+     *
+     * @param format the message format string
+     * @return true if the format starts with a rendered event header
+     */
+    static boolean isRendered(String format) {
+        return format.startsWith(TIMESTAMP_PREFIX);
+    }
+
+    /**
+     * Returns the message format used in {@link IgniteEventHeaderMode#DEFERRED} mode, where the header
+     * is substituted into the leading placeholder when the message is formatted.
+     *
+     * @param format the message format string
+     * @return the format prefixed with a header placeholder and the message separator
+     */
+    static String deferredFormat(String format) {
+        String deferred = format == null ? null : DEFERRED_FORMATS.get(format);
+        if (deferred == null) {
+            deferred = DEFERRED_HEADER + format;
+            if (format != null) {
+                DEFERRED_FORMATS.put(format, deferred);
+            }
+        }
+        return deferred;
+    }
+
+    /**
+     * Returns the message format used in {@link IgniteEventHeaderMode#DEFERRED} mode for a message logged with
+     * the given arguments. A message logged without arguments is not a format: if it contains a delimiter,
+     * {@link #DEFERRED_LITERAL} is returned and the message is passed as an argument by
+     * {@link #deferredArguments(IgniteEventHeader, String, Object[], Throwable)}.
+     *
+     * @param format the message or message format string
+     * @param arguments the arguments of the message, null if it was logged without arguments
+     * @return the format prefixed with a header placeholder and the message separator
+     */
+    static String deferredFormat(String format, Object[] arguments) {
+        return isLiteral(format, arguments) ? DEFERRED_LITERAL : deferredFormat(format);
+    }
+
+    /**
+     * Builds the arguments of a message logged in {@link IgniteEventHeaderMode#DEFERRED} mode: the header
+     * snapshot for the leading placeholder, the arguments or the literal message, then the throwable. The
+     * throwable follows the placeholders, so SLF4J bindings pick it up as the trailing argument.
+     *
+     * @param header the header snapshot
+     * @param format the message or message format string
+     * @param arguments the arguments of the message, null if it was logged without arguments
+     * @param t the throwable, may be null
+     * @return the arguments matching {@link #deferredFormat(String, Object[])}
+     */
+    static Object[] deferredArguments(IgniteEventHeader header, String format, Object[] arguments, Throwable t) {
+        Object[] values = isLiteral(format, arguments) ? new Object[] {format} : arguments;
+        int count = values == null ? 0 : values.length;
+        Object[] deferred = new Object[1 + count + (t == null ? 0 : 1)];
+        deferred[0] = header;
+        if (count > 0) {
+            System.arraycopy(values, 0, deferred, 1, count);
+        }
+        if (t != null) {
+            deferred[1 + count] = t;
+        }
+        return deferred;
+    }
+
+    private static boolean isLiteral(String format, Object[] arguments) {
+        return arguments == null && format != null && format.contains(DELIMITER);
+    }
+
+    /**
+     * Appends the message of an event logged in {@link IgniteEventHeaderMode#DEFERRED} mode without its header,
+     * so encoders can write the header fields on their own.
+     *
+     * @param buf the buffer to append to
+     * @param format the message format of the logging event
+     * @param args the arguments of the logging event, may be null
+     * @return the header snapshot taken from the first argument, or null if the event was not logged in
+     *         {@link IgniteEventHeaderMode#DEFERRED} mode, in which case nothing is appended
+     */
+    static IgniteEventHeader appendDeferredMessage(StringBuilder buf, String format, Object[] args) {
+        if (args == null || args.length == 0 || !(args[0] instanceof IgniteEventHeader header)
+                || format == null || !format.startsWith(DEFERRED_HEADER)) {
+            return null;
+        }
+        MessageTemplate.of(format).appendFrom(buf, args, DEFERRED_HEADER.length());
+        return header;
+    }
+
+    /**
+     * Returns the header fields of the given event as key-value pairs, using the same keys as the rendered header.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @return the header fields
+     */
+    static List<KeyValuePair> keyValuePairs(IgniteEvent event) {
+        List<KeyValuePair> keyValuePairs = new ArrayList<>(HEADER_FIELD_COUNT);
+        keyValuePairs.add(new KeyValuePair(TIMESTAMP, event.getTimestamp()));
+        keyValuePairs.add(new KeyValuePair(REQUEST_ID, event.getRequestId()));
+        keyValuePairs.add(new KeyValuePair(MESSAGE_ID, event.getMessageId()));
+        keyValuePairs.add(new KeyValuePair(BIZ_TRANSACTION_ID, event.getBizTransactionId()));
+        keyValuePairs.add(new KeyValuePair(VEHICLE_ID, event.getVehicleId()));
+        keyValuePairs.add(new KeyValuePair(EVENT_ID, event.getEventId()));
+        keyValuePairs.add(new KeyValuePair(VERSION, event.getSchemaVersion()));
+        keyValuePairs.add(new KeyValuePair(SOURCE_DEVICE_ID, event.getSourceDeviceId()));
+        String correlationId = event.getCorrelationId();
+        if (correlationId != null) {
+            keyValuePairs.add(new KeyValuePair(CORRELATION_ID, correlationId));
+        }
+        return keyValuePairs;
+    }
+
+    /**
+     * Returns the header fields of a snapshot as key-value pairs, using the same keys as the rendered header.
+     *
+     * @param header the header snapshot
+     * @return the header fields
+     */
+    static List<KeyValuePair> keyValuePairs(IgniteEventHeader header) {
+        List<KeyValuePair> keyValuePairs = new ArrayList<>(HEADER_FIELD_COUNT);
+        keyValuePairs.add(new KeyValuePair(TIMESTAMP, header.getTimestamp()));
+        keyValuePairs.add(new KeyValuePair(REQUEST_ID, header.getRequestId()));
+        keyValuePairs.add(new KeyValuePair(MESSAGE_ID, header.getMessageId()));
+        keyValuePairs.add(new KeyValuePair(BIZ_TRANSACTION_ID, header.getBizTransactionId()));
+        keyValuePairs.add(new KeyValuePair(VEHICLE_ID, header.getVehicleId()));
+        keyValuePairs.add(new KeyValuePair(EVENT_ID, header.getEventId()));
+        keyValuePairs.add(new KeyValuePair(VERSION, header.getSchemaVersion()));
+        keyValuePairs.add(new KeyValuePair(SOURCE_DEVICE_ID, header.getSourceDeviceId()));
+        String correlationId = header.getCorrelationId();
+        if (correlationId != null) {
+            keyValuePairs.add(new KeyValuePair(CORRELATION_ID, correlationId));
+        }
+        return keyValuePairs;
+    }
+
+    /**
+     * Returns the calling thread's buffer, emptied and ready for use.
+     *
+     * @return the per-thread buffer
+     */
+    static StringBuilder acquire() {
+        StringBuilder buf = BUFFER.get();
+        buf.setLength(0);
+        return buf;
+    }
+
+    /**
+     * Copies the buffer content out and drops the buffer if it grew too large to be worth keeping.
+     *
+     * @param buf the buffer obtained from {@link #acquire()}
+     * @return the buffer content
+     */
+    static String release(StringBuilder buf) {
+        String rendered = buf.toString();
+        trim(buf);
+        return rendered;
+    }
+
+    /**
+     * Drops the buffer if it grew too large to be worth keeping.
+     *
+     * @param buf the buffer obtained from {@link #acquire()}
+     */
+    static void trim(StringBuilder buf) {
+        if (buf.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+    }
+}
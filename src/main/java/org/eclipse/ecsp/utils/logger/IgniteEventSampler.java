@@ -0,0 +1,174 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.entities.IgniteEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deterministic sampling of the vehicles whose IgniteEvent scoped TRACE, DEBUG and INFO statements are logged. <br>
+ * A vehicle is sampled when the hash of its vehicle id, or of the request id of events without one, is below the
+ * sampling rate of the event type, or of the logger when no rate is set for the event type. The hash does not
+ * depend on the logger or the JVM, so a sampled vehicle has all its lines logged, across loggers and instances,
+ * and lowering a rate only drops vehicles. Events without either id are always logged. <br>
+ * Rates are kept as thresholds out of {@link #ALWAYS}, which logs every vehicle.
+ */
+final class IgniteEventSampler {
+
+    /**
+     * Threshold sampling every vehicle.
+     */
+    static final long ALWAYS = 1L << Integer.SIZE;
+
+    private static final long HASH_MASK = ALWAYS - 1;
+
+    // murmur3 32-bit finalizer, spreading the similar hash codes of vehicle ids over the whole range
+    private static final int MIX_SHIFT_1 = 16;
+    private static final int MIX_SHIFT_2 = 13;
+    private static final int MIX_MULTIPLIER_1 = 0x85ebca6b;
+    private static final int MIX_MULTIPLIER_2 = 0xc2b2ae35;
+
+    private static volatile Map<String, Long> eventTypeThresholds = Collections.emptyMap();
+
+    private IgniteEventSampler() {
+    }
+
+    /**
+     * Returns whether the vehicle of an event is sampled.
+     *
+     * @param event the event, may be null
+     * @param loggerThreshold the sampling threshold of the logger
+     * @return true if the event is logged
+     */
+    static boolean isSampled(IgniteEvent event, long loggerThreshold) {
+        Map<String, Long> eventTypes = eventTypeThresholds;
+        if (event == null || loggerThreshold == ALWAYS && eventTypes.isEmpty()) {
+            return true;
+        }
+        long threshold = loggerThreshold;
+        if (!eventTypes.isEmpty()) {
+            Long eventTypeThreshold = eventTypes.get(event.getEventId());
+            if (eventTypeThreshold != null) {
+                threshold = eventTypeThreshold;
+            }
+        }
+        if (threshold == ALWAYS) {
+            return true;
+        }
+        String key = event.getVehicleId() != null ? event.getVehicleId() : event.getRequestId();
+        return key == null || (hash(key) & HASH_MASK) < threshold;
+    }
+
+    /**
+     * Returns the hash deciding whether an id is sampled.
+     *
+     * @param id the vehicle or request id
+     * @return the hash, compared unsigned against the thresholds
+     */
+    static int hash(String id) {
+        int h = id.hashCode();
+        h ^= h >>> MIX_SHIFT_1;
+        h *= MIX_MULTIPLIER_1;
+        h ^= h >>> MIX_SHIFT_2;
+        h *= MIX_MULTIPLIER_2;
+        h ^= h >>> MIX_SHIFT_1;
+        return h;
+    }
+
+    /**
+     * Converts a sampling rate into a threshold.
+     *
+     * @param rate the fraction of vehicles sampled, from 0 to 1
+     * @return the threshold
+     */
+    static long threshold(double rate) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Sampling rate must be between 0 and 1: " + rate);
+        }
+        return (long) (rate * ALWAYS);
+    }
+
+    /**
+     * Converts a threshold back into a sampling rate.
+     *
+     * @param threshold the threshold
+     * @return the fraction of vehicles sampled
+     */
+    static double rate(long threshold) {
+        return (double) threshold / ALWAYS;
+    }
+
+    /**
+     * Sets the sampling rate of an event type, which takes precedence over the rate of the logger.
+     *
+     * @param eventId the event type
+     * @param rate the fraction of vehicles sampled, from 0 to 1
+     */
+    static synchronized void setEventTypeRate(String eventId, double rate) {
+        Map<String, Long> thresholds = new HashMap<>(eventTypeThresholds);
+        thresholds.put(eventId, threshold(rate));
+        eventTypeThresholds = Collections.unmodifiableMap(thresholds);
+    }
+
+    /**
+     * Removes the sampling rate of an event type, its events are sampled at the rate of their logger again.
+     *
+     * @param eventId the event type
+     */
+    static synchronized void removeEventTypeRate(String eventId) {
+        if (eventTypeThresholds.containsKey(eventId)) {
+            Map<String, Long> thresholds = new HashMap<>(eventTypeThresholds);
+            thresholds.remove(eventId);
+            eventTypeThresholds = thresholds.isEmpty() ? Collections.emptyMap()
+                    : Collections.unmodifiableMap(thresholds);
+        }
+    }
+
+    /**
+     * Returns the sampling rate of an event type.
+     *
+     * @param eventId the event type
+     * @return the fraction of vehicles sampled, or NaN if the event type has no rate
+     */
+    static double getEventTypeRate(String eventId) {
+        Long threshold = eventTypeThresholds.get(eventId);
+        return threshold == null ? Double.NaN : rate(threshold);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.entities.IgniteEvent;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runtime watch list of vehicle, request and correlation ids whose IgniteEvent scoped statements are logged at
+ * every level, to debug one device in production without raising the level of a logger. <br>
+ * Watched statements below the logger level are handed to the logger's appenders directly, turbo filters still
+ * apply. They bypass the vehicle sampling as well. While nothing is watched, a statement only reads one volatile
+ * flag. <br>
+ * The watch list is managed through JMX as {@value #OBJECT_NAME}, or programmatically through
+ * {@link #getInstance()}. It is only effective with logback.
+ */
+public final class IgniteEventWatchList implements IgniteEventWatchListMBean {
+
+    /**
+     * JMX name of the watch list.
+     */
+    public static final String OBJECT_NAME = "org.eclipse.ecsp.utils.logger:type=IgniteEventWatchList";
+
+    private static final IgniteEventWatchList INSTANCE = new IgniteEventWatchList();
+
+    private final Set<String> vehicleIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> requestIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> correlationIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether any id is watched.
+     */
+    private volatile boolean active;
+
+    private IgniteEventWatchList() {
+    }
+
+    /**
+     * Returns the watch list.
+     *
+     * @return the watch list
+     */
+    public static IgniteEventWatchList getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the watch list with the platform MBean server, unless it is registered already, for example by
+     * another class loader.
+     */
+    static void register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            }
+        } catch (JMException | SecurityException e) {
+            // the watch list stays available programmatically
+        }
+    }
+
+    /**
+     * Returns whether an event has a watched vehicle, request or correlation id.
+     *
+     * @param event the event, may be null
+     * @return true if the event is watched
+     */
+    static boolean isWatched(IgniteEvent event) {
+        return INSTANCE.active && event != null && INSTANCE.matches(event);
+    }
+
+    private boolean matches(IgniteEvent event) {
+        return contains(vehicleIds, event.getVehicleId())
+                || contains(requestIds, event.getRequestId())
+                || contains(correlationIds, event.getCorrelationId());
+    }
+
+    private static boolean contains(Set<String> ids, String id) {
+        return id != null && !ids.isEmpty() && ids.contains(id);
+    }
+
+    @Override
+    public void watchVehicle(String vehicleId) {
+        update(vehicleIds, vehicleId, true);
+    }
+
+    @Override
+    public void unwatchVehicle(String vehicleId) {
+        update(vehicleIds, vehicleId, false);
+    }
+
+    @Override
+    public void watchRequest(String requestId) {
+        update(requestIds, requestId, true);
+    }
+
+    @Override
+    public void unwatchRequest(String requestId) {
+        update(requestIds, requestId, false);
+    }
+
+    @Override
+    public void watchCorrelation(String correlationId) {
+        update(correlationIds, correlationId, true);
+    }
+
+    @Override
+    public void unwatchCorrelation(String correlationId) {
+        update(correlationIds, correlationId, false);
+    }
+
+    @Override
+    public synchronized void clear() {
+        vehicleIds.clear();
+        requestIds.clear();
+        correlationIds.clear();
+        active = false;
+    }
+
+    @Override
+    public String[] getVehicleIds() {
+        return vehicleIds.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getRequestIds() {
+        return requestIds.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getCorrelationIds() {
+        return correlationIds.toArray(new String[0]);
+    }
+
+    private synchronized void update(Set<String> ids, String id, boolean watch) {
+        if (id == null) {
+            return;
+        }
+        if (watch) {
+            ids.add(id);
+        } else {
+            ids.remove(id);
+        }
+        active = !vehicleIds.isEmpty() || !requestIds.isEmpty() || !correlationIds.isEmpty();
+    }
+}
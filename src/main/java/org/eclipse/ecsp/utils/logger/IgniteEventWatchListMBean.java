@@ -0,0 +1,111 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+/**
+ * JMX management interface of the {@link IgniteEventWatchList}.
+ */
+public interface IgniteEventWatchListMBean {
+
+    /**
+     * Logs the IgniteEvent scoped statements of a vehicle at every level.
+     *
+     * @param vehicleId the vehicle id
+     */
+    void watchVehicle(String vehicleId);
+
+    /**
+     * Stops watching a vehicle.
+     *
+     * @param vehicleId the vehicle id
+     */
+    void unwatchVehicle(String vehicleId);
+
+    /**
+     * Logs the IgniteEvent scoped statements of a request at every level.
+     *
+     * @param requestId the request id
+     */
+    void watchRequest(String requestId);
+
+    /**
+     * Stops watching a request.
+     *
+     * @param requestId the request id
+     */
+    void unwatchRequest(String requestId);
+
+    /**
+     * Logs the IgniteEvent scoped statements of a correlation id at every level.
+     *
+     * @param correlationId the correlation id
+     */
+    void watchCorrelation(String correlationId);
+
+    /**
+     * Stops watching a correlation id.
+     *
+     * @param correlationId the correlation id
+     */
+    void unwatchCorrelation(String correlationId);
+
+    /**
+     * Stops watching all ids.
+     */
+    void clear();
+
+    /**
+     * Returns the watched vehicle ids.
+     *
+     * @return the vehicle ids
+     */
+    String[] getVehicleIds();
+
+    /**
+     * Returns the watched request ids.
+     *
+     * @return the request ids
+     */
+    String[] getRequestIds();
+
+    /**
+     * Returns the watched correlation ids.
+     *
+     * @return the correlation ids
+     */
+    String[] getCorrelationIds();
+}
@@ -0,0 +1,100 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses segments to gzip files, readable with {@code zcat} and the usual log tooling.
+ */
+public class IgniteGzipCodec implements IgniteSegmentCodec {
+
+    /**
+     * Suffix of gzipped segments.
+     */
+    public static final String EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private int level = Deflater.BEST_SPEED;
+
+    @Override
+    public String getExtension() {
+        return EXTENSION;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new LevelGzipOutputStream(out, level);
+    }
+
+    /**
+     * Returns the compression level.
+     *
+     * @return the level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the compression level, from {@code 1} (fastest, the default) to {@code 9} (smallest), {@code 0} to
+     * store the segments uncompressed in gzip files or {@code -1} for zlib's default of {@code 6}. The fastest
+     * level keeps the compression thread from competing with the logging threads for the CPU, and still
+     * achieves most of the reduction on log text.
+     *
+     * @param level the level
+     * @throws IllegalArgumentException if the level is not a valid deflate level
+     */
+    public void setLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level [" + level + "]");
+        }
+        this.level = level;
+    }
+
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes logging events as one JSON object per line, written as UTF-8 straight into a reusable per-thread
+ * byte buffer. Messages are formatted with {@link IgniteMessageFormatter} and escaped while they are encoded,
+ * without intermediate Strings. <br>
+ * The {@link org.eclipse.ecsp.entities.IgniteEvent} header fields are written as native fields when the event
+ * was logged in {@link IgniteEventHeaderMode#STRUCTURED} or {@link IgniteEventHeaderMode#DEFERRED} mode, under the
+ * same names as in the rendered header. In {@link IgniteEventHeaderMode#PREFIX} mode they are part of the message.
+ * Stack traces are rendered by {@link IgniteThrowableProxyConverter}. <br>
+ * Like {@link IgniteMessageConverter}, the encoder formats the message every time, so it is meant for synchronous
+ * appenders and for {@link IgniteAsyncAppender} with {@code deferredFormatting}. Appenders writing to a stream of
+ * their own can skip the copy {@link #encode(ILoggingEvent)} returns with {@link #writeTo(ILoggingEvent,
+ * OutputStream)}.
+ */
+public class IgniteJsonEncoder extends EncoderBase<ILoggingEvent> {
+
+    static final String TIMESTAMP = "timestamp";
+    static final String LEVEL = "level";
+    static final String THREAD = "thread";
+    static final String LOGGER = "logger";
+    static final String MESSAGE = "message";
+    static final String MDC = "mdc";
+    static final String EXCEPTION = "exception";
+
+    private static final byte[] TIMESTAMP_FIELD = field('{', TIMESTAMP);
+    private static final byte[] LEVEL_FIELD = field(',', LEVEL);
+    private static final byte[] THREAD_FIELD = field(',', THREAD);
+    private static final byte[] LOGGER_FIELD = field(',', LOGGER);
+    private static final byte[] MESSAGE_FIELD = field(',', MESSAGE);
+    private static final byte[] MDC_FIELD = field(',', MDC);
+    private static final byte[] EXCEPTION_FIELD = field(',', EXCEPTION);
+    private static final byte[] HEADER_TIMESTAMP_FIELD = field(',', IgniteEventHeaderRenderer.TIMESTAMP);
+    private static final byte[] REQUEST_ID_FIELD = field(',', IgniteEventHeaderRenderer.REQUEST_ID);
+    private static final byte[] MESSAGE_ID_FIELD = field(',', IgniteEventHeaderRenderer.MESSAGE_ID);
+    private static final byte[] BIZ_TRANSACTION_ID_FIELD = field(',', IgniteEventHeaderRenderer.BIZ_TRANSACTION_ID);
+    private static final byte[] VEHICLE_ID_FIELD = field(',', IgniteEventHeaderRenderer.VEHICLE_ID);
+    private static final byte[] EVENT_ID_FIELD = field(',', IgniteEventHeaderRenderer.EVENT_ID);
+    private static final byte[] VERSION_FIELD = field(',', IgniteEventHeaderRenderer.VERSION);
+    private static final byte[] SOURCE_DEVICE_ID_FIELD = field(',', IgniteEventHeaderRenderer.SOURCE_DEVICE_ID);
+    private static final byte[] CORRELATION_ID_FIELD = field(',', IgniteEventHeaderRenderer.CORRELATION_ID);
+    private static final byte[] LINE_END = "}\n".getBytes(StandardCharsets.US_ASCII);
+
+    private boolean includeMdc = true;
+    private IgniteThrowableProxyConverter throwableConverter;
+    private boolean throwableConverterCreated;
+
+    /**
+     * Starts the encoder, creating a default {@link IgniteThrowableProxyConverter} if none was configured.
+     */
+    @Override
+    public void start() {
+        if (throwableConverter == null) {
+            throwableConverter = new IgniteThrowableProxyConverter();
+            throwableConverter.setContext(getContext());
+            throwableConverter.start();
+            throwableConverterCreated = true;
+        }
+        super.start();
+    }
+
+    /**
+     * Stops the encoder and the throwable converter it created.
+     */
+    @Override
+    public void stop() {
+        if (throwableConverterCreated) {
+            throwableConverter.stop();
+            throwableConverter = null;
+            throwableConverterCreated = false;
+        }
+        super.stop();
+    }
+
+    /**
+     * No header is written.
+     *
+     * @return null
+     */
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    /**
+     * Encodes the event as a line of JSON.
+     *
+     * @param event the logging event
+     * @return the UTF-8 encoded line
+     */
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            write(writer, event);
+            IgniteLoggerStats.encoded(event, writer.length());
+            return writer.toByteArray();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Writes the event as a line of JSON to the given stream, without copying the encoded bytes.
+     *
+     * @param event the logging event
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(ILoggingEvent event, OutputStream out) throws IOException {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            write(writer, event);
+            IgniteLoggerStats.encoded(event, writer.length());
+            writer.writeTo(out);
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * No footer is written.
+     *
+     * @return null
+     */
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private void write(JsonWriter writer, ILoggingEvent event) {
+        writer.writeRaw(TIMESTAMP_FIELD);
+        writer.writeLong(event.getTimeStamp());
+        writer.writeRaw(LEVEL_FIELD);
+        writer.writeString(event.getLevel().levelStr);
+        writer.writeRaw(THREAD_FIELD);
+        writer.writeString(event.getThreadName());
+        writer.writeRaw(LOGGER_FIELD);
+        writer.writeString(event.getLoggerName());
+        writer.writeRaw(MESSAGE_FIELD);
+        IgniteEventHeader header = writeMessage(writer, event);
+        if (header != null) {
+            writeHeader(writer, header);
+        }
+        writeKeyValuePairs(writer, event.getKeyValuePairs());
+        if (includeMdc) {
+            writeMdc(writer, event.getMDCPropertyMap());
+        }
+        if (event.getThrowableProxy() != null) {
+            StringBuilder chars = writer.chars();
+            throwableConverter.appendTo(chars, event);
+            if (!chars.isEmpty()) {
+                writer.writeRaw(EXCEPTION_FIELD);
+                writer.writeString(chars);
+            }
+        }
+        writer.writeRaw(LINE_END);
+    }
+
+    /**
+     * Writes the formatted message, leaving out the header of an event logged in
+     * {@link IgniteEventHeaderMode#DEFERRED} mode.
+     *
+     * @return the header snapshot of an event logged in {@link IgniteEventHeaderMode#DEFERRED} mode, otherwise null
+     */
+    private static IgniteEventHeader writeMessage(JsonWriter writer, ILoggingEvent event) {
+        String format = event.getMessage();
+        Object[] args = event.getArgumentArray();
+        if (format == null || args == null || args.length == 0) {
+            writer.writeString(format);
+            return null;
+        }
+        StringBuilder chars = writer.chars();
+        IgniteEventHeader header = IgniteEventHeaderRenderer.appendDeferredMessage(chars, format, args);
+        if (header == null) {
+            IgniteMessageFormatter.appendTo(chars, format, args);
+        }
+        writer.writeString(chars);
+        return header;
+    }
+
+    private static void writeHeader(JsonWriter writer, IgniteEventHeader header) {
+        writer.writeRaw(HEADER_TIMESTAMP_FIELD);
+        writer.writeLong(header.getTimestamp());
+        writer.writeRaw(REQUEST_ID_FIELD);
+        writer.writeString(header.getRequestId());
+        writer.writeRaw(MESSAGE_ID_FIELD);
+        writer.writeString(header.getMessageId());
+        writer.writeRaw(BIZ_TRANSACTION_ID_FIELD);
+        writer.writeString(header.getBizTransactionId());
+        writer.writeRaw(VEHICLE_ID_FIELD);
+        writer.writeString(header.getVehicleId());
+        writer.writeRaw(EVENT_ID_FIELD);
+        writer.writeString(header.getEventId());
+        writer.writeRaw(VERSION_FIELD);
+        writeValue(writer, header.getSchemaVersion());
+        writer.writeRaw(SOURCE_DEVICE_ID_FIELD);
+        writer.writeString(header.getSourceDeviceId());
+        if (header.getCorrelationId() != null) {
+            writer.writeRaw(CORRELATION_ID_FIELD);
+            writer.writeString(header.getCorrelationId());
+        }
+    }
+
+    private static void writeKeyValuePairs(JsonWriter writer, List<KeyValuePair> keyValuePairs) {
+        if (keyValuePairs == null) {
+            return;
+        }
+        for (int i = 0; i < keyValuePairs.size(); i++) {
+            KeyValuePair keyValuePair = keyValuePairs.get(i);
+            writer.writeRaw(',');
+            writer.writeString(keyValuePair.key);
+            writer.writeRaw(':');
+            writeValue(writer, keyValuePair.value);
+        }
+    }
+
+    private static void writeMdc(JsonWriter writer, Map<String, String> mdc) {
+        if (mdc == null || mdc.isEmpty()) {
+            return;
+        }
+        writer.writeRaw(MDC_FIELD);
+        char separator = '{';
+        for (Map.Entry<String, String> entry : mdc.entrySet()) {
+            writer.writeRaw(separator);
+            writer.writeString(entry.getKey());
+            writer.writeRaw(':');
+            writer.writeString(entry.getValue());
+            separator = ',';
+        }
+        writer.writeRaw('}');
+    }
+
+    /**
+     * Writes integral numbers and booleans as JSON literals and anything else as the string it is rendered to
+     * in a message.
+     */
+    private static void writeValue(JsonWriter writer, Object value) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            writer.writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean bool) {
+            writer.writeBoolean(bool);
+        } else if (value instanceof CharSequence chars) {
+            writer.writeString(chars);
+        } else {
+            StringBuilder chars = writer.chars();
+            IgniteMessageFormatter.appendArgument(chars, value);
+            writer.writeString(chars);
+        }
+    }
+
+    private static byte[] field(char separator, String name) {
+        return (separator + "\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns whether the MDC properties are written, as a nested {@value #MDC} object.
+     *
+     * @return true if the MDC is written, the default
+     */
+    public boolean isIncludeMdc() {
+        return includeMdc;
+    }
+
+    /**
+     * Sets whether the MDC properties are written.
+     *
+     * @param includeMdc true to write the MDC
+     */
+    public void setIncludeMdc(boolean includeMdc) {
+        this.includeMdc = includeMdc;
+    }
+
+    /**
+     * Returns the converter rendering stack traces.
+     *
+     * @return the throwable converter, null until the encoder is started if none was set
+     */
+    public IgniteThrowableProxyConverter getThrowableConverter() {
+        return throwableConverter;
+    }
+
+    /**
+     * Sets the converter rendering stack traces, e.g. one with a length option or ignored frames. It has to be
+     * started by the caller.
+     *
+     * @param throwableConverter the throwable converter
+     */
+    public void setThrowableConverter(IgniteThrowableProxyConverter throwableConverter) {
+        this.throwableConverter = throwableConverter;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import jdk.jfr.EventType;
+import org.eclipse.ecsp.entities.IgniteEvent;
+import org.slf4j.event.Level;
+
+import java.util.Locale;
+
+/**
+ * Emits an {@link IgniteLogJfrEvent} for the {@link IgniteLogger} statements of the configured levels, so that
+ * they show up in JDK Flight Recorder recordings on the same timeline as GC pauses, safepoints and lock
+ * contention. <br>
+ * The levels are taken from the {@value #LEVELS_PROPERTY} system property, a comma separated list which
+ * defaults to {@value #DEFAULT_LEVELS}, and can be changed at runtime. An empty list disables the events. <br>
+ * JFR decides whether an event is recorded: while no recording enables the event type, a statement costs a
+ * mask test and the enabled check of the event type, without allocating. A recording can also set a duration
+ * threshold, events handed to the appenders faster than that are not committed.
+ * The events are only emitted when the {@code jdk.jfr} module is present.
+ */
+final class IgniteLogJfr {
+
+    /**
+     * System property listing the levels of the statements emitted as JFR events.
+     */
+    static final String LEVELS_PROPERTY = "ignite.logger.jfr.levels";
+
+    /**
+     * Default levels of the statements emitted as JFR events.
+     */
+    static final String DEFAULT_LEVELS = "WARN,ERROR";
+
+    /**
+     * Whether the {@code jdk.jfr} module is present.
+     */
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    /**
+     * Levels emitted, one bit per {@link IgniteLoggerStats} level index.
+     */
+    private static volatile int levelMask = AVAILABLE ? mask(System.getProperty(LEVELS_PROPERTY, DEFAULT_LEVELS)) : 0;
+
+    private IgniteLogJfr() {
+    }
+
+    /**
+     * Sets the levels of the statements emitted as JFR events.
+     *
+     * @param levels the levels, none to disable the events
+     */
+    static void setLevels(Level... levels) {
+        int mask = 0;
+        for (Level level : levels) {
+            mask |= 1 << IgniteLoggerStats.index(level);
+        }
+        levelMask = AVAILABLE ? mask : 0;
+    }
+
+    /**
+     * Returns whether the statements of a level are emitted as JFR events.
+     *
+     * @param level the level
+     * @return true if they are emitted while a recording enables the event type
+     */
+    static boolean isEmitted(Level level) {
+        return (levelMask & (1 << IgniteLoggerStats.index(level))) != 0;
+    }
+
+    /**
+     * Starts the event of a statement about to be handed to the appenders.
+     *
+     * @param level the level index, see {@link IgniteLoggerStats}
+     * @return the started event, or null if the level is not emitted or no recording enables the event type
+     */
+    static IgniteLogJfrEvent begin(int level) {
+        if ((levelMask & (1 << level)) == 0 || !Holder.TYPE.isEnabled()) {
+            return null;
+        }
+        IgniteLogJfrEvent jfrEvent = new IgniteLogJfrEvent();
+        jfrEvent.begin();
+        return jfrEvent;
+    }
+
+    /**
+     * Ends the event of a statement and commits it if the recording keeps it.
+     *
+     * @param jfrEvent the event returned by {@link #begin(int)}, may be null
+     * @param level the statement level
+     * @param loggerName the logger name
+     * @param event the IgniteEvent associated with the statement, may be null
+     * @param format the message or message format string
+     * @param arguments the arguments of the message, the last one may be the throwable, may be null
+     * @param t the throwable of the statement, may be null
+     */
+    static void commit(IgniteLogJfrEvent jfrEvent, Level level, String loggerName, IgniteEvent event,
+            String format, Object[] arguments, Throwable t) {
+        if (jfrEvent == null) {
+            return;
+        }
+        jfrEvent.end();
+        if (!jfrEvent.shouldCommit()) {
+            return;
+        }
+        jfrEvent.level = level.name();
+        jfrEvent.logger = loggerName;
+        jfrEvent.message = format;
+        if (event != null) {
+            jfrEvent.requestId = event.getRequestId();
+            jfrEvent.vehicleId = event.getVehicleId();
+        }
+        Throwable throwable = t;
+        if (throwable == null && arguments != null && arguments.length > 0
+                && arguments[arguments.length - 1] instanceof Throwable trailing) {
+            throwable = trailing;
+        }
+        jfrEvent.exception = throwable == null ? null : throwable.getClass();
+        jfrEvent.commit();
+    }
+
+    private static int mask(String levels) {
+        int mask = 0;
+        for (String name : levels.split(",")) {
+            String trimmed = name.trim().toUpperCase(Locale.ROOT);
+            for (Level level : Level.values()) {
+                if (level.name().equals(trimmed)) {
+                    mask |= 1 << IgniteLoggerStats.index(level);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Holds the event type, only loaded once an event is emitted so a runtime without {@code jdk.jfr} never
+     * resolves it.
+     */
+    private static final class Holder {
+        private static final EventType TYPE = EventType.getEventType(IgniteLogJfrEvent.class);
+    }
+}
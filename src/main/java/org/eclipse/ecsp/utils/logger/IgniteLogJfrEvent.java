@@ -0,0 +1,82 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event of an {@link IgniteLogger} statement, see {@link IgniteLogJfr}. <br>
+ * Its duration is the time spent handing the statement to the appenders. The message is the format, which is
+ * not formatted for the recording. Stack traces are off by default, they can be turned on in the recording
+ * settings.
+ */
+@Name(IgniteLogJfrEvent.NAME)
+@Label("Ignite Log Statement")
+@Category({"Ignite", "Logging"})
+@Description("A statement logged through IgniteLogger")
+@StackTrace(false)
+final class IgniteLogJfrEvent extends Event {
+
+    /**
+     * Name of the event type, used to enable it in a recording.
+     */
+    static final String NAME = "org.eclipse.ecsp.IgniteLog";
+
+    @Label("Level")
+    String level;
+
+    @Label("Logger")
+    String logger;
+
+    @Label("Message")
+    @Description("Message format, without the arguments")
+    String message;
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Vehicle Id")
+    String vehicleId;
+
+    @Label("Exception")
+    Class<?> exception;
+}
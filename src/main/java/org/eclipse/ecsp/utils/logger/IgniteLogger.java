@@ -37,12 +37,20 @@
 package org.eclipse.ecsp.utils.logger;
 
 import org.eclipse.ecsp.entities.IgniteEvent;
+import org.slf4j.event.Level;
+
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Interface for IgniteLogger.
  *
  * <p>This interface defines methods for logging at various levels (trace, debug, info, warn, error)
- * with support for IgniteEvent and message formatting.</p>
+ * with support for IgniteEvent and message formatting. Arguments which are expensive to compute can be
+ * passed as {@link Supplier}s, they are evaluated only when the level is enabled. The supplier overloads
+ * have default implementations delegating to the {@code Object...} overloads, so existing implementations of
+ * this interface keep compiling.</p>
  *
  * @since 1.0
  * @version 1.0
@@ -135,6 +143,33 @@ public interface IgniteLogger {
      */
     public void trace(String msg, Throwable t);
 
+    /**
+     * Logs a trace level message with an IgniteEvent and lazily evaluated arguments.
+     * The suppliers are only invoked when trace level is enabled.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void trace(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isTraceEnabled()) {
+            trace(event, format, resolve(argumentSuppliers));
+        }
+    }
+
+    /**
+     * Logs a trace level message with lazily evaluated arguments.
+     * The suppliers are only invoked when trace level is enabled.
+     *
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void trace(String format, Supplier<?>... argumentSuppliers) {
+        if (isTraceEnabled()) {
+            trace(format, resolve(argumentSuppliers));
+        }
+    }
+
     /**
      * Logs a debug level message with an IgniteEvent.
      *
@@ -184,6 +219,33 @@ public interface IgniteLogger {
      */
     public void debug(String msg, Throwable t);
 
+    /**
+     * Logs a debug level message with an IgniteEvent and lazily evaluated arguments.
+     * The suppliers are only invoked when debug level is enabled.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void debug(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isDebugEnabled()) {
+            debug(event, format, resolve(argumentSuppliers));
+        }
+    }
+
+    /**
+     * Logs a debug level message with lazily evaluated arguments.
+     * The suppliers are only invoked when debug level is enabled.
+     *
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void debug(String format, Supplier<?>... argumentSuppliers) {
+        if (isDebugEnabled()) {
+            debug(format, resolve(argumentSuppliers));
+        }
+    }
+
     /**
      * Logs an info level message with an IgniteEvent.
      *
@@ -233,6 +295,33 @@ public interface IgniteLogger {
      */
     public void info(String msg, Throwable t);
 
+    /**
+     * Logs a info level message with an IgniteEvent and lazily evaluated arguments.
+     * The suppliers are only invoked when info level is enabled.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void info(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isInfoEnabled()) {
+            info(event, format, resolve(argumentSuppliers));
+        }
+    }
+
+    /**
+     * Logs a info level message with lazily evaluated arguments.
+     * The suppliers are only invoked when info level is enabled.
+     *
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void info(String format, Supplier<?>... argumentSuppliers) {
+        if (isInfoEnabled()) {
+            info(format, resolve(argumentSuppliers));
+        }
+    }
+
     /**
      * Logs a warn level message with an IgniteEvent.
      *
@@ -282,6 +371,33 @@ public interface IgniteLogger {
      */
     public void warn(String msg, Throwable t);
 
+    /**
+     * Logs a warn level message with an IgniteEvent and lazily evaluated arguments.
+     * The suppliers are only invoked when warn level is enabled.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void warn(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isWarnEnabled()) {
+            warn(event, format, resolve(argumentSuppliers));
+        }
+    }
+
+    /**
+     * Logs a warn level message with lazily evaluated arguments.
+     * The suppliers are only invoked when warn level is enabled.
+     *
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void warn(String format, Supplier<?>... argumentSuppliers) {
+        if (isWarnEnabled()) {
+            warn(format, resolve(argumentSuppliers));
+        }
+    }
+
     /**
      * Logs an error level message with an IgniteEvent.
      *
@@ -331,4 +447,92 @@ public interface IgniteLogger {
      */
     public void error(String msg, Throwable t);
 
-}
\ No newline at end of file
+    /**
+     * Logs a error level message with an IgniteEvent and lazily evaluated arguments.
+     * The suppliers are only invoked when error level is enabled.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void error(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isErrorEnabled()) {
+            error(event, format, resolve(argumentSuppliers));
+        }
+    }
+
+    /**
+     * Logs a error level message with lazily evaluated arguments.
+     * The suppliers are only invoked when error level is enabled.
+     *
+     * @param format the message format string
+     * @param argumentSuppliers the suppliers of the arguments to be used in the message format
+     */
+    public default void error(String format, Supplier<?>... argumentSuppliers) {
+        if (isErrorEnabled()) {
+            error(format, resolve(argumentSuppliers));
+        }
+    }
+
+    /**
+     * Logs one statement per event of a batch, for example the events of a poll, as if each of them was logged
+     * with the event scoped method of the level. Implementations may log the whole batch more efficiently.
+     *
+     * @param <E> the type of the events
+     * @param level the level of the statements
+     * @param events the events, one statement is logged per event
+     * @param format the message format string shared by the statements
+     * @param argumentsExtractor returns the arguments of the statement of an event, the last one may be a
+     *     throwable, null if the format has no arguments
+     */
+    public default <E extends IgniteEvent> void logBatch(Level level, Collection<E> events, String format,
+            Function<? super E, Object[]> argumentsExtractor) {
+        for (E event : events) {
+            Object[] arguments = argumentsExtractor == null ? null : argumentsExtractor.apply(event);
+            if (arguments == null) {
+                arguments = new Object[0];
+            }
+            switch (level) {
+                case TRACE -> trace(event, format, arguments);
+                case DEBUG -> debug(event, format, arguments);
+                case INFO -> info(event, format, arguments);
+                case WARN -> warn(event, format, arguments);
+                default -> error(event, format, arguments);
+            }
+        }
+    }
+
+    /**
+     * Returns a view of this logger which logs at most {@code permitsPerSecond} statements per second, for
+     * example {@code logger.limited("db-unavailable", 1).warn(...)}. Up to one second of statements can be
+     * logged at once. The statements suppressed in between are counted and summarized before the next one
+     * that is logged. <br>
+     * Views are kept per key, which should identify the callsite and therefore be a constant: the rate given
+     * when a key is first used applies to all its statements. <br>
+     * The default implementation does not rate limit and returns this logger.
+     *
+     * @param key the rate limit key
+     * @param permitsPerSecond the statements logged per second, must be positive
+     * @return the rate limited view
+     */
+    public default IgniteLogger limited(String key, double permitsPerSecond) {
+        return this;
+    }
+
+    /**
+     * Evaluates the argument suppliers, only called once the level check has passed.
+     *
+     * @param argumentSuppliers the suppliers of the arguments, may be null
+     * @return the evaluated arguments
+     */
+    private static Object[] resolve(Supplier<?>[] argumentSuppliers) {
+        if (argumentSuppliers == null) {
+            return null;
+        }
+        Object[] arguments = new Object[argumentSuppliers.length];
+        for (int i = 0; i < argumentSuppliers.length; i++) {
+            arguments[i] = argumentSuppliers[i] == null ? null : argumentSuppliers[i].get();
+        }
+        return arguments;
+    }
+}
@@ -36,6 +36,10 @@
 
 package org.eclipse.ecsp.utils.logger;
 
+import org.slf4j.event.Level;
+
+import java.util.List;
+
 /**
  * Factory class which gives a logger instance for the requested type.
  *
@@ -64,4 +68,151 @@ public class IgniteLoggerFactory {
     public static <T> IgniteLogger getLogger(Class<T> clazz) {
         return IgniteLoggerImpl.getIgniteLoggerInstance(clazz);
     }
+
+    /**
+     * Sets how IgniteEvent header fields are attached to event scoped log lines, for all loggers.
+     * Takes effect immediately, no logback reconfiguration is needed.
+     *
+     * @param mode the header mode, null restores the default {@link IgniteEventHeaderMode#PREFIX}
+     */
+    public static void setEventHeaderMode(IgniteEventHeaderMode mode) {
+        IgniteLoggerImpl.setHeaderMode(mode);
+    }
+
+    /**
+     * Returns how IgniteEvent header fields are currently attached to event scoped log lines.
+     *
+     * @return the current header mode
+     */
+    public static IgniteEventHeaderMode getEventHeaderMode() {
+        return IgniteLoggerImpl.getHeaderMode();
+    }
+
+    /**
+     * Sets the fraction of vehicles whose IgniteEvent scoped TRACE, DEBUG and INFO statements are logged by the
+     * logger of a class. Vehicles are sampled by the hash of their vehicle id, so the same vehicles are logged by
+     * every logger with the same rate. Takes effect immediately, no logback reconfiguration is needed.
+     *
+     * @param clazz the class of the logger
+     * @param rate the fraction of vehicles sampled, from 0 to 1
+     */
+    public static void setSamplingRate(Class<?> clazz, double rate) {
+        IgniteLoggerImpl.getIgniteLoggerImplInstance(clazz).setSamplingRate(rate);
+    }
+
+    /**
+     * Returns the fraction of vehicles whose IgniteEvent scoped TRACE, DEBUG and INFO statements are logged by the
+     * logger of a class.
+     *
+     * @param clazz the class of the logger
+     * @return the fraction of vehicles sampled
+     */
+    public static double getSamplingRate(Class<?> clazz) {
+        return IgniteLoggerImpl.getIgniteLoggerImplInstance(clazz).getSamplingRate();
+    }
+
+    /**
+     * Sets the fraction of vehicles whose IgniteEvent scoped TRACE, DEBUG and INFO statements are logged for an
+     * event type, by all loggers. It takes precedence over the sampling rate of the loggers.
+     * Takes effect immediately, no logback reconfiguration is needed.
+     *
+     * @param eventId the event type
+     * @param rate the fraction of vehicles sampled, from 0 to 1
+     */
+    public static void setEventSamplingRate(String eventId, double rate) {
+        IgniteEventSampler.setEventTypeRate(eventId, rate);
+    }
+
+    /**
+     * Removes the sampling rate of an event type, its statements are sampled at the rate of their logger again.
+     *
+     * @param eventId the event type
+     */
+    public static void removeEventSamplingRate(String eventId) {
+        IgniteEventSampler.removeEventTypeRate(eventId);
+    }
+
+    /**
+     * Returns the sampling rate of an event type.
+     *
+     * @param eventId the event type
+     * @return the fraction of vehicles sampled, or NaN if the event type has no rate
+     */
+    public static double getEventSamplingRate(String eventId) {
+        return IgniteEventSampler.getEventTypeRate(eventId);
+    }
+
+    /**
+     * Enables the debug replay buffer, which keeps the last IgniteEvent scoped TRACE and DEBUG statements below the
+     * logger level of every request and logs them before an ERROR statement of the same request.
+     * Zero lines disable it. Changing the settings discards the recorded statements.
+     *
+     * @param linesPerRequest the statements kept per request, 0 to disable the buffer
+     * @param ttlMillis the milliseconds after which the statements of a request which is not used any more are
+     *     discarded
+     */
+    public static void setDebugReplay(int linesPerRequest, long ttlMillis) {
+        IgniteDebugReplayBuffer.configure(linesPerRequest, ttlMillis);
+    }
+
+    /**
+     * Returns the statements the debug replay buffer keeps per request.
+     *
+     * @return the lines per request, 0 if the buffer is disabled
+     */
+    public static int getDebugReplayLines() {
+        return IgniteDebugReplayBuffer.getLinesPerRequest();
+    }
+
+    /**
+     * Discards the statements recorded for a request which completed without error.
+     *
+     * @param requestId the request id
+     */
+    public static void completeRequest(String requestId) {
+        IgniteDebugReplayBuffer.complete(requestId);
+    }
+
+    /**
+     * Enables or disables the log volume and logging cost statistics of all loggers: statements logged per logger
+     * and level, bytes they were encoded to by the encoders and appenders of this package, and a sampled histogram
+     * of the time spent in the logging calls. They are published as Prometheus metrics every 10 seconds.
+     * The counts are kept while disabled.
+     *
+     * @param enabled true to record the statistics
+     * @param sampleInterval the logging calls per timed call, rounded up to a power of two
+     */
+    public static void setLoggerStats(boolean enabled, int sampleInterval) {
+        IgniteLoggerStats.configure(enabled, sampleInterval);
+    }
+
+    /**
+     * Returns whether the log volume and logging cost statistics are recorded.
+     *
+     * @return true if enabled
+     */
+    public static boolean isLoggerStatsEnabled() {
+        return IgniteLoggerStats.isEnabled();
+    }
+
+    /**
+     * Returns the loggers which logged the most statements while the statistics were enabled, ties broken by bytes.
+     *
+     * @param count the number of loggers to return
+     * @return at most count loggers, noisiest first
+     */
+    public static List<IgniteLoggerVolume> getNoisiestLoggers(int count) {
+        return IgniteLoggerStats.noisiest(count);
+    }
+
+    /**
+     * Sets the levels of the statements emitted as JDK Flight Recorder events ({@code org.eclipse.ecsp.IgniteLog}),
+     * by default WARN and ERROR. The events are only recorded while a recording enables them, otherwise a statement
+     * costs the enabled check of the event type.
+     *
+     * @param levels the levels, none to disable the events
+     */
+    public static void setJfrEventLevels(Level... levels) {
+        IgniteLogJfr.setLevels(levels);
+    }
 }
@@ -37,13 +37,25 @@
 package org.eclipse.ecsp.utils.logger;
 
 import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.TurboFilterList;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
 import org.eclipse.ecsp.entities.IgniteEvent;
+import org.eclipse.ecsp.utils.filter.DuplicateExceptionFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import org.slf4j.event.Level;
+import org.slf4j.spi.CallerBoundaryAware;
+import org.slf4j.spi.LoggingEventBuilder;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Implementation class for IgniteLogger interface.
@@ -61,16 +73,106 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class IgniteLoggerImpl implements IgniteLogger {
 
+    /**
+     * Fully qualified name of this class, used as the caller boundary of the events it creates.
+     */
+    static final String FQCN = IgniteLoggerImpl.class.getName();
+
+    private static volatile IgniteEventHeaderMode headerMode =
+            IgniteEventHeaderMode.fromProperty(System.getProperty(IgniteEventHeaderMode.PROPERTY_NAME));
+
+    /**
+     * Cached threshold meaning "no cached level, let the underlying logger decide".
+     */
+    static final int PASS_THROUGH = Integer.MIN_VALUE;
+
     private Logger logger;
-    private static final String MESSAGE = "message";
-    private static Map<String, IgniteLoggerImpl> igniteLoggersMap = new ConcurrentHashMap<>();
 
     /**
-     * Private constructor to initialize the logger for the specified class.
-     *
-     * @param clazz the class for which the logger is requested
+     * Lowest level logged while {@link IgniteBackpressureController} degrades logging, or {@link #PASS_THROUGH}.
+     */
+    private static volatile int degradedThreshold = PASS_THROUGH;
+
+    private static final Object THRESHOLD_LOCK = new Object();
+
+    /**
+     * Whether the Logback context is being configured, the cached levels stay pass-through until it has ended.
+     * Guarded by {@link #THRESHOLD_LOCK}.
+     */
+    private static boolean configuring;
+
+    /**
+     * Turbo filters of the Logback context when the cached levels were last computed, and their number then.
+     * Turbo filters added or removed through the {@code LoggerContext} API fire no event, so a check failing
+     * on the cached level compares the number before it is trusted.
+     */
+    private static volatile TurboFilterList turboFilters;
+    private static volatile int turboFilterCount;
+
+    /**
+     * Effective Logback level of {@link #logger} as an int, or {@link #PASS_THROUGH}.
+     * Kept current by {@link IgniteLoggerLevelListener}.
+     */
+    private int levelThreshold = PASS_THROUGH;
+
+    /**
+     * The higher of {@link #levelThreshold} and {@link #degradedThreshold}, so a disabled call costs one volatile
+     * read.
+     */
+    private volatile int threshold = PASS_THROUGH;
+
+    /**
+     * Sampling threshold of the IgniteEvent scoped TRACE, DEBUG and INFO statements, see {@link IgniteEventSampler}.
+     */
+    private volatile long samplingThreshold = IgniteEventSampler.ALWAYS;
+    private static final Map<String, IgniteLoggerImpl> igniteLoggersMap = new ConcurrentHashMap<>();
+
+    /**
+     * Rate limit keys of a logger beyond this many share the {@link #OVERFLOW_KEY} rate limit.
+     */
+    static final int MAX_RATE_LIMIT_KEYS = 1024;
+
+    /**
+     * Name of the rate limit shared by the statements of keys beyond {@link #MAX_RATE_LIMIT_KEYS}, used in its
+     * summary line and metric. The rate limit is not part of the key space, a key with this name has its own.
+     */
+    static final String OVERFLOW_KEY = "<overflow>";
+
+    /**
+     * Statements logged per second by all the keys beyond {@link #MAX_RATE_LIMIT_KEYS} together.
+     */
+    static final double OVERFLOW_PERMITS_PER_SECOND = 1;
+
+    /**
+     * Rate limited views by key.
      */
-    private IgniteLoggerImpl(Class<?> clazz) {
+    private final Map<String, IgniteRateLimitedLogger> rateLimitedLoggers = new ConcurrentHashMap<>();
+
+    /**
+     * Rate limited view shared by the keys beyond {@link #MAX_RATE_LIMIT_KEYS}, created when first needed.
+     */
+    private volatile IgniteRateLimitedLogger overflowLogger;
+
+    /**
+     * Log volume and logging cost statistics, only recorded while {@link IgniteLoggerStats} is enabled.
+     */
+    private final IgniteLoggerStats stats;
+
+    /**
+     * Loggers by class, resolved without allocation once a class has asked for its logger.
+     * Values do not reference their class, so classes and their loaders can still be unloaded.
+     */
+    private static final ClassValue<IgniteLoggerImpl> LOGGERS = new ClassValue<>() {
+        @Override
+        protected IgniteLoggerImpl computeValue(Class<?> type) {
+            IgniteLoggerImpl igniteLogger = igniteLoggersMap.computeIfAbsent(type.getName(),
+                    name -> new IgniteLoggerImpl(LoggerFactory.getLogger(name)));
+            IgniteLoggerLevelListener.register();
+            return igniteLogger;
+        }
+    };
+
+    static {
         PatternLayout.defaultConverterMap
                 .put("caller", org.eclipse.ecsp.utils.logger.IgniteCallerDataConverter.class.getName());
         PatternLayout.defaultConverterMap
@@ -81,7 +183,18 @@ public class IgniteLoggerImpl implements IgniteLogger {
         PatternLayout.defaultConverterMap
                 .put("throwable",
                         org.eclipse.ecsp.utils.logger.IgniteThrowableProxyConverter.class.getName());
-        logger = LoggerFactory.getLogger(clazz);
+        IgniteEventWatchList.register();
+    }
+
+    /**
+     * Private constructor wrapping the SLF4J logger of a class.
+     *
+     * @param logger the SLF4J logger to delegate to
+     */
+    private IgniteLoggerImpl(Logger logger) {
+        this.logger = logger;
+        this.stats = new IgniteLoggerStats(logger.getName());
+        refreshThreshold();
     }
 
     /**
@@ -91,6 +204,7 @@ public class IgniteLoggerImpl implements IgniteLogger {
      */
     public void setLogger(Logger logger) {
         this.logger = logger;
+        refreshThreshold();
     }
 
     /**
@@ -100,8 +214,7 @@ public class IgniteLoggerImpl implements IgniteLogger {
      * @return an instance of IgniteLogger for the specified class type
      */
     protected static IgniteLogger getIgniteLoggerInstance(Class<?> clazz) {
-        igniteLoggersMap.putIfAbsent(clazz.getName(), new IgniteLoggerImpl(clazz));
-        return (IgniteLogger) igniteLoggersMap.get(clazz.getName());
+        return LOGGERS.get(clazz);
     }
 
     /**
@@ -112,219 +225,545 @@ public class IgniteLoggerImpl implements IgniteLogger {
      * @return an instance of IgniteLoggerImpl for the specified class type
      */
     static IgniteLoggerImpl getIgniteLoggerImplInstance(Class<?> clazz) {
-        igniteLoggersMap.putIfAbsent(clazz.getName(), new IgniteLoggerImpl(clazz));
-        return igniteLoggersMap.get(clazz.getName());
+        return LOGGERS.get(clazz);
+    }
+
+    /**
+     * Checks the level against the cached threshold, computing the thresholds again if turbo filters were
+     * added or removed since they were computed, in which case the underlying logger decides.
+     */
+    private boolean isCachedEnabled(int level) {
+        return threshold <= level || turboFiltersChanged();
+    }
+
+    private static boolean turboFiltersChanged() {
+        TurboFilterList filters = turboFilters;
+        if (filters == null || filters.size() == turboFilterCount) {
+            return false;
+        }
+        turboFilterCount = filters.size();
+        refreshAll();
+        return true;
     }
 
     @Override
     public boolean isTraceEnabled() {
-        return logger.isTraceEnabled();
+        return isCachedEnabled(ch.qos.logback.classic.Level.TRACE_INT) && logger.isTraceEnabled();
     }
 
     @Override
     public boolean isDebugEnabled() {
-        return logger.isDebugEnabled();
+        return isCachedEnabled(ch.qos.logback.classic.Level.DEBUG_INT) && logger.isDebugEnabled();
     }
 
     @Override
     public boolean isInfoEnabled() {
-        return logger.isInfoEnabled();
+        return isCachedEnabled(ch.qos.logback.classic.Level.INFO_INT) && logger.isInfoEnabled();
     }
 
     @Override
     public boolean isWarnEnabled() {
-        return logger.isWarnEnabled();
+        return isCachedEnabled(ch.qos.logback.classic.Level.WARN_INT) && logger.isWarnEnabled();
     }
 
     @Override
     public boolean isErrorEnabled() {
-        return logger.isErrorEnabled();
+        return isCachedEnabled(ch.qos.logback.classic.Level.ERROR_INT) && logger.isErrorEnabled();
+    }
+
+    @Override
+    public IgniteLogger limited(String key, double permitsPerSecond) {
+        IgniteRateLimitedLogger rateLimitedLogger = rateLimitedLoggers.get(key);
+        if (rateLimitedLogger != null) {
+            return rateLimitedLogger;
+        }
+        if (rateLimitedLoggers.size() >= MAX_RATE_LIMIT_KEYS) {
+            return overflowLogger();
+        }
+        return rateLimitedLoggers.computeIfAbsent(key,
+                k -> new IgniteRateLimitedLogger(this, logger.getName(), k, permitsPerSecond, System::nanoTime));
+    }
+
+    /**
+     * Returns the rate limited view shared by the keys beyond {@link #MAX_RATE_LIMIT_KEYS}. It logs
+     * {@link #OVERFLOW_PERMITS_PER_SECOND} statements per second whatever rate their callers ask for.
+     *
+     * @return the overflow view
+     */
+    private IgniteRateLimitedLogger overflowLogger() {
+        IgniteRateLimitedLogger overflow = overflowLogger;
+        if (overflow == null) {
+            synchronized (rateLimitedLoggers) {
+                overflow = overflowLogger;
+                if (overflow == null) {
+                    overflow = new IgniteRateLimitedLogger(this, logger.getName(), OVERFLOW_KEY,
+                            OVERFLOW_PERMITS_PER_SECOND, System::nanoTime);
+                    overflowLogger = overflow;
+                }
+            }
+        }
+        return overflow;
     }
 
     @Override
     public void trace(IgniteEvent event, String msg) {
-        if (logger.isTraceEnabled()) {
-            logger.trace(getMessageWithHeader(event, msg));
+        if (isTraceEnabled() && isSampled(event)) {
+            logEvent(Level.TRACE, event, msg, null, null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.TRACE, event, msg, null, null);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.TRACE, event, msg, null, null);
         }
     }
 
     @Override
     public void trace(IgniteEvent event, String format, Object... arguments) {
-        if (isTraceEnabled()) {
-            logger.trace(getMessageWithHeader(event, format), arguments);
+        if (isTraceEnabled() && isSampled(event)) {
+            logEvent(Level.TRACE, event, format, arguments, null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.TRACE, event, format, arguments, null);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.TRACE, event, format, arguments, null);
         }
     }
 
     @Override
     public void trace(IgniteEvent event, String msg, Throwable t) {
-        if (isTraceEnabled()) {
-            logger.trace(getMessageWithHeader(event, msg), t);
+        if (isTraceEnabled() && isSampled(event)) {
+            logEvent(Level.TRACE, event, msg, null, t);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.TRACE, event, msg, null, t);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.TRACE, event, msg, null, t);
         }
     }
 
     @Override
     public void trace(String msg) {
         if (isTraceEnabled()) {
-            logger.trace(msg);
+            log(Level.TRACE, msg, null, null);
         }
     }
 
     @Override
     public void trace(String format, Object... arguments) {
-        if (logger.isTraceEnabled()) {
-            logger.trace(format, arguments);
+        if (isTraceEnabled()) {
+            log(Level.TRACE, format, arguments, null);
         }
     }
 
     @Override
     public void trace(String msg, Throwable t) {
-        if (logger.isTraceEnabled()) {
-            logger.trace(msg, t);
+        if (isTraceEnabled()) {
+            log(Level.TRACE, msg, null, t);
+        }
+    }
+
+    @Override
+    public void trace(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isTraceEnabled() && isSampled(event)) {
+            logEvent(Level.TRACE, event, format, resolve(argumentSuppliers), null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.TRACE, event, format, resolve(argumentSuppliers), null);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.TRACE, event, format, argumentSuppliers, null);
+        }
+    }
+
+    @Override
+    public void trace(String format, Supplier<?>... argumentSuppliers) {
+        if (isTraceEnabled()) {
+            log(Level.TRACE, format, resolve(argumentSuppliers), null);
         }
     }
 
     @Override
     public void debug(IgniteEvent event, String msg) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(getMessageWithHeader(event, msg));
+        if (isDebugEnabled() && isSampled(event)) {
+            logEvent(Level.DEBUG, event, msg, null, null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.DEBUG, event, msg, null, null);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.DEBUG, event, msg, null, null);
         }
     }
 
     @Override
     public void debug(IgniteEvent event, String format, Object... arguments) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(getMessageWithHeader(event, format), arguments);
+        if (isDebugEnabled() && isSampled(event)) {
+            logEvent(Level.DEBUG, event, format, arguments, null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.DEBUG, event, format, arguments, null);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.DEBUG, event, format, arguments, null);
         }
     }
 
     @Override
     public void debug(IgniteEvent event, String msg, Throwable t) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(getMessageWithHeader(event, msg), t);
+        if (isDebugEnabled() && isSampled(event)) {
+            logEvent(Level.DEBUG, event, msg, null, t);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.DEBUG, event, msg, null, t);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.DEBUG, event, msg, null, t);
         }
     }
 
     @Override
     public void debug(String msg) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(msg);
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, msg, null, null);
         }
     }
 
     @Override
     public void debug(String format, Object... arguments) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format, arguments);
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, format, arguments, null);
         }
     }
 
     @Override
     public void debug(String msg, Throwable t) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(msg, t);
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, msg, null, t);
+        }
+    }
+
+    @Override
+    public void debug(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isDebugEnabled() && isSampled(event)) {
+            logEvent(Level.DEBUG, event, format, resolve(argumentSuppliers), null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.DEBUG, event, format, resolve(argumentSuppliers), null);
+        } else if (IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, Level.DEBUG, event, format, argumentSuppliers, null);
+        }
+    }
+
+    @Override
+    public void debug(String format, Supplier<?>... argumentSuppliers) {
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, format, resolve(argumentSuppliers), null);
         }
     }
 
     @Override
     public void info(IgniteEvent event, String msg) {
-        if (logger.isInfoEnabled()) {
-            logger.info(getMessageWithHeader(event, msg));
+        if (isInfoEnabled() && isSampled(event)) {
+            logEvent(Level.INFO, event, msg, null, null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.INFO, event, msg, null, null);
         }
     }
 
     @Override
     public void info(IgniteEvent event, String format, Object... arguments) {
-        if (logger.isInfoEnabled()) {
-            logger.info(getMessageWithHeader(event, format), arguments);
+        if (isInfoEnabled() && isSampled(event)) {
+            logEvent(Level.INFO, event, format, arguments, null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.INFO, event, format, arguments, null);
         }
     }
 
     @Override
     public void info(IgniteEvent event, String msg, Throwable t) {
-        if (logger.isInfoEnabled()) {
-            logger.info(getMessageWithHeader(event, msg), t);
+        if (isInfoEnabled() && isSampled(event)) {
+            logEvent(Level.INFO, event, msg, null, t);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.INFO, event, msg, null, t);
         }
     }
 
     @Override
     public void info(String msg) {
-        if (logger.isInfoEnabled()) {
-            logger.info(msg);
+        if (isInfoEnabled()) {
+            log(Level.INFO, msg, null, null);
         }
     }
 
     @Override
     public void info(String format, Object... arguments) {
-        if (logger.isInfoEnabled()) {
-            logger.info(format, arguments);
+        if (isInfoEnabled()) {
+            log(Level.INFO, format, arguments, null);
         }
     }
 
     @Override
     public void info(String msg, Throwable t) {
         if (isInfoEnabled()) {
-            logger.info(msg, t);
+            log(Level.INFO, msg, null, t);
+        }
+    }
+
+    @Override
+    public void info(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isInfoEnabled() && isSampled(event)) {
+            logEvent(Level.INFO, event, format, resolve(argumentSuppliers), null);
+        } else if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(Level.INFO, event, format, resolve(argumentSuppliers), null);
+        }
+    }
+
+    @Override
+    public void info(String format, Supplier<?>... argumentSuppliers) {
+        if (isInfoEnabled()) {
+            log(Level.INFO, format, resolve(argumentSuppliers), null);
         }
     }
 
     @Override
     public void warn(IgniteEvent event, String msg) {
-        logger.warn(getMessageWithHeader(event, msg));
+        if (isWarnEnabled()) {
+            logEvent(Level.WARN, event, msg, null, null);
+        }
     }
 
     @Override
     public void warn(IgniteEvent event, String format, Object... arguments) {
-        logger.warn(getMessageWithHeader(event, format), arguments);
+        if (isWarnEnabled()) {
+            logEvent(Level.WARN, event, format, arguments, null);
+        }
     }
 
     @Override
     public void warn(IgniteEvent event, String msg, Throwable t) {
-        logger.warn(getMessageWithHeader(event, msg), t);
+        if (isWarnEnabled()) {
+            logEvent(Level.WARN, event, msg, null, t);
+        }
     }
 
     @Override
     public void warn(String msg) {
-        logger.warn(msg);
+        if (isWarnEnabled()) {
+            log(Level.WARN, msg, null, null);
+        }
     }
 
     @Override
     public void warn(String format, Object... arguments) {
-        logger.warn(format, arguments);
+        if (isWarnEnabled()) {
+            log(Level.WARN, format, arguments, null);
+        }
     }
 
     @Override
     public void warn(String msg, Throwable t) {
-        logger.warn(msg, t);
+        if (isWarnEnabled()) {
+            log(Level.WARN, msg, null, t);
+        }
+    }
+
+    @Override
+    public void warn(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isWarnEnabled()) {
+            logEvent(Level.WARN, event, format, resolve(argumentSuppliers), null);
+        }
+    }
+
+    @Override
+    public void warn(String format, Supplier<?>... argumentSuppliers) {
+        if (isWarnEnabled()) {
+            log(Level.WARN, format, resolve(argumentSuppliers), null);
+        }
     }
 
     @Override
     public void error(IgniteEvent event, String msg) {
-        logger.error(getMessageWithHeader(event, msg));
+        if (isErrorEnabled()) {
+            IgniteDebugReplayBuffer.flush(event);
+            logEvent(Level.ERROR, event, msg, null, null);
+        }
     }
 
     @Override
     public void error(IgniteEvent event, String format, Object... arguments) {
-        logger.error(getMessageWithHeader(event, format), arguments);
+        if (isErrorEnabled()) {
+            IgniteDebugReplayBuffer.flush(event);
+            logEvent(Level.ERROR, event, format, arguments, null);
+        }
     }
 
     @Override
     public void error(IgniteEvent event, String msg, Throwable t) {
-        logger.error(getMessageWithHeader(event, msg), t);
+        if (isErrorEnabled()) {
+            IgniteDebugReplayBuffer.flush(event);
+            logEvent(Level.ERROR, event, msg, null, t);
+        }
     }
 
     @Override
     public void error(String msg) {
-        logger.error(msg);
+        if (isErrorEnabled()) {
+            log(Level.ERROR, msg, null, null);
+        }
     }
 
     @Override
     public void error(String format, Object... arguments) {
-        logger.error(format, arguments);
+        if (isErrorEnabled()) {
+            log(Level.ERROR, format, arguments, null);
+        }
     }
 
     @Override
     public void error(String msg, Throwable t) {
-        logger.error(msg, t);
+        if (isErrorEnabled()) {
+            log(Level.ERROR, msg, null, t);
+        }
+    }
+
+    @Override
+    public void error(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (isErrorEnabled()) {
+            IgniteDebugReplayBuffer.flush(event);
+            logEvent(Level.ERROR, event, format, resolve(argumentSuppliers), null);
+        }
+    }
+
+    @Override
+    public void error(String format, Supplier<?>... argumentSuppliers) {
+        if (isErrorEnabled()) {
+            log(Level.ERROR, format, resolve(argumentSuppliers), null);
+        }
+    }
+
+    @Override
+    public <E extends IgniteEvent> void logBatch(Level level, Collection<E> events, String format,
+            Function<? super E, Object[]> argumentsExtractor) {
+        boolean sampledLevel = level != Level.WARN && level != Level.ERROR;
+        if (!isEnabled(level)) {
+            if (sampledLevel) {
+                for (E event : events) {
+                    logBelowLevel(level, event, format, argumentsExtractor);
+                }
+            }
+            return;
+        }
+        if (!(logger instanceof ch.qos.logback.classic.Logger logbackLogger)) {
+            for (E event : events) {
+                if (sampledLevel && !isSampled(event)) {
+                    logBelowLevel(level, event, format, argumentsExtractor);
+                } else {
+                    if (level == Level.ERROR) {
+                        IgniteDebugReplayBuffer.flush(event);
+                    }
+                    logEvent(level, event, format, arguments(argumentsExtractor, event), null);
+                }
+            }
+            return;
+        }
+        logBatch(logbackLogger, level, sampledLevel, events, format, argumentsExtractor);
+    }
+
+    /**
+     * Logs the statements of a batch of enabled level with logback, building the events directly like
+     * {@link #logStructured} and handing them to the appenders within an {@link IgniteAsyncAppender} batch.
+     */
+    private <E extends IgniteEvent> void logBatch(ch.qos.logback.classic.Logger logbackLogger, Level level,
+            boolean sampledLevel, Collection<E> events, String format,
+            Function<? super E, Object[]> argumentsExtractor) {
+        ch.qos.logback.classic.Level logbackLevel = ch.qos.logback.classic.Level.convertAnSLF4JLevel(level);
+        IgniteEventHeaderMode mode = headerMode;
+        StringBuilder buf = mode == IgniteEventHeaderMode.PREFIX ? IgniteEventHeaderRenderer.acquire() : null;
+        int statsLevel = IgniteLoggerStats.index(level);
+        long start = stats.enterBatch();
+        int logged = 0;
+        IgniteAsyncAppender.beginBatch();
+        try {
+            for (E event : events) {
+                if (sampledLevel && !isSampled(event)) {
+                    logBelowLevel(level, event, format, argumentsExtractor);
+                    continue;
+                }
+                Object[] arguments = arguments(argumentsExtractor, event);
+                FilterReply decision = turboFilterDecision(logbackLogger, logbackLevel, format, arguments, null);
+                if (decision == FilterReply.DENY || (decision == FilterReply.NEUTRAL
+                        && !logbackLogger.isEnabledFor(logbackLevel))) {
+                    continue;
+                }
+                if (level == Level.ERROR) {
+                    IgniteDebugReplayBuffer.flush(event);
+                }
+                LoggingEvent loggingEvent = newBatchEvent(logbackLogger, logbackLevel, mode, buf, event, format,
+                        arguments);
+                IgniteLogJfrEvent jfrEvent = IgniteLogJfr.begin(statsLevel);
+                logbackLogger.callAppenders(loggingEvent);
+                IgniteLogJfr.commit(jfrEvent, level, logbackLogger.getName(), event, format, arguments, null);
+                logged++;
+            }
+        } finally {
+            IgniteAsyncAppender.endBatch();
+            if (buf != null) {
+                IgniteEventHeaderRenderer.trim(buf);
+            }
+        }
+        stats.exitBatch(statsLevel, logged, start);
+    }
+
+    /**
+     * Builds the logging event of a batch statement according to the header mode, rendering a prefixed header
+     * into the buffer reused by the whole batch.
+     */
+    private static LoggingEvent newBatchEvent(ch.qos.logback.classic.Logger logbackLogger,
+            ch.qos.logback.classic.Level logbackLevel, IgniteEventHeaderMode mode, StringBuilder buf,
+            IgniteEvent event, String format, Object[] arguments) {
+        if (mode == IgniteEventHeaderMode.STRUCTURED) {
+            LoggingEvent loggingEvent = new LoggingEvent(FQCN, logbackLogger, logbackLevel, format, null, arguments);
+            loggingEvent.setKeyValuePairs(IgniteEventHeaderRenderer.keyValuePairs(event));
+            return loggingEvent;
+        }
+        if (mode == IgniteEventHeaderMode.DEFERRED) {
+            return new LoggingEvent(FQCN, logbackLogger, logbackLevel,
+                    IgniteEventHeaderRenderer.deferredFormat(format, arguments), null,
+                    deferredArguments(event, format, arguments, null));
+        }
+        return new LoggingEvent(FQCN, logbackLogger, logbackLevel, IgniteEventHeaderRenderer.render(buf, event, format),
+                null, arguments);
+    }
+
+    /**
+     * Tells whether an event scoped statement is logged, taking the sampling of TRACE, DEBUG and INFO statements
+     * and the watch list into account, so {@link IgniteRateLimitedLogger} only spends permits on logged statements.
+     *
+     * @param level the level of the statement
+     * @param event the IgniteEvent associated with the statement
+     * @return true if the statement is logged
+     */
+    boolean isLogged(Level level, IgniteEvent event) {
+        if (level == Level.WARN || level == Level.ERROR) {
+            return isEnabled(level);
+        }
+        return isEnabled(level) && isSampled(event) || IgniteEventWatchList.isWatched(event);
+    }
+
+    private boolean isEnabled(Level level) {
+        return switch (level) {
+            case TRACE -> isTraceEnabled();
+            case DEBUG -> isDebugEnabled();
+            case INFO -> isInfoEnabled();
+            case WARN -> isWarnEnabled();
+            default -> isErrorEnabled();
+        };
+    }
+
+    private static <E> Object[] arguments(Function<? super E, Object[]> argumentsExtractor, E event) {
+        return argumentsExtractor == null ? null : argumentsExtractor.apply(event);
+    }
+
+    /**
+     * Handles an event scoped TRACE, DEBUG or INFO statement which is below the logger level or not sampled,
+     * like the single statement methods do: watched events are logged, TRACE and DEBUG statements go to the
+     * debug replay buffer. The arguments are only extracted then.
+     */
+    private <E extends IgniteEvent> void logBelowLevel(Level level, E event, String format,
+            Function<? super E, Object[]> argumentsExtractor) {
+        if (IgniteEventWatchList.isWatched(event)) {
+            logWatched(level, event, format, arguments(argumentsExtractor, event), null);
+        } else if (level != Level.INFO && IgniteDebugReplayBuffer.isEnabled()) {
+            IgniteDebugReplayBuffer.capture(logger, level, event, format, arguments(argumentsExtractor, event), null);
+        }
     }
 
     /**
@@ -335,33 +774,411 @@ public class IgniteLoggerImpl implements IgniteLogger {
      * @return the formatted log message with header information
      */
     private String getMessageWithHeader(IgniteEvent event, String format) {
-        StringBuilder formatBuilder = new StringBuilder();
-        long timeStamp = event.getTimestamp();
-        formatBuilder.append("Timestamp:").append(timeStamp);
+        return IgniteEventHeaderRenderer.render(event, format);
+    }
+
+    /**
+     * Returns whether the vehicle of an event scoped statement is sampled, checked once the level is enabled.
+     *
+     * @param event the IgniteEvent associated with the log message
+     * @return true if the statement is logged
+     */
+    private boolean isSampled(IgniteEvent event) {
+        return IgniteEventSampler.isSampled(event, samplingThreshold);
+    }
+
+    /**
+     * Sets the fraction of vehicles whose IgniteEvent scoped TRACE, DEBUG and INFO statements are logged.
+     *
+     * @param rate the fraction of vehicles sampled, from 0 to 1
+     */
+    void setSamplingRate(double rate) {
+        samplingThreshold = IgniteEventSampler.threshold(rate);
+    }
+
+    /**
+     * Returns the fraction of vehicles whose IgniteEvent scoped TRACE, DEBUG and INFO statements are logged.
+     *
+     * @return the fraction of vehicles sampled
+     */
+    double getSamplingRate() {
+        return IgniteEventSampler.rate(samplingThreshold);
+    }
+
+    /**
+     * Evaluates the argument suppliers, only called once the level check has passed.
+     *
+     * @param argumentSuppliers the suppliers of the arguments, may be null
+     * @return the evaluated arguments
+     */
+    private static Object[] resolve(Supplier<?>[] argumentSuppliers) {
+        if (argumentSuppliers == null) {
+            return null;
+        }
+        Object[] arguments = new Object[argumentSuppliers.length];
+        for (int i = 0; i < argumentSuppliers.length; i++) {
+            arguments[i] = argumentSuppliers[i] == null ? null : argumentSuppliers[i].get();
+        }
+        return arguments;
+    }
+
+    /**
+     * Logs an event scoped message according to the configured {@link IgniteEventHeaderMode}.
+     *
+     * @param level the level to log at
+     * @param event the IgniteEvent associated with the log message
+     * @param format the message or message format string
+     * @param arguments the arguments to be used in the message format, may be null
+     * @param t the throwable to log, may be null
+     */
+    private void logEvent(Level level, IgniteEvent event, String format, Object[] arguments, Throwable t) {
+        int statsLevel = IgniteLoggerStats.index(level);
+        long start = stats.enter(statsLevel);
+        IgniteLogJfrEvent jfrEvent = IgniteLogJfr.begin(statsLevel);
+        IgniteEventHeaderMode mode = headerMode;
+        if (mode == IgniteEventHeaderMode.STRUCTURED) {
+            logStructured(level, event, format, arguments, t);
+        } else if (mode == IgniteEventHeaderMode.DEFERRED) {
+            emit(level, IgniteEventHeaderRenderer.deferredFormat(format, arguments),
+                    deferredArguments(event, format, arguments, t), null);
+        } else {
+            emit(level, getMessageWithHeader(event, format), arguments, t);
+        }
+        IgniteLogJfr.commit(jfrEvent, level, logger.getName(), event, format, arguments, t);
+        stats.exit(statsLevel, start);
+    }
+
+    /**
+     * Logs a message which is not event scoped, recording the statistics and the JFR event of the call.
+     *
+     * @param level the level to log at
+     * @param msg the message or message format string
+     * @param arguments the arguments to be used in the message format, may be null
+     * @param t the throwable to log, may be null
+     */
+    private void log(Level level, String msg, Object[] arguments, Throwable t) {
+        int statsLevel = IgniteLoggerStats.index(level);
+        long start = stats.enter(statsLevel);
+        IgniteLogJfrEvent jfrEvent = IgniteLogJfr.begin(statsLevel);
+        emit(level, msg, arguments, t);
+        IgniteLogJfr.commit(jfrEvent, level, logger.getName(), null, msg, arguments, t);
+        stats.exit(statsLevel, start);
+    }
+
+    /**
+     * Builds the arguments of a deferred message, see
+     * {@link IgniteEventHeaderRenderer#deferredArguments(IgniteEventHeader, String, Object[], Throwable)}.
+     */
+    private static Object[] deferredArguments(IgniteEvent event, String format, Object[] arguments, Throwable t) {
+        return IgniteEventHeaderRenderer.deferredArguments(new IgniteEventHeader(event), format, arguments, t);
+    }
+
+    /**
+     * Logs the message with the event header attached as key-value pairs, leaving the format untouched.
+     * With logback the event is built directly so turbo filters still see the format, arguments and throwable,
+     * which the SLF4J fluent API does not pass on. Other SLF4J bindings go through the fluent API.
+     */
+    private void logStructured(Level level, IgniteEvent event, String format, Object[] arguments, Throwable t) {
+        List<KeyValuePair> keyValuePairs = IgniteEventHeaderRenderer.keyValuePairs(event);
+        if (logger instanceof ch.qos.logback.classic.Logger logbackLogger) {
+            ch.qos.logback.classic.Level logbackLevel = ch.qos.logback.classic.Level.convertAnSLF4JLevel(level);
+            FilterReply decision = turboFilterDecision(logbackLogger, logbackLevel, format, arguments, t);
+            if (decision == FilterReply.DENY || (decision == FilterReply.NEUTRAL
+                    && !logbackLogger.isEnabledFor(logbackLevel))) {
+                return;
+            }
+            LoggingEvent loggingEvent = new LoggingEvent(FQCN, logbackLogger, logbackLevel, format, t, arguments);
+            loggingEvent.setKeyValuePairs(keyValuePairs);
+            logbackLogger.callAppenders(loggingEvent);
+            return;
+        }
+        LoggingEventBuilder builder = logger.atLevel(level).setMessage(format).setCause(t);
+        if (builder instanceof CallerBoundaryAware callerBoundaryAware) {
+            callerBoundaryAware.setCallerBoundary(FQCN);
+        }
+        if (arguments != null) {
+            for (Object argument : arguments) {
+                builder.addArgument(argument);
+            }
+        }
+        for (KeyValuePair keyValuePair : keyValuePairs) {
+            builder.addKeyValue(keyValuePair.key, keyValuePair.value);
+        }
+        builder.log();
+    }
+
+    /**
+     * Logs an event scoped message of a watched event below the logger level, handing it to the appenders
+     * directly. Turbo filters can still deny it. Other SLF4J bindings have no way around the level.
+     */
+    private void logWatched(Level level, IgniteEvent event, String format, Object[] arguments, Throwable t) {
+        if (!(logger instanceof ch.qos.logback.classic.Logger logbackLogger)) {
+            return;
+        }
+        ch.qos.logback.classic.Level logbackLevel = ch.qos.logback.classic.Level.convertAnSLF4JLevel(level);
+        if (turboFilterDecision(logbackLogger, logbackLevel, format, arguments, t) == FilterReply.DENY) {
+            return;
+        }
+        IgniteEventHeaderMode mode = headerMode;
+        LoggingEvent loggingEvent;
+        if (mode == IgniteEventHeaderMode.STRUCTURED) {
+            loggingEvent = new LoggingEvent(FQCN, logbackLogger, logbackLevel, format, t, arguments);
+            loggingEvent.setKeyValuePairs(IgniteEventHeaderRenderer.keyValuePairs(event));
+        } else if (mode == IgniteEventHeaderMode.DEFERRED) {
+            loggingEvent = new LoggingEvent(FQCN, logbackLogger, logbackLevel,
+                    IgniteEventHeaderRenderer.deferredFormat(format, arguments), null,
+                    deferredArguments(event, format, arguments, t));
+        } else {
+            loggingEvent = new LoggingEvent(FQCN, logbackLogger, logbackLevel, getMessageWithHeader(event, format),
+                    t, arguments);
+        }
+        int statsLevel = IgniteLoggerStats.index(level);
+        long start = stats.enter(statsLevel);
+        IgniteLogJfrEvent jfrEvent = IgniteLogJfr.begin(statsLevel);
+        logbackLogger.callAppenders(loggingEvent);
+        IgniteLogJfr.commit(jfrEvent, level, logger.getName(), event, format, arguments, t);
+        stats.exit(statsLevel, start);
+    }
+
+    /**
+     * Runs the logback turbo filters for an event which is built outside of the logback Logger.
+     *
+     * @return the turbo filter chain decision
+     */
+    private static FilterReply turboFilterDecision(ch.qos.logback.classic.Logger logbackLogger,
+            ch.qos.logback.classic.Level level, String format, Object[] arguments, Throwable t) {
+        TurboFilterList turboFilters = logbackLogger.getLoggerContext().getTurboFilterList();
+        if (turboFilters.isEmpty()) {
+            return FilterReply.NEUTRAL;
+        }
+        return turboFilters.getTurboFilterChainDecision(null, logbackLogger, level, format, arguments, t);
+    }
 
-        String requestId = event.getRequestId();
-        formatBuilder.append(" , RequestId:").append(requestId);
+    /**
+     * Hands the message over to the SLF4J logger using the overload matching the supplied arguments.
+     *
+     * @param level the level to log at
+     * @param msg the message or message format string
+     * @param arguments the arguments to be used in the message format, may be null
+     * @param t the throwable to log, may be null
+     */
+    private void emit(Level level, String msg, Object[] arguments, Throwable t) {
+        switch (level) {
+            case TRACE -> {
+                if (t != null) {
+                    logger.trace(msg, t);
+                } else if (arguments != null) {
+                    logger.trace(msg, arguments);
+                } else {
+                    logger.trace(msg);
+                }
+            }
+            case DEBUG -> {
+                if (t != null) {
+                    logger.debug(msg, t);
+                } else if (arguments != null) {
+                    logger.debug(msg, arguments);
+                } else {
+                    logger.debug(msg);
+                }
+            }
+            case INFO -> {
+                if (t != null) {
+                    logger.info(msg, t);
+                } else if (arguments != null) {
+                    logger.info(msg, arguments);
+                } else {
+                    logger.info(msg);
+                }
+            }
+            case WARN -> {
+                if (t != null) {
+                    logger.warn(msg, t);
+                } else if (arguments != null) {
+                    logger.warn(msg, arguments);
+                } else {
+                    logger.warn(msg);
+                }
+            }
+            default -> {
+                if (t != null) {
+                    logger.error(msg, t);
+                } else if (arguments != null) {
+                    logger.error(msg, arguments);
+                } else {
+                    logger.error(msg);
+                }
+            }
+        }
+    }
 
-        String messageId = event.getMessageId();
-        formatBuilder.append(" , MessageId:").append(messageId);
+    /**
+     * Caches the effective level of the underlying logger. The level is only cached for Logback loggers
+     * whose context has no turbo filter able to accept an event below that level; otherwise every check
+     * is passed through to the underlying logger. <br>
+     * The level is read under the lock, so a refresh triggered by an older level change cannot publish its level
+     * after a newer refresh, and while the context is being configured the cached level stays pass-through.
+     */
+    void refreshThreshold() {
+        synchronized (THRESHOLD_LOCK) {
+            int computed = configuring ? PASS_THROUGH : computeThreshold(logger);
+            levelThreshold = computed;
+            threshold = Math.max(computed, degradedThreshold);
+        }
+    }
 
-        String bizTransactionId = event.getBizTransactionId();
-        formatBuilder.append(" , BizTransactionId:").append(bizTransactionId);
+    /**
+     * Drops the cached level, used while the Logback context is being reconfigured. A degradation still applies.
+     */
+    void passThrough() {
+        synchronized (THRESHOLD_LOCK) {
+            levelThreshold = PASS_THROUGH;
+            threshold = degradedThreshold;
+        }
+    }
 
-        formatBuilder.append(" , VehicleID:").append(event.getVehicleId());
+    /**
+     * Marks the start or the end of a configuration of the Logback context, dropping the cached levels of all
+     * loggers at its start and computing them again at its end.
+     *
+     * @param started true when the configuration starts, false when it has ended
+     */
+    static void configuring(boolean started) {
+        synchronized (THRESHOLD_LOCK) {
+            configuring = started;
+            for (IgniteLoggerImpl igniteLogger : igniteLoggersMap.values()) {
+                if (started) {
+                    igniteLogger.passThrough();
+                } else {
+                    igniteLogger.refreshThreshold();
+                }
+            }
+        }
+    }
 
-        formatBuilder.append(" , EventID:").append(event.getEventId());
+    /**
+     * Ends a configuration of the Logback context which will not report its end because the context was reset
+     * or stopped, dropping the cached levels of all loggers until they are computed again.
+     */
+    static void reset() {
+        synchronized (THRESHOLD_LOCK) {
+            configuring = false;
+            for (IgniteLoggerImpl igniteLogger : igniteLoggersMap.values()) {
+                igniteLogger.passThrough();
+            }
+        }
+    }
 
-        formatBuilder.append(" , Version:").append(event.getSchemaVersion());
+    /**
+     * Ends a configuration of the Logback context which reported an error, since a configuration aborted by
+     * the error does not report its end. The cached levels are computed again.
+     */
+    static void configurationFailed() {
+        synchronized (THRESHOLD_LOCK) {
+            if (configuring) {
+                configuring(false);
+            }
+        }
+    }
 
-        formatBuilder.append(" , SourceDeviceID:").append(event.getSourceDeviceId());
+    /**
+     * Computes the cached levels of all loggers again.
+     */
+    static void refreshAll() {
+        synchronized (THRESHOLD_LOCK) {
+            for (IgniteLoggerImpl igniteLogger : igniteLoggersMap.values()) {
+                igniteLogger.refreshThreshold();
+            }
+        }
+    }
 
-        Optional<String> correlateionId = Optional.ofNullable(event.getCorrelationId());
-        if (correlateionId.isPresent()) {
-            formatBuilder.append(" , CorrelationId:").append(correlateionId);
+    /**
+     * Raises the lowest level logged by all loggers above their configured level, or restores it.
+     *
+     * @param lowestLevel the Logback level int below which statements are skipped, {@link #PASS_THROUGH} to
+     *     restore the configured levels
+     */
+    static void degrade(int lowestLevel) {
+        synchronized (THRESHOLD_LOCK) {
+            degradedThreshold = lowestLevel;
+            for (IgniteLoggerImpl igniteLogger : igniteLoggersMap.values()) {
+                igniteLogger.threshold = Math.max(igniteLogger.levelThreshold, lowestLevel);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached threshold.
+     * This method is added for JUnit test purposes only.
+     *
+     * @return the cached Logback level int, raised by a degradation, or {@link #PASS_THROUGH}
+     */
+    int getThreshold() {
+        return threshold;
+    }
+
+    private static int computeThreshold(Logger logger) {
+        if (!(logger instanceof ch.qos.logback.classic.Logger)) {
+            return PASS_THROUGH;
+        }
+        ch.qos.logback.classic.Logger logbackLogger = (ch.qos.logback.classic.Logger) logger;
+        TurboFilterList filters = logbackLogger.getLoggerContext().getTurboFilterList();
+        turboFilters = filters;
+        turboFilterCount = filters.size();
+        for (TurboFilter turboFilter : filters) {
+            // DuplicateExceptionFilter only ever denies, any other filter may accept below the level.
+            if (!(turboFilter instanceof DuplicateExceptionFilter)) {
+                return PASS_THROUGH;
+            }
         }
-        formatBuilder.append(" ," + MESSAGE + ":").append(format);
-        return formatBuilder.toString();
+        return logbackLogger.getEffectiveLevel().toInt();
+    }
+
+    /**
+     * Returns the log volume and logging cost statistics of this logger.
+     *
+     * @return the statistics
+     */
+    IgniteLoggerStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the statistics of the IgniteLogger of a class, without allocating.
+     *
+     * @param loggerName the logger name
+     * @return the statistics, or null if the logger is not an IgniteLogger
+     */
+    static IgniteLoggerStats statsOf(String loggerName) {
+        IgniteLoggerImpl igniteLogger = igniteLoggersMap.get(loggerName);
+        return igniteLogger == null ? null : igniteLogger.stats;
+    }
+
+    /**
+     * Returns the IgniteLoggerImpl instances created so far.
+     *
+     * @return the IgniteLoggerImpl instances
+     */
+    static Collection<IgniteLoggerImpl> igniteLoggers() {
+        return igniteLoggersMap.values();
+    }
+
+    /**
+     * Returns the way IgniteEvent header fields are attached to event scoped log lines.
+     *
+     * @return the current header mode
+     */
+    static IgniteEventHeaderMode getHeaderMode() {
+        return headerMode;
+    }
+
+    /**
+     * Sets the way IgniteEvent header fields are attached to event scoped log lines, for all loggers.
+     *
+     * @param mode the header mode, null restores the default
+     */
+    static void setHeaderMode(IgniteEventHeaderMode mode) {
+        headerMode = mode == null ? IgniteEventHeaderMode.PREFIX : mode;
     }
 
     /**
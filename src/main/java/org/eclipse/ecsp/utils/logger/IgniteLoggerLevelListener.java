@@ -0,0 +1,135 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.core.spi.ConfigurationEvent;
+import ch.qos.logback.core.spi.ConfigurationEventListener;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusListener;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the effective level cached by each {@link IgniteLoggerImpl} in line with the Logback configuration.
+ *
+ * <p>While the context is being reset or reconfigured every cached level falls back to pass-through, so no
+ * event is dropped on a stale level. Level changes made during a configuration keep it pass-through. Once
+ * configuration has ended, the context has started or a logger level has changed, the cached levels are
+ * computed again. A configuration aborted by an error does not report its end, so an error status ends it
+ * as well, and so does a reset or stop of the context.</p>
+ *
+ * <p>Turbo filters added or removed through the {@code LoggerContext} API fire no event. They are noticed by
+ * {@link IgniteLoggerImpl} when a level check fails on a cached level.</p>
+ */
+final class IgniteLoggerLevelListener implements LoggerContextListener, ConfigurationEventListener,
+        StatusListener {
+
+    private static volatile boolean registered;
+
+    private IgniteLoggerLevelListener() {
+    }
+
+    /**
+     * Registers the listener with the Logback context once it is available.
+     * Until then the call is a no-op and is retried by the next logger created.
+     */
+    static void register() {
+        if (registered) {
+            return;
+        }
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext)) {
+            return;
+        }
+        synchronized (IgniteLoggerLevelListener.class) {
+            if (!registered) {
+                LoggerContext context = (LoggerContext) factory;
+                IgniteLoggerLevelListener listener = new IgniteLoggerLevelListener();
+                context.addListener(listener);
+                context.addConfigurationEventListener(listener);
+                context.getStatusManager().add(listener);
+                registered = true;
+                IgniteLoggerImpl.refreshAll();
+            }
+        }
+    }
+
+    @Override
+    public boolean isResetResistant() {
+        return true;
+    }
+
+    @Override
+    public void onStart(LoggerContext context) {
+        IgniteLoggerImpl.refreshAll();
+    }
+
+    @Override
+    public void onReset(LoggerContext context) {
+        IgniteLoggerImpl.reset();
+    }
+
+    @Override
+    public void onStop(LoggerContext context) {
+        IgniteLoggerImpl.reset();
+    }
+
+    @Override
+    public void onLevelChange(Logger logger, Level level) {
+        IgniteLoggerImpl.refreshAll();
+    }
+
+    @Override
+    public void listen(ConfigurationEvent event) {
+        if (event.getEventType() == ConfigurationEvent.EventType.CONFIGURATION_STARTED) {
+            IgniteLoggerImpl.configuring(true);
+        } else if (event.getEventType() == ConfigurationEvent.EventType.CONFIGURATION_ENDED) {
+            IgniteLoggerImpl.configuring(false);
+        }
+    }
+
+    @Override
+    public void addStatusEvent(Status status) {
+        if (status.getLevel() == Status.ERROR) {
+            IgniteLoggerImpl.configurationFailed();
+        }
+    }
+}
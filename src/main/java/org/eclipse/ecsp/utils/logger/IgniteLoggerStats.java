@@ -0,0 +1,383 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.prometheus.client.Histogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log volume and logging cost statistics of one {@link IgniteLoggerImpl}. <br>
+ * The statements logged are counted per level, and one logging call in {@code sampleInterval} is timed.
+ * The bytes the statements were encoded to are reported by {@link IgniteJsonEncoder}, {@link IgniteBinaryAppender}
+ * and {@link IgniteMappedFileAppender}, other appenders do not report them. <br>
+ * Counts go to striped {@link LongAdder}s and timings to a cached histogram child, so recording does not allocate
+ * and threads logging through the same logger do not contend. A daemon thread publishes the counts every
+ * {@value #PUBLISH_INTERVAL_MILLIS} ms as the {@value IgniteLoggerStatsMetrics#EVENTS} and
+ * {@value IgniteLoggerStatsMetrics#BYTES} counters. Timings of a level are dropped until its histogram child has
+ * been created by that thread. <br>
+ * The statistics are disabled by default, a disabled logger pays one volatile read per statement.
+ */
+final class IgniteLoggerStats {
+
+    /**
+     * System property enabling the statistics.
+     */
+    static final String PROPERTY = "ignite.logger.stats";
+
+    /**
+     * System property setting how many logging calls there are per timed call.
+     */
+    static final String SAMPLE_INTERVAL_PROPERTY = "ignite.logger.stats.sample.interval";
+
+    /**
+     * Default logging calls per timed call.
+     */
+    static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    /**
+     * Interval at which the counts are published.
+     */
+    static final long PUBLISH_INTERVAL_MILLIS = 10_000L;
+
+    /**
+     * Index of the TRACE statistics.
+     */
+    static final int TRACE = 0;
+
+    /**
+     * Index of the DEBUG statistics.
+     */
+    static final int DEBUG = 1;
+
+    /**
+     * Index of the INFO statistics.
+     */
+    static final int INFO = 2;
+
+    /**
+     * Index of the WARN statistics.
+     */
+    static final int WARN = 3;
+
+    /**
+     * Index of the ERROR statistics.
+     */
+    static final int ERROR = 4;
+
+    /**
+     * Start time of a call which is not timed.
+     */
+    static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final String[] LEVEL_NAMES = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+    private static final int MAX_SAMPLE_INTERVAL = Integer.highestOneBit(Integer.MAX_VALUE);
+    private static final double NANOS_PER_SECOND = 1E9D;
+
+    private static volatile boolean enabled;
+    private static volatile int sampleMask;
+    private static ScheduledExecutorService publisher;
+
+    private final String loggerName;
+    private final LongAdder[] events = new LongAdder[LEVEL_NAMES.length];
+    private final LongAdder[] bytes = new LongAdder[LEVEL_NAMES.length];
+    private final AtomicReferenceArray<Histogram.Child> latency = new AtomicReferenceArray<>(LEVEL_NAMES.length);
+
+    /**
+     * Counts already published, only used by the publisher thread.
+     */
+    private final long[] publishedEvents = new long[LEVEL_NAMES.length];
+    private final long[] publishedBytes = new long[LEVEL_NAMES.length];
+
+    static {
+        int sampleInterval = Integer.getInteger(SAMPLE_INTERVAL_PROPERTY, DEFAULT_SAMPLE_INTERVAL);
+        configure(Boolean.getBoolean(PROPERTY), sampleInterval > 0 ? sampleInterval : DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Constructor of the statistics of a logger.
+     *
+     * @param loggerName the logger name
+     */
+    IgniteLoggerStats(String loggerName) {
+        this.loggerName = loggerName;
+        for (int i = 0; i < LEVEL_NAMES.length; i++) {
+            events[i] = new LongAdder();
+            bytes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Enables or disables the statistics of all loggers. The counts are kept while disabled.
+     *
+     * @param enable true to record the statistics
+     * @param sampleInterval the logging calls per timed call, rounded up to a power of two
+     */
+    static synchronized void configure(boolean enable, int sampleInterval) {
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("Invalid logger statistics sample interval: " + sampleInterval);
+        }
+        int interval = Integer.highestOneBit(Math.min(sampleInterval, MAX_SAMPLE_INTERVAL));
+        if (interval < sampleInterval) {
+            interval <<= 1;
+        }
+        sampleMask = interval - 1;
+        enabled = enable;
+        if (enable && publisher == null) {
+            publisher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "IgniteLoggerStats");
+                thread.setDaemon(true);
+                return thread;
+            });
+            publisher.scheduleWithFixedDelay(IgniteLoggerStats::publishAll, PUBLISH_INTERVAL_MILLIS,
+                    PUBLISH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (!enable && publisher != null) {
+            publisher.shutdown();
+            publisher = null;
+        }
+    }
+
+    /**
+     * Returns whether the statistics are recorded.
+     *
+     * @return true if enabled
+     */
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the logging calls per timed call.
+     *
+     * @return the sample interval, a power of two
+     */
+    static int getSampleInterval() {
+        return sampleMask + 1;
+    }
+
+    /**
+     * Counts a statement about to be handed to the underlying logger and decides whether the call is timed.
+     *
+     * @param level the level index
+     * @return the start time of a timed call, {@link #NOT_TIMED} otherwise
+     */
+    long enter(int level) {
+        if (!enabled) {
+            return NOT_TIMED;
+        }
+        events[level].increment();
+        return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Decides whether a batch of statements is timed, it is timed as one call.
+     *
+     * @return the start time of a timed batch, {@link #NOT_TIMED} otherwise
+     */
+    long enterBatch() {
+        if (!enabled) {
+            return NOT_TIMED;
+        }
+        return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Counts the statements of a batch handed to the underlying logger and records the time spent if it is timed.
+     *
+     * @param level the level index
+     * @param statements the statements logged
+     * @param start the value returned by {@link #enterBatch()}
+     */
+    void exitBatch(int level, int statements, long start) {
+        if (enabled && statements > 0) {
+            events[level].add(statements);
+        }
+        exit(level, start);
+    }
+
+    /**
+     * Records the time spent in a timed call.
+     *
+     * @param level the level index
+     * @param start the value returned by {@link #enter(int)}
+     */
+    void exit(int level, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        Histogram.Child child = latency.get(level);
+        if (child != null) {
+            child.observe((System.nanoTime() - start) / NANOS_PER_SECOND);
+        }
+    }
+
+    /**
+     * Adds the bytes an event was encoded to to the statistics of its logger, if it is an IgniteLogger.
+     *
+     * @param event the encoded event
+     * @param length the bytes the event was encoded to
+     */
+    static void encoded(ILoggingEvent event, long length) {
+        if (!enabled) {
+            return;
+        }
+        IgniteLoggerStats stats = IgniteLoggerImpl.statsOf(event.getLoggerName());
+        if (stats != null) {
+            stats.bytes[index(event.getLevel())].add(length);
+        }
+    }
+
+    /**
+     * Returns the statistics index of an SLF4J level.
+     *
+     * @param level the level
+     * @return the level index
+     */
+    static int index(org.slf4j.event.Level level) {
+        switch (level) {
+            case TRACE:
+                return TRACE;
+            case DEBUG:
+                return DEBUG;
+            case INFO:
+                return INFO;
+            case WARN:
+                return WARN;
+            default:
+                return ERROR;
+        }
+    }
+
+    private static int index(Level level) {
+        switch (level.toInt()) {
+            case Level.TRACE_INT:
+                return TRACE;
+            case Level.DEBUG_INT:
+                return DEBUG;
+            case Level.INFO_INT:
+                return INFO;
+            case Level.WARN_INT:
+                return WARN;
+            default:
+                return ERROR;
+        }
+    }
+
+    /**
+     * Returns the volume logged so far.
+     *
+     * @return the report entry of this logger
+     */
+    IgniteLoggerVolume volume() {
+        long eventCount = 0;
+        long byteCount = 0;
+        for (int i = 0; i < LEVEL_NAMES.length; i++) {
+            eventCount += events[i].sum();
+            byteCount += bytes[i].sum();
+        }
+        return new IgniteLoggerVolume(loggerName, eventCount, byteCount);
+    }
+
+    /**
+     * Returns the loggers which logged the most statements, ties broken by bytes.
+     *
+     * @param count the number of loggers to return
+     * @return at most count loggers, noisiest first, leaving out loggers which logged nothing
+     */
+    static List<IgniteLoggerVolume> noisiest(int count) {
+        List<IgniteLoggerVolume> volumes = new ArrayList<>();
+        for (IgniteLoggerImpl igniteLogger : IgniteLoggerImpl.igniteLoggers()) {
+            IgniteLoggerVolume volume = igniteLogger.getStats().volume();
+            if (volume.getEvents() > 0 || volume.getBytes() > 0) {
+                volumes.add(volume);
+            }
+        }
+        volumes.sort(Comparator.comparingLong(IgniteLoggerVolume::getEvents)
+                .thenComparingLong(IgniteLoggerVolume::getBytes).reversed());
+        return new ArrayList<>(volumes.subList(0, Math.min(count, volumes.size())));
+    }
+
+    /**
+     * Publishes the counts of all loggers since the previous call, run by the publisher thread.
+     */
+    static synchronized void publishAll() {
+        try {
+            for (IgniteLoggerImpl igniteLogger : IgniteLoggerImpl.igniteLoggers()) {
+                if (!igniteLogger.getStats().publish()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // keep publishing on the next run, the thread must not die
+        }
+    }
+
+    /**
+     * Publishes the counts of this logger and creates the histogram children of the levels it logged at.
+     *
+     * @return false if the metrics could not be registered
+     */
+    private boolean publish() {
+        for (int i = 0; i < LEVEL_NAMES.length; i++) {
+            long eventCount = events[i].sum();
+            long byteCount = bytes[i].sum();
+            if (eventCount == publishedEvents[i] && byteCount == publishedBytes[i]) {
+                continue;
+            }
+            if (!IgniteLoggerStatsMetrics.publish(loggerName, LEVEL_NAMES[i], eventCount - publishedEvents[i],
+                    byteCount - publishedBytes[i])) {
+                return false;
+            }
+            publishedEvents[i] = eventCount;
+            publishedBytes[i] = byteCount;
+            if (latency.get(i) == null) {
+                latency.set(i, IgniteLoggerStatsMetrics.latency(loggerName, LEVEL_NAMES[i]));
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import io.prometheus.client.Histogram;
+import org.eclipse.ecsp.utils.metrics.GenericIgniteCounter;
+import org.eclipse.ecsp.utils.metrics.GenericIgniteHistogram;
+
+/**
+ * Prometheus metrics of {@link IgniteLoggerStats}, labelled with logger name and level.
+ *
+ * <p>The metrics are created on first use, from the statistics publisher thread, because creating them logs.</p>
+ */
+final class IgniteLoggerStatsMetrics {
+
+    /**
+     * Counter of the statements logged.
+     */
+    static final String EVENTS = "logger_events";
+
+    /**
+     * Counter of the bytes the statements were encoded to.
+     */
+    static final String BYTES = "logger_bytes";
+
+    /**
+     * Histogram of the sampled time spent in the logging calls, in seconds.
+     */
+    static final String CALL_LATENCY = "logger_call_latency_seconds";
+
+    /**
+     * Latency buckets, from one microsecond to ten milliseconds.
+     */
+    private static final double[] LATENCY_BUCKETS = {1E-6, 2.5E-6, 5E-6, 1E-5, 2.5E-5, 5E-5, 1E-4, 2.5E-4, 5E-4,
+        1E-3, 1E-2};
+
+    private static final String LOGGER = "logger";
+    private static final String LEVEL = "level";
+
+    private static volatile GenericIgniteCounter events;
+    private static volatile GenericIgniteCounter bytes;
+    private static volatile GenericIgniteHistogram callLatency;
+    private static volatile boolean unavailable;
+
+    private IgniteLoggerStatsMetrics() {
+    }
+
+    /**
+     * Publishes the statements and bytes of a logger level since the previous call.
+     *
+     * @param logger the logger name
+     * @param level the level name
+     * @param eventCount the statements logged
+     * @param byteCount the bytes the statements were encoded to
+     * @return false if the metrics could not be registered
+     */
+    static boolean publish(String logger, String level, long eventCount, long byteCount) {
+        if (callLatency == null && !create()) {
+            return false;
+        }
+        if (eventCount > 0) {
+            events.inc(eventCount, logger, level);
+        }
+        if (byteCount > 0) {
+            bytes.inc(byteCount, logger, level);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the latency histogram child of a logger level, which is observed without allocating.
+     *
+     * @param logger the logger name
+     * @param level the level name
+     * @return the histogram child, or null if the metrics could not be registered
+     */
+    static Histogram.Child latency(String logger, String level) {
+        if (callLatency == null && !create()) {
+            return null;
+        }
+        return callLatency.getHistogram().labels(logger, level);
+    }
+
+    private static synchronized boolean create() {
+        if (callLatency != null) {
+            return true;
+        }
+        if (unavailable) {
+            return false;
+        }
+        try {
+            events = new GenericIgniteCounter(EVENTS, "Statements logged by IgniteLogger", LOGGER, LEVEL);
+            bytes = new GenericIgniteCounter(BYTES, "Bytes the IgniteLogger statements were encoded to",
+                    LOGGER, LEVEL);
+            callLatency = new GenericIgniteHistogram(CALL_LATENCY, "Sampled time spent in IgniteLogger calls",
+                    LATENCY_BUCKETS, LOGGER, LEVEL);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // another collector already uses one of the names
+            unavailable = true;
+            return false;
+        }
+    }
+}
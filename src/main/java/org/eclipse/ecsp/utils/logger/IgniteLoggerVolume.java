@@ -0,0 +1,93 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+/**
+ * Log volume of one logger since its statistics were enabled, an entry of the noisiest loggers report,
+ * see {@link IgniteLoggerFactory#getNoisiestLoggers(int)}.
+ */
+public final class IgniteLoggerVolume {
+
+    private final String loggerName;
+    private final long events;
+    private final long bytes;
+
+    /**
+     * Constructor of a report entry.
+     *
+     * @param loggerName the logger name
+     * @param events the statements logged
+     * @param bytes the bytes the statements were encoded to, 0 if no appender reports them
+     */
+    IgniteLoggerVolume(String loggerName, long events, long bytes) {
+        this.loggerName = loggerName;
+        this.events = events;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the logger name.
+     *
+     * @return the logger name
+     */
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    /**
+     * Returns the statements logged, at all levels.
+     *
+     * @return the statements logged
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the bytes the statements were encoded to by the appenders and encoders of this package.
+     *
+     * @return the bytes, 0 if no appender reports them
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return loggerName + ": " + events + " events, " + bytes + " bytes";
+    }
+}
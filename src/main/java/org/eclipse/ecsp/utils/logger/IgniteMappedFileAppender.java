@@ -0,0 +1,759 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rolling file appender writing into pre-sized memory-mapped segments, so that logging threads never block on
+ * file I/O. <br>
+ * Events are encoded on the logging thread with a text {@link Encoder}, a pattern layout encoder using
+ * {@link IgniteThrowableProxyConverter} or {@link IgniteJsonEncoder}. The logging thread then claims its range of
+ * the active segment with a single atomic add and copies the bytes into the mapping, leaving the write back to
+ * the page cache. The thread whose claim crosses the end of the segment waits for the claims before it to be
+ * copied and moves the appender to the next segment, which a background worker has already created and mapped.
+ * Threads whose claims lie beyond the end wait for the new segment and claim again. <br>
+ * Segments are written to {@code file.1}, {@code file.2} and so on, the active segment having the highest index.
+ * The background worker truncates completed segments to their length and deletes all but the last
+ * {@code maxSegments} of them. With {@code forceInterval} it also forces the active segment to the storage device
+ * periodically. After a crash the active segment is left with its unused, zero filled tail, which is trimmed when
+ * the appender is started again. Then the index continues after the highest existing segment. The trim relies on
+ * text records never ending in a zero byte, which is why encoders writing binary records are rejected. <br>
+ * Unless {@code compress} is false, completed segments are handed to a separate low priority thread which
+ * compresses them with the {@code codec}, by default {@link IgniteGzipCodec} to {@code file.N.gz}. Each segment
+ * waits a random delay of up to {@code compressionJitter} first, so that nodes rolling at the same time spread
+ * the work. The compressed size and ratio of the last segment and the number of segments waiting are published
+ * as the Prometheus gauges {@code logger_mapped_appender_compressed_bytes},
+ * {@code logger_mapped_appender_compression_ratio} and {@code logger_mapped_appender_compression_backlog},
+ * labelled with the appender name, unless {@code metricsEnabled} is false.
+ *
+ * <pre>
+ * &lt;appender name="FILE" class="org.eclipse.ecsp.utils.logger.IgniteMappedFileAppender"&gt;
+ *     &lt;file&gt;logs/service.log&lt;/file&gt;
+ *     &lt;segmentSize&gt;64MB&lt;/segmentSize&gt;
+ *     &lt;forceInterval&gt;5 seconds&lt;/forceInterval&gt;
+ *     &lt;encoder class="org.eclipse.ecsp.utils.logger.IgniteJsonEncoder"/&gt;
+ *     &lt;codec class="org.eclipse.ecsp.utils.logger.IgniteGzipCodec"&gt;
+ *         &lt;level&gt;6&lt;/level&gt;
+ *     &lt;/codec&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class IgniteMappedFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /**
+     * Default size of a segment, 64 MB.
+     */
+    static final long DEFAULT_SEGMENT_SIZE = 64 * FileSize.MB_COEFFICIENT;
+
+    /**
+     * Default number of completed segments kept.
+     */
+    static final int DEFAULT_MAX_SEGMENTS = 10;
+
+    /**
+     * Default maximum delay of a segment compression, 30 seconds.
+     */
+    static final long DEFAULT_COMPRESSION_JITTER = 30_000L;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+    private static final byte[] EMPTY = new byte[0];
+
+    private String file;
+    private Encoder<ILoggingEvent> encoder;
+    private FileSize segmentSize = new FileSize(DEFAULT_SEGMENT_SIZE);
+    private int maxSegments = DEFAULT_MAX_SEGMENTS;
+    private boolean compress = true;
+    private IgniteSegmentCodec codec = new IgniteGzipCodec();
+    private Duration compressionJitter = Duration.buildByMilliseconds(DEFAULT_COMPRESSION_JITTER);
+    private boolean metricsEnabled = true;
+    private Duration forceInterval;
+
+    private Path path;
+    private ScheduledExecutorService worker;
+    private SegmentCompressor compressor;
+    private ScheduledFuture<?> forcing;
+    private volatile Segment active;
+    private volatile long completed;
+    private Future<Segment> prepared;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (file == null) {
+            addError("No file set for the mapped file appender named [" + name + "]");
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the mapped file appender named [" + name + "]");
+            return;
+        }
+        if (!isTextEncoder(encoder)) {
+            addError("The mapped file appender named [" + name + "] only supports text encoders, a pattern layout "
+                    + "encoder or IgniteJsonEncoder, not [" + encoder.getClass().getName() + "]");
+            return;
+        }
+        if (segmentSize.getSize() < 1 || segmentSize.getSize() > Integer.MAX_VALUE) {
+            addError("Invalid segment size [" + segmentSize + "]");
+            return;
+        }
+        if (maxSegments < 0) {
+            addError("Invalid number of segments [" + maxSegments + "]");
+            return;
+        }
+        if (compress && codec == null) {
+            addError("No codec set for the mapped file appender named [" + name + "]");
+            return;
+        }
+        path = Paths.get(file).toAbsolutePath();
+        if (compress) {
+            long jitter = compressionJitter != null ? compressionJitter.getMilliseconds() : 0;
+            compressor = new SegmentCompressor(getName(), codec, jitter, metricsEnabled, this, this::deleteOldSegments);
+        }
+        worker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "IgniteMappedFileAppender-Worker-" + getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(path.getParent());
+            long index = recover() + 1;
+            Segment first = Segment.open(segment(index), index, (int) segmentSize.getSize());
+            first.writeHeader(headerBytes(), EMPTY);
+            prepared = worker.submit(() -> Segment.open(segment(index + 1), index + 1, (int) segmentSize.getSize()));
+            active = first;
+        } catch (IOException e) {
+            addError("Failed to open segment of [" + file + "]", e);
+            worker.shutdownNow();
+            stopCompressor();
+            return;
+        }
+        if (forceInterval != null && forceInterval.getMilliseconds() > 0) {
+            forcing = worker.scheduleAtFixedRate(this::force, forceInterval.getMilliseconds(),
+                    forceInterval.getMilliseconds(), TimeUnit.MILLISECONDS);
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        if (forcing != null) {
+            forcing.cancel(false);
+        }
+        Segment last = closeActive();
+        byte[] footer = encoder.footerBytes();
+        worker.execute(() -> complete(last, footer));
+        worker.execute(this::discardPrepared);
+        worker.execute(this::stopCompressor);
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                addWarn("Completing the segments of [" + file + "] timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Interrupted while completing the segments of [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Tells whether the encoder writes text records. A binary record can end in a zero byte, which the trim of the
+     * segment left by a crash would cut off.
+     *
+     * @param encoder the encoder
+     * @return true for layout wrapping encoders and {@link IgniteJsonEncoder}
+     */
+    static boolean isTextEncoder(Encoder<ILoggingEvent> encoder) {
+        return encoder instanceof LayoutWrappingEncoder || encoder instanceof IgniteJsonEncoder;
+    }
+
+    /**
+     * Stops the compressor, compressing the segments still waiting. Runs on the worker, after the last segment
+     * was completed.
+     */
+    private void stopCompressor() {
+        if (compressor == null) {
+            return;
+        }
+        try {
+            if (!compressor.stop(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                addWarn("Compressing the segments of [" + file + "] timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Interrupted while compressing the segments of [" + file + "]", e);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] bytes = encoder.encode(event);
+        if (!(encoder instanceof IgniteJsonEncoder)) {
+            // IgniteJsonEncoder reports its bytes itself
+            IgniteLoggerStats.encoded(event, bytes.length);
+        }
+        while (true) {
+            Segment segment = active;
+            long start = segment.claimed.getAndAdd(bytes.length);
+            long end = start + bytes.length;
+            if (end <= segment.capacity) {
+                segment.buffer.put((int) start, bytes);
+                segment.committed.addAndGet(bytes.length);
+                return;
+            }
+            if (start <= segment.capacity) {
+                roll(segment, start, bytes);
+                return;
+            }
+            awaitRoll(segment);
+            if (!isStarted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next segment, called by the only thread whose claim crosses the end of the segment.
+     *
+     * @param segment the full segment
+     * @param length the length of the segment, where the claim of the calling thread starts
+     * @param bytes the event of the calling thread, written first to the next segment
+     */
+    private void roll(Segment segment, long length, byte[] bytes) {
+        awaitCommitted(segment, length);
+        Segment next;
+        try {
+            next = takePrepared(bytes.length);
+            next.writeHeader(headerBytes(), bytes);
+        } catch (IOException e) {
+            addError("Failed to open the next segment of [" + file + "], stopping the appender", e);
+            super.stop();
+            worker.execute(() -> complete(segment.withLength(length), EMPTY));
+            worker.execute(this::stopCompressor);
+            worker.shutdown();
+            return;
+        }
+        long index = next.index + 1;
+        prepared = worker.submit(() -> Segment.open(segment(index), index, (int) segmentSize.getSize()));
+        worker.execute(() -> complete(segment.withLength(length), EMPTY));
+        active = next;
+    }
+
+    private Segment takePrepared(int required) throws IOException {
+        Segment next;
+        try {
+            next = prepared.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while opening the next segment", e);
+        }
+        int headerLength = headerBytes().length;
+        if (next.capacity < required + headerLength) {
+            // an event larger than a segment gets a segment of its own
+            next.channel.close();
+            next = Segment.open(next.path, next.index, required + headerLength);
+        }
+        return next;
+    }
+
+    /**
+     * Claims the rest of the active segment, so that no more events are written to it.
+     *
+     * @return the last segment with its final length
+     */
+    private Segment closeActive() {
+        while (true) {
+            Segment segment = active;
+            long start = segment.claimed.getAndAdd(Integer.MAX_VALUE);
+            if (start <= segment.capacity) {
+                awaitCommitted(segment, start);
+                return segment.withLength(start);
+            }
+            while (active == segment) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void awaitRoll(Segment segment) {
+        int tries = 0;
+        while (active == segment && isStarted()) {
+            tries = idle(tries);
+        }
+    }
+
+    private static void awaitCommitted(Segment segment, long length) {
+        int tries = 0;
+        while (segment.committed.get() < length) {
+            tries = idle(tries);
+        }
+    }
+
+    private static int idle(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return tries + 1;
+    }
+
+    private byte[] headerBytes() {
+        byte[] header = encoder.headerBytes();
+        return header != null ? header : EMPTY;
+    }
+
+    private void force() {
+        active.buffer.force();
+    }
+
+    /**
+     * Truncates a completed segment to its length, hands it to the compressor and deletes the oldest segments.
+     * Runs on the worker, after the periodic force of the segment if there is one.
+     */
+    private void complete(Segment segment, byte[] footer) {
+        try {
+            if (forcing != null) {
+                segment.buffer.force();
+            }
+            try (FileChannel channel = segment.channel) {
+                channel.truncate(segment.length);
+                if (footer != null && footer.length > 0) {
+                    channel.write(ByteBuffer.wrap(footer), segment.length);
+                }
+            }
+            completed = segment.index;
+            if (compressor != null) {
+                compressor.submit(segment.path);
+            }
+        } catch (IOException e) {
+            addError("Failed to complete segment [" + segment.path + "]", e);
+        }
+        deleteOldSegments();
+    }
+
+    private void discardPrepared() {
+        try {
+            Segment next = takePrepared(0);
+            next.channel.close();
+            Files.delete(next.path);
+        } catch (IOException e) {
+            addError("Failed to delete the unused segment of [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Trims and compresses the segments left by a previous run and deletes the oldest ones.
+     *
+     * @return the highest existing segment index, 0 if there is none
+     */
+    private long recover() throws IOException {
+        long highest = 0;
+        List<Path> uncompressed = new ArrayList<>();
+        for (Path existing : existingSegments()) {
+            if (existing.getFileName().toString().endsWith(SegmentCompressor.TEMPORARY_SUFFIX)) {
+                Files.delete(existing);
+                continue;
+            }
+            long index = index(existing);
+            highest = Math.max(highest, index);
+            if (existing.equals(segment(index))) {
+                uncompressed.add(existing);
+            }
+        }
+        for (Path existing : uncompressed) {
+            if (trim(existing) == 0) {
+                Files.delete(existing);
+            } else if (compressor != null) {
+                compressor.submit(existing);
+            }
+        }
+        completed = highest;
+        worker.execute(this::deleteOldSegments);
+        return highest;
+    }
+
+    /**
+     * Truncates the zero filled tail a segment is left with when the appender did not stop. Only text records are
+     * written, so a record never ends in a zero byte.
+     *
+     * @return the trimmed length
+     */
+    private static long trim(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer block = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            long length = channel.size();
+            while (length > 0) {
+                long from = Math.max(0, length - COPY_BUFFER_SIZE);
+                block.clear().limit((int) (length - from));
+                while (block.hasRemaining()) {
+                    if (channel.read(block, from + block.position()) < 0) {
+                        break;
+                    }
+                }
+                int last = block.position() - 1;
+                while (last >= 0 && block.get(last) == 0) {
+                    last--;
+                }
+                if (last >= 0) {
+                    length = from + last + 1;
+                    break;
+                }
+                length = from;
+            }
+            channel.truncate(length);
+            return length;
+        }
+    }
+
+    /**
+     * Deletes the segments beyond the last {@code maxSegments} completed ones. Runs on the worker and on the
+     * compression thread.
+     */
+    private void deleteOldSegments() {
+        long oldest = completed - maxSegments;
+        try {
+            for (Path existing : existingSegments()) {
+                if (!existing.getFileName().toString().endsWith(SegmentCompressor.TEMPORARY_SUFFIX)
+                        && index(existing) <= oldest) {
+                    Files.deleteIfExists(existing);
+                }
+            }
+        } catch (IOException e) {
+            addError("Failed to delete old segments of [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Lists the segments of the file, including compressed and partly compressed ones, whatever their codec.
+     */
+    private List<Path> existingSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path.getParent(), prefix + "*")) {
+            for (Path existing : files) {
+                if (index(existing) > 0) {
+                    segments.add(existing);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the index of a segment file, or 0 if the file is not a segment of this appender.
+     */
+    private long index(Path segment) {
+        String name = segment.getFileName().toString();
+        int from = path.getFileName().toString().length() + 1;
+        int to = from;
+        while (to < name.length() && Character.isDigit(name.charAt(to))) {
+            to++;
+        }
+        if (to == from || to < name.length() && name.charAt(to) != '.') {
+            return 0;
+        }
+        try {
+            return Long.parseLong(name.substring(from, to));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private Path segment(long index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    /**
+     * Returns the file whose indexed segments are written.
+     *
+     * @return the file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the file whose indexed segments are written, {@code file.1}, {@code file.2} and so on.
+     *
+     * @param file the file
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the encoder turning events into bytes.
+     *
+     * @return the encoder
+     */
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Sets the encoder turning events into bytes. It is called concurrently by the logging threads, and its
+     * header is written at the start of every segment. It has to write text, a pattern layout encoder or
+     * {@link IgniteJsonEncoder}.
+     *
+     * @param encoder the encoder
+     */
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Returns the size of the mapped segments.
+     *
+     * @return the segment size
+     */
+    public FileSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size of the mapped segments, e.g. {@code 64MB}, at most 2 GB. Larger segments roll less often
+     * but take longer to compress.
+     *
+     * @param segmentSize the segment size
+     */
+    public void setSegmentSize(FileSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Returns the number of completed segments kept.
+     *
+     * @return the maximum number of completed segments
+     */
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Sets the number of completed segments kept, 0 keeps only the active segment.
+     *
+     * @param maxSegments the maximum number of completed segments
+     */
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Returns whether completed segments are compressed.
+     *
+     * @return true if completed segments are compressed, the default
+     */
+    public boolean isCompress() {
+        return compress;
+    }
+
+    /**
+     * Sets whether completed segments are compressed by the compression thread.
+     *
+     * @param compress true to compress completed segments
+     */
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * Returns the codec compressing completed segments.
+     *
+     * @return the codec
+     */
+    public IgniteSegmentCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Sets the codec compressing completed segments, {@link IgniteGzipCodec} at its fastest level by default.
+     *
+     * @param codec the codec
+     */
+    public void setCodec(IgniteSegmentCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the maximum delay before a completed segment is compressed.
+     *
+     * @return the maximum delay
+     */
+    public Duration getCompressionJitter() {
+        return compressionJitter;
+    }
+
+    /**
+     * Sets the maximum delay before a completed segment is compressed, e.g. {@code 2 minutes}. Each segment waits
+     * a random delay up to it, so that nodes rolling at the same time do not compress at the same time. Defaults
+     * to 30 seconds, {@code 0} compresses right away.
+     *
+     * @param compressionJitter the maximum delay
+     */
+    public void setCompressionJitter(Duration compressionJitter) {
+        this.compressionJitter = compressionJitter;
+    }
+
+    /**
+     * Returns whether the compression gauges are published.
+     *
+     * @return true if the gauges are published, the default
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Sets whether the compressed size, compression ratio and compression backlog are published as Prometheus
+     * gauges.
+     *
+     * @param metricsEnabled true to publish the gauges
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Returns the interval at which the active segment is forced to the storage device.
+     *
+     * @return the interval, null if segments are never forced
+     */
+    public Duration getForceInterval() {
+        return forceInterval;
+    }
+
+    /**
+     * Sets the interval at which the background worker forces the active segment to the storage device, e.g.
+     * {@code 5 seconds}. Without it the page cache writes the segments back on its own, and events may be lost if
+     * the host, rather than the process, goes down.
+     *
+     * @param forceInterval the interval, null to never force
+     */
+    public void setForceInterval(Duration forceInterval) {
+        this.forceInterval = forceInterval;
+    }
+
+    /**
+     * A mapped segment. Logging threads claim ranges by adding to {@code claimed} and add to {@code committed}
+     * once their bytes are copied.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final long length;
+        private final AtomicLong claimed;
+        private final AtomicLong committed;
+
+        private Segment(Path path, long index, FileChannel channel, MappedByteBuffer buffer, int capacity,
+                long length, AtomicLong claimed, AtomicLong committed) {
+            this.path = path;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.length = length;
+            this.claimed = claimed;
+            this.committed = committed;
+        }
+
+        static Segment open(Path path, long index, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                return new Segment(path, index, channel, buffer, capacity, capacity, new AtomicLong(),
+                        new AtomicLong());
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Writes the header and the first event before the segment is published.
+         */
+        void writeHeader(byte[] header, byte[] first) {
+            buffer.put(0, header);
+            buffer.put(header.length, first);
+            claimed.set(header.length + first.length);
+            committed.set(header.length + first.length);
+        }
+
+        Segment withLength(long completedLength) {
+            return new Segment(path, index, channel, buffer, capacity, completedLength, claimed, committed);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.utils.metrics.GenericIgniteGauge;
+
+/**
+ * Prometheus metrics of the segment compression of {@link IgniteMappedFileAppender}, shared by all its instances
+ * so that a Logback reconfiguration does not register them twice.
+ *
+ * <p>The metrics are created on first use, from the compression thread, because creating them logs.</p>
+ */
+final class IgniteMappedFileAppenderMetrics {
+
+    /**
+     * Gauge of the compressed size in bytes of the last compressed segment, labelled with appender name.
+     */
+    static final String COMPRESSED_BYTES = "logger_mapped_appender_compressed_bytes";
+
+    /**
+     * Gauge of the uncompressed to compressed size ratio of the last compressed segment, labelled with appender
+     * name.
+     */
+    static final String COMPRESSION_RATIO = "logger_mapped_appender_compression_ratio";
+
+    /**
+     * Gauge of the completed segments waiting to be compressed, labelled with appender name.
+     */
+    static final String COMPRESSION_BACKLOG = "logger_mapped_appender_compression_backlog";
+
+    private static final String APPENDER = "appender";
+
+    private static volatile GenericIgniteGauge compressedBytes;
+    private static volatile GenericIgniteGauge compressionRatio;
+    private static volatile GenericIgniteGauge compressionBacklog;
+    private static volatile boolean unavailable;
+
+    private IgniteMappedFileAppenderMetrics() {
+    }
+
+    /**
+     * Publishes the result of a segment compression.
+     *
+     * @param appender the appender name
+     * @param size the uncompressed size of the segment
+     * @param compressed the compressed size of the segment
+     * @return false if the metrics could not be registered
+     */
+    static boolean publishCompression(String appender, long size, long compressed) {
+        if (compressionBacklog == null && !create()) {
+            return false;
+        }
+        compressedBytes.set(compressed, appender);
+        compressionRatio.set(compressed > 0 ? (double) size / compressed : 0, appender);
+        return true;
+    }
+
+    /**
+     * Publishes the number of segments waiting to be compressed.
+     *
+     * @param appender the appender name
+     * @param backlog the segments waiting, including those whose compression is being delayed
+     * @return false if the metrics could not be registered
+     */
+    static boolean publishBacklog(String appender, int backlog) {
+        if (compressionBacklog == null && !create()) {
+            return false;
+        }
+        compressionBacklog.set(backlog, appender);
+        return true;
+    }
+
+    private static synchronized boolean create() {
+        if (compressionBacklog != null) {
+            return true;
+        }
+        if (unavailable) {
+            return false;
+        }
+        try {
+            compressedBytes = new GenericIgniteGauge(COMPRESSED_BYTES,
+                    "Compressed size of the last segment compressed by IgniteMappedFileAppender", APPENDER);
+            compressionRatio = new GenericIgniteGauge(COMPRESSION_RATIO,
+                    "Compression ratio of the last segment compressed by IgniteMappedFileAppender", APPENDER);
+            compressionBacklog = new GenericIgniteGauge(COMPRESSION_BACKLOG,
+                    "Segments waiting to be compressed by IgniteMappedFileAppender", APPENDER);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // another collector already uses one of the names
+            unavailable = true;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Message converter formatting with {@link IgniteMessageFormatter}, so that every format string is parsed once
+ * instead of being searched for placeholders on every event. The output is the same as logback's.
+ * It is enabled with a {@code conversionRule} element mapping the {@code msg} conversion word to this class.
+ * <br>
+ * The message is formatted every time the converter runs, it is not kept in the event. It is therefore meant for
+ * synchronous appenders and for {@link IgniteAsyncAppender} with {@code deferredFormatting}: appenders which
+ * format on the logging thread and hand the event over, like logback's {@code AsyncAppender}, must keep logback's
+ * converter, which reuses the message formatted on the logging thread.
+ */
+public class IgniteMessageConverter extends MessageConverter {
+
+    /**
+     * Converts the logging event to its formatted message.
+     *
+     * @param event the logging event
+     * @return the formatted message
+     */
+    @Override
+    public String convert(ILoggingEvent event) {
+        Object[] args = event.getArgumentArray();
+        if (args == null || args.length == 0) {
+            return event.getFormattedMessage();
+        }
+        return IgniteMessageFormatter.format(event.getMessage(), args);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.helpers.Reporter;
+
+/**
+ * Formats log messages like SLF4J's {@link MessageFormatter}, from format templates which are parsed once
+ * per format string. <br>
+ * The output is the same as {@link MessageFormatter#basicArrayFormat(String, Object[])}: arrays are rendered
+ * element by element and an argument whose {@code toString()} fails is rendered as
+ * {@value #FAILED_TO_STRING}.
+ */
+public final class IgniteMessageFormatter {
+
+    /**
+     * Rendering of an argument whose {@code toString()} threw.
+     */
+    static final String FAILED_TO_STRING = "[FAILED toString()]";
+
+    private static final String ARGUMENT_FORMAT = "{}";
+    private static final String NULL = "null";
+    private static final int ARGUMENT_LENGTH_HINT = 16;
+
+    private IgniteMessageFormatter() {
+    }
+
+    /**
+     * Formats the message.
+     *
+     * @param format the log message format, may be null
+     * @param args the arguments, may be null
+     * @return the formatted message, null if the format is null
+     */
+    public static String format(String format, Object[] args) {
+        if (format == null) {
+            return null;
+        }
+        if (args == null || args.length == 0) {
+            return format;
+        }
+        StringBuilder sb = new StringBuilder(format.length() + ARGUMENT_LENGTH_HINT * args.length);
+        MessageTemplate.of(format).appendTo(sb, args);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the formatted message.
+     *
+     * @param sb the builder to append to
+     * @param format the log message format, may be null
+     * @param args the arguments, may be null
+     */
+    public static void appendTo(StringBuilder sb, String format, Object[] args) {
+        if (format == null) {
+            sb.append(NULL);
+        } else if (args == null || args.length == 0) {
+            sb.append(format);
+        } else {
+            MessageTemplate.of(format).appendTo(sb, args);
+        }
+    }
+
+    /**
+     * Returns the number of placeholders of the format which take an argument.
+     *
+     * @param format the log message format
+     * @return the placeholder count
+     */
+    public static int placeholderCount(String format) {
+        return MessageTemplate.of(format).placeholderCount();
+    }
+
+    /**
+     * Appends a single argument as it is rendered in place of a placeholder.
+     *
+     * @param sb the builder to append to
+     * @param arg the argument, may be null
+     */
+    public static void appendArgument(StringBuilder sb, Object arg) {
+        if (arg == null) {
+            sb.append(NULL);
+        } else if (arg instanceof String string) {
+            sb.append(string);
+        } else if (arg instanceof Integer integer) {
+            sb.append(integer.intValue());
+        } else if (arg instanceof Long longValue) {
+            sb.append(longValue.longValue());
+        } else if (arg.getClass().isArray()) {
+            // rare enough to leave the element rendering and cycle detection to SLF4J
+            sb.append(MessageFormatter.basicArrayFormat(ARGUMENT_FORMAT, new Object[] { arg }));
+        } else {
+            try {
+                sb.append(arg.toString());
+            } catch (Throwable t) {
+                Reporter.error("Failed toString() invocation on an object of type ["
+                        + arg.getClass().getName() + "]", t);
+                sb.append(FAILED_TO_STRING);
+            }
+        }
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import io.prometheus.client.Counter;
+import org.eclipse.ecsp.entities.IgniteEvent;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * View of an {@link IgniteLogger} which logs at most a given number of statements per second, returned by
+ * {@link IgniteLogger#limited(String, double)}. <br>
+ * Statements above the rate are suppressed before any formatting, counted in the
+ * {@value IgniteRateLimitedLoggerMetrics#SUPPRESSED_STATEMENTS} Prometheus counter and, once the rate allows a
+ * statement again, summarized in a line logged at that statement's level just before it.
+ * Suppressing a statement does not allocate. Only statements which are logged take a permit: statements of
+ * disabled levels, and IgniteEvent scoped statements of vehicles which are not sampled or watched, do not.
+ */
+final class IgniteRateLimitedLogger implements IgniteLogger {
+
+    /**
+     * Format of the line summarizing the statements suppressed since the previous permitted one.
+     */
+    static final String SUMMARY_FORMAT = "Suppressed {} log statements rate limited by key {}";
+
+    private final IgniteLoggerImpl delegate;
+    private final String key;
+    private final TokenBucket bucket;
+    private final LongSupplier clock;
+    private final LongAdder suppressed = new LongAdder();
+    private final Counter.Child suppressedCounter;
+
+    /**
+     * Creates the rate limited view of a logger.
+     *
+     * @param delegate the logger permitted statements are logged with
+     * @param loggerName the logger name, used as metric label
+     * @param key the rate limit key
+     * @param permitsPerSecond the statements logged per second, up to one second of them at once
+     * @param clock the {@link System#nanoTime()} source
+     */
+    IgniteRateLimitedLogger(IgniteLoggerImpl delegate, String loggerName, String key, double permitsPerSecond,
+            LongSupplier clock) {
+        this.delegate = delegate;
+        this.key = key;
+        this.clock = clock;
+        this.bucket = new TokenBucket(permitsPerSecond, clock.getAsLong());
+        this.suppressedCounter = IgniteRateLimitedLoggerMetrics.suppressed(loggerName, key);
+    }
+
+    /**
+     * Returns the rate limit key.
+     *
+     * @return the key
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the statements logged per second.
+     *
+     * @return the rate
+     */
+    double getPermitsPerSecond() {
+        return bucket.getPermitsPerSecond();
+    }
+
+    @Override
+    public IgniteLogger limited(String key, double permitsPerSecond) {
+        return delegate.limited(key, permitsPerSecond);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return delegate.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void trace(IgniteEvent event, String msg) {
+        if (delegate.isLogged(Level.TRACE, event) && permit(Level.TRACE)) {
+            delegate.trace(event, msg);
+        }
+    }
+
+    @Override
+    public void trace(IgniteEvent event, String format, Object... arguments) {
+        if (delegate.isLogged(Level.TRACE, event) && permit(Level.TRACE)) {
+            delegate.trace(event, format, arguments);
+        }
+    }
+
+    @Override
+    public void trace(IgniteEvent event, String msg, Throwable t) {
+        if (delegate.isLogged(Level.TRACE, event) && permit(Level.TRACE)) {
+            delegate.trace(event, msg, t);
+        }
+    }
+
+    @Override
+    public void trace(String msg) {
+        if (delegate.isTraceEnabled() && permit(Level.TRACE)) {
+            delegate.trace(msg);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        if (delegate.isTraceEnabled() && permit(Level.TRACE)) {
+            delegate.trace(format, arguments);
+        }
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        if (delegate.isTraceEnabled() && permit(Level.TRACE)) {
+            delegate.trace(msg, t);
+        }
+    }
+
+    @Override
+    public void trace(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isLogged(Level.TRACE, event) && permit(Level.TRACE)) {
+            delegate.trace(event, format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void trace(String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isTraceEnabled() && permit(Level.TRACE)) {
+            delegate.trace(format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void debug(IgniteEvent event, String msg) {
+        if (delegate.isLogged(Level.DEBUG, event) && permit(Level.DEBUG)) {
+            delegate.debug(event, msg);
+        }
+    }
+
+    @Override
+    public void debug(IgniteEvent event, String format, Object... arguments) {
+        if (delegate.isLogged(Level.DEBUG, event) && permit(Level.DEBUG)) {
+            delegate.debug(event, format, arguments);
+        }
+    }
+
+    @Override
+    public void debug(IgniteEvent event, String msg, Throwable t) {
+        if (delegate.isLogged(Level.DEBUG, event) && permit(Level.DEBUG)) {
+            delegate.debug(event, msg, t);
+        }
+    }
+
+    @Override
+    public void debug(String msg) {
+        if (delegate.isDebugEnabled() && permit(Level.DEBUG)) {
+            delegate.debug(msg);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        if (delegate.isDebugEnabled() && permit(Level.DEBUG)) {
+            delegate.debug(format, arguments);
+        }
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        if (delegate.isDebugEnabled() && permit(Level.DEBUG)) {
+            delegate.debug(msg, t);
+        }
+    }
+
+    @Override
+    public void debug(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isLogged(Level.DEBUG, event) && permit(Level.DEBUG)) {
+            delegate.debug(event, format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void debug(String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isDebugEnabled() && permit(Level.DEBUG)) {
+            delegate.debug(format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void info(IgniteEvent event, String msg) {
+        if (delegate.isLogged(Level.INFO, event) && permit(Level.INFO)) {
+            delegate.info(event, msg);
+        }
+    }
+
+    @Override
+    public void info(IgniteEvent event, String format, Object... arguments) {
+        if (delegate.isLogged(Level.INFO, event) && permit(Level.INFO)) {
+            delegate.info(event, format, arguments);
+        }
+    }
+
+    @Override
+    public void info(IgniteEvent event, String msg, Throwable t) {
+        if (delegate.isLogged(Level.INFO, event) && permit(Level.INFO)) {
+            delegate.info(event, msg, t);
+        }
+    }
+
+    @Override
+    public void info(String msg) {
+        if (delegate.isInfoEnabled() && permit(Level.INFO)) {
+            delegate.info(msg);
+        }
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        if (delegate.isInfoEnabled() && permit(Level.INFO)) {
+            delegate.info(format, arguments);
+        }
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        if (delegate.isInfoEnabled() && permit(Level.INFO)) {
+            delegate.info(msg, t);
+        }
+    }
+
+    @Override
+    public void info(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isLogged(Level.INFO, event) && permit(Level.INFO)) {
+            delegate.info(event, format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void info(String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isInfoEnabled() && permit(Level.INFO)) {
+            delegate.info(format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void warn(IgniteEvent event, String msg) {
+        if (delegate.isLogged(Level.WARN, event) && permit(Level.WARN)) {
+            delegate.warn(event, msg);
+        }
+    }
+
+    @Override
+    public void warn(IgniteEvent event, String format, Object... arguments) {
+        if (delegate.isLogged(Level.WARN, event) && permit(Level.WARN)) {
+            delegate.warn(event, format, arguments);
+        }
+    }
+
+    @Override
+    public void warn(IgniteEvent event, String msg, Throwable t) {
+        if (delegate.isLogged(Level.WARN, event) && permit(Level.WARN)) {
+            delegate.warn(event, msg, t);
+        }
+    }
+
+    @Override
+    public void warn(String msg) {
+        if (delegate.isWarnEnabled() && permit(Level.WARN)) {
+            delegate.warn(msg);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        if (delegate.isWarnEnabled() && permit(Level.WARN)) {
+            delegate.warn(format, arguments);
+        }
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        if (delegate.isWarnEnabled() && permit(Level.WARN)) {
+            delegate.warn(msg, t);
+        }
+    }
+
+    @Override
+    public void warn(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isLogged(Level.WARN, event) && permit(Level.WARN)) {
+            delegate.warn(event, format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void warn(String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isWarnEnabled() && permit(Level.WARN)) {
+            delegate.warn(format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void error(IgniteEvent event, String msg) {
+        if (delegate.isLogged(Level.ERROR, event) && permit(Level.ERROR)) {
+            delegate.error(event, msg);
+        }
+    }
+
+    @Override
+    public void error(IgniteEvent event, String format, Object... arguments) {
+        if (delegate.isLogged(Level.ERROR, event) && permit(Level.ERROR)) {
+            delegate.error(event, format, arguments);
+        }
+    }
+
+    @Override
+    public void error(IgniteEvent event, String msg, Throwable t) {
+        if (delegate.isLogged(Level.ERROR, event) && permit(Level.ERROR)) {
+            delegate.error(event, msg, t);
+        }
+    }
+
+    @Override
+    public void error(String msg) {
+        if (delegate.isErrorEnabled() && permit(Level.ERROR)) {
+            delegate.error(msg);
+        }
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        if (delegate.isErrorEnabled() && permit(Level.ERROR)) {
+            delegate.error(format, arguments);
+        }
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        if (delegate.isErrorEnabled() && permit(Level.ERROR)) {
+            delegate.error(msg, t);
+        }
+    }
+
+    @Override
+    public void error(IgniteEvent event, String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isLogged(Level.ERROR, event) && permit(Level.ERROR)) {
+            delegate.error(event, format, argumentSuppliers);
+        }
+    }
+
+    @Override
+    public void error(String format, Supplier<?>... argumentSuppliers) {
+        if (delegate.isErrorEnabled() && permit(Level.ERROR)) {
+            delegate.error(format, argumentSuppliers);
+        }
+    }
+
+    /**
+     * Takes one permit per logged statement, the statements of the events without a permit are suppressed.
+     */
+    @Override
+    public <E extends IgniteEvent> void logBatch(Level level, Collection<E> events, String format,
+            Function<? super E, Object[]> argumentsExtractor) {
+        List<E> permitted = null;
+        for (E event : events) {
+            if (delegate.isLogged(level, event) && permit(level)) {
+                if (permitted == null) {
+                    permitted = new ArrayList<>(events.size());
+                }
+                permitted.add(event);
+            }
+        }
+        if (permitted == null) {
+            return;
+        }
+        delegate.logBatch(level, permitted, format, argumentsExtractor);
+    }
+
+    /**
+     * Takes a permit for a statement, logging the summary of the statements suppressed before it.
+     *
+     * @param level the level of the statement
+     * @return true if the statement is logged
+     */
+    private boolean permit(Level level) {
+        if (!bucket.tryAcquire(clock.getAsLong())) {
+            suppressed.increment();
+            if (suppressedCounter != null) {
+                suppressedCounter.inc();
+            }
+            return false;
+        }
+        if (suppressed.sum() > 0) {
+            summarize(level, suppressed.sumThenReset());
+        }
+        return true;
+    }
+
+    private void summarize(Level level, long count) {
+        switch (level) {
+            case TRACE -> delegate.trace(SUMMARY_FORMAT, count, key);
+            case DEBUG -> delegate.debug(SUMMARY_FORMAT, count, key);
+            case INFO -> delegate.info(SUMMARY_FORMAT, count, key);
+            case WARN -> delegate.warn(SUMMARY_FORMAT, count, key);
+            default -> delegate.error(SUMMARY_FORMAT, count, key);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import io.prometheus.client.Counter;
+import org.eclipse.ecsp.utils.metrics.GenericIgniteCounter;
+
+/**
+ * Prometheus counter of the statements suppressed by {@link IgniteRateLimitedLogger}s, shared by all of them.
+ */
+final class IgniteRateLimitedLoggerMetrics {
+
+    /**
+     * Counter of suppressed statements, labelled with logger name and rate limit key.
+     */
+    static final String SUPPRESSED_STATEMENTS = "logger_rate_limited_suppressed_statements";
+
+    private static final String LOGGER = "logger";
+    private static final String KEY = "key";
+
+    private static volatile GenericIgniteCounter suppressedStatements;
+    private static volatile boolean unavailable;
+
+    private IgniteRateLimitedLoggerMetrics() {
+    }
+
+    /**
+     * Returns the counter of the suppressed statements of a rate limit, registering the metric on first use.
+     * The child is resolved once, so counting a suppressed statement neither locks nor allocates.
+     *
+     * @param logger the logger name
+     * @param key the rate limit key
+     * @return the counter, null if the metric could not be registered
+     */
+    static Counter.Child suppressed(String logger, String key) {
+        if (suppressedStatements == null && !create()) {
+            return null;
+        }
+        return suppressedStatements.getCounter().labels(logger, key);
+    }
+
+    private static synchronized boolean create() {
+        if (suppressedStatements != null) {
+            return true;
+        }
+        if (unavailable) {
+            return false;
+        }
+        try {
+            suppressedStatements = new GenericIgniteCounter(SUPPRESSED_STATEMENTS,
+                    "Log statements suppressed by IgniteLogger rate limits", LOGGER, KEY);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // another collector already uses the name
+            unavailable = true;
+            return false;
+        }
+    }
+}
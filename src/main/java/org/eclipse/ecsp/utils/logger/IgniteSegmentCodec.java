@@ -0,0 +1,70 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses completed log segments, see {@link IgniteMappedFileAppender}. Implementations are configured as
+ * nested components of the appender and must be safe to use from its compression thread.
+ *
+ * <pre>
+ * &lt;codec class="org.eclipse.ecsp.utils.logger.IgniteGzipCodec"&gt;
+ *     &lt;level&gt;6&lt;/level&gt;
+ * &lt;/codec&gt;
+ * </pre>
+ */
+public interface IgniteSegmentCodec {
+
+    /**
+     * Returns the suffix appended to the names of compressed segments.
+     *
+     * @return the suffix, including the leading dot, e.g. {@code .gz}
+     */
+    String getExtension();
+
+    /**
+     * Wraps a stream so that the bytes written to it are compressed. Closing the returned stream finishes the
+     * compressed output, releases the codec's native resources and closes {@code out}.
+     *
+     * @param out the stream receiving the compressed bytes
+     * @return the compressing stream
+     * @throws IOException if the compressed output cannot be started
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+}
@@ -47,6 +47,9 @@ import ch.qos.logback.core.boolex.EvaluationException;
 import ch.qos.logback.core.boolex.EventEvaluator;
 import ch.qos.logback.core.status.ErrorStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +59,9 @@ import java.util.Map;
  * Customizations include: <br>
  * 1. removing of "at" from stack trace. <br>
  * 2. printing full stack-trace in single line separated by comma(,) <br>
+ * Rendered frame blocks are cached by the structure of their frames, see {@link #CACHE_SIZE_PROPERTY}. <br>
+ * Encoders can render into their own buffer with {@link #appendTo(StringBuilder, ILoggingEvent)} or
+ * {@link #writeTo(ILoggingEvent, OutputStream)} instead of going through an intermediate String. <br>
  *
  * @author vishnu.k
  */
@@ -66,12 +72,48 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
      */
     protected static final int BUILDER_CAPACITY = 2048;
 
+    /**
+     * System property setting how many rendered frame blocks each converter caches, 0 disables the cache.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "ignite.logger.stacktrace.cache.size";
+
+    /**
+     * Default number of rendered frame blocks each converter caches.
+     */
+    static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * Written in place of every tab, including the indentation, to keep the stack trace on a single line.
+     */
+    static final String TAB_REPLACEMENT = ",  ";
+
+    private static final char TAB = '\t';
+
     int lengthOption;
     List<EventEvaluator<ILoggingEvent>> evaluatorList = null;
     List<String> ignoredStackTraceLines = null;
 
     int errorCount = 0;
 
+    /**
+     * Rendered frame blocks, null when disabled or when a subclass customizes the frame rendering.
+     */
+    StackTraceBlockCache blockCache;
+
+    /**
+     * Compiled {@link #ignoredStackTraceLines}, null when no line is ignored.
+     */
+    IgnoredFrameMatcher ignoredFrameMatcher;
+
+    /**
+     * Whether a subclass customizes the frame rendering, which may then write tabs of its own.
+     */
+    boolean frameRenderingOverridden;
+
+    /**
+     * Length of the last rendered stack trace, used to size the next builder since errors tend to recur.
+     */
+    private int renderedLength;
 
     /**
      * This method is used to start the converter.
@@ -100,6 +142,8 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
                 }
             }
         }
+        ignoredFrameMatcher = ignoredStackTraceLines == null ? null : new IgnoredFrameMatcher(ignoredStackTraceLines);
+        createBlockCache();
         super.start();
     }
 
@@ -123,6 +167,30 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
         }
     }
 
+    private void createBlockCache() {
+        frameRenderingOverridden = isFrameRenderingOverridden();
+        int cacheSize = Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+        if (cacheSize > 0 && !frameRenderingOverridden) {
+            blockCache = new StackTraceBlockCache(cacheSize);
+        } else {
+            blockCache = null;
+        }
+    }
+
+    /**
+     * A subclass adding data to the frames may render the same frames differently, so it is not cached.
+     */
+    private boolean isFrameRenderingOverridden() {
+        for (Class<?> c = getClass(); c != IgniteThrowableProxyConverter.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if ("extraData".equals(method.getName()) || "subjoinStepArray".equals(method.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private void addEvaluator(EventEvaluator<ILoggingEvent> ee) {
         if (evaluatorList == null) {
             evaluatorList = new ArrayList<>();
@@ -144,6 +212,7 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
     @Override
     public void stop() {
         evaluatorList = null;
+        blockCache = null;
         super.stop();
     }
 
@@ -166,30 +235,58 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
     public String convert(ILoggingEvent event) {
 
         IThrowableProxy tp = event.getThrowableProxy();
-        if (tp == null) {
+        if (tp == null || !isPrinted(event)) {
             return CoreConstants.EMPTY_STRING;
         }
-        // an evaluator match will cause stack printing to be skipped
+        return throwableProxyToString(tp);
+    }
+
+    /**
+     * Appends the stack trace of the event to the given buffer, exactly as {@link #convert(ILoggingEvent)}
+     * renders it but without creating an intermediate String.
+     *
+     * @param buf the buffer to append to
+     * @param event the log event
+     */
+    public void appendTo(StringBuilder buf, ILoggingEvent event) {
+        IThrowableProxy tp = event.getThrowableProxy();
+        if (tp != null && isPrinted(event)) {
+            recursiveAppend(buf, null, ThrowableProxyUtil.REGULAR_EXCEPTION_INDENT, tp);
+        }
+    }
+
+    /**
+     * Writes the stack trace of the event to the given stream as UTF-8, exactly as
+     * {@link #convert(ILoggingEvent)} renders it but without creating an intermediate String.
+     *
+     * @param event the log event
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(ILoggingEvent event, OutputStream out) throws IOException {
+        Utf8Writer writer = Utf8Writer.get();
+        StringBuilder buf = writer.buffer();
+        appendTo(buf, event);
+        writer.write(buf, out);
+    }
+
+    /**
+     * An evaluator match will cause stack printing to be skipped.
+     */
+    private boolean isPrinted(ILoggingEvent event) {
         if (evaluatorList != null) {
-            boolean printStack = true;
             for (EventEvaluator<ILoggingEvent> ee : evaluatorList) {
                 try {
                     if (ee.evaluate(event)) {
-                        printStack = false;
-                        break;
+                        return false;
                     }
                 } catch (EvaluationException eex) {
                     errorCount++;
                     processErrorCount(ee, eex);
                 }
             }
-
-            if (!printStack) {
-                return CoreConstants.EMPTY_STRING;
-            }
         }
-
-        return throwableProxyToString(tp);
+        return true;
     }
 
     /**
@@ -199,10 +296,11 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
      * @return the string representation of the throwable proxy
      */
     protected String throwableProxyToString(IThrowableProxy tp) {
-        StringBuilder sb = new StringBuilder(BUILDER_CAPACITY);
+        StringBuilder sb = new StringBuilder(Math.max(BUILDER_CAPACITY, renderedLength));
 
         recursiveAppend(sb, null, ThrowableProxyUtil.REGULAR_EXCEPTION_INDENT, tp);
-        return sb.toString().replace("\t", ",  ");
+        renderedLength = Math.min(sb.length(), StackTraceBlockCache.MAX_BLOCK_LENGTH);
+        return sb.toString();
     }
 
     private void recursiveAppend(StringBuilder sb, String prefix, int indent, IThrowableProxy tp) {
@@ -210,7 +308,7 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
             return;
         }
         subjoinFirstLine(sb, prefix, indent, tp);
-        subjoinStepArray(sb, indent, tp);
+        appendStepArray(sb, indent, tp);
         IThrowableProxy[] suppressed = tp.getSuppressed();
         if (suppressed != null) {
             for (IThrowableProxy current : suppressed) {
@@ -223,8 +321,30 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
         recursiveAppend(sb, CoreConstants.CAUSED_BY, indent, tp.getCause());
     }
 
+    private void appendStepArray(StringBuilder sb, int indent, IThrowableProxy tp) {
+        StackTraceBlockCache cache = blockCache;
+        if (cache == null) {
+            int start = sb.length();
+            subjoinStepArray(sb, indent, tp);
+            if (frameRenderingOverridden) {
+                replaceTabs(sb, start);
+            }
+            return;
+        }
+        StackTraceBlockCache.Key key = new StackTraceBlockCache.Key(tp.getStackTraceElementProxyArray(),
+                tp.getCommonFrames(), indent);
+        String block = cache.get(key);
+        if (block != null) {
+            sb.append(block);
+        } else {
+            int start = sb.length();
+            subjoinStepArray(sb, indent, tp);
+            cache.put(key, sb.substring(start));
+        }
+    }
+
     private void subjoinFirstLine(StringBuilder buf, String prefix, int indent, IThrowableProxy tp) {
-        ThrowableProxyUtil.indent(buf, indent - 1);
+        indent(buf, indent - 1);
         if (prefix != null) {
             buf.append(prefix);
         }
@@ -232,7 +352,39 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
     }
 
     private void subjoinExceptionMessage(StringBuilder buf, IThrowableProxy tp) {
-        buf.append(tp.getClassName()).append(": ").append(tp.getMessage());
+        appendReplacingTabs(buf, tp.getClassName());
+        buf.append(": ");
+        appendReplacingTabs(buf, tp.getMessage());
+    }
+
+    private static void indent(StringBuilder buf, int indent) {
+        for (int i = 0; i < indent; i++) {
+            buf.append(TAB_REPLACEMENT);
+        }
+    }
+
+    private static void appendReplacingTabs(StringBuilder buf, String text) {
+        if (text == null || text.indexOf(TAB) < 0) {
+            buf.append(text);
+            return;
+        }
+        int tab = text.indexOf(TAB);
+        int from = 0;
+        while (tab >= 0) {
+            buf.append(text, from, tab).append(TAB_REPLACEMENT);
+            from = tab + 1;
+            tab = text.indexOf(TAB, from);
+        }
+        buf.append(text, from, text.length());
+    }
+
+    /**
+     * Replaces the tabs written by a subclass from the given position on.
+     */
+    private static void replaceTabs(StringBuilder buf, int from) {
+        for (int i = buf.indexOf("\t", from); i >= 0; i = buf.indexOf("\t", i + TAB_REPLACEMENT.length())) {
+            buf.replace(i, i + 1, TAB_REPLACEMENT);
+        }
     }
 
     /**
@@ -256,8 +408,8 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
         int ignoredCount = 0;
         for (int i = 0; i < maxIndex; i++) {
             StackTraceElementProxy element = stepArray[i];
-            if (!isIgnoredStackTraceLine(element.toString())) {
-                ThrowableProxyUtil.indent(buf, indent);
+            if (!isIgnoredStackTraceLine(element)) {
+                indent(buf, indent);
                 printStackLine(buf, ignoredCount, element);
                 ignoredCount = 0;
                 buf.append(CoreConstants.LINE_SEPARATOR);
@@ -274,7 +426,7 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
         }
 
         if (commonFrames > 0 && unrestrictedPrinting) {
-            ThrowableProxyUtil.indent(buf, indent);
+            indent(buf, indent);
             buf
                     .append("... ")
                     .append(tp.getCommonFrames())
@@ -284,7 +436,7 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
     }
 
     private void printStackLine(StringBuilder buf, int ignoredCount, StackTraceElementProxy element) {
-        buf.append(element);
+        appendReplacingTabs(buf, element.toString());
         extraData(buf, element); // allow other data to be added
         if (ignoredCount > 0) {
             printIgnoredCount(buf, ignoredCount);
@@ -295,15 +447,9 @@ public class IgniteThrowableProxyConverter extends ThrowableHandlingConverter {
         buf.append(" [").append(ignoredCount).append(" skipped]");
     }
 
-    private boolean isIgnoredStackTraceLine(String line) {
-        if (ignoredStackTraceLines != null) {
-            for (String ignoredStackTraceLine : ignoredStackTraceLines) {
-                if (line.contains(ignoredStackTraceLine)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    private boolean isIgnoredStackTraceLine(StackTraceElementProxy element) {
+        IgnoredFrameMatcher matcher = ignoredFrameMatcher;
+        return matcher != null && matcher.isIgnored(element);
     }
 
     private void processErrorCount(EventEvaluator<ILoggingEvent> ee, EvaluationException eex) {
@@ -0,0 +1,228 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Matches stack frames against the ignored stack trace lines of {@link IgniteThrowableProxyConverter}. <br>
+ * A frame is ignored when its rendered line ({@code at <frame>}) contains any of the patterns. The patterns
+ * are compiled into a single Aho-Corasick automaton, so a line is scanned once whatever the number of
+ * patterns. The class and method name are scanned first without rendering the line, and the result for
+ * each recently seen frame is memoized in a {@link BoundedCache}.
+ */
+final class IgnoredFrameMatcher {
+
+    /**
+     * Maximum number of memoized frames.
+     */
+    static final int MAX_MEMOIZED_FRAMES = 4096;
+
+    private static final int ASCII = 128;
+    private static final int ROOT = 0;
+    private static final int MATCHED = -1;
+
+    private final int[] asciiSymbols = new int[ASCII];
+    private final Map<Character, Integer> otherSymbols = new HashMap<>();
+    private final int symbolCount;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final BoundedCache<StackTraceElement, Boolean> memo = new BoundedCache<>(MAX_MEMOIZED_FRAMES);
+
+    /**
+     * Compiles the given patterns.
+     *
+     * @param patterns the ignored stack trace lines
+     */
+    IgnoredFrameMatcher(List<String> patterns) {
+        int symbols = 1;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                if (symbol(pattern.charAt(i)) == 0) {
+                    assignSymbol(pattern.charAt(i), symbols++);
+                }
+            }
+        }
+        this.symbolCount = symbols;
+
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        trie.add(new int[symbolCount]);
+        ends.add(Boolean.FALSE);
+        for (String pattern : patterns) {
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int s = symbol(pattern.charAt(i));
+                if (trie.get(state)[s] == 0) {
+                    trie.get(state)[s] = trie.size();
+                    trie.add(new int[symbolCount]);
+                    ends.add(Boolean.FALSE);
+                }
+                state = trie.get(state)[s];
+            }
+            ends.set(state, Boolean.TRUE);
+        }
+
+        this.transitions = new int[trie.size() * symbolCount];
+        this.accepting = new boolean[trie.size()];
+        buildAutomaton(trie, ends);
+    }
+
+    /**
+     * Turns the trie into a complete transition table, following the failure links breadth first.
+     */
+    private void buildAutomaton(List<int[]> trie, List<Boolean> ends) {
+        int[] failure = new int[trie.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        accepting[ROOT] = ends.get(ROOT);
+        for (int s = 1; s < symbolCount; s++) {
+            int child = trie.get(ROOT)[s];
+            transitions[s] = child;
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] = ends.get(state) || accepting[failure[state]];
+            for (int s = 1; s < symbolCount; s++) {
+                int child = trie.get(state)[s];
+                int fallback = transitions[failure[state] * symbolCount + s];
+                if (child == 0) {
+                    transitions[state * symbolCount + s] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    transitions[state * symbolCount + s] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the rendered line of the given frame contains any of the patterns.
+     *
+     * @param step the frame
+     * @return true if the frame is ignored
+     */
+    boolean isIgnored(StackTraceElementProxy step) {
+        StackTraceElement element = step.getStackTraceElement();
+        Boolean memoized = memo.get(element);
+        if (memoized != null) {
+            return memoized;
+        }
+        boolean ignored = matchesFrame(element, step);
+        memo.put(element, ignored);
+        return ignored;
+    }
+
+    /**
+     * Returns whether the given text contains any of the patterns.
+     *
+     * @param text the text to scan
+     * @return true if a pattern occurs in the text
+     */
+    boolean matches(CharSequence text) {
+        return scan(ROOT, text) == MATCHED;
+    }
+
+    /**
+     * Returns the number of memoized frames.
+     *
+     * @return the number of memoized frames
+     */
+    int memoizedFrames() {
+        return memo.size();
+    }
+
+    /**
+     * The qualified method name is a contiguous part of the rendered line, so a match there is final.
+     * Otherwise the pattern may still occur in the module, file name or line number.
+     */
+    private boolean matchesFrame(StackTraceElement element, StackTraceElementProxy step) {
+        int state = scan(ROOT, element.getClassName());
+        if (state != MATCHED) {
+            state = next(state, '.');
+        }
+        if (state != MATCHED) {
+            state = scan(state, element.getMethodName());
+        }
+        return state == MATCHED || matches(step.toString());
+    }
+
+    private int scan(int start, CharSequence text) {
+        int state = start;
+        if (accepting[state]) {
+            return MATCHED;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            if (state == MATCHED) {
+                return MATCHED;
+            }
+        }
+        return state;
+    }
+
+    private int next(int state, char c) {
+        int target = transitions[state * symbolCount + symbol(c)];
+        return accepting[target] ? MATCHED : target;
+    }
+
+    private int symbol(char c) {
+        if (c < ASCII) {
+            return asciiSymbols[c];
+        }
+        Integer symbol = otherSymbols.get(c);
+        return symbol == null ? 0 : symbol;
+    }
+
+    private void assignSymbol(char c, int symbol) {
+        if (c < ASCII) {
+            asciiSymbols[c] = symbol;
+        } else {
+            otherSymbols.put(c, symbol);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes JSON as UTF-8 into a growable byte buffer. Strings are copied out in chunks, then escaped and encoded in
+ * a single pass, without an intermediate String or byte array. Unpaired surrogates are replaced by {@code ?} like
+ * {@link String#getBytes(java.nio.charset.Charset)} does. <br>
+ * Every thread reuses its own writer, obtained through {@link #acquire()} and handed back with {@link #release()}.
+ * An argument whose {@code toString()} logs through another JSON encoder gets a writer of its own.
+ */
+final class JsonWriter {
+
+    /**
+     * Initial size of the byte buffer, large enough for a typical event.
+     */
+    static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Buffers which grew beyond this size are not retained, so one huge event does not pin memory for the
+     * lifetime of the thread. Deep stack traces are the usual cause, hence the same limit as {@link Utf8Writer}.
+     */
+    static final int MAX_RETAINED_CAPACITY = Utf8Writer.MAX_RETAINED_CAPACITY;
+
+    /**
+     * Most bytes a character is written as, taken by escape sequences like {@code \}{@code u001f}. Characters
+     * encode to at most three bytes, surrogate pairs to four bytes for two characters.
+     */
+    private static final int MAX_BYTES_PER_CHAR = 6;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte QUOTE = '"';
+    private static final byte BACKSLASH = '\\';
+    private static final byte REPLACEMENT = '?';
+    private static final char FIRST_PRINTABLE = ' ';
+    private static final char FIRST_NON_ASCII = 0x80;
+    private static final char FIRST_THREE_BYTES = 0x800;
+    private static final int HEX_DIGIT_BITS = 4;
+    private static final int HEX_DIGIT_MASK = 0xF;
+    private static final int CONTINUATION = 0x80;
+    private static final int CONTINUATION_MASK = 0x3F;
+    private static final int CONTINUATION_BITS = 6;
+    private static final int SECOND_CONTINUATION_BITS = 2 * CONTINUATION_BITS;
+    private static final int THIRD_CONTINUATION_BITS = 3 * CONTINUATION_BITS;
+    private static final int TWO_BYTES = 0xC0;
+    private static final int THREE_BYTES = 0xE0;
+    private static final int FOUR_BYTES = 0xF0;
+    private static final int MAX_LONG_DIGITS = 20;
+    private static final int RADIX = 10;
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * Strings are copied out in chunks of this many characters, which are then encoded from an array.
+     */
+    private static final int SCRATCH_SIZE = 512;
+
+    /**
+     * Escape sequences of the ASCII characters which cannot be written as they are, null for the others.
+     */
+    private static final byte[][] ESCAPES = escapes();
+
+    private static final ThreadLocal<JsonWriter> WRITERS = ThreadLocal.withInitial(JsonWriter::new);
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int length;
+    private StringBuilder chars = new StringBuilder(IgniteEventHeaderRenderer.INITIAL_CAPACITY);
+    private final char[] scratch = new char[SCRATCH_SIZE];
+    private boolean inUse;
+
+    private JsonWriter() {
+    }
+
+    /**
+     * Returns the calling thread's writer, emptied and ready for use, or a new writer if the thread's writer
+     * is in use further up the stack.
+     *
+     * @return the writer
+     */
+    static JsonWriter acquire() {
+        JsonWriter writer = WRITERS.get();
+        if (writer.inUse) {
+            writer = new JsonWriter();
+        }
+        writer.inUse = true;
+        writer.length = 0;
+        return writer;
+    }
+
+    /**
+     * Hands the writer back, dropping buffers which grew beyond {@link #MAX_RETAINED_CAPACITY}.
+     */
+    void release() {
+        inUse = false;
+        if (bytes.length > MAX_RETAINED_CAPACITY) {
+            bytes = new byte[INITIAL_CAPACITY];
+        }
+        if (chars.capacity() > MAX_RETAINED_CAPACITY) {
+            chars = new StringBuilder(IgniteEventHeaderRenderer.INITIAL_CAPACITY);
+        }
+    }
+
+    /**
+     * Returns the writer's character buffer, emptied and ready for use, to render values into before
+     * writing them with {@link #writeString(CharSequence)}.
+     *
+     * @return the character buffer
+     */
+    StringBuilder chars() {
+        chars.setLength(0);
+        return chars;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the length of the output
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns a copy of the bytes written.
+     *
+     * @return the output
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Writes the bytes written so far to the given stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Writes pre-encoded bytes, such as a field name with its quotes and colon.
+     *
+     * @param raw the bytes to write
+     */
+    void writeRaw(byte[] raw) {
+        ensure(raw.length);
+        System.arraycopy(raw, 0, bytes, length, raw.length);
+        length += raw.length;
+    }
+
+    /**
+     * Writes a single ASCII character, such as a brace or a comma.
+     *
+     * @param c the character
+     */
+    void writeRaw(char c) {
+        ensure(1);
+        bytes[length++] = (byte) c;
+    }
+
+    /**
+     * Writes {@code null}.
+     */
+    void writeNull() {
+        writeRaw(NULL);
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the value
+     */
+    void writeBoolean(boolean value) {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    /**
+     * Writes a number without creating its String.
+     *
+     * @param value the value
+     */
+    void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(MIN_LONG);
+            return;
+        }
+        ensure(MAX_LONG_DIGITS);
+        if (value < 0) {
+            bytes[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / RADIX; rest > 0; rest /= RADIX) {
+            digits++;
+        }
+        int end = length + digits;
+        for (int i = end - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % RADIX);
+            value /= RADIX;
+        }
+        length = end;
+    }
+
+    /**
+     * Writes a quoted and escaped string, or {@code null}.
+     *
+     * @param value the characters to write, may be null
+     */
+    void writeString(CharSequence value) {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeString(value, 0, value.length());
+        }
+    }
+
+    /**
+     * Writes part of a character sequence as a quoted and escaped string.
+     *
+     * @param value the characters to write
+     * @param from the index of the first character
+     * @param to the index after the last character
+     */
+    void writeString(CharSequence value, int from, int to) {
+        ensure(1);
+        bytes[length++] = QUOTE;
+        int i = from;
+        while (i < to) {
+            int end = Math.min(to, i + SCRATCH_SIZE);
+            if (end < to && Character.isHighSurrogate(value.charAt(end - 1))) {
+                // keeps surrogate pairs within a chunk
+                end--;
+            }
+            copy(value, i, end);
+            encode(end - i);
+            i = end;
+        }
+        ensure(1);
+        bytes[length++] = QUOTE;
+    }
+
+    private void copy(CharSequence value, int from, int to) {
+        if (value instanceof String string) {
+            string.getChars(from, to, scratch, 0);
+        } else if (value instanceof StringBuilder builder) {
+            builder.getChars(from, to, scratch, 0);
+        } else {
+            for (int i = from; i < to; i++) {
+                scratch[i - from] = value.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * Escapes and encodes the given number of characters from the scratch buffer.
+     */
+    private void encode(int count) {
+        ensure(count * MAX_BYTES_PER_CHAR);
+        char[] in = scratch;
+        byte[] out = bytes;
+        int pos = length;
+        for (int i = 0; i < count; i++) {
+            char c = in[i];
+            if (c < FIRST_NON_ASCII) {
+                byte[] escape = ESCAPES[c];
+                if (escape == null) {
+                    out[pos++] = (byte) c;
+                } else {
+                    System.arraycopy(escape, 0, out, pos, escape.length);
+                    pos += escape.length;
+                }
+            } else if (c < FIRST_THREE_BYTES) {
+                out[pos++] = (byte) (TWO_BYTES | c >> CONTINUATION_BITS);
+                out[pos++] = (byte) (CONTINUATION | c & CONTINUATION_MASK);
+            } else if (!Character.isSurrogate(c)) {
+                out[pos++] = (byte) (THREE_BYTES | c >> SECOND_CONTINUATION_BITS);
+                out[pos++] = (byte) (CONTINUATION | c >> CONTINUATION_BITS & CONTINUATION_MASK);
+                out[pos++] = (byte) (CONTINUATION | c & CONTINUATION_MASK);
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(in[i + 1])) {
+                int codePoint = Character.toCodePoint(c, in[++i]);
+                out[pos++] = (byte) (FOUR_BYTES | codePoint >> THIRD_CONTINUATION_BITS);
+                out[pos++] = (byte) (CONTINUATION | codePoint >> SECOND_CONTINUATION_BITS & CONTINUATION_MASK);
+                out[pos++] = (byte) (CONTINUATION | codePoint >> CONTINUATION_BITS & CONTINUATION_MASK);
+                out[pos++] = (byte) (CONTINUATION | codePoint & CONTINUATION_MASK);
+            } else {
+                out[pos++] = REPLACEMENT;
+            }
+        }
+        length = pos;
+    }
+
+    private static byte[][] escapes() {
+        byte[][] escapes = new byte[FIRST_NON_ASCII][];
+        for (char c = 0; c < FIRST_PRINTABLE; c++) {
+            escapes[c] = new byte[] { BACKSLASH, 'u', '0', '0', HEX[c >> HEX_DIGIT_BITS], HEX[c & HEX_DIGIT_MASK] };
+        }
+        escapes['"'] = new byte[] { BACKSLASH, QUOTE };
+        escapes['\\'] = new byte[] { BACKSLASH, BACKSLASH };
+        escapes['\n'] = new byte[] { BACKSLASH, 'n' };
+        escapes['\r'] = new byte[] { BACKSLASH, 'r' };
+        escapes['\t'] = new byte[] { BACKSLASH, 't' };
+        escapes['\b'] = new byte[] { BACKSLASH, 'b' };
+        escapes['\f'] = new byte[] { BACKSLASH, 'f' };
+        return escapes;
+    }
+
+    /**
+     * Makes room for the given number of bytes.
+     */
+    private void ensure(int needed) {
+        if (length + needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * GROWTH_FACTOR, length + needed));
+        }
+    }
+}
@@ -36,13 +36,11 @@
 
 package org.eclipse.ecsp.utils.logger;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * This class has utility methods which helps in deciding if Object[] args (AKS var-args) has Throwable. <br>
  * The methods of this class is used in case decide()'s Throwable arg is null,
- * but still we can get Throwable as part of var-args.
+ * but still we can get Throwable as part of var-args. <br>
+ * Format strings are parsed once into cached {@link MessageTemplate}s, shared with {@link IgniteMessageFormatter}.
  *
  * @author vkoul
  */
@@ -52,16 +50,6 @@ public class LoggerUtils {
 
     }
 
-    /**
-     * Regular expression to match the curly braces.
-     */
-    private static final String CURLYBRACES_REGEX = "\\{\\}";
-
-    /**
-     * Pattern to match the curly braces.
-     */
-    private static final Pattern CURLYBRACES_PATTERN = Pattern.compile(CURLYBRACES_REGEX);
-
     /**
      * Helper method to identify if the last element of object[] is throwable or not.
      *
@@ -72,15 +60,14 @@ public class LoggerUtils {
     public static boolean hasThrowableObject(String format, Object[] args) {
 
         boolean hasThrowable = false;
-        if (null == args || args.length < 1) {
+        if (null == args || args.length < 1 || !(args[args.length - 1] instanceof Throwable)) {
             return false;
         }
         int curlyBracesCount = getCurlyBracesCount(format);
         // check if the counts are unequal and curly brace count should exactly
         // be 1 less than arguments length
         if (curlyBracesCount != args.length 
-                && (curlyBracesCount == (args.length - 1)) 
-                && (args[args.length - 1] instanceof Throwable)) {
+                && (curlyBracesCount == (args.length - 1))) {
             hasThrowable = true;    
         }
         return hasThrowable;
@@ -88,21 +75,13 @@ public class LoggerUtils {
 
     /**
      * Helper method to retrieve the number of curly braces from the format.
+     * Escaped curly braces are counted as well.
      *
      * @param format log message format
      * @return count of curly braces
      */
     private static int getCurlyBracesCount(String format) {
-        Matcher m = CURLYBRACES_PATTERN.matcher(format);
-        // we are trying to find the pattern {} and group count will always give
-        // 0.
-        // Hence, we will iterate and get the count
-        int count = 0;
-
-        while (m.find()) {
-            count++;
-        }
-        return count;
+        return MessageTemplate.of(format).delimiterCount();
     }
 
 }
@@ -0,0 +1,252 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+/**
+ * A log message format parsed once. <br>
+ * The template records where the {@code {}} delimiters of the format are and whether they are escaped, so
+ * the literal segments between them can be copied without searching the format again. Delimiters are found
+ * the way SLF4J finds them: {@code \{}} is an escaped delimiter rendered as {@code {}}, while {@code \\{}}
+ * is a backslash followed by a placeholder. <br>
+ * Templates are cached by format string in a {@link BoundedCache}. Format strings are usually literals, so the
+ * lookup mostly succeeds on their identity, while formats seen once are evicted again. Formats without
+ * delimiters cost no more to parse than to look up and are not cached. Formats rendered with the event header
+ * in {@link IgniteEventHeaderMode#PREFIX} mode are unique per event, so they are parsed every time and never
+ * fill the cache.
+ */
+final class MessageTemplate {
+
+    /**
+     * Maximum number of cached templates.
+     */
+    static final int MAX_CACHED_TEMPLATES = 4096;
+
+    static final byte PLACEHOLDER = 0;
+    static final byte ESCAPED = 1;
+    static final byte DOUBLE_ESCAPED = 2;
+
+    private static final String DELIMITER = "{}";
+    private static final char DELIMITER_START = '{';
+    private static final char ESCAPE = '\\';
+    private static final int DELIMITER_LENGTH = DELIMITER.length();
+    private static final int DOUBLE_ESCAPE_LENGTH = 2;
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final byte[] NO_KINDS = new byte[0];
+
+    private static final BoundedCache<String, MessageTemplate> TEMPLATES = new BoundedCache<>(MAX_CACHED_TEMPLATES);
+
+    private final String format;
+    private final int[] positions;
+    private final byte[] kinds;
+    private final int placeholderCount;
+
+    private MessageTemplate(String format, int[] positions, byte[] kinds, int placeholderCount) {
+        this.format = format;
+        this.positions = positions;
+        this.kinds = kinds;
+        this.placeholderCount = placeholderCount;
+    }
+
+    /**
+     * Returns the cached template of the format, parsing it if it was not seen yet. Formats without delimiters
+     * and formats rendered with the event header are parsed without being cached.
+     *
+     * @param format the log message format
+     * @return the template
+     */
+    static MessageTemplate of(String format) {
+        if (IgniteEventHeaderRenderer.isRendered(format)) {
+            return parse(format);
+        }
+        MessageTemplate template = TEMPLATES.get(format);
+        if (template == null) {
+            template = parse(format);
+            if (template.delimiterCount() > 0) {
+                TEMPLATES.put(format, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Parses the format without caching it.
+     *
+     * @param format the log message format
+     * @return the template
+     */
+    static MessageTemplate parse(String format) {
+        int count = 0;
+        for (int j = format.indexOf(DELIMITER); j >= 0; j = format.indexOf(DELIMITER, j + DELIMITER_LENGTH)) {
+            count++;
+        }
+        if (count == 0) {
+            return new MessageTemplate(format, NO_POSITIONS, NO_KINDS, 0);
+        }
+        int[] positions = new int[count];
+        byte[] kinds = new byte[count];
+        int placeholders = 0;
+        int j = format.indexOf(DELIMITER);
+        for (int d = 0; d < count; d++) {
+            positions[d] = j;
+            if (j > 0 && format.charAt(j - 1) == ESCAPE) {
+                kinds[d] = j > 1 && format.charAt(j - DOUBLE_ESCAPE_LENGTH) == ESCAPE ? DOUBLE_ESCAPED : ESCAPED;
+            }
+            if (kinds[d] != ESCAPED) {
+                placeholders++;
+            }
+            j = format.indexOf(DELIMITER, j + DELIMITER_LENGTH);
+        }
+        return new MessageTemplate(format, positions, kinds, placeholders);
+    }
+
+    /**
+     * Returns the format string.
+     *
+     * @return the format
+     */
+    String format() {
+        return format;
+    }
+
+    /**
+     * Returns the number of {@code {}} occurrences in the format, escaped or not.
+     *
+     * @return the delimiter count
+     */
+    int delimiterCount() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the number of delimiters which are replaced by an argument.
+     *
+     * @return the placeholder count
+     */
+    int placeholderCount() {
+        return placeholderCount;
+    }
+
+    /**
+     * Returns the position of a delimiter in the format.
+     *
+     * @param index the delimiter index
+     * @return the position of its opening brace
+     */
+    int position(int index) {
+        return positions[index];
+    }
+
+    /**
+     * Returns whether a delimiter is a {@link #PLACEHOLDER}, {@link #ESCAPED} or {@link #DOUBLE_ESCAPED}.
+     *
+     * @param index the delimiter index
+     * @return the delimiter kind
+     */
+    byte kind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Appends the format with its placeholders replaced by the arguments, exactly as SLF4J's
+     * {@code MessageFormatter} does. Escapes after the last used placeholder are kept as they are.
+     *
+     * @param sb the builder to append to
+     * @param args the arguments, may be null
+     */
+    void appendTo(StringBuilder sb, Object[] args) {
+        append(sb, args, 0, 0);
+    }
+
+    /**
+     * Appends the format from the given position on, like {@link #appendTo(StringBuilder, Object[])}. The
+     * delimiters before the position must be placeholders, they take the leading arguments without rendering them.
+     *
+     * @param sb the builder to append to
+     * @param args the arguments, may be null
+     * @param from the position in the format to start at, past the end of the last skipped delimiter
+     */
+    void appendFrom(StringBuilder sb, Object[] args, int from) {
+        int skipped = 0;
+        while (skipped < positions.length && positions[skipped] < from) {
+            skipped++;
+        }
+        append(sb, args, from, skipped);
+    }
+
+    private void append(StringBuilder sb, Object[] args, int from, int firstDelimiter) {
+        int argCount = args == null ? 0 : args.length;
+        int i = from;
+        int arg = firstDelimiter;
+        for (int d = firstDelimiter; d < positions.length && arg < argCount; d++) {
+            int j = positions[d];
+            switch (kinds[d]) {
+                case ESCAPED:
+                    sb.append(format, i, j - 1).append(DELIMITER_START);
+                    i = j + 1;
+                    break;
+                case DOUBLE_ESCAPED:
+                    sb.append(format, i, j - 1);
+                    IgniteMessageFormatter.appendArgument(sb, args[arg++]);
+                    i = j + DELIMITER_LENGTH;
+                    break;
+                default:
+                    sb.append(format, i, j);
+                    IgniteMessageFormatter.appendArgument(sb, args[arg++]);
+                    i = j + DELIMITER_LENGTH;
+                    break;
+            }
+        }
+        sb.append(format, i, format.length());
+    }
+
+    /**
+     * Clears the template cache.
+     */
+    static void clear() {
+        TEMPLATES.clear();
+    }
+
+    /**
+     * Returns the number of cached templates.
+     *
+     * @return the cache size
+     */
+    static int cachedTemplates() {
+        return TEMPLATES.size();
+    }
+}
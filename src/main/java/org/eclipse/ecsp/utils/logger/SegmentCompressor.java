@@ -0,0 +1,190 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses the completed segments of an appender on a low priority thread, each after a random delay of up
+ * to {@code jitterMillis}, so that nodes rolling at the same time do not compress at the same time. <br>
+ * A segment is compressed to a temporary file which is then renamed, so a compressed segment is either complete
+ * or missing. Segments still waiting when the compressor is stopped are compressed right away. <br>
+ * The thread priority only takes effect where the JVM maps Java priorities to the operating system, on Linux
+ * with {@code -XX:ThreadPriorityPolicy=1} as root. The jitter spreads the work regardless.
+ */
+final class SegmentCompressor {
+
+    /**
+     * Suffix of segments being compressed.
+     */
+    static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final String name;
+    private final IgniteSegmentCodec codec;
+    private final long jitterMillis;
+    private final boolean metricsEnabled;
+    private final ContextAware owner;
+    private final Runnable afterEach;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a compressor and starts its thread.
+     *
+     * @param name the appender name, used for the thread name and the metrics label
+     * @param codec the codec
+     * @param jitterMillis the maximum delay of a compression
+     * @param metricsEnabled whether the compressed size, ratio and backlog are published
+     * @param owner the component errors are reported to
+     * @param afterEach run on the compression thread after each segment
+     */
+    SegmentCompressor(String name, IgniteSegmentCodec codec, long jitterMillis, boolean metricsEnabled,
+            ContextAware owner, Runnable afterEach) {
+        this.name = name;
+        this.codec = codec;
+        this.jitterMillis = jitterMillis;
+        this.metricsEnabled = metricsEnabled;
+        this.owner = owner;
+        this.afterEach = afterEach;
+        executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "IgniteMappedFileAppender-Compressor-" + name);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Schedules the compression of a completed segment.
+     *
+     * @param segment the segment
+     */
+    void submit(Path segment) {
+        long delay = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0;
+        pending.add(segment);
+        executor.schedule(() -> run(segment), delay, TimeUnit.MILLISECONDS);
+        executor.execute(this::publishBacklog);
+    }
+
+    /**
+     * Returns the number of segments waiting to be compressed.
+     *
+     * @return the backlog
+     */
+    int backlog() {
+        return pending.size();
+    }
+
+    /**
+     * Stops the thread after the running compression and compresses the waiting segments on the calling thread.
+     *
+     * @param timeout the maximum time to wait for the running compression
+     * @param unit the unit of the timeout
+     * @return false if the running compression did not finish in time, the waiting segments are then left
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean stop(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout, unit)) {
+            return false;
+        }
+        for (Path segment : pending) {
+            run(segment);
+        }
+        return true;
+    }
+
+    private void run(Path segment) {
+        if (!pending.remove(segment)) {
+            return;
+        }
+        try {
+            compress(segment);
+        } catch (NoSuchFileException e) {
+            // deleted as one of the oldest segments while it was waiting
+        } catch (IOException e) {
+            owner.addError("Failed to compress segment [" + segment + "]", e);
+        }
+        afterEach.run();
+        publishBacklog();
+    }
+
+    private void compress(Path segment) throws IOException {
+        Path compressed = segment.resolveSibling(segment.getFileName() + codec.getExtension());
+        Path temporary = compressed.resolveSibling(compressed.getFileName() + TEMPORARY_SUFFIX);
+        long size = Files.size(segment);
+        try (InputStream in = Files.newInputStream(segment);
+                OutputStream out = codec.compress(Files.newOutputStream(temporary))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        long compressedSize = Files.size(temporary);
+        Files.move(temporary, compressed, StandardCopyOption.ATOMIC_MOVE);
+        try {
+            Files.delete(segment);
+        } catch (NoSuchFileException e) {
+            // deleted as one of the oldest segments meanwhile
+            Files.delete(compressed);
+            return;
+        }
+        if (metricsEnabled) {
+            IgniteMappedFileAppenderMetrics.publishCompression(name, size, compressedSize);
+        }
+    }
+
+    private void publishBacklog() {
+        if (metricsEnabled) {
+            IgniteMappedFileAppenderMetrics.publishBacklog(name, pending.size());
+        }
+    }
+}
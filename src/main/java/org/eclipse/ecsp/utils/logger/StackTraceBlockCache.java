@@ -0,0 +1,185 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of the rendered stack frame blocks of {@link IgniteThrowableProxyConverter}. <br>
+ * A block is keyed by the structure of the frames it renders, so the same failure thrown again renders
+ * from the cache although every occurrence has its own throwable and frame instances. Messages are not
+ * part of a block. When full, the least recently used eighth of the blocks is evicted.
+ */
+final class StackTraceBlockCache {
+
+    /**
+     * Blocks longer than this are rendered every time rather than pinned in the cache.
+     */
+    static final int MAX_BLOCK_LENGTH = 64 * 1024;
+
+    private static final int EVICTION_DIVISOR = 8;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final int capacity;
+    private final Map<Key, Block> blocks;
+
+    /**
+     * Creates a cache holding at most {@code capacity} blocks.
+     *
+     * @param capacity the maximum number of blocks
+     */
+    StackTraceBlockCache(int capacity) {
+        this.capacity = capacity;
+        this.blocks = new ConcurrentHashMap<>(capacity);
+    }
+
+    /**
+     * Returns the rendered block of the given frames, or null if it is not cached.
+     *
+     * @param key the frames and the way they are rendered
+     * @return the rendered block, or null
+     */
+    String get(Key key) {
+        Block block = blocks.get(key);
+        if (block == null) {
+            return null;
+        }
+        block.lastUsed = System.nanoTime();
+        return block.rendered;
+    }
+
+    /**
+     * Caches the rendered block of the given frames.
+     *
+     * @param key the frames and the way they are rendered
+     * @param rendered the rendered block
+     */
+    void put(Key key, String rendered) {
+        if (rendered.length() > MAX_BLOCK_LENGTH) {
+            return;
+        }
+        if (blocks.size() >= capacity) {
+            evict();
+        }
+        blocks.put(key, new Block(rendered));
+    }
+
+    /**
+     * Returns the number of cached blocks.
+     *
+     * @return the number of cached blocks
+     */
+    int size() {
+        return blocks.size();
+    }
+
+    private synchronized void evict() {
+        if (blocks.size() < capacity) {
+            return;
+        }
+        List<Map.Entry<Key, Block>> entries = new ArrayList<>(blocks.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        int evicted = Math.max(1, capacity / EVICTION_DIVISOR);
+        for (int i = 0; i < evicted && i < entries.size(); i++) {
+            blocks.remove(entries.get(i).getKey());
+        }
+    }
+
+    /**
+     * Rendered block and the time it was last used.
+     */
+    private static final class Block {
+        private final String rendered;
+        private volatile long lastUsed;
+
+        private Block(String rendered) {
+            this.rendered = rendered;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * Structural fingerprint of a frame block: the frames, the number of frames shared with the enclosing
+     * throwable and the indentation. Frames are compared by their {@link StackTraceElement}.
+     */
+    static final class Key {
+        private final StackTraceElementProxy[] steps;
+        private final int commonFrames;
+        private final int indent;
+        private final int hash;
+
+        Key(StackTraceElementProxy[] steps, int commonFrames, int indent) {
+            this.steps = steps;
+            this.commonFrames = commonFrames;
+            this.indent = indent;
+            int h = HASH_MULTIPLIER * commonFrames + indent;
+            for (StackTraceElementProxy step : steps) {
+                h = HASH_MULTIPLIER * h + step.getStackTraceElement().hashCode();
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other) || hash != other.hash || commonFrames != other.commonFrames
+                    || indent != other.indent || steps.length != other.steps.length) {
+                return false;
+            }
+            for (int i = 0; i < steps.length; i++) {
+                if (steps[i] != other.steps[i]
+                        && !steps[i].getStackTraceElement().equals(other.steps[i].getStackTraceElement())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free token bucket holding up to one second of permits, at least one. <br>
+ * The bucket is kept as the theoretical arrival time of the next permit (the generic cell rate algorithm),
+ * a single long updated with one compare-and-set, so that neither granting nor denying a permit allocates.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final VarHandle ARRIVAL;
+
+    static {
+        try {
+            ARRIVAL = MethodHandles.lookup().findVarHandle(TokenBucket.class, "arrival", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final double permitsPerSecond;
+    private final long interval;
+    private final long tolerance;
+
+    /**
+     * Time at which the bucket is full again, in {@link System#nanoTime()} units.
+     */
+    @SuppressWarnings("unused")
+    private volatile long arrival;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param permitsPerSecond the sustained rate
+     * @param now the current {@link System#nanoTime()}
+     */
+    TokenBucket(double permitsPerSecond, long now) {
+        if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.interval = Math.max(1L, Math.round(NANOS_PER_SECOND / permitsPerSecond));
+        long capacity = Math.max(1L, (long) Math.ceil(permitsPerSecond));
+        this.tolerance = (capacity - 1) * interval;
+        this.arrival = now;
+    }
+
+    /**
+     * Takes a permit if one is available.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return true if a permit was taken
+     */
+    boolean tryAcquire(long now) {
+        while (true) {
+            long current = (long) ARRIVAL.getVolatile(this);
+            long ahead = current - now;
+            if (ahead > tolerance) {
+                return false;
+            }
+            long next = (ahead > 0 ? current : now) + interval;
+            if (ARRIVAL.compareAndSet(this, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the sustained rate.
+     *
+     * @return the permits per second
+     */
+    double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
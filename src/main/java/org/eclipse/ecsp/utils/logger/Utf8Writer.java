@@ -0,0 +1,132 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes character sequences to an {@link OutputStream} as UTF-8 through a fixed size byte buffer,
+ * without creating an intermediate String or byte array. Unmappable input is replaced like
+ * {@link String#getBytes(java.nio.charset.Charset)} does. <br>
+ * Every thread has its own writer, obtained through {@link #get()}.
+ */
+final class Utf8Writer {
+
+    /**
+     * Size of the byte buffer, the stream is written in chunks of at most this many bytes.
+     */
+    static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Character buffers which grew beyond this capacity are not retained. Deep stack traces are
+     * considerably larger than log messages, so the limit is higher than the message buffer's.
+     */
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<Utf8Writer> WRITERS = ThreadLocal.withInitial(Utf8Writer::new);
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+    private StringBuilder buffer = new StringBuilder(IgniteEventHeaderRenderer.INITIAL_CAPACITY);
+
+    private Utf8Writer() {
+    }
+
+    /**
+     * Returns the calling thread's writer.
+     *
+     * @return the per-thread writer
+     */
+    static Utf8Writer get() {
+        return WRITERS.get();
+    }
+
+    /**
+     * Returns the writer's character buffer, emptied and ready for use.
+     *
+     * @return the character buffer
+     */
+    StringBuilder buffer() {
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Writes the given characters as UTF-8. A character buffer which grew beyond
+     * {@link #MAX_RETAINED_CAPACITY} is dropped afterwards.
+     *
+     * @param text the characters to write
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    void write(CharSequence text, OutputStream out) throws IOException {
+        try {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                drain(out);
+            }
+            CoderResult result = encoder.flush(bytes);
+            while (result.isOverflow()) {
+                drain(out);
+                result = encoder.flush(bytes);
+            }
+            drain(out);
+        } finally {
+            bytes.clear();
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer = new StringBuilder(IgniteEventHeaderRenderer.INITIAL_CAPACITY);
+            }
+        }
+    }
+
+    private void drain(OutputStream out) throws IOException {
+        if (bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+}
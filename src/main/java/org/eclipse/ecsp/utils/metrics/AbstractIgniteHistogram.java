@@ -187,7 +187,7 @@ public abstract class AbstractIgniteHistogram {
      *
      * @return Histogram
      */
-    Histogram getHistogram() {
+    public Histogram getHistogram() {
         return histogram;
     }
 }
\ No newline at end of file
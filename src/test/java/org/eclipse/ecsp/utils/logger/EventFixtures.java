@@ -0,0 +1,76 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+
+/**
+ * IgniteEvents shared by the logger and encoder tests.
+ */
+public final class EventFixtures {
+
+    /**
+     * Event id of the fixture events.
+     */
+    public static final String EVENT_ID = "Speed";
+
+    /**
+     * Timestamp of the fixture events.
+     */
+    public static final long TIMESTAMP = 1_700_000_000_000L;
+
+    private EventFixtures() {
+    }
+
+    /**
+     * Returns a speed event of the given vehicle and request, with a fixed timestamp and schema version.
+     *
+     * @param vehicleId the vehicle id
+     * @param requestId the request id
+     * @return the event
+     */
+    public static IgniteEventImpl speedEvent(String vehicleId, String requestId) {
+        IgniteEventImpl event = new IgniteEventImpl();
+        event.setEventId(EVENT_ID);
+        event.setVehicleId(vehicleId);
+        event.setRequestId(requestId);
+        event.setTimestamp(TIMESTAMP);
+        event.setSchemaVersion(Version.V1_0);
+        return event;
+    }
+}
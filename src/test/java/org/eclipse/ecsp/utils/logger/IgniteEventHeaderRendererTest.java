@@ -0,0 +1,163 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteEventHeaderRenderer.
+ *
+ * @see IgniteEventHeaderRenderer
+ */
+public class IgniteEventHeaderRendererTest {
+
+    private static final long TIMESTAMP = 1700000000000L;
+    private static final int WARM_UP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+    private static final int DYNAMIC_FORMATS = 3 * IgniteEventHeaderRenderer.MAX_DEFERRED_FORMATS;
+    /**
+     * Object header and length field of the rendered String and its backing array, rounded up generously.
+     */
+    private static final int STRING_OVERHEAD_BYTES = 64;
+
+    private IgniteEventImpl event;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        event = new IgniteEventImpl();
+        event.setTimestamp(TIMESTAMP);
+        event.setRequestId("request-1");
+        event.setMessageId("message-1");
+        event.setBizTransactionId("biz-1");
+        event.setVehicleId("vehicle-1");
+        event.setEventId("Speed");
+        event.setSchemaVersion(Version.V1_0);
+        event.setSourceDeviceId("device-1");
+    }
+
+    @Test
+    public void testRenderHeader() {
+        assertEquals("Timestamp:1700000000000 , RequestId:request-1 , MessageId:message-1 , BizTransactionId:biz-1"
+                        + " , VehicleID:vehicle-1 , EventID:Speed , Version:1.0 , SourceDeviceID:device-1"
+                        + " ,message:Speed is {}",
+                IgniteEventHeaderRenderer.render(event, "Speed is {}"));
+    }
+
+    @Test
+    public void testRenderHeaderWithCorrelationId() {
+        event.setCorrelationId("correlation-1");
+        String rendered = IgniteEventHeaderRenderer.render(event, "Speed is {}");
+        assertTrue(rendered.endsWith(" , SourceDeviceID:device-1 , CorrelationId:correlation-1 ,message:Speed is {}"));
+    }
+
+    @Test
+    public void testSnapshotRendersLikeEvent() {
+        event.setCorrelationId("correlation-1");
+        StringBuilder buf = new StringBuilder();
+        IgniteEventHeaderRenderer.appendHeader(buf, event);
+        assertEquals(buf.toString(), new IgniteEventHeader(event).toString());
+    }
+
+    @Test
+    public void testDeferredFormatIsCached() {
+        String format = new String("Speed is {}".toCharArray());
+        String deferred = IgniteEventHeaderRenderer.deferredFormat(format);
+        assertEquals("{} ,message:Speed is {}", deferred);
+        assertSame(deferred, IgniteEventHeaderRenderer.deferredFormat("Speed is {}"));
+        assertEquals("{} ,message:null", IgniteEventHeaderRenderer.deferredFormat(null));
+    }
+
+    @Test
+    public void testDeferredFormatCacheKeepsHotFormats() {
+        String hot = IgniteEventHeaderRenderer.deferredFormat("Heading is {}");
+        for (int i = 0; i < DYNAMIC_FORMATS; i++) {
+            IgniteEventHeaderRenderer.deferredFormat("Dynamic " + i + " {}");
+            assertSame(hot, IgniteEventHeaderRenderer.deferredFormat("Heading is {}"));
+        }
+        String late = IgniteEventHeaderRenderer.deferredFormat("Late {}");
+        assertSame(late, IgniteEventHeaderRenderer.deferredFormat("Late {}"));
+    }
+
+    @Test
+    public void testRenderReusesBufferAcrossCalls() {
+        String first = IgniteEventHeaderRenderer.render(event, "first");
+        String second = IgniteEventHeaderRenderer.render(event, "second");
+        assertTrue(first.endsWith(",message:first"));
+        assertTrue(second.endsWith(",message:second"));
+        assertEquals(first.length() + 1, second.length());
+    }
+
+    @Test
+    public void testSteadyStateAllocationIsOnlyTheRenderedMessage() {
+        ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMxBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMxBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        String format = "Speed is {} and heading is {}";
+        int renderedLength = IgniteEventHeaderRenderer.render(event, format).length();
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            IgniteEventHeaderRenderer.render(event, format);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            IgniteEventHeaderRenderer.render(event, format);
+        }
+        long bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+
+        // the header is latin-1, so the rendered String costs one byte per char plus the object overhead
+        assertTrue("Allocated " + bytesPerCall + " bytes per call for a " + renderedLength + " char message",
+                bytesPerCall <= renderedLength + STRING_OVERHEAD_BYTES);
+    }
+}
@@ -36,20 +36,89 @@
 
 package org.eclipse.ecsp.utils.logger;
 
+import ch.qos.logback.classic.PatternLayout;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.mockito.MockitoAnnotations;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /** Test class for IgniteLoggerFactory.
  *
  * @see IgniteLoggerFactory
  */
 public class IgniteLoggerFactoryTest {
 
+    private static final int THREADS = 8;
+    private static final int WARM_UP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+
     @Test
     public void testGetLogger() {
         MockitoAnnotations.initMocks(this);
         IgniteLogger logger = IgniteLoggerFactory.getLogger(EventLogger1.class);
         Assert.assertTrue(logger instanceof IgniteLoggerImpl);
     }
+
+    @Test
+    public void testGetLoggerReturnsSameInstance() {
+        IgniteLogger logger = IgniteLoggerFactory.getLogger(EventLogger2.class);
+        Assert.assertSame(logger, IgniteLoggerFactory.getLogger(EventLogger2.class));
+        Assert.assertSame(logger, IgniteLoggerImpl.getIgniteLoggerImplInstance(EventLogger2.class));
+        Assert.assertNotSame(logger, IgniteLoggerFactory.getLogger(EventLogger1.class));
+    }
+
+    @Test
+    public void testConcurrentLookupsShareInstance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<IgniteLogger>> lookups = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                lookups.add(() -> IgniteLoggerFactory.getLogger(IgniteLoggerFactoryTest.class));
+            }
+            IgniteLogger expected = IgniteLoggerFactory.getLogger(IgniteLoggerFactoryTest.class);
+            for (Future<IgniteLogger> lookup : executor.invokeAll(lookups)) {
+                Assert.assertSame(expected, lookup.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConvertersAreRegistered() {
+        IgniteLoggerFactory.getLogger(EventLogger1.class);
+        Assert.assertEquals(IgniteCallerDataConverter.class.getName(),
+                PatternLayout.DEFAULT_CONVERTER_MAP.get("caller"));
+        Assert.assertEquals(IgniteThrowableProxyConverter.class.getName(),
+                PatternLayout.DEFAULT_CONVERTER_MAP.get("throwable"));
+    }
+
+    @Test
+    public void testRepeatedLookupsDoNotAllocate() {
+        ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMxBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMxBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            IgniteLoggerFactory.getLogger(EventLogger1.class);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            IgniteLoggerFactory.getLogger(EventLogger1.class);
+        }
+        long bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+        Assert.assertEquals(0, bytesPerCall);
+    }
 }
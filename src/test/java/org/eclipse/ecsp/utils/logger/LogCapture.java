@@ -0,0 +1,148 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.rules.ExternalResource;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Captures the events of a Logback logger in a {@link ListAppender} for the duration of a test. <br>
+ * The logger gets the given level and is made non additive, both are restored after the test.
+ * Use it as a JUnit rule: {@code @Rule public LogCapture capture = new LogCapture(MyTest.class, Level.INFO);}
+ */
+public final class LogCapture extends ExternalResource {
+
+    private final Class<?> loggerClass;
+    private final Level level;
+    private final Consumer<ILoggingEvent> onAppend;
+
+    private LoggerContext context;
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    /**
+     * Captures the events of the logger of the given class.
+     *
+     * @param loggerClass the class whose logger is captured
+     * @param level the level of the logger during the test, null to inherit it
+     */
+    public LogCapture(Class<?> loggerClass, Level level) {
+        this(loggerClass, level, event -> { });
+    }
+
+    /**
+     * Captures the events of the logger of the given class, handing every event to {@code onAppend} on the
+     * logging thread before it is captured.
+     *
+     * @param loggerClass the class whose logger is captured
+     * @param level the level of the logger during the test, null to inherit it
+     * @param onAppend called with every event on the logging thread
+     */
+    public LogCapture(Class<?> loggerClass, Level level, Consumer<ILoggingEvent> onAppend) {
+        this.loggerClass = loggerClass;
+        this.level = level;
+        this.onAppend = onAppend;
+    }
+
+    @Override
+    protected void before() {
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = context.getLogger(loggerClass);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        appender = new ListAppender<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                onAppend.accept(event);
+                super.append(event);
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @Override
+    protected void after() {
+        detach();
+        appender.stop();
+        logger.setLevel(null);
+        logger.setAdditive(true);
+    }
+
+    /**
+     * Stops capturing before the end of the test, the events captured so far are kept.
+     */
+    public void detach() {
+        logger.detachAppender(appender);
+    }
+
+    /**
+     * Returns the logger context.
+     *
+     * @return the logger context
+     */
+    public LoggerContext context() {
+        return context;
+    }
+
+    /**
+     * Returns the captured logger.
+     *
+     * @return the Logback logger
+     */
+    public Logger logger() {
+        return logger;
+    }
+
+    /**
+     * Returns the events captured so far.
+     *
+     * @return the captured events, in logging order
+     */
+    public List<ILoggingEvent> events() {
+        return appender.list;
+    }
+}
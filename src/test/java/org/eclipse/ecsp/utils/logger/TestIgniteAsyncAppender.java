@@ -0,0 +1,459 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.status.Status;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteAsyncAppender.
+ *
+ * @see IgniteAsyncAppender
+ */
+public class TestIgniteAsyncAppender {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 10_000;
+    private static final int SMALL_QUEUE = 4;
+    private static final int ROUNDED_QUEUE_SIZE = 8;
+    private static final int DISCARDING_THRESHOLD = 2;
+    private static final int ODD_QUEUE_SIZE = 5;
+    private static final int OVERFLOW = 20;
+    private static final int MAX_FLUSH_TIME = 10_000;
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final long BLOCK_CHECK_MILLIS = 200;
+
+    private LoggerContext context;
+    private Logger logger;
+    private IgniteAsyncAppender asyncAppender;
+    private ListAppender<ILoggingEvent> listAppender;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        logger = context.getLogger(TestIgniteAsyncAppender.class);
+        listAppender = new ListAppender<>();
+        listAppender.setContext(context);
+        listAppender.setName("LIST");
+        listAppender.start();
+        asyncAppender = new IgniteAsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName("ASYNC-TEST");
+        asyncAppender.setMaxFlushTime(MAX_FLUSH_TIME);
+        asyncAppender.addAppender(listAppender);
+    }
+
+    /**
+     * Stops the appender.
+     */
+    @After
+    public void tearDown() {
+        asyncAppender.stop();
+        context.stop();
+    }
+
+    @Test
+    public void testEventsFromAllProducersAreForwardedInOrder() throws InterruptedException {
+        for (IgniteAsyncAppender.WaitStrategy waitStrategy : IgniteAsyncAppender.WaitStrategy.values()) {
+            setup();
+            asyncAppender.setWaitStrategy(waitStrategy);
+            asyncAppender.setDiscardingThreshold(0);
+            asyncAppender.setNeverBlock(false);
+            asyncAppender.start();
+
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                String producer = "producer-" + p;
+                producers.add(new Thread(() -> {
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        asyncAppender.doAppend(event(Level.INFO, producer, i));
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            asyncAppender.stop();
+
+            assertEquals(waitStrategy.name(), PRODUCERS * EVENTS_PER_PRODUCER, listAppender.list.size());
+            Map<String, Integer> next = new HashMap<>();
+            for (ILoggingEvent e : listAppender.list) {
+                int expected = next.getOrDefault(e.getMessage(), 0);
+                assertEquals(expected, e.getArgumentArray()[0]);
+                next.put(e.getMessage(), expected + 1);
+            }
+        }
+    }
+
+    @Test
+    public void testQueueSizeIsRoundedToPowerOfTwo() {
+        asyncAppender.setQueueSize(ODD_QUEUE_SIZE);
+        asyncAppender.start();
+        assertEquals(ROUNDED_QUEUE_SIZE, asyncAppender.getRemainingCapacity());
+    }
+
+    @Test
+    public void testFullQueueDropsWhenNeverBlock() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = blockDownstream(release);
+        asyncAppender.setQueueSize(SMALL_QUEUE);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.start();
+
+        asyncAppender.doAppend(event(Level.WARN, "first", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < OVERFLOW; i++) {
+            asyncAppender.doAppend(event(Level.WARN, "overflow", i));
+        }
+        assertEquals(SMALL_QUEUE, asyncAppender.getQueueDepth());
+        assertEquals(OVERFLOW - SMALL_QUEUE, asyncAppender.getDroppedCount());
+
+        release.countDown();
+        asyncAppender.stop();
+        assertEquals(1 + SMALL_QUEUE, listAppender.list.size());
+        assertEquals(OVERFLOW - SMALL_QUEUE, CollectorRegistry.defaultRegistry.getSampleValue(
+                IgniteAsyncAppenderMetrics.DROPPED_EVENTS, new String[] {"appender", "reason"},
+                new String[] {"ASYNC-TEST", IgniteAsyncAppenderMetrics.QUEUE_FULL}), 0);
+        Double depth = CollectorRegistry.defaultRegistry.getSampleValue(IgniteAsyncAppenderMetrics.QUEUE_DEPTH,
+                new String[] {"appender"}, new String[] {"ASYNC-TEST"});
+        assertNotNull(depth);
+        assertEquals(0, depth, 0);
+    }
+
+    @Test
+    public void testBatchIsPublishedAtItsEnd() {
+        asyncAppender.start();
+        IgniteAsyncAppender.beginBatch();
+        try {
+            for (int i = 0; i < SMALL_QUEUE; i++) {
+                asyncAppender.doAppend(event(Level.INFO, "batched", i));
+            }
+            assertEquals(0, asyncAppender.getQueueDepth());
+        } finally {
+            IgniteAsyncAppender.endBatch();
+        }
+        asyncAppender.stop();
+        assertEquals(SMALL_QUEUE, listAppender.list.size());
+        for (int i = 0; i < SMALL_QUEUE; i++) {
+            assertEquals(i, listAppender.list.get(i).getArgumentArray()[0]);
+        }
+    }
+
+    @Test
+    public void testBatchIsPublishedEveryBatchSize() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = blockDownstream(release);
+        asyncAppender.setBatchSize(DISCARDING_THRESHOLD);
+        asyncAppender.start();
+        asyncAppender.doAppend(event(Level.WARN, "first", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        IgniteAsyncAppender.beginBatch();
+        try {
+            for (int i = 0; i < ODD_QUEUE_SIZE; i++) {
+                asyncAppender.doAppend(event(Level.WARN, "batched", i));
+            }
+            assertEquals(ODD_QUEUE_SIZE - 1, asyncAppender.getQueueDepth());
+        } finally {
+            IgniteAsyncAppender.endBatch();
+        }
+        assertEquals(ODD_QUEUE_SIZE, asyncAppender.getQueueDepth());
+        release.countDown();
+    }
+
+    @Test
+    public void testBatchOverflowDrops() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = blockDownstream(release);
+        asyncAppender.setQueueSize(SMALL_QUEUE);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.start();
+        asyncAppender.doAppend(event(Level.WARN, "first", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        IgniteAsyncAppender.beginBatch();
+        try {
+            for (int i = 0; i < OVERFLOW; i++) {
+                asyncAppender.doAppend(event(Level.WARN, "overflow", i));
+            }
+        } finally {
+            IgniteAsyncAppender.endBatch();
+        }
+        assertEquals(SMALL_QUEUE, asyncAppender.getQueueDepth());
+        assertEquals(OVERFLOW - SMALL_QUEUE, asyncAppender.getDroppedCount());
+        release.countDown();
+        asyncAppender.stop();
+        assertEquals(1 + SMALL_QUEUE, listAppender.list.size());
+    }
+
+    @Test
+    public void testBatchOfStoppedAppenderIsCountedAsDropped() {
+        asyncAppender.start();
+        IgniteAsyncAppender.beginBatch();
+        try {
+            for (int i = 0; i < SMALL_QUEUE; i++) {
+                asyncAppender.doAppend(event(Level.WARN, "held", i));
+            }
+            asyncAppender.stop();
+        } finally {
+            IgniteAsyncAppender.endBatch();
+        }
+        assertEquals(SMALL_QUEUE, asyncAppender.getDroppedCount());
+        assertTrue(listAppender.list.isEmpty());
+        assertTrue(context.getStatusManager().getCopyOfStatusList().stream()
+                .anyMatch(status -> status.getLevel() == Status.WARN
+                        && status.getMessage().contains("held back in a batch")));
+    }
+
+    @Test
+    public void testFullQueueBlocksWhenNotNeverBlock() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = blockDownstream(release);
+        asyncAppender.setQueueSize(SMALL_QUEUE);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.setNeverBlock(false);
+        asyncAppender.start();
+
+        asyncAppender.doAppend(event(Level.WARN, "first", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < OVERFLOW; i++) {
+                asyncAppender.doAppend(event(Level.WARN, "overflow", i));
+            }
+        });
+        producer.start();
+        producer.join(BLOCK_CHECK_MILLIS);
+        assertTrue(producer.isAlive());
+
+        release.countDown();
+        producer.join();
+        asyncAppender.stop();
+        assertEquals(0, asyncAppender.getDroppedCount());
+        assertEquals(1 + OVERFLOW, listAppender.list.size());
+    }
+
+    @Test
+    public void testInfoIsDiscardedBelowThreshold() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = blockDownstream(release);
+        asyncAppender.setQueueSize(SMALL_QUEUE);
+        asyncAppender.setDiscardingThreshold(DISCARDING_THRESHOLD);
+        asyncAppender.start();
+
+        asyncAppender.doAppend(event(Level.WARN, "first", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < SMALL_QUEUE - 1; i++) {
+            asyncAppender.doAppend(event(Level.INFO, "fill", i));
+        }
+        asyncAppender.doAppend(event(Level.INFO, "discarded", 0));
+        asyncAppender.doAppend(event(Level.ERROR, "kept", 0));
+
+        release.countDown();
+        asyncAppender.stop();
+        assertEquals(1, asyncAppender.getDiscardedCount());
+        assertEquals(0, asyncAppender.getDroppedCount());
+        assertEquals("kept", listAppender.list.get(listAppender.list.size() - 1).getMessage());
+    }
+
+    @Test
+    public void testDeferredFormattingKeepsArgumentsByReference() throws InterruptedException {
+        StringBuilder mutable = new StringBuilder("before");
+        logDeferredWhileBlocked(IgniteAsyncAppender.ArgumentSnapshot.NONE, mutable);
+        assertEquals("value after", listAppender.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    public void testDeferredFormattingSnapshotsMutableArguments() throws InterruptedException {
+        StringBuilder mutable = new StringBuilder("before");
+        logDeferredWhileBlocked(IgniteAsyncAppender.ArgumentSnapshot.MUTABLE, mutable);
+        ILoggingEvent logged = listAppender.list.get(1);
+        assertEquals("value before", logged.getFormattedMessage());
+        assertEquals("before", logged.getArgumentArray()[0]);
+    }
+
+    @Test
+    public void testSnapshotLeavesTheLoggedArgumentsUnchanged() {
+        asyncAppender.setDeferredFormatting(true);
+        asyncAppender.setArgumentSnapshot(IgniteAsyncAppender.ArgumentSnapshot.MUTABLE);
+        asyncAppender.start();
+        StringBuilder mutable = new StringBuilder("value");
+        Object[] arguments = {mutable, 1};
+        LoggingEvent loggingEvent = new LoggingEvent(TestIgniteAsyncAppender.class.getName(), logger, Level.INFO,
+                "{} {}", null, arguments);
+        asyncAppender.doAppend(loggingEvent);
+        asyncAppender.stop();
+
+        assertSame(mutable, arguments[0]);
+        assertSame(mutable, loggingEvent.getArgumentArray()[0]);
+        ILoggingEvent queued = listAppender.list.get(0);
+        assertEquals("value", queued.getArgumentArray()[0]);
+        assertEquals("value 1", queued.getFormattedMessage());
+        assertEquals(loggingEvent.getTimeStamp(), queued.getTimeStamp());
+    }
+
+    private void logDeferredWhileBlocked(IgniteAsyncAppender.ArgumentSnapshot policy, StringBuilder mutable)
+            throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = blockDownstream(release);
+        asyncAppender.setDeferredFormatting(true);
+        asyncAppender.setArgumentSnapshot(policy);
+        asyncAppender.start();
+
+        asyncAppender.doAppend(event(Level.WARN, "first", 0));
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        asyncAppender.doAppend(new LoggingEvent(TestIgniteAsyncAppender.class.getName(), logger, Level.INFO,
+                "value {}", null, new Object[] {mutable}));
+        mutable.setLength(0);
+        mutable.append("after");
+        release.countDown();
+        asyncAppender.stop();
+    }
+
+    @Test
+    public void testStopFlushesQueuedEvents() {
+        asyncAppender.start();
+        for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+            asyncAppender.doAppend(event(Level.INFO, "flushed", i));
+        }
+        asyncAppender.stop();
+        assertFalse(asyncAppender.isStarted());
+        assertFalse(listAppender.isStarted());
+        assertEquals(EVENTS_PER_PRODUCER, listAppender.list.size());
+    }
+
+    @Test
+    public void testDoesNotStartWithoutAppender() {
+        IgniteAsyncAppender appender = new IgniteAsyncAppender();
+        appender.setContext(context);
+        appender.start();
+        assertFalse(appender.isStarted());
+    }
+
+    @Test
+    public void testConfiguredFromLogbackXml() throws JoranException {
+        String xml = "<configuration>"
+                + "<appender name=\"LIST\" class=\"ch.qos.logback.core.read.ListAppender\"/>"
+                + "<appender name=\"ASYNC\" class=\"org.eclipse.ecsp.utils.logger.IgniteAsyncAppender\">"
+                + "<queueSize>1000</queueSize><discardingThreshold>0</discardingThreshold>"
+                + "<neverBlock>true</neverBlock><includeCallerData>true</includeCallerData>"
+                + "<waitStrategy>YIELD</waitStrategy><batchSize>16</batchSize>"
+                + "<metricsEnabled>false</metricsEnabled>"
+                + "<appender-ref ref=\"LIST\"/></appender>"
+                + "<root level=\"INFO\"><appender-ref ref=\"ASYNC\"/></root>"
+                + "</configuration>";
+        LoggerContext configured = new LoggerContext();
+        configured.setMDCAdapter(new LogbackMDCAdapter());
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(configured);
+        configurator.doConfigure(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        Logger root = configured.getLogger(Logger.ROOT_LOGGER_NAME);
+        IgniteAsyncAppender configuredAppender = (IgniteAsyncAppender) root.getAppender("ASYNC");
+        assertTrue(configuredAppender.isStarted());
+        assertEquals(IgniteAsyncAppender.WaitStrategy.YIELD, configuredAppender.getWaitStrategy());
+        assertTrue(configuredAppender.isIncludeCallerData());
+        assertFalse(configuredAppender.isMetricsEnabled());
+
+        @SuppressWarnings("unchecked")
+        ListAppender<ILoggingEvent> list = (ListAppender<ILoggingEvent>) configuredAppender.getAppender("LIST");
+        root.info("configured");
+        configured.stop();
+        assertEquals(1, list.list.size());
+        assertEquals(TestIgniteAsyncAppender.class.getName(),
+                list.list.get(0).getCallerData()[0].getClassName());
+    }
+
+    /**
+     * Attaches an appender that blocks the worker on its first event until {@code release} opens.
+     */
+    private CountDownLatch blockDownstream(CountDownLatch release) {
+        CountDownLatch blocked = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> blocking = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent e) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blocking.setContext(context);
+        blocking.start();
+        asyncAppender.addAppender(blocking);
+        return blocked;
+    }
+
+    private LoggingEvent event(Level level, String message, int sequence) {
+        return new LoggingEvent(TestIgniteAsyncAppender.class.getName(), logger, level, message, null,
+                new Object[] {sequence});
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteBackpressureController and the logging degradation of IgniteAsyncAppender.
+ *
+ * @see IgniteBackpressureController
+ */
+public class TestIgniteBackpressureController {
+
+    private static final double DEGRADE_RATIO = 0.5;
+    private static final double RECOVER_RATIO = 0.1;
+    private static final double FILLING = 0.6;
+    private static final double FULLER = 0.7;
+    private static final double DRAINING = 0.55;
+    private static final double BETWEEN = 0.3;
+    private static final double CALM = 0.05;
+    private static final long RECOVERY_DELAY_MILLIS = 1000L;
+    private static final long MAX_EVENTS_PER_SECOND = 1000L;
+    private static final long BURST = 2000L;
+    private static final long SLOWING = 2600L;
+    private static final long SLOW = 2900L;
+    private static final long QUIET = 3000L;
+    private static final int QUEUE_SIZE = 16;
+    private static final int QUEUED_EVENTS = 12;
+    private static final int TEST_RECOVERY_DELAY = 50;
+    private static final long AWAIT_MILLIS = 10_000L;
+    private static final long POLL_MILLIS = 10L;
+    private static final long SECOND = 1000L;
+    private static final int SKIP_TRACE = 1;
+    private static final int SKIP_DEBUG = 2;
+    private static final int SKIP_INFO = IgniteBackpressureController.MAX_STEP;
+
+    private long now = TimeUnit.SECONDS.toNanos(1);
+    private IgniteLogger igniteLogger;
+    private Logger logbackLogger;
+    private Level previousLevel;
+    private LoggerContext asyncContext;
+    private IgniteAsyncAppender asyncAppender;
+
+    /**
+     * Enables every level of the test logger.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteBackpressureController.class);
+        logbackLogger = ((LoggerContext) LoggerFactory.getILoggerFactory())
+                .getLogger(TestIgniteBackpressureController.class);
+        previousLevel = logbackLogger.getLevel();
+        logbackLogger.setLevel(Level.TRACE);
+        asyncContext = new LoggerContext();
+        asyncContext.setMDCAdapter(new LogbackMDCAdapter());
+        asyncAppender = new IgniteAsyncAppender();
+        asyncAppender.setContext(asyncContext);
+        asyncAppender.setName("ASYNC-BACKPRESSURE");
+    }
+
+    /**
+     * Stops the appender and restores the levels.
+     */
+    @After
+    public void tearDown() {
+        asyncAppender.stop();
+        asyncContext.stop();
+        IgniteLoggerImpl.degrade(IgniteLoggerImpl.PASS_THROUGH);
+        logbackLogger.setLevel(previousLevel);
+    }
+
+    @Test
+    public void testDegradesStepByStepWhileTheQueueFills() {
+        IgniteBackpressureController controller = new IgniteBackpressureController(DEGRADE_RATIO, RECOVER_RATIO,
+                0, RECOVERY_DELAY_MILLIS);
+        assertEquals(SKIP_TRACE, controller.update(FILLING, 0, tick(1)));
+        assertEquals(SKIP_DEBUG, controller.update(FULLER, 0, tick(1)));
+        assertEquals(SKIP_INFO, controller.update(FULLER, 0, tick(1)));
+        assertEquals(SKIP_INFO, controller.update(1, 0, tick(1)));
+        // draining above the degrade ratio, and between the ratios, holds the step
+        assertEquals(SKIP_INFO, controller.update(DRAINING, 0, tick(1)));
+        assertEquals(SKIP_INFO, controller.update(BETWEEN, 0, tick(1)));
+    }
+
+    @Test
+    public void testRecoversOneStepPerRecoveryDelay() {
+        IgniteBackpressureController controller = new IgniteBackpressureController(DEGRADE_RATIO, RECOVER_RATIO,
+                0, RECOVERY_DELAY_MILLIS);
+        controller.update(FILLING, 0, tick(1));
+        assertEquals(SKIP_DEBUG, controller.update(FULLER, 0, tick(1)));
+        assertEquals(SKIP_DEBUG, controller.update(CALM, 0, tick(1)));
+        assertEquals(SKIP_DEBUG, controller.update(CALM, 0, tick(RECOVERY_DELAY_MILLIS - 1)));
+        assertEquals(SKIP_TRACE, controller.update(CALM, 0, tick(1)));
+        // leaving the calm range restarts the delay
+        assertEquals(SKIP_TRACE, controller.update(BETWEEN, 0, tick(1)));
+        assertEquals(SKIP_TRACE, controller.update(CALM, 0, tick(1)));
+        assertEquals(SKIP_TRACE, controller.update(CALM, 0, tick(RECOVERY_DELAY_MILLIS - 1)));
+        assertEquals(0, controller.update(CALM, 0, tick(1)));
+    }
+
+    @Test
+    public void testDegradesAboveTheMaximumRate() {
+        IgniteBackpressureController controller = new IgniteBackpressureController(DEGRADE_RATIO, RECOVER_RATIO,
+                MAX_EVENTS_PER_SECOND, 0);
+        assertEquals(0, controller.update(0, 0, tick(SECOND)));
+        assertEquals(SKIP_TRACE, controller.update(0, BURST, tick(SECOND)));
+        // above half the maximum rate is not calm
+        assertEquals(SKIP_TRACE, controller.update(0, SLOWING, tick(SECOND)));
+        assertEquals(SKIP_TRACE, controller.update(0, SLOW, tick(SECOND)));
+        assertEquals(0, controller.update(0, QUIET, tick(SECOND)));
+    }
+
+    @Test
+    public void testErrorsAreNeverSkipped() {
+        assertEquals(Level.WARN_INT, IgniteBackpressureController.lowestLevel(IgniteBackpressureController.MAX_STEP));
+        IgniteLoggerImpl.degrade(IgniteBackpressureController.lowestLevel(SKIP_TRACE));
+        assertFalse(igniteLogger.isTraceEnabled());
+        assertTrue(igniteLogger.isDebugEnabled());
+        IgniteLoggerImpl.degrade(IgniteBackpressureController.lowestLevel(IgniteBackpressureController.MAX_STEP));
+        assertFalse(igniteLogger.isInfoEnabled());
+        assertTrue(igniteLogger.isWarnEnabled());
+        assertTrue(igniteLogger.isErrorEnabled());
+    }
+
+    @Test
+    public void testDegradationOutlastsReconfiguration() {
+        IgniteLoggerImpl impl = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteBackpressureController.class);
+        IgniteLoggerImpl.degrade(Level.INFO_INT);
+        impl.passThrough();
+        assertFalse(igniteLogger.isDebugEnabled());
+        impl.refreshThreshold();
+        assertEquals(Level.INFO_INT, impl.getThreshold());
+        IgniteLoggerImpl.degrade(IgniteLoggerImpl.PASS_THROUGH);
+        assertEquals(Level.TRACE_INT, impl.getThreshold());
+        assertTrue(igniteLogger.isTraceEnabled());
+    }
+
+    @Test
+    public void testAsyncAppenderDegradesAndRecovers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> blocking = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blocking.setContext(asyncContext);
+        blocking.start();
+        asyncAppender.addAppender(blocking);
+        asyncAppender.setQueueSize(QUEUE_SIZE);
+        asyncAppender.setBatchSize(1);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.setDegradeOnBackpressure(true);
+        asyncAppender.setRecoveryDelay(TEST_RECOVERY_DELAY);
+        asyncAppender.start();
+        Logger logger = asyncContext.getLogger(TestIgniteBackpressureController.class);
+        for (int i = 0; i < QUEUED_EVENTS; i++) {
+            asyncAppender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "queued", null, null));
+        }
+
+        awaitStep(IgniteBackpressureController.MAX_STEP);
+        assertFalse(igniteLogger.isTraceEnabled());
+        assertFalse(igniteLogger.isInfoEnabled());
+        assertTrue(igniteLogger.isErrorEnabled());
+        assertEquals(IgniteBackpressureController.MAX_STEP, degradationGauge(), 0);
+
+        release.countDown();
+        awaitStep(0);
+        assertTrue(igniteLogger.isTraceEnabled());
+        assertEquals(0, degradationGauge(), 0);
+    }
+
+    private static void awaitStep(int step) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (IgniteBackpressureController.appliedStep() != step) {
+            assertTrue("Step " + step + " was not reached in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static double degradationGauge() {
+        return CollectorRegistry.defaultRegistry.getSampleValue(IgniteAsyncAppenderMetrics.DEGRADATION,
+                new String[] {"appender"}, new String[] {"ASYNC-BACKPRESSURE"});
+    }
+
+    /**
+     * Advances the sample clock.
+     *
+     * @param millis the milliseconds since the previous sample
+     * @return the sample time in nanoseconds
+     */
+    private long tick(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+        return now;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.FileSize;
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for IgniteBinaryAppender and the binary log format.
+ *
+ * @see IgniteBinaryAppender
+ */
+public class TestIgniteBinaryAppender {
+
+    private static final int SPEED = 42;
+    private static final long ODOMETER = 12_345_678_901L;
+    private static final double LATITUDE = 48.137154;
+    private static final float HEADING = 0.1f;
+    private static final long EVENT_TIMESTAMP = EventFixtures.TIMESTAMP;
+    private static final int ROLLED_EVENTS = 200;
+    private static final int MAX_SEGMENTS = 2;
+    private static final long SEGMENT_SIZE = 1024L;
+    private static final int DICTIONARY_SIZE = 2;
+    private static final int FORMATS = 5;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteBinaryAppender.class, Level.INFO);
+
+    private IgniteLogger igniteLogger;
+    private IgniteBinaryAppender binaryAppender;
+    private Path directory;
+
+    /**
+     * Setup method.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("ignite-binary-log");
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteBinaryAppender.class);
+        binaryAppender = new IgniteBinaryAppender();
+        binaryAppender.setContext(capture.context());
+        binaryAppender.setName("binary");
+        binaryAppender.setFile(directory.resolve("app.ilog").toString());
+    }
+
+    /**
+     * Detaches the binary appender and deletes the segments.
+     *
+     * @throws IOException if a segment cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        capture.logger().detachAppender(binaryAppender);
+        binaryAppender.stop();
+        IgniteLoggerFactory.setEventHeaderMode(null);
+        MDC.clear();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testDecodedEventsRenderLikeTheOriginals() throws IOException {
+        startBinaryAppender();
+        MDC.put("tenant", "t1");
+        igniteLogger.info("types {} {} {} {} {} {} {} {}", SPEED, ODOMETER, LATITUDE, HEADING, true, null,
+                "é🚗", new int[] { 0, 1 });
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        igniteLogger.info(event(), "speed {}", SPEED);
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.STRUCTURED);
+        igniteLogger.info(event(), "speed {}", SPEED);
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.PREFIX);
+        igniteLogger.info(event(), "speed {}", SPEED);
+        IllegalStateException failure = new IllegalStateException("boom", new IllegalArgumentException("cause"));
+        failure.addSuppressed(new UnsupportedOperationException("suppressed"));
+        igniteLogger.error("failed {}", SPEED, failure);
+        binaryAppender.stop();
+
+        List<ILoggingEvent> decoded = decode(directory.resolve("app.ilog"));
+        assertEquals(capture.events().size(), decoded.size());
+        IgniteJsonEncoder json = new IgniteJsonEncoder();
+        json.setContext(capture.context());
+        json.start();
+        Encoder<ILoggingEvent> text = IgniteBinaryLogDecoder.patternEncoder(capture.context(),
+                IgniteBinaryLogDecoder.DEFAULT_PATTERN);
+        for (int i = 0; i < decoded.size(); i++) {
+            ILoggingEvent original = capture.events().get(i);
+            assertEquals(new String(text.encode(original)), new String(text.encode(decoded.get(i))));
+            assertEquals(new String(json.encode(original)), new String(json.encode(decoded.get(i))));
+        }
+        json.stop();
+        assertTrue(new String(text.encode(decoded.get(decoded.size() - 1))).contains("Suppressed"));
+    }
+
+    @Test
+    public void testHeaderFieldsAreRestored() throws IOException {
+        startBinaryAppender();
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        igniteLogger.info(event(), "speed {}", SPEED);
+        binaryAppender.stop();
+
+        ILoggingEvent decoded = decode(directory.resolve("app.ilog")).get(0);
+        IgniteEventHeader header = (IgniteEventHeader) decoded.getArgumentArray()[0];
+        assertEquals(EVENT_TIMESTAMP, header.getTimestamp());
+        assertEquals("request-1", header.getRequestId());
+        assertEquals("VIN-1", header.getVehicleId());
+        assertEquals(Version.V1_0, header.getSchemaVersion());
+        assertNull(header.getMessageId());
+        assertEquals(Integer.valueOf(SPEED), decoded.getArgumentArray()[1]);
+    }
+
+    @Test
+    public void testSegmentsRoll() throws IOException {
+        binaryAppender.setMaxSegmentSize(new FileSize(SEGMENT_SIZE));
+        binaryAppender.setMaxSegments(MAX_SEGMENTS);
+        startBinaryAppender();
+        for (int i = 0; i < ROLLED_EVENTS; i++) {
+            igniteLogger.info("event {} of vehicle {}", i, "VIN-1");
+        }
+        binaryAppender.stop();
+
+        Path active = directory.resolve("app.ilog");
+        assertTrue(Files.exists(active.resolveSibling("app.ilog.2")));
+        assertFalse(Files.exists(active.resolveSibling("app.ilog.3")));
+        List<ILoggingEvent> decoded = new ArrayList<>();
+        decoded.addAll(decode(active.resolveSibling("app.ilog.2")));
+        decoded.addAll(decode(active.resolveSibling("app.ilog.1")));
+        decoded.addAll(decode(active));
+        int first = ROLLED_EVENTS - decoded.size();
+        for (int i = 0; i < decoded.size(); i++) {
+            assertEquals("event " + (first + i) + " of vehicle VIN-1", decoded.get(i).getFormattedMessage());
+        }
+        assertTrue(Files.size(active.resolveSibling("app.ilog.1")) >= SEGMENT_SIZE);
+    }
+
+    @Test
+    public void testStringsBeyondTheDictionaryAreWrittenInFull() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogWriter writer = new BinaryLogWriter(out, 0L, DICTIONARY_SIZE);
+        for (int i = 0; i < FORMATS; i++) {
+            igniteLogger.info("format " + i + " {}", i);
+            writer.write(capture.events().get(i));
+        }
+        assertEquals(DICTIONARY_SIZE, writer.dictionarySize());
+        List<ILoggingEvent> decoded = decode(new ByteArrayInputStream(out.toByteArray()));
+        for (int i = 0; i < FORMATS; i++) {
+            assertEquals("format " + i + " " + i, decoded.get(i).getFormattedMessage());
+            assertEquals(TestIgniteBinaryAppender.class.getName(), decoded.get(i).getLoggerName());
+        }
+    }
+
+    @Test
+    public void testTruncatedSegmentDecodesUpToTheLastCompleteEvent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogWriter writer = new BinaryLogWriter(out, 0L, BinaryLogWriter.MAX_DICTIONARY_SIZE);
+        igniteLogger.info("first {}", SPEED);
+        igniteLogger.info("second {}", SPEED);
+        writer.write(capture.events().get(0));
+        writer.write(capture.events().get(1));
+        byte[] segment = out.toByteArray();
+        BinaryLogReader reader = new BinaryLogReader(new ByteArrayInputStream(Arrays.copyOf(segment,
+                segment.length - 1)));
+        assertEquals("first 42", reader.next().getFormattedMessage());
+        try {
+            reader.next();
+            fail("Expected the truncated event to fail");
+        } catch (EOFException expected) {
+            // the second event was cut short
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles() {
+        try {
+            new BinaryLogReader(new ByteArrayInputStream("not a segment".getBytes()));
+            fail("Expected a non segment to be rejected");
+        } catch (IOException expected) {
+            assertEquals("Not a binary log segment", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testExistingSegmentIsRolledOnStart() throws IOException {
+        startBinaryAppender();
+        igniteLogger.info("before restart");
+        binaryAppender.stop();
+        startBinaryAppender();
+        igniteLogger.info("after restart");
+        binaryAppender.stop();
+        assertEquals("before restart", decode(directory.resolve("app.ilog.1")).get(0).getFormattedMessage());
+        assertEquals("after restart", decode(directory.resolve("app.ilog")).get(0).getFormattedMessage());
+        assertArrayEquals(BinaryLogFormat.MAGIC, Arrays.copyOf(Files.readAllBytes(directory.resolve("app.ilog")),
+                BinaryLogFormat.MAGIC.length));
+    }
+
+    private void startBinaryAppender() {
+        binaryAppender.start();
+        assertTrue(binaryAppender.isStarted());
+        capture.logger().addAppender(binaryAppender);
+    }
+
+    private static List<ILoggingEvent> decode(Path segment) throws IOException {
+        try (InputStream in = Files.newInputStream(segment)) {
+            return decode(in);
+        }
+    }
+
+    private static List<ILoggingEvent> decode(InputStream in) throws IOException {
+        List<ILoggingEvent> events = new ArrayList<>();
+        BinaryLogReader reader = new BinaryLogReader(in);
+        for (ILoggingEvent event = reader.next(); event != null; event = reader.next()) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static IgniteEventImpl event() {
+        return EventFixtures.speedEvent("VIN-1", "request-1");
+    }
+}
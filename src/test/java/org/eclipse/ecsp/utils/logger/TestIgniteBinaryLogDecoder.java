@@ -0,0 +1,144 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for IgniteBinaryLogDecoder.
+ *
+ * @see IgniteBinaryLogDecoder
+ */
+public class TestIgniteBinaryLogDecoder {
+
+    private static final int EVENTS = 3;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteBinaryLogDecoder.class, Level.INFO);
+
+    private IgniteLogger igniteLogger;
+    private byte[] segment;
+
+    /**
+     * Logs a few events and encodes them into a segment.
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    @Before
+    public void setup() throws IOException {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteBinaryLogDecoder.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogWriter writer = new BinaryLogWriter(out, 0L, BinaryLogWriter.MAX_DICTIONARY_SIZE);
+        for (int i = 0; i < EVENTS; i++) {
+            igniteLogger.info("event {}", i);
+            writer.write(capture.events().get(i));
+        }
+        segment = out.toByteArray();
+    }
+
+    @Test
+    public void testDecodesToText() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = IgniteBinaryLogDecoder.decode(new ByteArrayInputStream(segment),
+                IgniteBinaryLogDecoder.patternEncoder(capture.context(), "%level %msg%n"), out);
+        assertEquals(EVENTS, count);
+        assertEquals("INFO event 0\nINFO event 1\nINFO event 2\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDecodesToJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IgniteBinaryLogDecoder.decode(new ByteArrayInputStream(segment),
+                IgniteBinaryLogDecoder.jsonEncoder(capture.context()), out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(EVENTS, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("event 0", first.get(IgniteJsonEncoder.MESSAGE).textValue());
+        assertEquals(capture.events().get(0).getTimeStamp(), first.get(IgniteJsonEncoder.TIMESTAMP).longValue());
+    }
+
+    @Test
+    public void testTruncatedSegmentKeepsTheCompleteEvents() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            IgniteBinaryLogDecoder.decode(new ByteArrayInputStream(Arrays.copyOf(segment, segment.length - 1)),
+                    IgniteBinaryLogDecoder.patternEncoder(capture.context(), "%msg%n"), out);
+            fail("Expected the truncated event to fail");
+        } catch (EOFException expected) {
+            assertEquals("event 0\nevent 1\n", out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testMainWritesSegmentsToStandardOutput() throws IOException {
+        Path file = Files.createTempFile("ignite-binary-log", ".ilog");
+        PrintStream standardOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Files.write(file, segment);
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            IgniteBinaryLogDecoder.main(new String[] { "--pattern", "%msg%n", file.toString(), file.toString() });
+        } finally {
+            System.setOut(standardOut);
+            Files.delete(file);
+        }
+        String decoded = out.toString(StandardCharsets.UTF_8);
+        assertTrue(decoded, decoded.startsWith("event 0\nevent 1\nevent 2\nevent 0\n"));
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.ClassicConstants;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteCallerDataConverter and the stack walker based caller data of {@link IgniteCallerData}.
+ *
+ * @see IgniteCallerDataConverter
+ */
+public class TestIgniteCallerDataConverter {
+
+    private static final int MAX_DEPTH = 2;
+
+    /**
+     * Renders the caller data on the logging thread, like a console appender does.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteCallerDataConverter.class, Level.DEBUG,
+            e -> this.callerLines.add(this.converter.convert(e)));
+
+    private LoggerContext context;
+    private Logger logbackLogger;
+    private IgniteLoggerImpl igniteLogger;
+    private IgniteCallerDataConverter converter;
+    private final List<String> callerLines = new ArrayList<>();
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        context = capture.context();
+        logbackLogger = capture.logger();
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteCallerDataConverter.class);
+        converter = new IgniteCallerDataConverter();
+        converter.setContext(context);
+        converter.start();
+    }
+
+    /**
+     * Restores the context defaults.
+     */
+    @After
+    public void tearDown() {
+        context.getFrameworkPackages().clear();
+        context.setMaxCallerDataDepth(ClassicConstants.DEFAULT_MAX_CALLEDER_DATA_DEPTH);
+    }
+
+    @Test
+    public void testCallerIsApplicationFrame() {
+        igniteLogger.info("Caller");
+
+        assertTrue(callerLines.get(0), callerLines.get(0).startsWith(TestIgniteCallerDataConverter.class.getName()
+                + ".testCallerIsApplicationFrame("));
+        StackTraceElement caller = capture.events().get(0).getCallerData()[0];
+        assertEquals(TestIgniteCallerDataConverter.class.getName(), caller.getClassName());
+        assertEquals("testCallerIsApplicationFrame", caller.getMethodName());
+    }
+
+    @Test
+    public void testCallerLineIsCachedPerCallsite() {
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            igniteLogger.info("Caller {}", i);
+        }
+        igniteLogger.info("Other callsite");
+
+        assertSame(callerLines.get(0), callerLines.get(1));
+        assertNotEquals(callerLines.get(0), callerLines.get(MAX_DEPTH));
+    }
+
+    @Test
+    public void testDepthIsBounded() {
+        context.setMaxCallerDataDepth(MAX_DEPTH);
+        igniteLogger.info("Caller");
+
+        assertEquals(MAX_DEPTH, capture.events().get(0).getCallerData().length);
+    }
+
+    @Test
+    public void testFrameworkPackagesAreSkipped() {
+        context.getFrameworkPackages().add(Wrapper.class.getName());
+        new Wrapper().log("Wrapped");
+
+        assertTrue(callerLines.get(0), callerLines.get(0).startsWith(TestIgniteCallerDataConverter.class.getName()
+                + ".testFrameworkPackagesAreSkipped("));
+    }
+
+    @Test
+    public void testEventsNotLoggedThroughIgniteLoggerKeepLogbackCallerData() {
+        logbackLogger.info("Direct");
+
+        assertTrue(callerLines.get(0), callerLines.get(0).startsWith(TestIgniteCallerDataConverter.class.getName()
+                + ".testEventsNotLoggedThroughIgniteLoggerKeepLogbackCallerData("));
+    }
+
+    /**
+     * Pins the caller line of both kinds of events: the frame calling the logger is printed, whether the
+     * logger is a plain SLF4J logger or an IgniteLogger. Plain SLF4J loggers printed the frame calling that
+     * frame before the first frame outside IgniteLoggerImpl was printed.
+     */
+    @Test
+    public void testPlainAndIgniteLoggersPrintFrameCallingTheLogger() {
+        org.slf4j.Logger plainLogger = LoggerFactory.getLogger(TestIgniteCallerDataConverter.class);
+        logThroughHelper(plainLogger, "Plain");
+        logThroughHelper(igniteLogger, "Ignite");
+
+        assertHelperIsCaller(0);
+        assertHelperIsCaller(1);
+    }
+
+    private void assertHelperIsCaller(int index) {
+        StackTraceElement[] callerData = capture.events().get(index).getCallerData();
+        assertEquals("logThroughHelper", callerData[0].getMethodName());
+        assertEquals(callerData[0] + " ", callerLines.get(index));
+        assertEquals("testPlainAndIgniteLoggersPrintFrameCallingTheLogger", callerData[1].getMethodName());
+    }
+
+    private static void logThroughHelper(org.slf4j.Logger plainLogger, String message) {
+        plainLogger.info(message);
+    }
+
+    private static void logThroughHelper(IgniteLogger logger, String message) {
+        logger.info(message);
+    }
+
+    @Test
+    public void testCallerDataIsNotAvailableOffTheLoggingThread() throws InterruptedException {
+        capture.detach();
+        ListAppender<ILoggingEvent> deferred = new ListAppender<>();
+        deferred.setContext(context);
+        deferred.start();
+        logbackLogger.addAppender(deferred);
+        igniteLogger.info("Deferred");
+        logbackLogger.detachAppender(deferred);
+
+        AtomicReference<String> callerLine = new AtomicReference<>();
+        Thread worker = new Thread(() -> callerLine.set(converter.convert(deferred.list.get(0))));
+        worker.start();
+        worker.join();
+        assertEquals(CallerData.CALLER_DATA_NA, callerLine.get());
+    }
+
+    /**
+     * Logging facade of a framework, whose frames are not the caller.
+     */
+    private final class Wrapper {
+        private void log(String message) {
+            igniteLogger.info(message);
+        }
+    }
+}
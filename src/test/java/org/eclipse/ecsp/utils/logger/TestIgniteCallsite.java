@@ -0,0 +1,140 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for IgniteCallsite. The call sites are bootstrapped the way the woven {@code invokedynamic}
+ * instructions bootstrap them.
+ *
+ * @see IgniteCallsite
+ */
+public class TestIgniteCallsite {
+
+    private static final int LINE = 42;
+    private static final String CALLER_LINE = "com.example.SpeedProcessor.process(SpeedProcessor.java:42) ";
+
+    /**
+     * Renders the caller data on the logging thread.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteCallsite.class, Level.DEBUG,
+            e -> this.callerLines.add(this.converter.convert(e)));
+
+    private final List<String> callerLines = new ArrayList<>();
+    private IgniteLogger igniteLogger;
+    private IgniteCallerDataConverter converter;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteCallsite.class);
+        converter = new IgniteCallerDataConverter();
+        converter.setContext(capture.context());
+        converter.start();
+    }
+
+    @Test
+    public void testCallerDataIsTakenFromCallsite() throws Throwable {
+        CallSite callSite = bootstrap("info", String.class);
+        callSite.dynamicInvoker().invoke(igniteLogger, "Speed");
+        callSite.dynamicInvoker().invoke(igniteLogger, "Speed");
+
+        assertEquals(CALLER_LINE, callerLines.get(0));
+        assertEquals(CALLER_LINE, callerLines.get(1));
+        assertEquals(1, capture.events().get(0).getCallerData().length);
+        assertNull(IgniteCallsite.current());
+    }
+
+    @Test
+    public void testVarargsCall() throws Throwable {
+        bootstrap("warn", String.class, Object[].class).dynamicInvoker()
+                .invoke(igniteLogger, "Speed is {}", new Object[] {LINE});
+
+        assertEquals("Speed is 42", capture.events().get(0).getFormattedMessage());
+        assertEquals(CALLER_LINE, callerLines.get(0));
+    }
+
+    @Test
+    public void testUnwovenCallsAreUnaffected() throws Throwable {
+        bootstrap("info", String.class).dynamicInvoker().invoke(igniteLogger, "Woven");
+        igniteLogger.info("Not woven");
+
+        assertEquals(CALLER_LINE, callerLines.get(0));
+        assertEquals(TestIgniteCallsite.class.getName(), capture.events().get(1).getCallerData()[0].getClassName());
+    }
+
+    @Test
+    public void testCallsiteIsClearedWhenTheCallFails() throws Throwable {
+        IgniteLogger failing = Mockito.mock(IgniteLogger.class);
+        Mockito.doThrow(new IllegalStateException("appender failed")).when(failing).error("Speed");
+        try {
+            bootstrap("error", String.class).dynamicInvoker().invoke(failing, "Speed");
+            fail("the failure of the call is propagated");
+        } catch (IllegalStateException expected) {
+            assertNull(IgniteCallsite.current());
+        }
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testUnknownMethodIsRejected() throws Throwable {
+        bootstrap("log", String.class);
+    }
+
+    private static CallSite bootstrap(String name, Class<?>... parameterTypes) throws Throwable {
+        return IgniteCallsite.bootstrap(MethodHandles.lookup(), name,
+                MethodType.methodType(void.class, IgniteLogger.class, parameterTypes),
+                "com.example.SpeedProcessor", "process", "SpeedProcessor.java", LINE);
+    }
+}
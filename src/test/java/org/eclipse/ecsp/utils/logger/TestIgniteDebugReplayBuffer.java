@@ -0,0 +1,173 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteDebugReplayBuffer.
+ *
+ * @see IgniteDebugReplayBuffer
+ */
+public class TestIgniteDebugReplayBuffer {
+
+    private static final int LINES = 3;
+    private static final int LOGGED = 5;
+    private static final long TTL = 60_000L;
+    private static final long SHORT_TTL = 1L;
+    private static final long PAUSE = 20L;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteDebugReplayBuffer.class, Level.INFO);
+
+    private IgniteLogger igniteLogger;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteDebugReplayBuffer.class);
+        IgniteLoggerFactory.setDebugReplay(LINES, TTL);
+    }
+
+    /**
+     * Disables the buffer.
+     */
+    @After
+    public void tearDown() {
+        IgniteLoggerFactory.setDebugReplay(0, IgniteDebugReplayBuffer.DEFAULT_TTL_MILLIS);
+        IgniteLoggerFactory.setEventHeaderMode(null);
+    }
+
+    @Test
+    public void testErrorFlushesTheLastLines() {
+        IgniteEventImpl event = event("request-1");
+        for (int i = 0; i < LOGGED; i++) {
+            igniteLogger.debug(event, "step {}", i);
+        }
+        igniteLogger.info(event, "logged");
+        assertEquals(1, capture.events().size());
+        igniteLogger.error(event, "failed");
+        assertEquals(1 + LINES + 1, capture.events().size());
+        for (int i = 0; i < LINES; i++) {
+            ILoggingEvent flushed = capture.events().get(1 + i);
+            assertEquals(Level.DEBUG, flushed.getLevel());
+            assertTrue(flushed.getFormattedMessage(), flushed.getFormattedMessage()
+                    .endsWith("step " + (LOGGED - LINES + i)));
+            assertTrue(flushed.getFormattedMessage().contains("RequestId:request-1"));
+            assertEquals(Thread.currentThread().getName(), flushed.getThreadName());
+        }
+        assertEquals(Level.ERROR, capture.events().get(LINES + 1).getLevel());
+        assertEquals(0, IgniteDebugReplayBuffer.recordedRequests());
+    }
+
+    @Test
+    public void testCompletedRequestsAreDiscarded() {
+        igniteLogger.trace(event("request-2"), "recorded", new IllegalStateException("trace"));
+        IgniteLoggerFactory.completeRequest("request-2");
+        igniteLogger.error(event("request-2"), "failed");
+        assertEquals(1, capture.events().size());
+    }
+
+    @Test
+    public void testOtherRequestsAreNotFlushed() {
+        igniteLogger.debug(event("request-3"), "recorded");
+        igniteLogger.error(event("request-4"), "failed");
+        assertEquals(1, capture.events().size());
+        assertEquals(1, IgniteDebugReplayBuffer.recordedRequests());
+    }
+
+    @Test
+    public void testSuppliersAreEvaluatedOnFlush() {
+        AtomicInteger evaluated = new AtomicInteger();
+        Supplier<Integer> supplier = evaluated::incrementAndGet;
+        igniteLogger.debug(event("request-5"), "lazy {}", supplier);
+        assertEquals(0, evaluated.get());
+        igniteLogger.error(event("request-5"), "failed", new IllegalStateException("error"));
+        assertEquals(1, evaluated.get());
+        assertTrue(capture.events().get(0).getFormattedMessage().endsWith("lazy 1"));
+    }
+
+    @Test
+    public void testStructuredHeader() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.STRUCTURED);
+        igniteLogger.debug(event("request-6"), "structured {}", 1);
+        igniteLogger.error(event("request-6"), "failed");
+        ILoggingEvent flushed = capture.events().get(0);
+        assertEquals("structured 1", flushed.getFormattedMessage());
+        assertTrue(flushed.getKeyValuePairs().stream().anyMatch(kv -> "request-6".equals(kv.value)));
+    }
+
+    @Test
+    public void testExpiredRequestsAreSwept() throws InterruptedException {
+        IgniteLoggerFactory.setDebugReplay(LINES, SHORT_TTL);
+        igniteLogger.debug(event("request-7"), "expires");
+        Thread.sleep(PAUSE);
+        igniteLogger.debug(event("request-8"), "sweeps");
+        assertEquals(1, IgniteDebugReplayBuffer.recordedRequests());
+    }
+
+    @Test
+    public void testDisabledBufferRecordsNothing() {
+        IgniteLoggerFactory.setDebugReplay(0, TTL);
+        assertEquals(0, IgniteLoggerFactory.getDebugReplayLines());
+        igniteLogger.debug(event("request-9"), "dropped");
+        igniteLogger.error(event("request-9"), "failed");
+        assertEquals(1, capture.events().size());
+        assertEquals(0, IgniteDebugReplayBuffer.recordedRequests());
+    }
+
+    private static IgniteEventImpl event(String requestId) {
+        return EventFixtures.speedEvent("VIN-1", requestId);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.eclipse.ecsp.utils.logger.EventFixtures.speedEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteEventSampler and the sampling of the IgniteEvent scoped statements of IgniteLogger.
+ *
+ * @see IgniteEventSampler
+ */
+public class TestIgniteEventSampler {
+
+    private static final int VEHICLES = 10_000;
+    private static final double RATE = 0.1;
+    private static final double HALF = 0.5;
+    private static final double TOLERANCE = 0.02;
+    private static final int LOGGED = 2;
+    private static final String EVENT_TYPE = EventFixtures.EVENT_ID;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteEventSampler.class, Level.INFO);
+
+    private IgniteLogger igniteLogger;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteEventSampler.class);
+    }
+
+    /**
+     * Restores the sampling rates.
+     */
+    @After
+    public void tearDown() {
+        IgniteLoggerFactory.setSamplingRate(TestIgniteEventSampler.class, 1);
+        IgniteLoggerFactory.removeEventSamplingRate(EVENT_TYPE);
+    }
+
+    @Test
+    public void testSamplesTheRateOfVehicles() {
+        long threshold = IgniteEventSampler.threshold(RATE);
+        int sampled = 0;
+        for (int i = 0; i < VEHICLES; i++) {
+            if (IgniteEventSampler.isSampled(speedEvent("VIN" + i, null), threshold)) {
+                sampled++;
+            }
+        }
+        assertEquals(RATE, (double) sampled / VEHICLES, TOLERANCE);
+    }
+
+    @Test
+    public void testLowerRatesSampleASubset() {
+        long lower = IgniteEventSampler.threshold(RATE);
+        long higher = IgniteEventSampler.threshold(HALF);
+        for (int i = 0; i < VEHICLES; i++) {
+            IgniteEventImpl event = speedEvent("VIN" + i, null);
+            if (IgniteEventSampler.isSampled(event, lower)) {
+                assertTrue(IgniteEventSampler.isSampled(event, higher));
+            }
+        }
+    }
+
+    @Test
+    public void testBoundsAndMissingIds() {
+        assertTrue(IgniteEventSampler.isSampled(speedEvent("VIN", null), IgniteEventSampler.threshold(1)));
+        assertFalse(IgniteEventSampler.isSampled(speedEvent("VIN", null), IgniteEventSampler.threshold(0)));
+        assertTrue(IgniteEventSampler.isSampled(speedEvent(null, null), IgniteEventSampler.threshold(0)));
+        assertTrue(IgniteEventSampler.isSampled(null, IgniteEventSampler.threshold(0)));
+        assertFalse(IgniteEventSampler.isSampled(speedEvent(null, "request"), IgniteEventSampler.threshold(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRatesAboveOne() {
+        IgniteLoggerFactory.setSamplingRate(TestIgniteEventSampler.class, Math.nextUp(1.0));
+    }
+
+    @Test
+    public void testLoggerSamplesOnlyUpToInfo() {
+        IgniteLoggerFactory.setSamplingRate(TestIgniteEventSampler.class, 0);
+        assertEquals(0, IgniteLoggerFactory.getSamplingRate(TestIgniteEventSampler.class), 0);
+        IgniteEventImpl event = speedEvent("VIN", null);
+        igniteLogger.info(event, "sampled out");
+        igniteLogger.info("not event scoped");
+        igniteLogger.warn(event, "always logged");
+        assertEquals(LOGGED, capture.events().size());
+        assertEquals(Level.WARN, capture.events().get(LOGGED - 1).getLevel());
+    }
+
+    @Test
+    public void testEventTypeRateTakesPrecedence() {
+        IgniteLoggerFactory.setSamplingRate(TestIgniteEventSampler.class, 0);
+        IgniteLoggerFactory.setEventSamplingRate(EVENT_TYPE, 1);
+        assertEquals(1, IgniteLoggerFactory.getEventSamplingRate(EVENT_TYPE), 0);
+        IgniteEventImpl event = speedEvent("VIN", null);
+        igniteLogger.info(event, "event type sampled");
+        assertEquals(1, capture.events().size());
+        IgniteLoggerFactory.removeEventSamplingRate(EVENT_TYPE);
+        assertTrue(Double.isNaN(IgniteLoggerFactory.getEventSamplingRate(EVENT_TYPE)));
+        igniteLogger.info(event, "logger rate again");
+        assertEquals(1, capture.events().size());
+    }
+}
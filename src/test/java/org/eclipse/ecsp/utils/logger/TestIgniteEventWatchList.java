@@ -0,0 +1,151 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteEventWatchList and the watched statements of IgniteLogger.
+ *
+ * @see IgniteEventWatchList
+ */
+public class TestIgniteEventWatchList {
+
+    private static final String VEHICLE = "VIN-WATCHED";
+    private static final int WATCHED = 2;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteEventWatchList.class, Level.WARN);
+
+    private IgniteLogger igniteLogger;
+    private final IgniteEventWatchList watchList = IgniteEventWatchList.getInstance();
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteEventWatchList.class);
+    }
+
+    /**
+     * Clears the watch list and the sampling rate.
+     */
+    @After
+    public void tearDown() {
+        watchList.clear();
+        IgniteLoggerFactory.setSamplingRate(TestIgniteEventWatchList.class, 1);
+    }
+
+    @Test
+    public void testWatchedVehicleIsLoggedBelowTheLevel() {
+        IgniteEventImpl event = event(VEHICLE, "request-1", null);
+        igniteLogger.debug(event, "before {}", 1);
+        assertEquals(0, capture.events().size());
+        watchList.watchVehicle(VEHICLE);
+        igniteLogger.debug(event, "watched {}", 1);
+        igniteLogger.trace(event, "traced", new IllegalStateException("failure"));
+        igniteLogger.debug(event("VIN-OTHER", "request-2", null), "not watched");
+        igniteLogger.debug("not event scoped");
+        assertEquals(WATCHED, capture.events().size());
+        ILoggingEvent watched = capture.events().get(0);
+        assertEquals(Level.DEBUG, watched.getLevel());
+        assertTrue(watched.getFormattedMessage(), watched.getFormattedMessage().endsWith("watched 1"));
+        assertEquals(Level.TRACE, capture.events().get(1).getLevel());
+        assertEquals("failure", capture.events().get(1).getThrowableProxy().getMessage());
+        watchList.unwatchVehicle(VEHICLE);
+        igniteLogger.debug(event, "after");
+        assertEquals(WATCHED, capture.events().size());
+    }
+
+    @Test
+    public void testRequestAndCorrelationIds() {
+        watchList.watchRequest("request-3");
+        watchList.watchCorrelation("correlation-4");
+        igniteLogger.info(event(null, "request-3", null), "by request");
+        igniteLogger.info(event(null, null, "correlation-4"), "by correlation");
+        igniteLogger.info(event(null, "request-5", "correlation-5"), "neither");
+        assertEquals(WATCHED, capture.events().size());
+        assertArrayEquals(new String[] { "request-3" }, watchList.getRequestIds());
+        assertArrayEquals(new String[] { "correlation-4" }, watchList.getCorrelationIds());
+    }
+
+    @Test
+    public void testWatchedVehicleBypassesSampling() {
+        capture.logger().setLevel(Level.INFO);
+        IgniteLoggerFactory.setSamplingRate(TestIgniteEventWatchList.class, 0);
+        igniteLogger.info(event(VEHICLE, null, null), "sampled out");
+        watchList.watchVehicle(VEHICLE);
+        igniteLogger.info(event(VEHICLE, null, null), "watched");
+        assertEquals(1, capture.events().size());
+    }
+
+    @Test
+    public void testManagedThroughJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(IgniteEventWatchList.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        server.invoke(name, "watchVehicle", new Object[] { VEHICLE }, new String[] { String.class.getName() });
+        assertArrayEquals(new String[] { VEHICLE }, (String[]) server.getAttribute(name, "VehicleIds"));
+        server.invoke(name, "clear", null, null);
+        assertEquals(0, watchList.getVehicleIds().length);
+    }
+
+    private static IgniteEventImpl event(String vehicleId, String requestId, String correlationId) {
+        IgniteEventImpl event = EventFixtures.speedEvent(vehicleId, requestId);
+        event.setCorrelationId(correlationId);
+        return event;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteJsonEncoder.
+ *
+ * @see IgniteJsonEncoder
+ */
+public class TestIgniteJsonEncoder {
+
+    private static final long TIMESTAMP = EventFixtures.TIMESTAMP;
+    private static final int SPEED = 42;
+    private static final int LONG_MESSAGE_REPEATS = 1000;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteJsonEncoder.class, Level.INFO);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private IgniteLogger igniteLogger;
+    private IgniteJsonEncoder encoder;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteJsonEncoder.class);
+        encoder = new IgniteJsonEncoder();
+        encoder.setContext(capture.context());
+        encoder.start();
+    }
+
+    /**
+     * Restores the header mode and the MDC.
+     */
+    @After
+    public void tearDown() {
+        encoder.stop();
+        IgniteLoggerFactory.setEventHeaderMode(null);
+        MDC.clear();
+    }
+
+    @Test
+    public void testStandardFields() throws IOException {
+        igniteLogger.info("speed {} of {}", SPEED, "VIN-1");
+        ILoggingEvent event = capture.events().get(0);
+        JsonNode json = encode(event);
+        assertEquals(event.getTimeStamp(), json.get(IgniteJsonEncoder.TIMESTAMP).longValue());
+        assertEquals("INFO", json.get(IgniteJsonEncoder.LEVEL).textValue());
+        assertEquals(Thread.currentThread().getName(), json.get(IgniteJsonEncoder.THREAD).textValue());
+        assertEquals(TestIgniteJsonEncoder.class.getName(), json.get(IgniteJsonEncoder.LOGGER).textValue());
+        assertEquals("speed 42 of VIN-1", json.get(IgniteJsonEncoder.MESSAGE).textValue());
+        assertFalse(json.has(IgniteJsonEncoder.EXCEPTION));
+        assertFalse(json.has(IgniteJsonEncoder.MDC));
+        byte[] line = encoder.encode(event);
+        assertEquals('\n', line[line.length - 1]);
+    }
+
+    @Test
+    public void testEscapingAndUnicode() throws IOException {
+        String text = "quote \" backslash \\ tab \t newline \n control \u0001 é€🚗";
+        igniteLogger.info("{}", text);
+        assertEquals(text, encode(capture.events().get(0)).get(IgniteJsonEncoder.MESSAGE).textValue());
+    }
+
+    @Test
+    public void testLongMessageWithSurrogatePairsAndEscapes() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < LONG_MESSAGE_REPEATS; i++) {
+            text.append("a🚗\"é\n");
+        }
+        igniteLogger.info("{}", text);
+        assertEquals(text.toString(), encode(capture.events().get(0)).get(IgniteJsonEncoder.MESSAGE).textValue());
+    }
+
+    @Test
+    public void testUnpairedSurrogateIsReplaced() throws IOException {
+        igniteLogger.info("broken {}", "🚗".substring(0, 1));
+        assertEquals("broken ?", encode(capture.events().get(0)).get(IgniteJsonEncoder.MESSAGE).textValue());
+    }
+
+    @Test
+    public void testPrefixHeaderStaysInMessage() throws IOException {
+        igniteLogger.info(event(), "speed {}", SPEED);
+        JsonNode json = encode(capture.events().get(0));
+        assertTrue(json.get(IgniteJsonEncoder.MESSAGE).textValue().contains("RequestId:request-1"));
+        assertFalse(json.has(IgniteEventHeaderRenderer.REQUEST_ID));
+    }
+
+    @Test
+    public void testStructuredHeaderFieldsAreNative() throws IOException {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.STRUCTURED);
+        igniteLogger.info(event(), "speed {}", SPEED);
+        assertNativeHeader(encode(capture.events().get(0)));
+    }
+
+    @Test
+    public void testDeferredHeaderFieldsAreNative() throws IOException {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        igniteLogger.info(event(), "speed {}", SPEED);
+        assertNativeHeader(encode(capture.events().get(0)));
+    }
+
+    @Test
+    public void testThrowableIsRenderedByTheConverter() throws IOException {
+        igniteLogger.error("failed", new IllegalStateException("boom\tagain"));
+        ILoggingEvent event = capture.events().get(0);
+        String expected = encoder.getThrowableConverter().convert(event);
+        assertTrue(expected.startsWith("java.lang.IllegalStateException: boom"));
+        assertEquals(expected, encode(event).get(IgniteJsonEncoder.EXCEPTION).textValue());
+    }
+
+    @Test
+    public void testMdc() throws IOException {
+        MDC.put("tenant", "t\"1");
+        igniteLogger.info("with mdc");
+        ILoggingEvent event = capture.events().get(0);
+        assertEquals("t\"1", encode(event).get(IgniteJsonEncoder.MDC).get("tenant").textValue());
+        encoder.setIncludeMdc(false);
+        assertFalse(encode(event).has(IgniteJsonEncoder.MDC));
+    }
+
+    @Test
+    public void testNumericKeyValuePairs() throws IOException {
+        LoggingEvent event = new LoggingEvent(TestIgniteJsonEncoder.class.getName(),
+                (Logger) LoggerFactory.getLogger(TestIgniteJsonEncoder.class), Level.INFO, "kvp", null, null);
+        event.addKeyValuePair(new KeyValuePair("min", Long.MIN_VALUE));
+        event.addKeyValuePair(new KeyValuePair("max", Long.MAX_VALUE));
+        event.addKeyValuePair(new KeyValuePair("negative", -SPEED));
+        event.addKeyValuePair(new KeyValuePair("zero", 0));
+        event.addKeyValuePair(new KeyValuePair("flag", true));
+        event.addKeyValuePair(new KeyValuePair("missing", null));
+        JsonNode json = encode(event);
+        assertEquals(Long.MIN_VALUE, json.get("min").longValue());
+        assertEquals(Long.MAX_VALUE, json.get("max").longValue());
+        assertEquals(-SPEED, json.get("negative").intValue());
+        assertEquals(0, json.get("zero").intValue());
+        assertTrue(json.get("flag").booleanValue());
+        assertTrue(json.get("missing").isNull());
+    }
+
+    @Test
+    public void testWriteToMatchesEncode() throws IOException {
+        igniteLogger.info("speed {}", SPEED);
+        ILoggingEvent event = capture.events().get(0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(event, out);
+        assertArrayEquals(encoder.encode(event), out.toByteArray());
+    }
+
+    @Test
+    public void testArgumentEncodingAnotherEvent() throws IOException {
+        igniteLogger.info("inner");
+        ILoggingEvent inner = capture.events().get(0);
+        Object nested = new Object() {
+            @Override
+            public String toString() {
+                return new String(encoder.encode(inner), StandardCharsets.UTF_8).trim();
+            }
+        };
+        igniteLogger.info("outer {}", nested);
+        JsonNode json = encode(capture.events().get(1));
+        String innerLine = json.get(IgniteJsonEncoder.MESSAGE).textValue().substring("outer ".length());
+        assertEquals("inner", mapper.readTree(innerLine).get(IgniteJsonEncoder.MESSAGE).textValue());
+    }
+
+    private JsonNode encode(ILoggingEvent event) throws IOException {
+        return mapper.readTree(encoder.encode(event));
+    }
+
+    private static void assertNativeHeader(JsonNode json) {
+        assertEquals("speed 42", json.get(IgniteJsonEncoder.MESSAGE).textValue());
+        assertEquals(TIMESTAMP, json.get(IgniteEventHeaderRenderer.TIMESTAMP).longValue());
+        assertEquals("request-1", json.get(IgniteEventHeaderRenderer.REQUEST_ID).textValue());
+        assertEquals("VIN-1", json.get(IgniteEventHeaderRenderer.VEHICLE_ID).textValue());
+        assertEquals("Speed", json.get(IgniteEventHeaderRenderer.EVENT_ID).textValue());
+        assertTrue(json.get(IgniteEventHeaderRenderer.MESSAGE_ID).isNull());
+        assertFalse(json.has(IgniteEventHeaderRenderer.CORRELATION_ID));
+    }
+
+    private static IgniteEventImpl event() {
+        return EventFixtures.speedEvent("VIN-1", "request-1");
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the JDK Flight Recorder events of IgniteLoggerImpl.
+ */
+public class TestIgniteLogJfr {
+
+    private static final String REQUEST_ID = "request-1";
+    private static final String VEHICLE_ID = "vehicle-1";
+
+    /**
+     * Folder of the recording dumps.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteLogJfr.class, Level.TRACE);
+
+    private IgniteLoggerImpl igniteLogger;
+    private Recording recording;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteLogJfr.class);
+        recording = new Recording();
+        recording.enable(IgniteLogJfrEvent.NAME);
+    }
+
+    /**
+     * Restores the default levels.
+     */
+    @After
+    public void tearDown() {
+        recording.close();
+        IgniteLoggerFactory.setJfrEventLevels(org.slf4j.event.Level.WARN, org.slf4j.event.Level.ERROR);
+    }
+
+    @Test
+    public void testEventScopedWarnRecorded() throws IOException {
+        IgniteEventImpl event = new IgniteEventImpl();
+        event.setRequestId(REQUEST_ID);
+        event.setVehicleId(VEHICLE_ID);
+        recording.start();
+        igniteLogger.warn(event, "Speed is {}", new IllegalStateException("high"));
+        List<RecordedEvent> recorded = stop();
+        assertEquals(1, recorded.size());
+        RecordedEvent jfrEvent = recorded.get(0);
+        assertEquals("WARN", jfrEvent.getString("level"));
+        assertEquals(TestIgniteLogJfr.class.getName(), jfrEvent.getString("logger"));
+        assertEquals("Speed is {}", jfrEvent.getString("message"));
+        assertEquals(REQUEST_ID, jfrEvent.getString("requestId"));
+        assertEquals(VEHICLE_ID, jfrEvent.getString("vehicleId"));
+        assertEquals(IllegalStateException.class.getName(), jfrEvent.getClass("exception").getName());
+    }
+
+    @Test
+    public void testTrailingThrowableArgumentRecorded() throws IOException {
+        recording.start();
+        igniteLogger.error("Failed {}", "twice", new IllegalArgumentException());
+        List<RecordedEvent> recorded = stop();
+        assertEquals(1, recorded.size());
+        assertEquals("ERROR", recorded.get(0).getString("level"));
+        assertNull(recorded.get(0).getString("requestId"));
+        assertEquals(IllegalArgumentException.class.getName(), recorded.get(0).getClass("exception").getName());
+    }
+
+    @Test
+    public void testLevelsConfigurable() throws IOException {
+        assertFalse(IgniteLogJfr.isEmitted(org.slf4j.event.Level.INFO));
+        recording.start();
+        igniteLogger.info("not recorded");
+        IgniteLoggerFactory.setJfrEventLevels(org.slf4j.event.Level.INFO);
+        igniteLogger.info("recorded");
+        igniteLogger.warn("not recorded any more");
+        List<RecordedEvent> recorded = stop();
+        assertEquals(1, recorded.size());
+        assertEquals("recorded", recorded.get(0).getString("message"));
+    }
+
+    @Test
+    public void testNoEventsWhenDisabled() throws IOException {
+        IgniteLoggerFactory.setJfrEventLevels();
+        recording.start();
+        igniteLogger.error("not recorded");
+        assertTrue(stop().isEmpty());
+        assertEquals(1, capture.events().size());
+    }
+
+    @Test
+    public void testNoEventWithoutRecording() {
+        assertNull(IgniteLogJfr.begin(IgniteLoggerStats.ERROR));
+        igniteLogger.error("logged");
+        assertEquals(1, capture.events().size());
+    }
+
+    private List<RecordedEvent> stop() throws IOException {
+        recording.stop();
+        Path dump = folder.getRoot().toPath().resolve("recording.jfr");
+        recording.dump(dump);
+        return RecordingFile.readAllEvents(dump).stream()
+                .filter(jfrEvent -> jfrEvent.getEventType().getName().equals(IgniteLogJfrEvent.NAME))
+                .toList();
+    }
+}
@@ -44,8 +44,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
+import org.slf4j.event.Level;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.when;
@@ -71,15 +74,20 @@ public class TestIgniteLogger {
         when(logger.isTraceEnabled()).thenReturn(true);
         when(logger.isDebugEnabled()).thenReturn(true);
         when(logger.isInfoEnabled()).thenReturn(true);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        when(logger.isErrorEnabled()).thenReturn(true);
         igniteLogger.setLogger(logger);
     }
 
     @Test
-    public void testIgniteLoggersInMap() {
+    public void testIgniteLoggersInMap() throws InterruptedException {
         Thread igniteEventTh1 = new Thread(new EventLogger1(), "EventLogger1");
         Thread igniteEventTh2 = new Thread(new EventLogger2(), "EventLogger2");
         igniteEventTh1.start();
         igniteEventTh2.start();
+        // the threads log through the mocked logger, which the next test stubs again
+        igniteEventTh1.join();
+        igniteEventTh2.join();
 
         Map<String, IgniteLoggerImpl> igniteLoggersMap = igniteLogger.getIgniteLoggersMap();
         assertEquals(TWO, igniteLoggersMap.size());
@@ -355,4 +363,61 @@ public class TestIgniteLogger {
         igniteLogger.error(igniteEvent, "EXCEPTION", new Exception());
         Mockito.verify(logger).error(Mockito.endsWith("EXCEPTION"), Mockito.<Exception>any());
     }
+
+    @Test
+    public void testInfoWithSuppliers() {
+        igniteLogger.info("Display message as: parameter1={}", () -> "value1");
+        Mockito.verify(logger).info("Display message as: parameter1={}", new Object[] {"value1"});
+    }
+
+    @Test
+    public void testWarnWithIgniteEventNSuppliers() {
+        when(logger.isWarnEnabled()).thenReturn(true);
+        IgniteEvent igniteEvent = Mockito.mock(IgniteEvent.class);
+        igniteLogger.warn(igniteEvent, "Display message as: parameter1={}", () -> "value1");
+        Mockito.verify(logger).warn(ArgumentMatchers.endsWith("Display message as: parameter1={}"),
+                ArgumentMatchers.<Object[]>any());
+    }
+
+    @Test
+    public void testSuppliersNotEvaluatedWhenLevelDisabled() {
+        when(logger.isDebugEnabled()).thenReturn(false);
+        AtomicBoolean evaluated = new AtomicBoolean();
+        IgniteEvent igniteEvent = Mockito.mock(IgniteEvent.class);
+        igniteLogger.debug("Display message as: parameter1={}", () -> evaluated.getAndSet(true));
+        igniteLogger.debug(igniteEvent, "Display message as: parameter1={}", () -> evaluated.getAndSet(true));
+        Assert.assertFalse(evaluated.get());
+        Mockito.verify(logger, Mockito.never()).debug(ArgumentMatchers.anyString(), ArgumentMatchers.<Object[]>any());
+    }
+
+    @Test
+    public void testSupplierDefaultsDelegateToObjectOverloads() {
+        IgniteLogger delegating = Mockito.mock(IgniteLogger.class, Mockito.CALLS_REAL_METHODS);
+        when(delegating.isInfoEnabled()).thenReturn(true);
+        AtomicBoolean evaluated = new AtomicBoolean();
+        delegating.info("Display message as: parameter1={}", () -> "value1");
+        delegating.debug("Display message as: parameter1={}", () -> evaluated.getAndSet(true));
+        Mockito.verify(delegating).info("Display message as: parameter1={}", new Object[] {"value1"});
+        Mockito.verify(delegating, Mockito.never()).debug(ArgumentMatchers.anyString(),
+                ArgumentMatchers.<Object[]>any());
+        Assert.assertFalse(evaluated.get());
+    }
+
+    @Test
+    public void testLimitedDefaultReturnsTheLogger() {
+        IgniteLogger delegating = Mockito.mock(IgniteLogger.class, Mockito.CALLS_REAL_METHODS);
+        Assert.assertSame(delegating, delegating.limited("key", 1));
+    }
+
+    @Test
+    public void testLogBatchDefaultLogsEachEvent() {
+        IgniteLogger delegating = Mockito.mock(IgniteLogger.class, Mockito.CALLS_REAL_METHODS);
+        IgniteEvent first = Mockito.mock(IgniteEvent.class);
+        IgniteEvent second = Mockito.mock(IgniteEvent.class);
+        delegating.logBatch(Level.WARN, List.of(first, second), "Polled event {}", event -> new Object[] {event});
+        delegating.logBatch(Level.INFO, List.of(first), "Polled event", null);
+        Mockito.verify(delegating).warn(first, "Polled event {}", new Object[] {first});
+        Mockito.verify(delegating).warn(second, "Polled event {}", new Object[] {second});
+        Mockito.verify(delegating).info(first, "Polled event", new Object[0]);
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the batch logging API of IgniteLogger.
+ */
+public class TestIgniteLoggerBatch {
+
+    private static final int BATCH = 5;
+    private static final String FORMAT = "Speed of {} is {}";
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteLoggerBatch.class, Level.DEBUG);
+
+    private IgniteLoggerImpl igniteLogger;
+    private List<IgniteEventImpl> events;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteLoggerBatch.class);
+        events = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            events.add(EventFixtures.speedEvent("vehicle-" + i, "request-" + i));
+        }
+    }
+
+    /**
+     * Restores the header mode and the sampling rate.
+     */
+    @After
+    public void tearDown() {
+        IgniteLoggerFactory.setEventHeaderMode(null);
+        igniteLogger.setSamplingRate(1);
+    }
+
+    @Test
+    public void testBatchMatchesSingleStatements() {
+        for (IgniteEventHeaderMode mode : IgniteEventHeaderMode.values()) {
+            IgniteLoggerFactory.setEventHeaderMode(mode);
+            capture.events().clear();
+            for (IgniteEventImpl event : events) {
+                igniteLogger.info(event, FORMAT, event.getVehicleId(), BATCH);
+            }
+            igniteLogger.logBatch(org.slf4j.event.Level.INFO, events, FORMAT,
+                    event -> new Object[] {event.getVehicleId(), BATCH});
+            assertEquals(BATCH + BATCH, capture.events().size());
+            for (int i = 0; i < BATCH; i++) {
+                ILoggingEvent single = capture.events().get(i);
+                ILoggingEvent batched = capture.events().get(BATCH + i);
+                assertEquals(mode.name(), single.getFormattedMessage(), batched.getFormattedMessage());
+                assertEquals(single.getLevel(), batched.getLevel());
+                assertEquals(String.valueOf(single.getKeyValuePairs()), String.valueOf(batched.getKeyValuePairs()));
+            }
+        }
+    }
+
+    @Test
+    public void testDisabledLevelChecksOnce() {
+        AtomicInteger extracted = new AtomicInteger();
+        igniteLogger.logBatch(org.slf4j.event.Level.TRACE, events, FORMAT, event -> {
+            extracted.incrementAndGet();
+            return new Object[] {event.getVehicleId(), BATCH};
+        });
+        assertTrue(capture.events().isEmpty());
+        assertEquals(0, extracted.get());
+    }
+
+    @Test
+    public void testSamplingAppliesBelowWarn() {
+        igniteLogger.setSamplingRate(0);
+        igniteLogger.logBatch(org.slf4j.event.Level.INFO, events, FORMAT, null);
+        assertTrue(capture.events().isEmpty());
+        igniteLogger.logBatch(org.slf4j.event.Level.WARN, events, FORMAT, null);
+        assertEquals(BATCH, capture.events().size());
+    }
+
+    @Test
+    public void testTrailingThrowableArgument() {
+        // a single event, DuplicateExceptionFilter denies the same exception logged again right after
+        igniteLogger.logBatch(org.slf4j.event.Level.ERROR, events.subList(0, 1), "Failed for {}",
+                event -> new Object[] {event.getVehicleId(), new IllegalStateException(event.getRequestId())});
+        assertEquals(1, capture.events().size());
+        assertNotNull(capture.events().get(0).getThrowableProxy());
+        assertEquals("request-0", capture.events().get(0).getThrowableProxy().getMessage());
+        assertEquals("Failed for vehicle-0", capture.events().get(0).getFormattedMessage().substring(
+                capture.events().get(0).getFormattedMessage().indexOf("Failed")));
+    }
+
+    @Test
+    public void testBatchThroughAsyncAppender() {
+        LoggerContext context = capture.context();
+        ListAppender<ILoggingEvent> downstream = new ListAppender<>();
+        downstream.setContext(context);
+        downstream.start();
+        IgniteAsyncAppender asyncAppender = new IgniteAsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName("ASYNC-BATCH");
+        asyncAppender.addAppender(downstream);
+        asyncAppender.start();
+        capture.logger().addAppender(asyncAppender);
+        try {
+            igniteLogger.logBatch(org.slf4j.event.Level.INFO, events, FORMAT,
+                    event -> new Object[] {event.getVehicleId(), BATCH});
+        } finally {
+            capture.logger().detachAppender(asyncAppender);
+            asyncAppender.stop();
+        }
+        assertEquals(BATCH, downstream.list.size());
+        for (int i = 0; i < BATCH; i++) {
+            assertTrue(downstream.list.get(i).getFormattedMessage().endsWith("Speed of vehicle-" + i + " is " + BATCH));
+        }
+    }
+
+    @Test
+    public void testRateLimitedBatch() {
+        igniteLogger.limited("batch", 1).logBatch(org.slf4j.event.Level.WARN, events, FORMAT, null);
+        assertEquals(1, capture.events().size());
+    }
+
+    @Test
+    public void testStatisticsCountStatements() {
+        IgniteLoggerStats.configure(true, 1);
+        try {
+            long before = igniteLogger.getStats().volume().getEvents();
+            igniteLogger.logBatch(org.slf4j.event.Level.INFO, events, FORMAT, null);
+            assertEquals(before + BATCH, igniteLogger.getStats().volume().getEvents());
+        } finally {
+            IgniteLoggerStats.configure(false, IgniteLoggerStats.DEFAULT_SAMPLE_INTERVAL);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteLogger with {@link IgniteEventHeaderMode#DEFERRED} header mode.
+ */
+public class TestIgniteLoggerDeferred {
+
+    private static final int SPEED = 42;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteLoggerDeferred.class, Level.DEBUG);
+
+    private IgniteLoggerImpl igniteLogger;
+    private IgniteEventImpl event;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteLoggerDeferred.class);
+        event = EventFixtures.speedEvent("vehicle-1", "request-1");
+        event.setCorrelationId("correlation-1");
+    }
+
+    /**
+     * Restores the default header mode.
+     */
+    @After
+    public void tearDown() {
+        IgniteLoggerFactory.setEventHeaderMode(null);
+    }
+
+    @Test
+    public void testLineMatchesPrefixMode() {
+        for (IgniteEventHeaderMode mode : new IgniteEventHeaderMode[] {IgniteEventHeaderMode.PREFIX,
+            IgniteEventHeaderMode.DEFERRED}) {
+            IgniteLoggerFactory.setEventHeaderMode(mode);
+            igniteLogger.info(event, "Speed is {} on {}", SPEED, "lane-1");
+        }
+        assertEquals(capture.events().get(0).getFormattedMessage(), capture.events().get(1).getFormattedMessage());
+
+        capture.events().clear();
+        for (IgniteEventHeaderMode mode : new IgniteEventHeaderMode[] {IgniteEventHeaderMode.PREFIX,
+            IgniteEventHeaderMode.DEFERRED}) {
+            IgniteLoggerFactory.setEventHeaderMode(mode);
+            igniteLogger.warn(event, "No arguments");
+        }
+        assertEquals(capture.events().get(0).getFormattedMessage(), capture.events().get(1).getFormattedMessage());
+    }
+
+    @Test
+    public void testThrowableIsKept() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.PREFIX);
+        igniteLogger.error(event, "Failed", new IllegalStateException("boom"));
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        // another exception type, DuplicateExceptionFilter would suppress the same one
+        igniteLogger.error(event, "Failed", new IllegalArgumentException("boom"));
+
+        ILoggingEvent deferred = capture.events().get(1);
+        assertEquals(capture.events().get(0).getFormattedMessage(), deferred.getFormattedMessage());
+        assertNotNull(deferred.getThrowableProxy());
+        assertEquals("boom", deferred.getThrowableProxy().getMessage());
+    }
+
+    @Test
+    public void testDelimiterInMessageDoesNotTakeTheThrowable() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.PREFIX);
+        igniteLogger.error(event, "bad {} value \\{}", new ArithmeticException("boom"));
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        // another exception type, DuplicateExceptionFilter would suppress the same one
+        igniteLogger.error(event, "bad {} value \\{}", new UnsupportedOperationException("boom"));
+
+        ILoggingEvent deferred = capture.events().get(1);
+        assertTrue(deferred.getFormattedMessage(), deferred.getFormattedMessage().endsWith("bad {} value \\{}"));
+        assertEquals(capture.events().get(0).getFormattedMessage(), deferred.getFormattedMessage());
+        assertNotNull(deferred.getThrowableProxy());
+        assertEquals(UnsupportedOperationException.class.getName(), deferred.getThrowableProxy().getClassName());
+        StringBuilder message = new StringBuilder();
+        IgniteEventHeaderRenderer.appendDeferredMessage(message, deferred.getMessage(), deferred.getArgumentArray());
+        assertEquals("bad {} value \\{}", message.toString());
+    }
+
+    @Test
+    public void testHeaderIsNotRenderedOnLoggingThread() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        igniteLogger.debug(event, "Speed is {}", SPEED);
+
+        ILoggingEvent logged = capture.events().get(0);
+        assertEquals("{} ,message:Speed is {}", logged.getMessage());
+        assertTrue(logged.getArgumentArray()[0] instanceof IgniteEventHeader);
+        assertEquals(SPEED, logged.getArgumentArray()[1]);
+    }
+
+    @Test
+    public void testHeaderIsCapturedAtCallTime() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.DEFERRED);
+        igniteLogger.info(event, "Speed is {}", SPEED);
+        event.setRequestId("request-2");
+
+        assertTrue(capture.events().get(0).getFormattedMessage().contains("RequestId:request-1 ,"));
+    }
+}
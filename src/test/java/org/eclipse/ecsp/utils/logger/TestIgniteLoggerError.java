@@ -74,6 +74,6 @@ public class TestIgniteLoggerError {
     public void testIgniteLoggersWhenErrorDisabled() {
         when(logger.isErrorEnabled()).thenReturn(false);
         igniteLogger.error("ErrorWithMsg");
-        Mockito.verify(logger, new Times(1)).error("ErrorWithMsg");
+        Mockito.verify(logger, new Times(0)).error("ErrorWithMsg");
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.spi.ConfigurationEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Marker;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the effective level cached by IgniteLoggerImpl.
+ */
+public class TestIgniteLoggerLevelListener {
+
+    /**
+     * Captures the statements of the logger under test, which inherits its level.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteLoggerLevelListener.class, null);
+
+    private IgniteLoggerImpl igniteLogger;
+    private LoggerContext context;
+    private Logger logbackLogger;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteLoggerLevelListener.class);
+        context = capture.context();
+        logbackLogger = capture.logger();
+    }
+
+    @Test
+    public void testThresholdFollowsLevelChanges() {
+        logbackLogger.setLevel(Level.ERROR);
+        assertEquals(Level.ERROR_INT, igniteLogger.getThreshold());
+        assertFalse(igniteLogger.isWarnEnabled());
+        igniteLogger.warn(new IgniteEventImpl(), "Speed is {}", "high");
+        assertTrue(capture.events().isEmpty());
+
+        logbackLogger.setLevel(Level.DEBUG);
+        assertEquals(Level.DEBUG_INT, igniteLogger.getThreshold());
+        igniteLogger.warn(new IgniteEventImpl(), "Speed is {}", "high");
+        assertEquals(1, capture.events().size());
+    }
+
+    @Test
+    public void testThresholdFollowsParentLevel() {
+        Logger parent = context.getLogger(TestIgniteLoggerLevelListener.class.getPackageName());
+        Level previous = parent.getLevel();
+        try {
+            parent.setLevel(Level.WARN);
+            assertEquals(Level.WARN_INT, igniteLogger.getThreshold());
+            assertFalse(igniteLogger.isInfoEnabled());
+            assertTrue(igniteLogger.isWarnEnabled());
+        } finally {
+            parent.setLevel(previous);
+        }
+    }
+
+    @Test
+    public void testReconfigurationPassesThrough() {
+        logbackLogger.setLevel(Level.ERROR);
+        context.fireConfigurationEvent(ConfigurationEvent.newConfigurationStartedEvent(this));
+        assertEquals(IgniteLoggerImpl.PASS_THROUGH, igniteLogger.getThreshold());
+        context.fireConfigurationEvent(ConfigurationEvent.newConfigurationEndedEvent(this));
+        assertEquals(Level.ERROR_INT, igniteLogger.getThreshold());
+    }
+
+    @Test
+    public void testLevelChangeDuringReconfigurationPassesThrough() {
+        logbackLogger.setLevel(Level.ERROR);
+        context.fireConfigurationEvent(ConfigurationEvent.newConfigurationStartedEvent(this));
+        try {
+            logbackLogger.setLevel(Level.WARN);
+            assertEquals(IgniteLoggerImpl.PASS_THROUGH, igniteLogger.getThreshold());
+        } finally {
+            context.fireConfigurationEvent(ConfigurationEvent.newConfigurationEndedEvent(this));
+        }
+        assertEquals(Level.WARN_INT, igniteLogger.getThreshold());
+    }
+
+    @Test
+    public void testFailedConfigurationEndsPassThrough() {
+        logbackLogger.setLevel(Level.ERROR);
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        try {
+            configurator.doConfigure(new ByteArrayInputStream("<configuration><logger"
+                    .getBytes(StandardCharsets.UTF_8)));
+            fail("malformed configuration was accepted");
+        } catch (JoranException expected) {
+            assertEquals(Level.ERROR_INT, igniteLogger.getThreshold());
+        }
+    }
+
+    @Test
+    public void testResetEndsConfiguration() {
+        logbackLogger.setLevel(Level.ERROR);
+        context.fireConfigurationEvent(ConfigurationEvent.newConfigurationStartedEvent(this));
+        IgniteLoggerImpl.reset();
+        assertEquals(IgniteLoggerImpl.PASS_THROUGH, igniteLogger.getThreshold());
+        logbackLogger.setLevel(Level.WARN);
+        assertEquals(Level.WARN_INT, igniteLogger.getThreshold());
+    }
+
+    @Test
+    public void testProgrammaticTurboFilterIsNoticed() {
+        logbackLogger.setLevel(Level.ERROR);
+        assertEquals(Level.ERROR_INT, igniteLogger.getThreshold());
+        TurboFilter acceptAll = new TurboFilter() {
+            @Override
+            public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                                      Object[] params, Throwable t) {
+                return FilterReply.ACCEPT;
+            }
+        };
+        acceptAll.start();
+        context.addTurboFilter(acceptAll);
+        try {
+            assertTrue(igniteLogger.isDebugEnabled());
+            assertEquals(IgniteLoggerImpl.PASS_THROUGH, igniteLogger.getThreshold());
+        } finally {
+            context.getTurboFilterList().remove(acceptAll);
+            igniteLogger.refreshThreshold();
+        }
+    }
+
+    @Test
+    public void testAcceptingTurboFilterPassesThrough() {
+        TurboFilter acceptAll = new TurboFilter() {
+            @Override
+            public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                                      Object[] params, Throwable t) {
+                return FilterReply.ACCEPT;
+            }
+        };
+        acceptAll.start();
+        context.addTurboFilter(acceptAll);
+        try {
+            logbackLogger.setLevel(Level.ERROR);
+            assertEquals(IgniteLoggerImpl.PASS_THROUGH, igniteLogger.getThreshold());
+            igniteLogger.debug("accepted by the turbo filter");
+            assertEquals(1, capture.events().size());
+        } finally {
+            context.getTurboFilterList().remove(acceptAll);
+            igniteLogger.refreshThreshold();
+        }
+    }
+
+    @Test
+    public void testNonLogbackLoggerPassesThrough() {
+        org.slf4j.Logger logger = Mockito.mock(org.slf4j.Logger.class);
+        IgniteLoggerImpl other = IgniteLoggerImpl.getIgniteLoggerImplInstance(EventLogger1.class);
+        other.setLogger(logger);
+        assertEquals(IgniteLoggerImpl.PASS_THROUGH, other.getThreshold());
+    }
+}
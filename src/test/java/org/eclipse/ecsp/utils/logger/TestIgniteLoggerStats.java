@@ -0,0 +1,203 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import io.prometheus.client.CollectorRegistry;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the log volume and logging cost statistics of IgniteLoggerImpl.
+ */
+public class TestIgniteLoggerStats {
+
+    private static final int NOISY_STATEMENTS = 5;
+    private static final int REQUESTED_INTERVAL = 100;
+    private static final int ROUNDED_INTERVAL = 128;
+    private static final String[] LABELS = {"logger", "level"};
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteLoggerStats.class, Level.TRACE);
+
+    /**
+     * Captures the statements of the noisy logger.
+     */
+    @Rule
+    public LogCapture noisyCapture = new LogCapture(Noisy.class, Level.TRACE);
+
+    private IgniteLoggerImpl igniteLogger;
+    private IgniteLoggerImpl noisyLogger;
+    private Logger logbackLogger;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteLoggerStats.class);
+        noisyLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(Noisy.class);
+        logbackLogger = capture.logger();
+        IgniteLoggerStats.configure(true, 1);
+    }
+
+    /**
+     * Disables the statistics.
+     */
+    @After
+    public void tearDown() {
+        IgniteLoggerStats.configure(false, IgniteLoggerStats.DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    @Test
+    public void testStatementsCounted() {
+        final long before = igniteLogger.getStats().volume().getEvents();
+        igniteLogger.trace("trace");
+        igniteLogger.debug("debug {}", "argument");
+        igniteLogger.info("info", new IllegalStateException());
+        igniteLogger.warn(new IgniteEventImpl(), "warn");
+        igniteLogger.error(new IgniteEventImpl(), "error {}", () -> "supplied");
+        assertEquals(NOISY_STATEMENTS, capture.events().size());
+        assertEquals(before + NOISY_STATEMENTS, igniteLogger.getStats().volume().getEvents());
+    }
+
+    @Test
+    public void testDisabledLevelsAndStatisticsNotCounted() {
+        final long before = igniteLogger.getStats().volume().getEvents();
+        logbackLogger.setLevel(Level.WARN);
+        igniteLogger.info("skipped");
+        IgniteLoggerStats.configure(false, 1);
+        igniteLogger.warn("not counted");
+        assertEquals(1, capture.events().size());
+        assertEquals(before, igniteLogger.getStats().volume().getEvents());
+    }
+
+    @Test
+    public void testEncodedBytesCounted() {
+        IgniteJsonEncoder encoder = new IgniteJsonEncoder();
+        encoder.setContext(logbackLogger.getLoggerContext());
+        encoder.start();
+        long before = igniteLogger.getStats().volume().getBytes();
+        byte[] encoded = encoder.encode(new LoggingEvent(TestIgniteLoggerStats.class.getName(), logbackLogger,
+                Level.INFO, "encoded", null, null));
+        assertEquals(before + encoded.length, igniteLogger.getStats().volume().getBytes());
+    }
+
+    @Test
+    public void testNoisiestLoggersReport() {
+        igniteLogger.info("quiet");
+        long target = igniteLogger.getStats().volume().getEvents() + NOISY_STATEMENTS;
+        while (noisyLogger.getStats().volume().getEvents() < target) {
+            noisyLogger.info("noisy");
+        }
+        List<IgniteLoggerVolume> noisiest = IgniteLoggerFactory.getNoisiestLoggers(Integer.MAX_VALUE);
+        int noisy = indexOf(noisiest, Noisy.class.getName());
+        int quiet = indexOf(noisiest, TestIgniteLoggerStats.class.getName());
+        assertTrue(noisy >= 0 && noisy < quiet);
+        assertEquals(1, IgniteLoggerFactory.getNoisiestLoggers(1).size());
+        assertTrue(noisiest.get(0).getEvents() >= noisiest.get(noisiest.size() - 1).getEvents());
+    }
+
+    @Test
+    public void testMetricsPublished() {
+        IgniteLoggerStats.publishAll();
+        Double published = eventsMetric();
+        double before = published == null ? 0 : published;
+        igniteLogger.warn("published");
+        IgniteLoggerStats.publishAll();
+        assertEquals(before + 1, eventsMetric(), 0);
+
+        // the histogram child exists once the level has been published, every call is timed
+        Double timed = latencyCount();
+        double timedBefore = timed == null ? 0 : timed;
+        igniteLogger.warn("timed");
+        assertEquals(timedBefore + 1, latencyCount(), 0);
+    }
+
+    @Test
+    public void testSampleInterval() {
+        IgniteLoggerFactory.setLoggerStats(true, REQUESTED_INTERVAL);
+        assertTrue(IgniteLoggerFactory.isLoggerStatsEnabled());
+        assertEquals(ROUNDED_INTERVAL, IgniteLoggerStats.getSampleInterval());
+        IgniteLoggerFactory.setLoggerStats(false, 1);
+        assertEquals(IgniteLoggerStats.NOT_TIMED, noisyLogger.getStats().enter(IgniteLoggerStats.INFO));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSampleInterval() {
+        IgniteLoggerFactory.setLoggerStats(true, 0);
+    }
+
+    @Test
+    public void testOtherLoggersIgnored() {
+        assertNull(IgniteLoggerImpl.statsOf("not.an.ignite.logger"));
+    }
+
+    private static int indexOf(List<IgniteLoggerVolume> volumes, String loggerName) {
+        return volumes.stream().map(IgniteLoggerVolume::getLoggerName).toList().indexOf(loggerName);
+    }
+
+    private static Double eventsMetric() {
+        return CollectorRegistry.defaultRegistry.getSampleValue(IgniteLoggerStatsMetrics.EVENTS, LABELS,
+                new String[] {TestIgniteLoggerStats.class.getName(), "WARN"});
+    }
+
+    private static Double latencyCount() {
+        return CollectorRegistry.defaultRegistry.getSampleValue(IgniteLoggerStatsMetrics.CALL_LATENCY + "_count",
+                LABELS, new String[] {TestIgniteLoggerStats.class.getName(), "WARN"});
+    }
+
+    /**
+     * Class of a second logger.
+     */
+    private static final class Noisy {
+    }
+}
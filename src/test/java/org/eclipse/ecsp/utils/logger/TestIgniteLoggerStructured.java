@@ -0,0 +1,170 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteLogger with {@link IgniteEventHeaderMode#STRUCTURED} header mode.
+ */
+public class TestIgniteLoggerStructured {
+
+    private static final int SPEED = 42;
+
+    /**
+     * Extracts the caller data on the logging thread, like an async appender would.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteLoggerStructured.class, Level.DEBUG,
+            ILoggingEvent::getCallerData);
+
+    private IgniteLoggerImpl igniteLogger;
+    private IgniteEventImpl event;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteLoggerStructured.class);
+        event = EventFixtures.speedEvent("vehicle-1", "request-1");
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.STRUCTURED);
+    }
+
+    /**
+     * Restores the default header mode.
+     */
+    @After
+    public void tearDown() {
+        IgniteLoggerFactory.setEventHeaderMode(null);
+    }
+
+    @Test
+    public void testFormatIsLeftUntouched() {
+        igniteLogger.info(event, "Speed is {}", SPEED);
+
+        ILoggingEvent loggingEvent = capture.events().get(0);
+        assertEquals("Speed is {}", loggingEvent.getMessage());
+        assertEquals("Speed is 42", loggingEvent.getFormattedMessage());
+    }
+
+    @Test
+    public void testHeaderFieldsAreKeyValuePairs() {
+        igniteLogger.debug(event, "Debug message");
+
+        Map<String, Object> keyValues = toMap(capture.events().get(0).getKeyValuePairs());
+        assertEquals(EventFixtures.TIMESTAMP, keyValues.get("Timestamp"));
+        assertEquals("request-1", keyValues.get("RequestId"));
+        assertEquals("vehicle-1", keyValues.get("VehicleID"));
+        assertEquals("Speed", keyValues.get("EventID"));
+        assertEquals(Version.V1_0, keyValues.get("Version"));
+        assertTrue(keyValues.containsKey("MessageId"));
+        assertNull(keyValues.get("CorrelationId"));
+    }
+
+    @Test
+    public void testThrowableIsAttached() {
+        igniteLogger.error(event, "Failed", new IllegalStateException("boom"));
+
+        ILoggingEvent loggingEvent = capture.events().get(0);
+        assertEquals("Failed", loggingEvent.getMessage());
+        assertEquals(IllegalStateException.class.getName(), loggingEvent.getThrowableProxy().getClassName());
+    }
+
+    @Test
+    public void testDisabledLevelIsNotLogged() {
+        igniteLogger.trace(event, "Trace message");
+        assertTrue(capture.events().isEmpty());
+    }
+
+    @Test
+    public void testCallerDataPointsToApplicationFrame() {
+        igniteLogger.info(event, "Caller");
+
+        IgniteCallerDataConverter converter = new IgniteCallerDataConverter();
+        converter.start();
+        String callerData = converter.convert(capture.events().get(0));
+        assertTrue(callerData, callerData.startsWith(TestIgniteLoggerStructured.class.getName()
+                + ".testCallerDataPointsToApplicationFrame"));
+    }
+
+    @Test
+    public void testPrefixModeCallerDataPointsToApplicationFrame() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.PREFIX);
+        igniteLogger.info(event, "Caller");
+
+        IgniteCallerDataConverter converter = new IgniteCallerDataConverter();
+        converter.start();
+        String callerData = converter.convert(capture.events().get(0));
+        assertTrue(callerData, callerData.startsWith(TestIgniteLoggerStructured.class.getName()
+                + ".testPrefixModeCallerDataPointsToApplicationFrame"));
+    }
+
+    @Test
+    public void testPrefixModeRendersHeaderIntoMessage() {
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.PREFIX);
+        igniteLogger.info(event, "Speed is {}", SPEED);
+
+        ILoggingEvent loggingEvent = capture.events().get(0);
+        assertTrue(loggingEvent.getMessage()
+                .startsWith("Timestamp:" + EventFixtures.TIMESTAMP + " , RequestId:request-1"));
+        assertTrue(loggingEvent.getFormattedMessage().endsWith(",message:Speed is 42"));
+        assertNull(loggingEvent.getKeyValuePairs());
+    }
+
+    private static Map<String, Object> toMap(List<KeyValuePair> keyValuePairs) {
+        Map<String, Object> keyValues = new HashMap<>();
+        keyValuePairs.forEach(kv -> keyValues.put(kv.key, kv.value));
+        return keyValues;
+    }
+}
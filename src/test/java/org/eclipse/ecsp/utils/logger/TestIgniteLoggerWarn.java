@@ -76,6 +76,6 @@ public class TestIgniteLoggerWarn {
     public void testIgniteLoggersWhenWarnDisabled() {
         when(logger.isWarnEnabled()).thenReturn(false);
         igniteLogger.warn("WarnWithMsg");
-        Mockito.verify(logger, new Times(1)).warn("WarnWithMsg");
+        Mockito.verify(logger, new Times(0)).warn("WarnWithMsg");
     }
 }
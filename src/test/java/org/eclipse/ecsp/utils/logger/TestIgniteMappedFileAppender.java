@@ -0,0 +1,404 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for IgniteMappedFileAppender.
+ *
+ * @see IgniteMappedFileAppender
+ */
+public class TestIgniteMappedFileAppender {
+
+    private static final long SEGMENT_SIZE = 1024L;
+    private static final int EVENTS = 200;
+    private static final int MAX_SEGMENTS = 2;
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 2_000;
+    private static final long FORCE_INTERVAL_MILLIS = 5L;
+    private static final int OVERSIZED_MESSAGE_LENGTH = 3_000;
+    private static final int CRASH_PADDING = 100_000;
+    private static final long CRASHED_SEGMENT = 7L;
+    private static final long RESTARTED_SEGMENT = 9L;
+    private static final int SMALLEST = 9;
+    private static final long AWAIT_MILLIS = 10_000L;
+    private static final long POLL_MILLIS = 10L;
+
+    /**
+     * Captures the statements of the logger under test.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteMappedFileAppender.class, Level.INFO);
+
+    private IgniteLogger igniteLogger;
+    private Logger logbackLogger;
+    private IgniteMappedFileAppender mappedAppender;
+    private Path directory;
+    private LoggerContext context;
+
+    /**
+     * Setup method.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("ignite-mapped-log");
+        igniteLogger = IgniteLoggerFactory.getLogger(TestIgniteMappedFileAppender.class);
+        context = capture.context();
+        logbackLogger = capture.logger();
+        mappedAppender = new IgniteMappedFileAppender();
+        mappedAppender.setContext(context);
+        mappedAppender.setName("mapped");
+        mappedAppender.setFile(directory.resolve("app.log").toString());
+        mappedAppender.setEncoder(IgniteBinaryLogDecoder.patternEncoder(context, "%msg%n"));
+    }
+
+    /**
+     * Detaches the mapped appender and deletes the segments.
+     *
+     * @throws IOException if a segment cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        logbackLogger.detachAppender(mappedAppender);
+        mappedAppender.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testWritesEncodedEventsWithThrowables() throws IOException {
+        Encoder<ILoggingEvent> encoder = IgniteBinaryLogDecoder.patternEncoder(context,
+                IgniteBinaryLogDecoder.DEFAULT_PATTERN);
+        mappedAppender.setEncoder(encoder);
+        startMappedAppender();
+        igniteLogger.info("first {}", 1);
+        igniteLogger.error("failed", ThrowableFixtures.streamProcessingFailure("boom"));
+        mappedAppender.stop();
+
+        StringBuilder expected = new StringBuilder();
+        for (ILoggingEvent event : capture.events()) {
+            expected.append(new String(encoder.encode(event), StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("app.log.1.gz"), fileNames());
+        assertEquals(expected.toString(), readSegments());
+    }
+
+    @Test
+    public void testWritesJson() throws IOException {
+        IgniteJsonEncoder encoder = new IgniteJsonEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        mappedAppender.setEncoder(encoder);
+        mappedAppender.setCompress(false);
+        startMappedAppender();
+        igniteLogger.info("speed {}", EVENTS);
+        mappedAppender.stop();
+
+        JsonNode line = new ObjectMapper().readTree(Files.readString(directory.resolve("app.log.1")));
+        assertEquals("speed " + EVENTS, line.get("message").asText());
+    }
+
+    @Test
+    public void testSegmentsRollAndAreCompressed() throws IOException {
+        mappedAppender.setSegmentSize(new FileSize(SEGMENT_SIZE));
+        mappedAppender.setMaxSegments(EVENTS);
+        startMappedAppender();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < EVENTS; i++) {
+            igniteLogger.info("event {}", i);
+            expected.append("event ").append(i).append('\n');
+        }
+        mappedAppender.stop();
+
+        List<String> names = fileNames();
+        assertTrue(names.size() > 1);
+        assertTrue(names.stream().allMatch(name -> name.endsWith(IgniteGzipCodec.EXTENSION)));
+        assertEquals(expected.toString(), readSegments());
+    }
+
+    @Test
+    public void testOldSegmentsAreDeleted() throws IOException {
+        mappedAppender.setSegmentSize(new FileSize(SEGMENT_SIZE));
+        mappedAppender.setMaxSegments(MAX_SEGMENTS);
+        mappedAppender.setCompress(false);
+        startMappedAppender();
+        for (int i = 0; i < EVENTS; i++) {
+            igniteLogger.info("event {}", i);
+        }
+        mappedAppender.stop();
+
+        List<String> names = fileNames();
+        assertEquals(MAX_SEGMENTS, names.size());
+        assertTrue(readSegments().endsWith("event " + (EVENTS - 1) + "\n"));
+    }
+
+    @Test
+    public void testCodecIsPluggable() throws IOException {
+        IgniteDeflateCodec codec = new IgniteDeflateCodec();
+        codec.setLevel(SMALLEST);
+        mappedAppender.setCodec(codec);
+        mappedAppender.setSegmentSize(new FileSize(SEGMENT_SIZE));
+        mappedAppender.setMaxSegments(EVENTS);
+        startMappedAppender();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < EVENTS; i++) {
+            igniteLogger.info("event {}", i);
+            expected.append("event ").append(i).append('\n');
+        }
+        mappedAppender.stop();
+
+        assertTrue(fileNames().stream().allMatch(name -> name.endsWith(IgniteDeflateCodec.EXTENSION)));
+        assertEquals(expected.toString(), readSegments());
+    }
+
+    @Test
+    public void testInvalidCompressionLevelIsRejected() {
+        try {
+            new IgniteGzipCodec().setLevel(SMALLEST + 1);
+            fail("Expected the level to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("level"));
+        }
+    }
+
+    @Test
+    public void testCompressionIsPublished() throws Exception {
+        mappedAppender.setName("mapped-metrics");
+        mappedAppender.setSegmentSize(new FileSize(SEGMENT_SIZE));
+        mappedAppender.setMaxSegments(EVENTS);
+        mappedAppender.setCompressionJitter(Duration.buildByMilliseconds(0));
+        startMappedAppender();
+        for (int i = 0; i < EVENTS; i++) {
+            igniteLogger.info("event {}", i);
+        }
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (gauge(IgniteMappedFileAppenderMetrics.COMPRESSION_RATIO) == null
+                || gauge(IgniteMappedFileAppenderMetrics.COMPRESSION_BACKLOG) > 0) {
+            assertTrue("Segments were not compressed in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(POLL_MILLIS);
+        }
+        assertTrue(fileNames().stream().anyMatch(name -> name.endsWith(IgniteGzipCodec.EXTENSION)));
+        assertTrue(gauge(IgniteMappedFileAppenderMetrics.COMPRESSION_RATIO) > 1);
+        assertTrue(gauge(IgniteMappedFileAppenderMetrics.COMPRESSED_BYTES) < SEGMENT_SIZE);
+    }
+
+    @Test
+    public void testConcurrentWritersLoseNothing() throws Exception {
+        mappedAppender.setSegmentSize(new FileSize(SEGMENT_SIZE));
+        mappedAppender.setMaxSegments(Integer.MAX_VALUE);
+        mappedAppender.setForceInterval(Duration.buildByMilliseconds(FORCE_INTERVAL_MILLIS));
+        capture.detach();
+        startMappedAppender();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    igniteLogger.info("thread {} event {}", thread, i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        mappedAppender.stop();
+
+        String[] lines = readSegments().split("\n");
+        assertEquals(THREADS * EVENTS_PER_THREAD, lines.length);
+        Set<String> unique = new HashSet<>(List.of(lines));
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                assertTrue(unique.contains("thread " + t + " event " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testEventLargerThanASegmentGetsItsOwn() throws IOException {
+        mappedAppender.setSegmentSize(new FileSize(SEGMENT_SIZE));
+        mappedAppender.setCompress(false);
+        startMappedAppender();
+        String oversized = "x".repeat(OVERSIZED_MESSAGE_LENGTH);
+        igniteLogger.info("before");
+        igniteLogger.info(oversized);
+        igniteLogger.info("after");
+        mappedAppender.stop();
+
+        assertEquals(List.of("app.log.1", "app.log.2", "app.log.3"), fileNames());
+        assertEquals(oversized + "\n", Files.readString(directory.resolve("app.log.2")));
+        assertEquals("before\n" + oversized + "\nafter\n", readSegments());
+    }
+
+    @Test
+    public void testSegmentLeftByACrashIsTrimmed() throws IOException {
+        Path crashed = directory.resolve("app.log." + CRASHED_SEGMENT);
+        byte[] content = new byte[CRASH_PADDING];
+        byte[] written = "before crash\n".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(written, 0, content, 0, written.length);
+        Files.write(crashed, content);
+        Files.write(directory.resolve("app.log." + (CRASHED_SEGMENT + 1)), new byte[CRASH_PADDING]);
+        mappedAppender.setCompress(false);
+        startMappedAppender();
+        igniteLogger.info("after restart");
+        mappedAppender.stop();
+
+        assertEquals(List.of("app.log." + CRASHED_SEGMENT, "app.log." + RESTARTED_SEGMENT), fileNames());
+        assertEquals("before crash\nafter restart\n", readSegments());
+    }
+
+    @Test
+    public void testBinaryEncoderIsRejected() {
+        mappedAppender.setEncoder(new EncoderBase<>() {
+            @Override
+            public byte[] headerBytes() {
+                return null;
+            }
+
+            @Override
+            public byte[] encode(ILoggingEvent event) {
+                return new byte[] { 1, 0 };
+            }
+
+            @Override
+            public byte[] footerBytes() {
+                return null;
+            }
+        });
+        mappedAppender.start();
+        assertFalse(mappedAppender.isStarted());
+        assertTrue(context.getStatusManager().getCopyOfStatusList().stream()
+                .anyMatch(status -> status.getMessage().contains("only supports text encoders")));
+    }
+
+    @Test
+    public void testStoppedAppenderLeavesNoUnusedSegment() throws IOException {
+        startMappedAppender();
+        mappedAppender.stop();
+        assertEquals(List.of("app.log.1.gz"), fileNames());
+        assertEquals("", readSegments());
+        assertFalse(mappedAppender.isStarted());
+    }
+
+    private static Double gauge(String name) {
+        return CollectorRegistry.defaultRegistry.getSampleValue(name, new String[] {"appender"},
+                new String[] {"mapped-metrics"});
+    }
+
+    private void startMappedAppender() {
+        mappedAppender.start();
+        assertTrue(mappedAppender.isStarted());
+        logbackLogger.addAppender(mappedAppender);
+    }
+
+    /**
+     * Returns the segment file names ordered by index.
+     */
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .sorted(Comparator.comparingLong(TestIgniteMappedFileAppender::index)).toList();
+        }
+    }
+
+    private String readSegments() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String name : fileNames()) {
+            Path segment = directory.resolve(name);
+            try (InputStream in = open(segment)) {
+                content.append(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return content.toString();
+    }
+
+    private static InputStream open(Path segment) throws IOException {
+        String name = segment.getFileName().toString();
+        if (name.endsWith(IgniteGzipCodec.EXTENSION)) {
+            return new GZIPInputStream(Files.newInputStream(segment));
+        }
+        if (name.endsWith(IgniteDeflateCodec.EXTENSION)) {
+            return new InflaterInputStream(Files.newInputStream(segment));
+        }
+        return Files.newInputStream(segment);
+    }
+
+    private static long index(String name) {
+        String index = name.substring("app.log.".length());
+        int end = index.indexOf('.');
+        return Long.parseLong(end < 0 ? index : index.substring(0, end));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for IgniteMessageFormatter and IgniteMessageConverter. Every expectation is checked against
+ * SLF4J's {@link MessageFormatter}.
+ *
+ * @see IgniteMessageFormatter
+ * @see IgniteMessageConverter
+ */
+public class TestIgniteMessageFormatter {
+
+    private static final int NUMBER = 42;
+    private static final int PLACEHOLDERS = 2;
+
+    private static final List<String> FORMATS = Arrays.asList("", "no placeholders", "{}", "{}{}", "{{}}",
+            "a {} b {} c", "a {} b {} c {} d", "escaped \\{} and {}", "double \\\\{} escaped {}", "\\{}",
+            "{} \\{} \\\\{}", "{}\\{}{}", "trailing {} \\{}");
+
+    private static final List<Object[]> ARGUMENTS = Arrays.asList(new Object[0], new Object[] { "x" },
+            new Object[] { "x", NUMBER }, new Object[] { null, "y", Level.INFO },
+            new Object[] { new int[] { 1, NUMBER }, new String[] { "a", "b" } },
+            new Object[] { new Broken(), "z" });
+
+    @Test
+    public void testFormatsLikeSlf4j() {
+        for (String format : FORMATS) {
+            for (int i = 0; i < ARGUMENTS.size(); i++) {
+                Object[] args = ARGUMENTS.get(i);
+                String expected = MessageFormatter.basicArrayFormat(format, args);
+                assertEquals(format + " with arguments " + i, expected,
+                        IgniteMessageFormatter.format(format, args));
+                StringBuilder sb = new StringBuilder("> ");
+                IgniteMessageFormatter.appendTo(sb, format, args);
+                assertEquals("> " + expected, sb.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testNullFormatAndArguments() {
+        assertNull(IgniteMessageFormatter.format(null, new Object[] { "x" }));
+        assertEquals("a {}", IgniteMessageFormatter.format("a {}", null));
+    }
+
+    @Test
+    public void testAppendArgument() {
+        Object[] selfReferencing = new Object[1];
+        selfReferencing[0] = selfReferencing;
+        StringBuilder sb = new StringBuilder();
+        IgniteMessageFormatter.appendArgument(sb, selfReferencing);
+        assertEquals(MessageFormatter.format("{}", selfReferencing).getMessage(), sb.toString());
+        sb.setLength(0);
+        IgniteMessageFormatter.appendArgument(sb, new Broken());
+        assertEquals(IgniteMessageFormatter.FAILED_TO_STRING, sb.toString());
+    }
+
+    @Test
+    public void testPlaceholderCount() {
+        assertEquals(PLACEHOLDERS, IgniteMessageFormatter.placeholderCount("{} \\{} \\\\{}"));
+    }
+
+    @Test
+    public void testConverter() {
+        LoggerContext context = new LoggerContext();
+        IgniteMessageConverter converter = new IgniteMessageConverter();
+        converter.setContext(context);
+        converter.start();
+        Object[] args = { "x", NUMBER, new IllegalStateException("trailing") };
+        LoggingEvent event = new LoggingEvent(TestIgniteMessageFormatter.class.getName(),
+                context.getLogger(TestIgniteMessageFormatter.class), Level.INFO, "a {} \\{} b {}", null, args);
+        assertEquals(event.getFormattedMessage(), converter.convert(event));
+        LoggingEvent plain = new LoggingEvent(TestIgniteMessageFormatter.class.getName(),
+                context.getLogger(TestIgniteMessageFormatter.class), Level.INFO, "plain {}", null, null);
+        assertEquals("plain {}", converter.convert(plain));
+    }
+
+    /**
+     * Argument whose toString() fails.
+     */
+    private static final class Broken {
+        @Override
+        public String toString() {
+            throw new IllegalStateException("broken");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.prometheus.client.CollectorRegistry;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteRateLimitedLogger.
+ *
+ * @see IgniteRateLimitedLogger
+ */
+public class TestIgniteRateLimitedLogger {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final int SUPPRESSED = 3;
+    private static final double RATE = 2;
+    private static final String KEY = "db-unavailable";
+
+    /**
+     * Extracts the caller data on the logging thread.
+     */
+    @Rule
+    public LogCapture capture = new LogCapture(TestIgniteRateLimitedLogger.class, Level.INFO,
+            e -> IgniteCallerData.extract(e, this.capture.context()));
+
+    private IgniteLoggerImpl igniteLogger;
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestIgniteRateLimitedLogger.class);
+    }
+
+    @Test
+    public void testSuppressesAndSummarizes() {
+        IgniteLogger limited = new IgniteRateLimitedLogger(igniteLogger, TestIgniteRateLimitedLogger.class.getName(),
+                KEY, 1, clock::get);
+        limited.warn("first {}", 1);
+        for (int i = 0; i < SUPPRESSED; i++) {
+            limited.warn("suppressed {}", i);
+        }
+        assertEquals(1, capture.events().size());
+        clock.addAndGet(SECOND);
+        limited.warn("reopened");
+        assertEquals(SUPPRESSED, capture.events().size());
+        ILoggingEvent summary = capture.events().get(1);
+        assertEquals(Level.WARN, summary.getLevel());
+        assertEquals("Suppressed 3 log statements rate limited by key " + KEY, summary.getFormattedMessage());
+        assertEquals("reopened", capture.events().get(SUPPRESSED - 1).getFormattedMessage());
+        assertEquals((double) SUPPRESSED, CollectorRegistry.defaultRegistry.getSampleValue(
+                IgniteRateLimitedLoggerMetrics.SUPPRESSED_STATEMENTS, new String[] { "logger", "key" },
+                new String[] { TestIgniteRateLimitedLogger.class.getName(), KEY }), 0);
+    }
+
+    @Test
+    public void testDisabledLevelsTakeNoPermit() {
+        IgniteLogger limited = new IgniteRateLimitedLogger(igniteLogger, TestIgniteRateLimitedLogger.class.getName(),
+                "disabled", 1, clock::get);
+        limited.debug("disabled");
+        limited.info("enabled");
+        limited.info("suppressed");
+        assertEquals(1, capture.events().size());
+        assertEquals("enabled", capture.events().get(0).getFormattedMessage());
+    }
+
+    @Test
+    public void testCallerDataSkipsTheView() {
+        igniteLogger.limited("caller", RATE).error("with caller");
+        assertEquals(TestIgniteRateLimitedLogger.class.getName(),
+                capture.events().get(0).getCallerData()[0].getClassName());
+    }
+
+    @Test
+    public void testViewsAreKeptPerKey() {
+        IgniteLogger limited = igniteLogger.limited(KEY, RATE);
+        assertSame(limited, igniteLogger.limited(KEY, 1));
+        assertSame(limited, limited.limited(KEY, RATE));
+        assertNotSame(limited, igniteLogger.limited("other", RATE));
+        assertEquals(RATE, ((IgniteRateLimitedLogger) limited).getPermitsPerSecond(), 0);
+    }
+
+    @Test
+    public void testKeysBeyondTheLimitShareOneView() {
+        IgniteLoggerImpl keyedLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(ManyKeys.class);
+        for (int i = 0; i < IgniteLoggerImpl.MAX_RATE_LIMIT_KEYS; i++) {
+            keyedLogger.limited("key-" + i, RATE);
+        }
+        IgniteRateLimitedLogger overflow = (IgniteRateLimitedLogger) keyedLogger.limited("one more", RATE);
+        assertEquals(IgniteLoggerImpl.OVERFLOW_KEY, overflow.getKey());
+        assertEquals(IgniteLoggerImpl.OVERFLOW_PERMITS_PER_SECOND, overflow.getPermitsPerSecond(), 0);
+        assertSame(overflow, keyedLogger.limited("and another", 1));
+    }
+
+    @Test
+    public void testOverflowKeyIsNotTheOverflowView() {
+        IgniteLoggerImpl keyedLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(OverflowKey.class);
+        IgniteLogger named = keyedLogger.limited(IgniteLoggerImpl.OVERFLOW_KEY, RATE);
+        for (int i = 0; i < IgniteLoggerImpl.MAX_RATE_LIMIT_KEYS; i++) {
+            keyedLogger.limited("key-" + i, RATE);
+        }
+        assertSame(named, keyedLogger.limited(IgniteLoggerImpl.OVERFLOW_KEY, RATE));
+        assertNotSame(named, keyedLogger.limited("one more", RATE));
+    }
+
+    @Test
+    public void testUnsampledStatementsTakeNoPermit() {
+        IgniteLogger limited = new IgniteRateLimitedLogger(igniteLogger, TestIgniteRateLimitedLogger.class.getName(),
+                "unsampled", 1, clock::get);
+        IgniteEventImpl event = new IgniteEventImpl();
+        event.setVehicleId("VIN-1");
+        igniteLogger.setSamplingRate(0);
+        try {
+            for (int i = 0; i < SUPPRESSED; i++) {
+                limited.info(event, "unsampled {}", i);
+            }
+        } finally {
+            igniteLogger.setSamplingRate(1);
+        }
+        limited.info(event, "sampled");
+        assertEquals(1, capture.events().size());
+        assertTrue(capture.events().get(0).getFormattedMessage().endsWith("sampled"));
+    }
+
+    /**
+     * Class whose logger is given more rate limit keys than it keeps.
+     */
+    private static final class ManyKeys {
+    }
+
+    /**
+     * Class whose logger is given a rate limit key named like the overflow view.
+     */
+    private static final class OverflowKey {
+    }
+}
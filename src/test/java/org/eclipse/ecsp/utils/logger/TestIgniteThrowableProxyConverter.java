@@ -0,0 +1,263 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.CoreConstants;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgniteThrowableProxyConverter. The expected renderings are golden files under
+ * {@code golden/throwable}, captured from the original converter implementation.
+ *
+ * @see IgniteThrowableProxyConverter
+ */
+public class TestIgniteThrowableProxyConverter {
+
+    private static final String GOLDEN_DIRECTORY = "/golden/throwable/";
+    private static final List<String> IGNORED_FRAMEWORK_FRAMES = Arrays.asList("org.springframework.aop",
+            "jdk.internal.reflect", "java.lang.reflect", "org.apache.kafka.streams.processor.internals.ProcessorNode");
+
+    private static final int CACHE_LIMIT = 2;
+
+    private LoggerContext context;
+
+    /**
+     * Setup method.
+     */
+    @Before
+    public void setup() {
+        context = new LoggerContext();
+    }
+
+    @Test
+    public void testCauseChain() throws IOException {
+        assertGolden("cause-chain", ThrowableFixtures.streamProcessingFailure("Invalid speed"));
+    }
+
+    @Test
+    public void testSuppressed() throws IOException {
+        assertGolden("suppressed", ThrowableFixtures.withSuppressed());
+    }
+
+    @Test
+    public void testTabInMessage() throws IOException {
+        assertGolden("tab-message", ThrowableFixtures.withTabInMessage());
+    }
+
+    @Test
+    public void testShortLength() throws IOException {
+        assertGolden("short", ThrowableFixtures.streamProcessingFailure("Invalid speed"), "short");
+    }
+
+    @Test
+    public void testNumericLength() throws IOException {
+        assertGolden("length-5", ThrowableFixtures.streamProcessingFailure("Invalid speed"), "5");
+    }
+
+    @Test
+    public void testIgnoredFrames() throws IOException {
+        assertGolden("ignored", ThrowableFixtures.streamProcessingFailure("Invalid speed"),
+                concat("full", IGNORED_FRAMEWORK_FRAMES));
+    }
+
+    @Test
+    public void testIgnoredFramesWithLength() throws IOException {
+        assertGolden("ignored-length-10", ThrowableFixtures.streamProcessingFailure("Invalid speed"),
+                concat("10", IGNORED_FRAMEWORK_FRAMES));
+    }
+
+    @Test
+    public void testRepeatedRendersAreIdentical() throws IOException {
+        IgniteThrowableProxyConverter converter = converter(concat("full", IGNORED_FRAMEWORK_FRAMES));
+        String expected = golden("ignored");
+        for (int i = 0; i < CoreConstants.MAX_ERROR_COUNT; i++) {
+            assertEquals(expected, converter.convert(event(
+                    ThrowableFixtures.streamProcessingFailure("Invalid speed"))));
+        }
+    }
+
+    @Test
+    public void testCachedBlocksKeepMessages() {
+        IgniteThrowableProxyConverter converter = converter("full");
+        String first = converter.convert(event(ThrowableFixtures.streamProcessingFailure("Invalid speed")));
+        int cached = converter.blockCache.size();
+        String second = converter.convert(event(ThrowableFixtures.streamProcessingFailure("Invalid heading")));
+        assertEquals(cached, converter.blockCache.size());
+        assertEquals(first.replace("Invalid speed", "Invalid heading"), second);
+    }
+
+    @Test
+    public void testCacheDisabledByProperty() throws IOException {
+        System.setProperty(IgniteThrowableProxyConverter.CACHE_SIZE_PROPERTY, "0");
+        try {
+            IgniteThrowableProxyConverter converter = converter("full");
+            assertNull(converter.blockCache);
+            assertEquals(golden("cause-chain"), converter.convert(event(
+                    ThrowableFixtures.streamProcessingFailure("Invalid speed"))));
+        } finally {
+            System.clearProperty(IgniteThrowableProxyConverter.CACHE_SIZE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testCacheEvictsWhenFull() {
+        System.setProperty(IgniteThrowableProxyConverter.CACHE_SIZE_PROPERTY, "2");
+        try {
+            IgniteThrowableProxyConverter converter = converter("full");
+            converter.convert(event(ThrowableFixtures.streamProcessingFailure("Invalid speed")));
+            converter.convert(event(ThrowableFixtures.withSuppressed()));
+            assertTrue(converter.blockCache.size() <= CACHE_LIMIT);
+        } finally {
+            System.clearProperty(IgniteThrowableProxyConverter.CACHE_SIZE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testCacheDisabledForCustomFrameRendering() {
+        IgniteThrowableProxyConverter converter = new IgniteThrowableProxyConverter() {
+            @Override
+            protected void extraData(StringBuilder builder, StackTraceElementProxy step) {
+                builder.append(" ~");
+            }
+        };
+        converter.setContext(context);
+        converter.start();
+        assertNull(converter.blockCache);
+        assertTrue(converter.convert(event(ThrowableFixtures.withTabInMessage())).contains(" ~"));
+    }
+
+    @Test
+    public void testAppendToMatchesGolden() throws IOException {
+        StringBuilder buf = new StringBuilder("prefix ");
+        converter("full").appendTo(buf, event(ThrowableFixtures.withTabInMessage()));
+        assertEquals("prefix " + golden("tab-message"), buf.toString());
+    }
+
+    @Test
+    public void testWriteToMatchesGoldenBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter(concat("full", IGNORED_FRAMEWORK_FRAMES)).writeTo(
+                event(ThrowableFixtures.streamProcessingFailure("Invalid speed")), out);
+        assertTrue(out.size() > Utf8Writer.CHUNK_SIZE);
+        assertArrayEquals(golden("ignored").getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testWriteToEncodesLikeGetBytes() throws IOException {
+        IgniteThrowableProxyConverter converter = converter("full");
+        for (String message : Arrays.asList("Geschwindigkeit ungültig 🚗",
+                "lone " + Character.MIN_HIGH_SURROGATE + " surrogate")) {
+            LoggingEvent event = event(ThrowableFixtures.streamProcessingFailure(message));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            converter.writeTo(event, out);
+            assertArrayEquals(message, converter.convert(event).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        }
+    }
+
+    @Test
+    public void testTabsOfCustomFrameRenderingReplaced() {
+        IgniteThrowableProxyConverter converter = new IgniteThrowableProxyConverter() {
+            @Override
+            protected void extraData(StringBuilder builder, StackTraceElementProxy step) {
+                builder.append("\t~");
+            }
+        };
+        converter.setContext(context);
+        converter.start();
+        String rendered = converter.convert(event(ThrowableFixtures.withTabInMessage()));
+        assertTrue(rendered.contains(",  ~"));
+        assertFalse(rendered.contains("\t"));
+    }
+
+    @Test
+    public void testNoThrowable() {
+        assertEquals("", converter().convert(event(null)));
+    }
+
+    private void assertGolden(String name, Throwable throwable, String... options) throws IOException {
+        assertEquals(name, golden(name), converter(options).convert(event(throwable)));
+    }
+
+    private IgniteThrowableProxyConverter converter(String... options) {
+        IgniteThrowableProxyConverter converter = new IgniteThrowableProxyConverter();
+        converter.setContext(context);
+        converter.setOptionList(options.length == 0 ? null : Arrays.asList(options));
+        converter.start();
+        return converter;
+    }
+
+    private LoggingEvent event(Throwable throwable) {
+        return new LoggingEvent(TestIgniteThrowableProxyConverter.class.getName(),
+                context.getLogger(TestIgniteThrowableProxyConverter.class), Level.ERROR, "failed", throwable, null);
+    }
+
+    private static String golden(String name) throws IOException {
+        try (InputStream in = TestIgniteThrowableProxyConverter.class
+                .getResourceAsStream(GOLDEN_DIRECTORY + name + ".txt")) {
+            assertNotNull("missing golden file " + name, in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\n", CoreConstants.LINE_SEPARATOR);
+        }
+    }
+
+    private static String[] concat(String first, List<String> rest) {
+        String[] options = new String[rest.size() + 1];
+        options[0] = first;
+        for (int i = 0; i < rest.size(); i++) {
+            options[i + 1] = rest.get(i);
+        }
+        return options;
+    }
+}
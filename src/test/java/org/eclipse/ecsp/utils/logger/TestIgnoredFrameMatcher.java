@@ -0,0 +1,129 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for IgnoredFrameMatcher. Every expectation is checked against {@link String#contains}
+ * on the rendered line, which is what the converter did before the patterns were compiled.
+ *
+ * @see IgnoredFrameMatcher
+ */
+public class TestIgnoredFrameMatcher {
+
+    private static final int LINE = 42;
+    private static final int OTHER_LINE = 7;
+    private static final int DISTINCT_FRAMES = 2;
+
+    private static final List<String> PATTERNS = Arrays.asList("org.springframework.aop", "org.spring",
+            "java.lang.reflect", "ProcessorNode.java", ":42)", "at jdk.internal", "Ünïcode");
+
+    @Test
+    public void testMatchesLikeContains() {
+        IgnoredFrameMatcher matcher = new IgnoredFrameMatcher(PATTERNS);
+        List<StackTraceElementProxy> steps = Arrays.asList(
+                step("org.springframework.aop.framework.ReflectiveMethodInvocation", "proceed", "R.java", LINE),
+                step("org.springframework.kafka.listener.Container", "run", "C.java", OTHER_LINE),
+                step("java.lang.reflect.Method", "invoke", "Method.java", OTHER_LINE),
+                step("org.apache.kafka.streams.processor.internals.ProcessorNode", "process",
+                        "ProcessorNode.java", OTHER_LINE),
+                step("com.harman.Speed", "validate", "Speed.java", LINE),
+                step("jdk.internal.reflect.NativeMethodAccessorImpl", "invoke0", null, OTHER_LINE),
+                step("com.harman.Ünïcode", "run", "U.java", OTHER_LINE),
+                step("com.harman.Speed", "validate", "Speed.java", OTHER_LINE),
+                step("org.sprin", "g", "S.java", OTHER_LINE));
+        for (StackTraceElementProxy step : steps) {
+            assertEquals(step.toString(), contains(step.toString()), matcher.isIgnored(step));
+        }
+    }
+
+    @Test
+    public void testOverlappingPatterns() {
+        IgnoredFrameMatcher matcher = new IgnoredFrameMatcher(Arrays.asList("abcd", "bcx", "cxy"));
+        assertTrue(matcher.matches("zabcxyz"));
+        assertTrue(matcher.matches("abcabcd"));
+        assertFalse(matcher.matches("abcbcabx"));
+    }
+
+    @Test
+    public void testEmptyPatternMatchesEverything() {
+        IgnoredFrameMatcher matcher = new IgnoredFrameMatcher(Collections.singletonList(""));
+        assertTrue(matcher.isIgnored(step("com.harman.Speed", "validate", "Speed.java", LINE)));
+    }
+
+    @Test
+    public void testResultsAreMemoized() {
+        IgnoredFrameMatcher matcher = new IgnoredFrameMatcher(PATTERNS);
+        assertTrue(matcher.isIgnored(step("java.lang.reflect.Method", "invoke", "Method.java", OTHER_LINE)));
+        assertTrue(matcher.isIgnored(step("java.lang.reflect.Method", "invoke", "Method.java", OTHER_LINE)));
+        assertFalse(matcher.isIgnored(step("com.harman.Speed", "validate", "Speed.java", OTHER_LINE)));
+        assertEquals(DISTINCT_FRAMES, matcher.memoizedFrames());
+    }
+
+    @Test
+    public void testMemoIsBounded() {
+        IgnoredFrameMatcher matcher = new IgnoredFrameMatcher(PATTERNS);
+        for (int i = 0; i <= IgnoredFrameMatcher.MAX_MEMOIZED_FRAMES; i++) {
+            matcher.isIgnored(step("com.harman.Speed", "validate", "Speed.java", i));
+        }
+        assertTrue(matcher.memoizedFrames() <= IgnoredFrameMatcher.MAX_MEMOIZED_FRAMES);
+        assertTrue(matcher.isIgnored(step("com.harman.Speed", "validate", "Speed.java", LINE)));
+    }
+
+    private static boolean contains(String line) {
+        for (String pattern : PATTERNS) {
+            if (line.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StackTraceElementProxy step(String className, String method, String file, int line) {
+        return new StackTraceElementProxy(new StackTraceElement(className, method, file, line));
+    }
+}
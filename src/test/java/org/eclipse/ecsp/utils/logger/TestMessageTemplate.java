@@ -0,0 +1,173 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for MessageTemplate.
+ *
+ * @see MessageTemplate
+ */
+public class TestMessageTemplate {
+
+    private static final Pattern CURLY_BRACES = Pattern.compile("\\{\\}");
+    private static final int DELIMITERS = 3;
+    private static final int ESCAPED_POSITION = 4;
+    private static final int DOUBLE_ESCAPED_POSITION = 9;
+
+    private static final String[] FORMATS = { "", "no placeholders", "{}", "{}{}", "{{}}", "a {} b {} c",
+        "escaped \\{} and {}", "double \\\\{} escaped", "\\{}", "{", "}{", "{} \\{} \\\\{}" };
+
+    @Test
+    public void testDelimitersCountedLikeRegex() {
+        for (String format : FORMATS) {
+            Matcher m = CURLY_BRACES.matcher(format);
+            int count = 0;
+            while (m.find()) {
+                count++;
+            }
+            assertEquals(format, count, MessageTemplate.parse(format).delimiterCount());
+        }
+    }
+
+    @Test
+    public void testDelimiterKinds() {
+        MessageTemplate template = MessageTemplate.parse("{} \\{} \\\\{}");
+        assertEquals(DELIMITERS, template.delimiterCount());
+        assertEquals(DELIMITERS - 1, template.placeholderCount());
+        assertEquals(0, template.position(0));
+        assertEquals(MessageTemplate.PLACEHOLDER, template.kind(0));
+        assertEquals(ESCAPED_POSITION, template.position(1));
+        assertEquals(MessageTemplate.ESCAPED, template.kind(1));
+        assertEquals(DOUBLE_ESCAPED_POSITION, template.position(DELIMITERS - 1));
+        assertEquals(MessageTemplate.DOUBLE_ESCAPED, template.kind(DELIMITERS - 1));
+    }
+
+    @Test
+    public void testAppendFromSkipsLeadingPlaceholders() {
+        String format = "{} ,message:speed {} escaped \\{} of {}";
+        StringBuilder sb = new StringBuilder();
+        MessageTemplate.parse(format).appendFrom(sb, new Object[] { "header", 1, "VIN-1" }, format.indexOf("speed"));
+        assertEquals("speed 1 escaped {} of VIN-1", sb.toString());
+    }
+
+    @Test
+    public void testTemplatesAreCached() {
+        MessageTemplate.clear();
+        String format = "cached {}";
+        MessageTemplate template = MessageTemplate.of(format);
+        assertSame(template, MessageTemplate.of(format));
+        assertSame(template, MessageTemplate.of(new String(format)));
+        assertEquals(1, MessageTemplate.cachedTemplates());
+    }
+
+    @Test
+    public void testCacheIsBoundedAndKeepsHotFormats() {
+        MessageTemplate.clear();
+        String hot = "hot {}";
+        MessageTemplate template = MessageTemplate.of(hot);
+        for (int i = 0; i < MessageTemplate.MAX_CACHED_TEMPLATES * DELIMITERS; i++) {
+            MessageTemplate.of("format " + i + " {}");
+            assertSame(template, MessageTemplate.of(hot));
+        }
+        assertTrue(MessageTemplate.cachedTemplates() <= MessageTemplate.MAX_CACHED_TEMPLATES);
+        String late = "late {}";
+        MessageTemplate lateTemplate = MessageTemplate.of(late);
+        assertSame(lateTemplate, MessageTemplate.of(late));
+        MessageTemplate.clear();
+    }
+
+    @Test
+    public void testFormatsWithoutDelimitersAreNotCached() {
+        MessageTemplate.clear();
+        assertEquals(0, MessageTemplate.of("no placeholders").delimiterCount());
+        assertEquals(0, MessageTemplate.cachedTemplates());
+    }
+
+    @Test
+    public void testEventScopedFormatsAreNotCached() {
+        MessageTemplate.clear();
+        IgniteLoggerFactory.setEventHeaderMode(IgniteEventHeaderMode.PREFIX);
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logbackLogger = context.getLogger(TestMessageTemplate.class);
+        logbackLogger.setLevel(Level.INFO);
+        logbackLogger.setAdditive(false);
+        AppenderBase<ILoggingEvent> formatting = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent e) {
+                IgniteMessageFormatter.format(e.getMessage(), e.getArgumentArray());
+            }
+        };
+        formatting.setContext(context);
+        formatting.start();
+        logbackLogger.addAppender(formatting);
+        try {
+            IgniteLogger igniteLogger = IgniteLoggerImpl.getIgniteLoggerImplInstance(TestMessageTemplate.class);
+            IgniteEventImpl event = new IgniteEventImpl();
+            for (int i = 0; i <= MessageTemplate.MAX_CACHED_TEMPLATES; i++) {
+                event.setRequestId("request-" + i);
+                igniteLogger.info(event, "speed {}", i);
+            }
+            assertEquals(0, MessageTemplate.cachedTemplates());
+            String format = "literal {}";
+            assertSame(MessageTemplate.of(format), MessageTemplate.of(format));
+            assertFalse(LoggerUtils.hasThrowableObject("literal {} {}", new Object[] { 1, "not a throwable" }));
+            assertEquals(1, MessageTemplate.cachedTemplates());
+        } finally {
+            logbackLogger.detachAppender(formatting);
+            logbackLogger.setLevel(null);
+            IgniteLoggerFactory.setEventHeaderMode(null);
+            MessageTemplate.clear();
+        }
+    }
+}
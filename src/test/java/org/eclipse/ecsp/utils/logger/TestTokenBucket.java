@@ -0,0 +1,121 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for TokenBucket.
+ *
+ * @see TokenBucket
+ */
+public class TestTokenBucket {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long START = -SECOND;
+    private static final int PERMITS = 5;
+    private static final double TENTH = 0.1;
+    private static final int THREADS = 4;
+    private static final int ATTEMPTS = 10_000;
+
+    @Test
+    public void testBurstOfOneSecond() {
+        TokenBucket bucket = new TokenBucket(PERMITS, START);
+        for (int i = 0; i < PERMITS; i++) {
+            assertTrue(bucket.tryAcquire(START));
+        }
+        assertFalse(bucket.tryAcquire(START));
+        assertFalse(bucket.tryAcquire(START + SECOND / PERMITS - 1));
+        assertTrue(bucket.tryAcquire(START + SECOND / PERMITS));
+        assertFalse(bucket.tryAcquire(START + SECOND / PERMITS));
+    }
+
+    @Test
+    public void testRefillsUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(PERMITS, START);
+        long later = START + PERMITS * SECOND;
+        for (int i = 0; i < PERMITS; i++) {
+            assertTrue(bucket.tryAcquire(later));
+        }
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    public void testFractionalRate() {
+        TokenBucket bucket = new TokenBucket(TENTH, START);
+        assertTrue(bucket.tryAcquire(START));
+        assertFalse(bucket.tryAcquire(START + SECOND));
+        assertTrue(bucket.tryAcquire(START + (long) (SECOND / TENTH)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroRate() {
+        new TokenBucket(0, START);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNaN() {
+        new TokenBucket(Double.NaN, START);
+    }
+
+    @Test
+    public void testConcurrentPermits() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(PERMITS, START);
+        AtomicInteger granted = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < ATTEMPTS; i++) {
+                    if (bucket.tryAcquire(START)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(PERMITS, granted.get());
+    }
+}
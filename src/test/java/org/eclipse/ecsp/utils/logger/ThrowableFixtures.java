@@ -0,0 +1,182 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.utils.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throwables with deterministic stack traces shaped like the ones of a Spring Kafka Streams service,
+ * shared by the stack trace converter tests and benchmarks.
+ */
+public final class ThrowableFixtures {
+
+    /**
+     * Processor nodes a record passes through before it reaches the failing processor.
+     */
+    private static final int PROCESSOR_HOPS = 12;
+
+    /**
+     * Processor nodes of the shallow traces.
+     */
+    private static final int SHALLOW_HOPS = 2;
+
+    private static final int BASE_LINE = 100;
+
+    private ThrowableFixtures() {
+    }
+
+    /**
+     * Returns a three level cause chain, about 150 frames deep, whose causes share their outer frames
+     * with the exception that wraps them.
+     *
+     * @param message the message of the outermost exception
+     * @return the throwable
+     */
+    public static Throwable streamProcessingFailure(String message) {
+        List<StackTraceElement> thread = streamThreadFrames();
+        List<StackTraceElement> processing = new ArrayList<>(thread);
+        processing.addAll(0, processorFrames(PROCESSOR_HOPS));
+
+        List<StackTraceElement> service = new ArrayList<>(processing);
+        service.addAll(0, springProxyFrames("org.eclipse.ecsp.service.VehicleSpeedService", "updateSpeed"));
+
+        List<StackTraceElement> repository = new ArrayList<>(service);
+        repository.addAll(0, springProxyFrames("org.eclipse.ecsp.dao.VehicleSpeedDao", "save"));
+        repository.add(0, frame("com.mongodb.internal.connection.InternalStreamConnection", "receiveMessage", 1));
+
+        Throwable root = withStack(new IllegalStateException("Timed out after 30000 ms while waiting for a server"),
+                repository);
+        Throwable dao = withStack(new RuntimeException("Failed to persist speed for vehicle-1", root), service);
+        return withStack(new IllegalArgumentException(message, dao), processing);
+    }
+
+    /**
+     * Returns a shallow exception carrying two suppressed exceptions, one of them with a cause.
+     *
+     * @return the throwable
+     */
+    public static Throwable withSuppressed() {
+        Throwable primary = withStack(new IllegalStateException("close failed"), streamThreadFrames());
+        Throwable first = withStack(new RuntimeException("producer close failed"), processorFrames(SHALLOW_HOPS));
+        Throwable cause = withStack(new IllegalArgumentException("bad state"), processorFrames(1));
+        Throwable second = withStack(new RuntimeException("consumer close failed", cause), processorFrames(1));
+        primary.addSuppressed(first);
+        primary.addSuppressed(second);
+        return primary;
+    }
+
+    /**
+     * Returns an exception whose message contains a tab and whose cause has no message.
+     *
+     * @return the throwable
+     */
+    public static Throwable withTabInMessage() {
+        Throwable cause = withStack(new NullPointerException(), processorFrames(1));
+        return withStack(new IllegalStateException("column\tvalue", cause), processorFrames(SHALLOW_HOPS));
+    }
+
+    private static Throwable withStack(Throwable throwable, List<StackTraceElement> frames) {
+        throwable.setStackTrace(frames.toArray(new StackTraceElement[0]));
+        return throwable;
+    }
+
+    private static List<StackTraceElement> streamThreadFrames() {
+        return frames(
+                "org.apache.kafka.streams.processor.internals.StreamTask#process",
+                "org.apache.kafka.streams.processor.internals.TaskExecutor#processTask",
+                "org.apache.kafka.streams.processor.internals.TaskExecutor#process",
+                "org.apache.kafka.streams.processor.internals.TaskManager#process",
+                "org.apache.kafka.streams.processor.internals.StreamThread#runOnceWithoutProcessingThreads",
+                "org.apache.kafka.streams.processor.internals.StreamThread#runLoop",
+                "org.apache.kafka.streams.processor.internals.StreamThread#run");
+    }
+
+    private static List<StackTraceElement> processorFrames(int hops) {
+        List<StackTraceElement> frames = new ArrayList<>();
+        for (int i = 0; i < hops; i++) {
+            frames.add(frame("org.eclipse.ecsp.stream.processor.Processor" + i, "process", i));
+            frames.add(frame("org.apache.kafka.streams.processor.internals.ProcessorAdapter", "process", i));
+            frames.add(frame("org.apache.kafka.streams.processor.internals.ProcessorNode", "process", i));
+            frames.add(frame("org.apache.kafka.streams.processor.internals.ProcessorContextImpl", "forwardInternal",
+                    i));
+            frames.add(frame("org.apache.kafka.streams.processor.internals.ProcessorContextImpl", "forward", i));
+        }
+        frames.add(frame("org.apache.kafka.streams.processor.internals.SourceNode", "process", 1));
+        return frames;
+    }
+
+    private static List<StackTraceElement> springProxyFrames(String targetClass, String method) {
+        return frames(
+                targetClass + "#" + method,
+                "jdk.internal.reflect.DirectMethodHandleAccessor#invoke",
+                "java.lang.reflect.Method#invoke",
+                "org.springframework.aop.support.AopUtils#invokeJoinpointUsingReflection",
+                "org.springframework.aop.framework.ReflectiveMethodInvocation#invokeJoinpoint",
+                "org.springframework.aop.framework.ReflectiveMethodInvocation#proceed",
+                "org.springframework.aop.framework.CglibAopProxy$CglibMethodInvocation#proceed",
+                "org.springframework.transaction.interceptor.TransactionAspectSupport#invokeWithinTransaction",
+                "org.springframework.transaction.interceptor.TransactionInterceptor#invoke",
+                "org.springframework.aop.framework.ReflectiveMethodInvocation#proceed",
+                "org.springframework.aop.framework.CglibAopProxy$CglibMethodInvocation#proceed",
+                "org.springframework.aop.interceptor.ExposeInvocationInterceptor#invoke",
+                "org.springframework.aop.framework.ReflectiveMethodInvocation#proceed",
+                "org.springframework.aop.framework.CglibAopProxy$CglibMethodInvocation#proceed",
+                "org.springframework.aop.framework.CglibAopProxy$DynamicAdvisedInterceptor#intercept",
+                targetClass + "$$SpringCGLIB$$0#" + method);
+    }
+
+    /**
+     * Builds frames from {@code class#method} entries, numbering their lines in order.
+     */
+    private static List<StackTraceElement> frames(String... classAndMethods) {
+        List<StackTraceElement> frames = new ArrayList<>();
+        for (String classAndMethod : classAndMethods) {
+            int separator = classAndMethod.indexOf('#');
+            frames.add(frame(classAndMethod.substring(0, separator), classAndMethod.substring(separator + 1),
+                    frames.size() + 1));
+        }
+        return frames;
+    }
+
+    private static StackTraceElement frame(String className, String method, int line) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        String file = (nested < 0 ? simpleName : simpleName.substring(0, nested)) + ".java";
+        return new StackTraceElement(className, method, file, BASE_LINE + line);
+    }
+}